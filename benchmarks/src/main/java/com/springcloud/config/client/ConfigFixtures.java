@@ -0,0 +1,65 @@
+package com.springcloud.config.client;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * 基准测试使用的配置数据
+ */
+public final class ConfigFixtures {
+
+    private static final String[] REGIONS = {"cn-north", "cn-east", "cn-south", "us-west", "eu-central", "off"};
+
+    private ConfigFixtures() {
+    }
+
+    /**
+     * 生成keys个形如 module.N.setting = value-N-revision 的配置项
+     */
+    public static Map<String, Object> config(int keys, int revision) {
+        Map<String, Object> config = new LinkedHashMap<>(keys * 2);
+        for (int i = 0; i < keys; i++) {
+            config.put(key(i), value(i, revision));
+        }
+        return config;
+    }
+
+    /**
+     * 生成keys个开关类配置：布尔、整数与少量重复取值的字符串各占约三分之一
+     */
+    public static Map<String, Object> flags(int keys, int revision) {
+        Map<String, Object> flags = new LinkedHashMap<>(keys * 2);
+        for (int i = 0; i < keys; i++) {
+            String key = "feature." + key(i);
+            switch (i % 3) {
+                case 0:
+                    flags.put(key, (i + revision) % 2 == 0);
+                    break;
+                case 1:
+                    flags.put(key, 1000 + i % 500 + revision);
+                    break;
+                default:
+                    flags.put(key, new String(REGIONS[(i + revision) % REGIONS.length]));
+                    break;
+            }
+        }
+        return flags;
+    }
+
+    public static String key(int i) {
+        return "module" + (i % 97) + ".component" + (i % 13) + ".setting" + i;
+    }
+
+    public static String value(int i, int revision) {
+        return "value-" + i + "-" + revision;
+    }
+
+    /**
+     * 复制配置，值为内容相同的新字符串，与反序列化得到的数据一致
+     */
+    public static Map<String, Object> copy(Map<String, Object> config) {
+        Map<String, Object> copy = new LinkedHashMap<>(config.size() * 2);
+        config.forEach((key, value) -> copy.put(new String(key), value instanceof String ? new String((String) value) : value));
+        return copy;
+    }
+}
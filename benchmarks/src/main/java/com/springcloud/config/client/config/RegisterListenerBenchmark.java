@@ -0,0 +1,139 @@
+package com.springcloud.config.client.config;
+
+import com.springcloud.config.client.ConfigFixtures;
+import com.springcloud.config.client.constant.Constant;
+import com.springcloud.config.client.listener.Listener;
+import com.springcloud.config.client.listener.RefreshListener;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.cloud.config.client.ConfigClientProperties;
+import org.springframework.context.support.GenericApplicationContext;
+import org.springframework.core.env.CompositePropertySource;
+import org.springframework.core.env.MapPropertySource;
+import org.springframework.core.env.StandardEnvironment;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 启动注册：ApplicationReadyEvent时从bootstrap配置为每个配置文件建立缓存，
+ * 对比逐key复制后紧凑存放与快速启动直接引用bootstrap配置值
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RegisterListenerBenchmark {
+
+    @Param({"1", "10"})
+    private int files;
+
+    @Param({"100", "10000", "100000"})
+    private int keys;
+
+    @Param({"false", "true"})
+    private boolean fastStart;
+
+    private GenericApplicationContext applicationContext;
+
+    private ConfigClientProperties clientProperties;
+
+    private ApplicationReadyEvent readyEvent;
+
+    private RefreshListener refreshListener;
+
+    @Setup
+    public void setup() {
+        StandardEnvironment environment = new StandardEnvironment();
+        CompositePropertySource configService = new CompositePropertySource(Constant.CONFIG_SERVICE);
+        configService.addPropertySource(new MapPropertySource(Constant.CONFIG_CLIENT,
+                Collections.singletonMap(Constant.CONFIG_CLIENT_VERSION, "v1")));
+        for (int i = 0; i < files; i++) {
+            configService.addPropertySource(new MapPropertySource("application-" + i + ".yml", ConfigFixtures.config(keys, 0)));
+        }
+        CompositePropertySource bootstrap = new CompositePropertySource(Constant.BOOTSTRAP_PROPERTIES);
+        bootstrap.addPropertySource(configService);
+        environment.getPropertySources().addFirst(bootstrap);
+
+        applicationContext = new GenericApplicationContext();
+        applicationContext.setEnvironment(environment);
+        clientProperties = new ConfigClientProperties(environment);
+        clientProperties.setName("app");
+        refreshListener = new RefreshListener(applicationContext);
+        readyEvent = new ApplicationReadyEvent(new SpringApplication(), new String[0], applicationContext);
+    }
+
+    /**
+     * 缓存的建立方式与DefaultHandler一致，返回建立的缓存以免被优化掉
+     */
+    @Benchmark
+    public List<ConfigCache> register() {
+        CachingProcessor processor = new CachingProcessor(files);
+        ConfigRefresher refresher = new ConfigRefresher(processor, clientProperties, refreshListener, fastStart);
+        refresher.setApplicationContext(applicationContext);
+        refresher.onApplicationEvent(readyEvent);
+        return processor.caches;
+    }
+
+    private static final class CachingProcessor implements ConfigProcessor {
+
+        private final List<ConfigCache> caches;
+
+        CachingProcessor(int files) {
+            this.caches = new ArrayList<>(files);
+        }
+
+        @Override
+        public void addListener(String appName, String configFileName, String version, Map<String, Object> configValue, Listener listener) {
+            ConfigCache configCache = new ConfigCache(appName, configFileName, ConfigSnapshot.of(version, configValue));
+            configCache.addListener(listener);
+            caches.add(configCache);
+        }
+
+        @Override
+        public void addBootstrapListener(String version, Map<String, Map<String, Object>> sources, Listener listener) {
+            sources.forEach((configFileName, configValue) -> {
+                ConfigCache configCache = new ConfigCache("app", configFileName, ConfigSnapshot.wrap(version, configValue));
+                configCache.addListener(listener);
+                caches.add(configCache);
+            });
+        }
+
+        @Override
+        public void addTarget(ConfigTarget target) {
+        }
+
+        @Override
+        public void addListener(ConfigTarget target, String configFileName, Listener listener) {
+        }
+
+        @Override
+        public void addPrefixListener(String keyPrefix, Listener listener) {
+        }
+
+        @Override
+        public void addPrefixListener(ConfigTarget target, String keyPrefix, Listener listener) {
+        }
+
+        @Override
+        public ConfigSnapshot getSnapshot(ConfigTarget target, String configFileName) {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,56 @@
+package com.springcloud.config.client.config;
+
+import com.springcloud.config.client.ConfigFixtures;
+import org.openjdk.jol.info.GraphLayout;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * 快照内存占用（JOL统计对象图的总大小）：对比原先的HashMap副本与{@link CompactValues}，
+ * 分别统计单个版本与相邻两个版本同时存活时（新旧快照交替期间）的占用
+ * <p>
+ * 用法：java -cp benchmarks/target/benchmarks.jar com.springcloud.config.client.config.SnapshotFootprint [keys...]
+ */
+public class SnapshotFootprint {
+
+    public static void main(String[] args) {
+        int[] sizes = args.length > 0 ? new int[args.length] : new int[]{1000, 30000};
+        for (int i = 0; i < args.length; i++) {
+            sizes[i] = Integer.parseInt(args[i]);
+        }
+        System.out.printf("%-8s %8s %14s %14s %16s %16s%n", "config", "keys", "hashmap 1v", "compact 1v",
+                "hashmap 2v", "compact 2v");
+        for (int keys : sizes) {
+            print("strings", keys, ConfigFixtures.config(keys, 0), ConfigFixtures.config(keys, 1));
+            print("flags", keys, ConfigFixtures.flags(keys, 0), ConfigFixtures.flags(keys, 1));
+        }
+    }
+
+    private static void print(String name, int keys, Map<String, Object> v0, Map<String, Object> v1) {
+        // 模拟两次反序列化：内容相同的key与值是不同的对象
+        Map<String, Object> hash0 = legacyCopy(ConfigFixtures.copy(v0));
+        Map<String, Object> hash1 = legacyCopy(ConfigFixtures.copy(v1));
+        CompactValues compact0 = CompactValues.of(ConfigFixtures.copy(v0));
+        CompactValues compact1 = CompactValues.of(ConfigFixtures.copy(v1));
+        System.out.printf("%-8s %8d %14s %14s %16s %16s%n", name, keys,
+                kb(GraphLayout.parseInstance(hash0).totalSize()),
+                kb(GraphLayout.parseInstance(compact0).totalSize()),
+                kb(GraphLayout.parseInstance(hash0, hash1).totalSize()),
+                kb(GraphLayout.parseInstance(compact0, compact1).totalSize()));
+    }
+
+    /**
+     * 原先ConfigSnapshot.of的存放方式
+     */
+    private static Map<String, Object> legacyCopy(Map<String, Object> values) {
+        Map<String, Object> copy = new HashMap<>(Math.max(16, values.size() * 4 / 3 + 1));
+        copy.putAll(values);
+        return Collections.unmodifiableMap(copy);
+    }
+
+    private static String kb(long bytes) {
+        return String.format("%.1f KB", bytes / 1024D);
+    }
+}
@@ -0,0 +1,108 @@
+package com.springcloud.config.client.config;
+
+import com.springcloud.config.client.ConfigFixtures;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 按key读取配置值与按target+文件名查找配置缓存
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SnapshotLookupBenchmark {
+
+    private static final int LOOKUPS = 1024;
+
+    @Param({"1000", "30000"})
+    private int keys;
+
+    private Map<String, Object> hashMap;
+
+    private CompactValues compact;
+
+    /**
+     * 调用方持有的key，与快照中的key内容相同但不是同一对象
+     */
+    private String[] lookups;
+
+    private ConcurrentHashMap<String, Object> stringKeyed;
+
+    private ConcurrentHashMap<ConfigKey, Object> compositeKeyed;
+
+    private ConfigTarget[] targets;
+
+    private String[] fileNames;
+
+    private int next;
+
+    @Setup
+    public void setup() {
+        Map<String, Object> flags = ConfigFixtures.flags(keys, 0);
+        hashMap = Collections.unmodifiableMap(new HashMap<>(ConfigFixtures.copy(flags)));
+        compact = CompactValues.of(ConfigFixtures.copy(flags));
+        String[] all = flags.keySet().toArray(new String[0]);
+        Random random = new Random(42);
+        lookups = new String[LOOKUPS];
+        for (int i = 0; i < LOOKUPS; i++) {
+            lookups[i] = new String(all[random.nextInt(all.length)]);
+        }
+
+        stringKeyed = new ConcurrentHashMap<>();
+        compositeKeyed = new ConcurrentHashMap<>();
+        targets = new ConfigTarget[LOOKUPS];
+        fileNames = new String[LOOKUPS];
+        for (int i = 0; i < 64; i++) {
+            ConfigTarget target = new ConfigTarget("app" + (i % 8), "prod", "master");
+            String fileName = "https://git.example.com/config-repo/app" + (i % 8) + "-" + i + ".yml";
+            stringKeyed.put(target + "#" + fileName, i);
+            compositeKeyed.put(new ConfigKey(target, fileName), i);
+        }
+        for (int i = 0; i < LOOKUPS; i++) {
+            int n = random.nextInt(64);
+            targets[i] = new ConfigTarget("app" + (n % 8), "prod", "master");
+            fileNames[i] = "https://git.example.com/config-repo/app" + (n % 8) + "-" + n + ".yml";
+        }
+    }
+
+    @Benchmark
+    public Object hashMapGet() {
+        return hashMap.get(lookups[next++ & (LOOKUPS - 1)]);
+    }
+
+    @Benchmark
+    public Object compactGet() {
+        return compact.get(lookups[next++ & (LOOKUPS - 1)]);
+    }
+
+    @Benchmark
+    public Object stringCacheKey() {
+        int i = next++ & (LOOKUPS - 1);
+        return stringKeyed.get(targets[i] + "#" + fileNames[i]);
+    }
+
+    @Benchmark
+    public Object compositeCacheKey() {
+        int i = next++ & (LOOKUPS - 1);
+        return compositeKeyed.get(new ConfigKey(targets[i], fileNames[i]));
+    }
+}
@@ -0,0 +1,109 @@
+package com.springcloud.config.client.flag;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 功能开关判定：编译后的{@link FeatureFlags}对比每次调用都从配置map读取、解析的做法；
+ * compile为配置更新时的一次整体编译耗时
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class FeatureFlagsBenchmark {
+
+    @Param({"100", "10000"})
+    private int flags;
+
+    private Map<String, Object> config;
+
+    private List<Map<String, Object>> sources;
+
+    private FeatureFlags featureFlags;
+
+    private String[] users;
+
+    private int next;
+
+    @Setup
+    public void setup() {
+        config = new HashMap<>(flags * 8);
+        for (int i = 0; i < flags; i++) {
+            String name = "flags.feature" + i;
+            if (i % 2 == 0) {
+                config.put(name, i % 4 == 0);
+            } else {
+                config.put(name + ".rollout", (i % 100) + "%");
+                config.put(name + ".allow", "user-1,user-2,user-3");
+                config.put(name + ".deny", "user-4");
+            }
+        }
+        sources = Collections.singletonList(config);
+        featureFlags = new FeatureFlags("flags");
+        featureFlags.compile(sources);
+        users = new String[1024];
+        for (int i = 0; i < users.length; i++) {
+            users[i] = "user-" + i;
+        }
+    }
+
+    private String user() {
+        return users[next++ & (users.length - 1)];
+    }
+
+    @Benchmark
+    public boolean booleanFlag() {
+        return featureFlags.isEnabled("feature0");
+    }
+
+    @Benchmark
+    public boolean rolloutFlag() {
+        return featureFlags.isEnabled("feature1", user());
+    }
+
+    /**
+     * 每次调用从配置中读取并解析比例与名单
+     */
+    @Benchmark
+    public boolean rolloutFromConfig() {
+        String user = user();
+        String name = "flags.feature1";
+        List<String> deny = Arrays.asList(String.valueOf(config.get(name + ".deny")).split(","));
+        if (deny.contains(user)) {
+            return false;
+        }
+        List<String> allow = Arrays.asList(String.valueOf(config.get(name + ".allow")).split(","));
+        if (allow.contains(user)) {
+            return true;
+        }
+        String rollout = String.valueOf(config.get(name + ".rollout"));
+        double percent = Double.parseDouble(rollout.substring(0, rollout.length() - 1));
+        return Math.floorMod((name + user).hashCode(), 10000) < percent * 100;
+    }
+
+    @Benchmark
+    public FeatureFlags compile() {
+        FeatureFlags compiled = new FeatureFlags("flags");
+        compiled.compile(sources);
+        return compiled;
+    }
+}
@@ -0,0 +1,68 @@
+package com.springcloud.config.client.listener;
+
+import com.springcloud.config.client.ConfigFixtures;
+import com.springcloud.config.client.config.CompactValues;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 配置差异计算：拉取到新版本且内容摘要变化时对整个配置文件做一次diff
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ConfigChangesBenchmark {
+
+    @Param({"100", "1000", "10000", "50000"})
+    private int keys;
+
+    /**
+     * 变更的key数：0为完全相同，1为单key修改，100为批量修改（不超过keys）
+     */
+    @Param({"0", "1", "100"})
+    private int changedKeys;
+
+    /**
+     * HASH_MAP：HashMap存放，按key哈希查找比较；COMPACT：{@link CompactValues}存放，按key顺序归并比较
+     */
+    @Param({"HASH_MAP", "COMPACT"})
+    private String storage;
+
+    private Map<String, Object> before;
+
+    private Map<String, Object> after;
+
+    @Setup
+    public void setup() {
+        before = ConfigFixtures.config(keys, 0);
+        after = ConfigFixtures.copy(before);
+        for (int i = 0; i < Math.min(changedKeys, keys); i++) {
+            int index = (int) ((long) i * keys / Math.min(changedKeys, keys));
+            after.put(ConfigFixtures.key(index), ConfigFixtures.value(index, 1));
+        }
+        if ("COMPACT".equals(storage)) {
+            before = CompactValues.of(before);
+            after = CompactValues.of(after);
+        }
+    }
+
+    @Benchmark
+    public Map<String, ConfigChange> diff() {
+        return ConfigChanges.diff(before, after);
+    }
+}
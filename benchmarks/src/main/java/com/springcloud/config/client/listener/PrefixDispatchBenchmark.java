@@ -0,0 +1,93 @@
+package com.springcloud.config.client.listener;
+
+import com.springcloud.config.client.ConfigFixtures;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 按key前缀查找受影响的订阅方：TRIE为{@link KeyPrefixIndex}，只沿变更的key查找；
+ * SCAN为每个订阅方逐个检查变更的key（文件级监听器在回调里自行过滤的做法）
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PrefixDispatchBenchmark {
+
+    @Param({"100", "1000", "10000"})
+    private int subscriptions;
+
+    @Param({"1", "100"})
+    private int changedKeys;
+
+    @Param({"TRIE", "SCAN"})
+    private String index;
+
+    private KeyPrefixIndex<Integer> trie;
+
+    private String[] prefixes;
+
+    private List<String> keys;
+
+    @Setup
+    public void setup() {
+        trie = new KeyPrefixIndex<>();
+        prefixes = new String[subscriptions];
+        for (int i = 0; i < subscriptions; i++) {
+            // 模块级、组件级与单个key的订阅混合
+            String key = ConfigFixtures.key(i);
+            switch (i % 3) {
+                case 0:
+                    prefixes[i] = key.substring(0, key.indexOf('.'));
+                    break;
+                case 1:
+                    prefixes[i] = key.substring(0, key.lastIndexOf('.'));
+                    break;
+                default:
+                    prefixes[i] = key;
+                    break;
+            }
+            trie.add(prefixes[i], i);
+        }
+        keys = new ArrayList<>(changedKeys);
+        for (int i = 0; i < changedKeys; i++) {
+            keys.add(ConfigFixtures.key(i * 7919 % 50000));
+        }
+    }
+
+    @Benchmark
+    public Map<Integer, Integer> match() {
+        Map<Integer, Integer> matched = new HashMap<>();
+        if ("TRIE".equals(index)) {
+            trie.match(keys, (subscriber, key) -> matched.merge(subscriber, 1, Integer::sum));
+            return matched;
+        }
+        for (int i = 0; i < prefixes.length; i++) {
+            String prefix = prefixes[i];
+            for (String key : keys) {
+                if (key.startsWith(prefix) && (key.length() == prefix.length() || key.charAt(prefix.length()) == '.'
+                        || key.charAt(prefix.length()) == '[')) {
+                    matched.merge(i, 1, Integer::sum);
+                }
+            }
+        }
+        return matched;
+    }
+}
@@ -0,0 +1,244 @@
+package com.springcloud.config.client.listener;
+
+import com.springcloud.config.client.constant.Constant;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.Banner;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.autoconfigure.context.PropertyPlaceholderAutoConfiguration;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.cloud.autoconfigure.ConfigurationPropertiesRebinderAutoConfiguration;
+import org.springframework.cloud.autoconfigure.RefreshAutoConfiguration;
+import org.springframework.cloud.context.config.annotation.RefreshScope;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Import;
+import org.springframework.core.env.CompositePropertySource;
+import org.springframework.core.env.MapPropertySource;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 单个key变更后的刷新耗时：CONTEXT发布RefreshEvent完整刷新（重新bootstrap、重新绑定全部@ConfigurationProperties、
+ * 销毁全部refresh scope bean）；TARGETED为{@link TargetedRefreshListener}。每次刷新后访问全部bean，计入重新创建的开销。
+ * 完整刷新在实际环境中还要再向config server拉取一次，这里没有计入
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class RefreshBenchmark {
+
+    private static final String FILE = "benchmark.yml";
+
+    private static final int SETTINGS = 250;
+
+    @Param({"CONTEXT", "TARGETED"})
+    private String mode;
+
+    private ConfigurableApplicationContext context;
+
+    private Map<String, Object> values;
+
+    private RefreshListener listener;
+
+    private int revision;
+
+    @Setup
+    public void setup() {
+        values = new LinkedHashMap<>();
+        for (int module = 0; module < 8; module++) {
+            for (int i = 0; i < SETTINGS; i++) {
+                values.put("module" + module + ".settings.s" + i, "value-" + i);
+            }
+        }
+        CompositePropertySource configService = new CompositePropertySource(Constant.CONFIG_SERVICE);
+        configService.addPropertySource(new MapPropertySource(FILE, values));
+        CompositePropertySource bootstrap = new CompositePropertySource(Constant.BOOTSTRAP_PROPERTIES);
+        bootstrap.addPropertySource(configService);
+
+        Map<String, Object> defaults = new HashMap<>();
+        defaults.put("spring.cloud.config.enabled", "false");
+        defaults.put("logging.level.root", "WARN");
+        context = new SpringApplicationBuilder(BenchmarkApplication.class)
+                .web(WebApplicationType.NONE)
+                .bannerMode(Banner.Mode.OFF)
+                .properties(defaults)
+                .initializers(it -> it.getEnvironment().getPropertySources().addFirst(bootstrap))
+                .run();
+        if ("TARGETED".equals(mode)) {
+            TargetedRefreshListener targeted = new TargetedRefreshListener(context);
+            targeted.setApplicationContext(context);
+            listener = targeted;
+        } else {
+            listener = new RefreshListener(context);
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public int refresh() {
+        String key = "module0.settings.s7";
+        Object oldValue = values.get(key);
+        String newValue = "value-7-" + (++revision);
+        // 完整刷新重新读取上下文中的配置，这里直接修改；定向刷新由监听器按变更替换
+        values.put(key, newValue);
+        List<ConfigChangeEvent> events = Collections.singletonList(new ConfigChangeEvent("benchmark", FILE, "v" + revision,
+                Collections.singletonMap(key, new ConfigChange(key, oldValue, newValue, ChangeType.MODIFIED))));
+        listener.executeEvents(events);
+        return touch();
+    }
+
+    private int touch() {
+        int hash = 0;
+        for (Settings settings : context.getBeansOfType(Settings.class).values()) {
+            hash += settings.getSettings().size();
+        }
+        for (Worker worker : context.getBeansOfType(Worker.class).values()) {
+            hash += worker.getValue().length();
+        }
+        return hash;
+    }
+
+    /**
+     * 打包后的spring.factories中EnableAutoConfiguration会互相覆盖，显式引入刷新相关的自动配置
+     */
+    @Configuration
+    @Import({PropertyPlaceholderAutoConfiguration.class, RefreshAutoConfiguration.class,
+            ConfigurationPropertiesRebinderAutoConfiguration.class})
+    @EnableConfigurationProperties({Module0.class, Module1.class, Module2.class, Module3.class,
+            Module4.class, Module5.class, Module6.class, Module7.class})
+    public static class BenchmarkApplication {
+
+        @Bean
+        @RefreshScope
+        public Worker worker0(@Value("${module0.settings.s7}") String value) {
+            return new Worker(value);
+        }
+
+        @Bean
+        @RefreshScope
+        public Worker worker1(@Value("${module1.settings.s7}") String value) {
+            return new Worker(value);
+        }
+
+        @Bean
+        @RefreshScope
+        public Worker worker2(@Value("${module2.settings.s7}") String value) {
+            return new Worker(value);
+        }
+
+        @Bean
+        @RefreshScope
+        public Worker worker3(@Value("${module3.settings.s7}") String value) {
+            return new Worker(value);
+        }
+
+        @Bean
+        @RefreshScope
+        public Worker worker4(@Value("${module4.settings.s7}") String value) {
+            return new Worker(value);
+        }
+
+        @Bean
+        @RefreshScope
+        public Worker worker5(@Value("${module5.settings.s7}") String value) {
+            return new Worker(value);
+        }
+
+        @Bean
+        @RefreshScope
+        public Worker worker6(@Value("${module6.settings.s7}") String value) {
+            return new Worker(value);
+        }
+
+        @Bean
+        @RefreshScope
+        public Worker worker7(@Value("${module7.settings.s7}") String value) {
+            return new Worker(value);
+        }
+    }
+
+    public static class Worker {
+
+        private final String value;
+
+        public Worker(String value) {
+            this.value = value;
+        }
+
+        public String getValue() {
+            return value;
+        }
+    }
+
+    public static class Settings {
+
+        private Map<String, String> settings = new HashMap<>();
+
+        public Map<String, String> getSettings() {
+            return settings;
+        }
+
+        public void setSettings(Map<String, String> settings) {
+            this.settings = settings;
+        }
+    }
+
+    @ConfigurationProperties("module0")
+    public static class Module0 extends Settings {
+    }
+
+    @ConfigurationProperties("module1")
+    public static class Module1 extends Settings {
+    }
+
+    @ConfigurationProperties("module2")
+    public static class Module2 extends Settings {
+    }
+
+    @ConfigurationProperties("module3")
+    public static class Module3 extends Settings {
+    }
+
+    @ConfigurationProperties("module4")
+    public static class Module4 extends Settings {
+    }
+
+    @ConfigurationProperties("module5")
+    public static class Module5 extends Settings {
+    }
+
+    @ConfigurationProperties("module6")
+    public static class Module6 extends Settings {
+    }
+
+    @ConfigurationProperties("module7")
+    public static class Module7 extends Settings {
+    }
+}
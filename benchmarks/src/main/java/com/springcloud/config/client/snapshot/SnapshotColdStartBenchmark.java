@@ -0,0 +1,84 @@
+package com.springcloud.config.client.snapshot;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.springcloud.config.client.ConfigFixtures;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.cloud.config.environment.Environment;
+import org.springframework.cloud.config.environment.PropertySource;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 冷启动：从本地快照文件加载配置，对比解析config server返回的同等内容的JSON（不含网络耗时）
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SnapshotColdStartBenchmark {
+
+    private static final int FILES = 4;
+
+    @Param({"1000", "30000"})
+    private int keys;
+
+    private Path dir;
+
+    private SnapshotStore store;
+
+    private ObjectMapper mapper;
+
+    private byte[] json;
+
+    @Setup
+    public void setup() throws IOException {
+        dir = Files.createTempDirectory("snapshot-cold-start");
+        store = SnapshotStore.of(dir.toString(), "app", "prod", "master");
+        Environment environment = new Environment("app", new String[]{"prod"}, "master", "v1", null);
+        List<LocalSnapshot.Source> sources = new ArrayList<>(FILES);
+        for (int i = 0; i < FILES; i++) {
+            Map<String, Object> values = ConfigFixtures.flags(keys / FILES, i);
+            String name = "app-" + i + ".yml";
+            environment.add(new PropertySource(name, values));
+            sources.add(new LocalSnapshot.Source(name, "v1", values));
+        }
+        store.save(new LocalSnapshot("app", "prod", "master", "v1", System.currentTimeMillis(), sources));
+        mapper = new ObjectMapper();
+        json = mapper.writeValueAsBytes(environment);
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        Files.deleteIfExists(store.getFile());
+        Files.deleteIfExists(dir);
+    }
+
+    @Benchmark
+    public LocalSnapshot loadSnapshot() {
+        return store.load();
+    }
+
+    @Benchmark
+    public Environment parseResponse() throws IOException {
+        return mapper.readValue(json, Environment.class);
+    }
+}
@@ -0,0 +1,28 @@
+package com.springcloud.config.client.worker;
+
+/**
+ * 仿真使用的进程内config server
+ */
+interface ConfigServerHarness {
+
+    /**
+     * 随提交变化的配置文件中唯一的key，值为提交序号，第n次提交后为n
+     */
+    String REVISION_KEY = "revision";
+
+    String uri();
+
+    /**
+     * 随提交变化的配置文件在响应中的名称
+     */
+    String fileName();
+
+    /**
+     * 提交一次配置变更
+     *
+     * @return 提交后的版本号
+     */
+    String commit() throws Exception;
+
+    void stop();
+}
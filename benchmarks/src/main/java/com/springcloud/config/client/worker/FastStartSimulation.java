@@ -0,0 +1,126 @@
+package com.springcloud.config.client.worker;
+
+import com.springcloud.config.client.config.ConfigRefresher;
+import com.springcloud.config.client.config.DefaultConfigProcessor;
+import com.springcloud.config.client.configuration.DynamicConfigProperties;
+import com.springcloud.config.client.constant.Constant;
+import com.springcloud.config.client.listener.RefreshListener;
+import com.springcloud.config.client.metrics.ConfigMetrics;
+import com.springcloud.config.client.transport.ConfigHttpTransport;
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.cloud.config.client.ConfigClientProperties;
+import org.springframework.cloud.config.environment.Environment;
+import org.springframework.cloud.config.environment.PropertySource;
+import org.springframework.context.support.GenericApplicationContext;
+import org.springframework.core.env.CompositePropertySource;
+import org.springframework.core.env.MapPropertySource;
+import org.springframework.core.env.StandardEnvironment;
+
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 启动耗时：bootstrap已拉取到配置后，从ApplicationReadyEvent注册到首次拉取结束的耗时与下载字节数，
+ * 对比逐key复制后全量拉取比较与快速启动（直接引用bootstrap配置值、首次拉取只检查版本）
+ * <p>
+ * 用法：java -cp benchmarks/target/benchmarks.jar com.springcloud.config.client.worker.FastStartSimulation [files] [keys]
+ */
+public class FastStartSimulation {
+
+    private static final int ROUNDS = 10;
+
+    public static void main(String[] args) throws Exception {
+        int files = args.length > 0 ? Integer.parseInt(args[0]) : 20;
+        int keys = args.length > 1 ? Integer.parseInt(args[1]) : 5000;
+        StubConfigServer server = new StubConfigServer(files, keys);
+        System.out.printf("files=%d, keys per file=%d, median of %d rounds%n", files, keys, ROUNDS);
+        System.out.printf("%-10s %14s %16s %14s %18s%n", "mode", "register ms", "first poll ms", "total ms", "first poll bytes");
+        for (boolean fastStart : new boolean[]{false, true}) {
+            // 第一轮预热
+            run(server, fastStart);
+            long[][] results = new long[ROUNDS][];
+            for (int i = 0; i < ROUNDS; i++) {
+                results[i] = run(server, fastStart);
+            }
+            System.out.printf("%-10s %14.1f %16.1f %14.1f %18d%n", fastStart ? "fast" : "default",
+                    median(results, 0) / 1e6, median(results, 1) / 1e6, (median(results, 0) + median(results, 1)) / 1e6,
+                    median(results, 2));
+        }
+        server.stop();
+        System.exit(0);
+    }
+
+    /**
+     * @return [注册耗时ns, 首次拉取耗时ns, 首次拉取下载字节数]
+     */
+    private static long[] run(StubConfigServer server, boolean fastStart) throws Exception {
+        ConfigClientProperties clientProperties = new ConfigClientProperties(new StandardEnvironment());
+        clientProperties.setName(StubConfigServer.APP_NAME);
+        clientProperties.setProfile("default");
+        clientProperties.setLabel(null);
+        clientProperties.setUri(new String[]{server.uri()});
+        DynamicConfigProperties dynamicProperties = new DynamicConfigProperties();
+        // 首次拉取在注册后由本线程直接执行，不经过调度器
+        dynamicProperties.setInitialDelay(TimeUnit.HOURS.toMillis(1));
+        dynamicProperties.setFastStart(fastStart);
+
+        AtomicLong bytes = new AtomicLong();
+        ConfigMetrics metrics = new ConfigMetrics() {
+            @Override
+            public void recordResponseBytes(String uri, long count) {
+                bytes.addAndGet(count);
+            }
+        };
+        ConfigHttpTransport transport = new ConfigHttpTransport(clientProperties, dynamicProperties, metrics);
+        GenericApplicationContext applicationContext = bootstrap(transport, server.uri());
+        long bootstrapBytes = bytes.get();
+
+        long start = System.nanoTime();
+        DefaultHandler handler = new DefaultHandler(transport.getRestTemplate(), clientProperties, dynamicProperties,
+                null, metrics);
+        ConfigRefresher refresher = new ConfigRefresher(new DefaultConfigProcessor(handler), clientProperties,
+                new RefreshListener(applicationContext), fastStart);
+        refresher.setApplicationContext(applicationContext);
+        refresher.onApplicationEvent(new ApplicationReadyEvent(new SpringApplication(), new String[0], applicationContext));
+        long registered = System.nanoTime();
+        handler.pollOnce();
+        long done = System.nanoTime();
+        handler.destroy();
+        transport.close();
+        return new long[]{registered - start, done - registered, bytes.get() - bootstrapBytes};
+    }
+
+    /**
+     * 按ConfigServicePropertySourceLocator的方式拉取并组装bootstrapProperties，不计入耗时
+     */
+    private static GenericApplicationContext bootstrap(ConfigHttpTransport transport, String uri) {
+        Environment result = transport.getRestTemplate().getForObject(uri + "/{name}/{profile}", Environment.class,
+                StubConfigServer.APP_NAME, "default");
+        CompositePropertySource configService = new CompositePropertySource(Constant.CONFIG_SERVICE);
+        for (PropertySource source : Objects.requireNonNull(result).getPropertySources()) {
+            @SuppressWarnings("unchecked")
+            Map<String, Object> values = (Map<String, Object>) source.getSource();
+            configService.addPropertySource(new MapPropertySource(source.getName(), new LinkedHashMap<>(values)));
+        }
+        configService.addFirstPropertySource(new MapPropertySource(Constant.CONFIG_CLIENT,
+                Collections.singletonMap(Constant.CONFIG_CLIENT_VERSION, result.getVersion())));
+        CompositePropertySource bootstrap = new CompositePropertySource(Constant.BOOTSTRAP_PROPERTIES);
+        bootstrap.addPropertySource(configService);
+        StandardEnvironment environment = new StandardEnvironment();
+        environment.getPropertySources().addFirst(bootstrap);
+        GenericApplicationContext applicationContext = new GenericApplicationContext();
+        applicationContext.setEnvironment(environment);
+        return applicationContext;
+    }
+
+    private static long median(long[][] results, int column) {
+        long[] values = new long[results.length];
+        for (int i = 0; i < results.length; i++) {
+            values[i] = results[i][column];
+        }
+        Arrays.sort(values);
+        return values[values.length / 2];
+    }
+}
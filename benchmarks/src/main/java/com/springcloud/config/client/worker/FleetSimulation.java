@@ -0,0 +1,307 @@
+package com.springcloud.config.client.worker;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.springcloud.config.client.configuration.DynamicConfigProperties;
+import com.springcloud.config.client.listener.ConfigChange;
+import com.springcloud.config.client.listener.ConfigChangeEvent;
+import com.springcloud.config.client.listener.Listener;
+import com.springcloud.config.client.metrics.ConfigMetrics;
+import com.springcloud.config.client.transport.ConfigHttpTransport;
+import org.springframework.cloud.config.client.ConfigClientProperties;
+import org.springframework.cloud.config.environment.Environment;
+import org.springframework.cloud.config.environment.PropertySource;
+import org.springframework.core.env.StandardEnvironment;
+
+import java.io.File;
+import java.lang.management.ManagementFactory;
+import java.util.*;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 机群仿真：一个JVM内启动大量DefaultHandler连接同一个进程内config server（stub，或本地git仓库上的真实config server），
+ * 在测量窗口内均匀提交若干次，统计服务端每秒请求数与响应字节数、提交到监听器回调的传播延迟分位数，
+ * 以及客户端线程每次拉取请求的CPU时间与分配字节数。结果可输出为JSON，并与之前的结果对比做回归检查，超出容忍度时以非0退出
+ * <p>
+ * 用法：java -cp benchmarks/target/benchmarks.jar com.springcloud.config.client.worker.FleetSimulation [key=value...]
+ * <ul>
+ * <li>clients：客户端数，默认1000</li>
+ * <li>duration：测量窗口（秒），默认60</li>
+ * <li>commits：窗口内的提交次数，默认10</li>
+ * <li>poll-interval：拉取间隔（毫秒），默认5000</li>
+ * <li>mode：poll（全量拉取）、delta（增量拉取）、sources（按配置文件拉取）或push（SSE推送），默认poll</li>
+ * <li>server：stub或git，默认stub</li>
+ * <li>files、keys：不变配置文件数与每个文件的key数，默认0、100；git时合并为一个application.yml</li>
+ * <li>out：结果JSON的输出路径</li>
+ * <li>baseline、tolerance：作为基线的结果JSON与容忍的增长比例（默认0.2）</li>
+ * </ul>
+ */
+public class FleetSimulation {
+
+    private static final String THREAD_PREFIX = "cloud-config-";
+
+    private static final long DRAIN = 30000L;
+
+    /**
+     * 与基线对比的指标，均为越小越好
+     */
+    private static final String[] REGRESSION_METRICS = {"bytesPerPoll", "latencyP99Ms", "cpuMicrosPerPoll", "allocBytesPerPoll"};
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> options = new HashMap<>();
+        for (String arg : args) {
+            int index = arg.indexOf('=');
+            if (index <= 0) {
+                throw new IllegalArgumentException("expect key=value: " + arg);
+            }
+            options.put(arg.substring(0, index), arg.substring(index + 1));
+        }
+        int clients = Integer.parseInt(options.getOrDefault("clients", "1000"));
+        long duration = Long.parseLong(options.getOrDefault("duration", "60")) * 1000L;
+        int commits = Integer.parseInt(options.getOrDefault("commits", "10"));
+        long pollInterval = Long.parseLong(options.getOrDefault("poll-interval", "5000"));
+        String mode = options.getOrDefault("mode", "poll");
+        String serverType = options.getOrDefault("server", "stub");
+        int files = Integer.parseInt(options.getOrDefault("files", "0"));
+        int keys = Integer.parseInt(options.getOrDefault("keys", "100"));
+
+        ConfigServerHarness server = "git".equals(serverType) ? new GitConfigServer(Math.max(1, files) * keys)
+                : new StubConfigServer(files, keys);
+        System.out.printf("server=%s, mode=%s, clients=%d, poll-interval=%dms, duration=%ds, commits=%d, files=%d, keys=%d%n",
+                serverType, mode, clients, pollInterval, duration / 1000, commits, files, keys);
+
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("server", serverType);
+        result.put("mode", mode);
+        result.put("clients", clients);
+        result.put("pollIntervalMs", pollInterval);
+        result.put("durationSeconds", duration / 1000);
+        result.put("commits", commits);
+        result.put("files", files);
+        result.put("keys", keys);
+        run(server, clients, duration, commits, pollInterval, mode, result);
+
+        result.forEach((name, value) -> System.out.printf("%-22s %s%n", name, value));
+        ObjectMapper mapper = new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT);
+        if (options.containsKey("out")) {
+            mapper.writeValue(new File(options.get("out")), result);
+        }
+        int status = 0;
+        if (options.containsKey("baseline")) {
+            @SuppressWarnings("unchecked")
+            Map<String, Object> baseline = mapper.readValue(new File(options.get("baseline")), Map.class);
+            status = compare(baseline, result, Double.parseDouble(options.getOrDefault("tolerance", "0.2")));
+        }
+        System.exit(status);
+    }
+
+    private static void run(ConfigServerHarness server, int clients, long duration, int commits,
+                            long pollInterval, String mode, Map<String, Object> result) throws Exception {
+        ConfigClientProperties clientProperties = new ConfigClientProperties(new StandardEnvironment());
+        clientProperties.setName(StubConfigServer.APP_NAME);
+        clientProperties.setProfile("default");
+        clientProperties.setLabel(null);
+        clientProperties.setUri(new String[]{server.uri()});
+        DynamicConfigProperties dynamicProperties = new DynamicConfigProperties();
+        dynamicProperties.setInitialDelay(0L);
+        dynamicProperties.setPollInterval(pollInterval);
+        if ("delta".equals(mode)) {
+            dynamicProperties.setFetchMode(DynamicConfigProperties.FetchMode.DELTA);
+        } else if ("sources".equals(mode)) {
+            dynamicProperties.setFetchMode(DynamicConfigProperties.FetchMode.SOURCES);
+        } else if ("push".equals(mode)) {
+            dynamicProperties.getPush().setEnabled(true);
+        } else if (!"poll".equals(mode)) {
+            throw new IllegalArgumentException("unknown mode: " + mode);
+        }
+        // 所有客户端共用一个连接池，推送连接各自独占
+        dynamicProperties.getTransport().setMaxConnections(clients);
+        dynamicProperties.getTransport().setMaxConnectionsPerRoute(clients);
+
+        LongAdder requests = new LongAdder();
+        LongAdder bytes = new LongAdder();
+        ConfigMetrics metrics = new ConfigMetrics() {
+            @Override
+            public void recordRequest(String uri, String label, String status, long nanos) {
+                requests.increment();
+            }
+
+            @Override
+            public void recordResponseBytes(String uri, long count) {
+                bytes.add(count);
+            }
+        };
+        ConfigHttpTransport transport = new ConfigHttpTransport(clientProperties, dynamicProperties, metrics);
+
+        // 按配置值中的提交序号统计，两次拉取之间有多次提交时只会看到最新版本，之前的提交也算送达
+        long[] committedAt = new long[commits + 1];
+        AtomicIntegerArray seen = new AtomicIntegerArray(clients);
+        long[] latencies = new long[clients * commits];
+        AtomicInteger delivered = new AtomicInteger();
+
+        // 按bootstrap的方式以当前配置注册，首次拉取不视为变更
+        Environment bootstrap = Objects.requireNonNull(transport.getRestTemplate().getForObject(
+                server.uri() + "/{name}/{profile}", Environment.class, StubConfigServer.APP_NAME, "default"));
+        List<DefaultHandler> handlers = new ArrayList<>(clients);
+        for (int i = 0; i < clients; i++) {
+            int client = i;
+            Listener listener = new Listener() {
+                @Override
+                public void executeEvent() {
+                }
+
+                @Override
+                public void executeEvent(ConfigChangeEvent changeEvent) {
+                    ConfigChange change = changeEvent.getChange(ConfigServerHarness.REVISION_KEY);
+                    if (change == null || change.getNewValue() == null) {
+                        return;
+                    }
+                    int revision = Math.min(commits, Integer.parseInt(change.getNewValue().toString()));
+                    long now = System.currentTimeMillis();
+                    int previous = seen.getAndAccumulate(client, revision, Math::max);
+                    for (int j = previous + 1; j <= revision; j++) {
+                        latencies[delivered.getAndIncrement()] = now - committedAt[j];
+                    }
+                }
+
+                @Override
+                public Executor getExecutor() {
+                    return Runnable::run;
+                }
+            };
+            DefaultHandler handler = new DefaultHandler(transport.getRestTemplate(), clientProperties, dynamicProperties,
+                    null, metrics);
+            for (PropertySource source : bootstrap.getPropertySources()) {
+                @SuppressWarnings("unchecked")
+                Map<String, Object> values = (Map<String, Object>) source.getSource();
+                handler.addListeners(StubConfigServer.APP_NAME, source.getName(), bootstrap.getVersion(), values,
+                        source.getName().equals(server.fileName()) ? Collections.singletonList(listener) : Collections.emptyList());
+            }
+            handlers.add(handler);
+        }
+        // 首次拉取在一个拉取间隔内分散，等全部客户端完成首次拉取、推送连接建立
+        Thread.sleep((long) (pollInterval * (1 + dynamicProperties.getJitter())) + 2000L);
+
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        Map<Long, long[]> usageBefore = threadUsage(threads);
+        long requestsBefore = requests.sum();
+        long bytesBefore = bytes.sum();
+        long start = System.currentTimeMillis();
+        for (int i = 1; i <= commits; i++) {
+            long at = start + duration * i / (commits + 1);
+            Thread.sleep(Math.max(0L, at - System.currentTimeMillis()));
+            // 推送可能先于commit返回送达
+            committedAt[i] = System.currentTimeMillis();
+            server.commit();
+        }
+        Thread.sleep(Math.max(0L, start + duration - System.currentTimeMillis()));
+        double seconds = (System.currentTimeMillis() - start) / 1000D;
+        long windowRequests = requests.sum() - requestsBefore;
+        long windowBytes = bytes.sum() - bytesBefore;
+        long[] usage = usageSince(threads, usageBefore);
+        // 最后一次提交之后留出传播时间，不计入请求数；服务端过载时最多再等DRAIN
+        long deadline = System.currentTimeMillis() + (long) (pollInterval * (1 + dynamicProperties.getJitter())) + 2000L;
+        while (System.currentTimeMillis() < deadline + DRAIN && delivered.get() < latencies.length) {
+            Thread.sleep(100L);
+        }
+
+        long[] sorted = Arrays.copyOf(latencies, Math.min(delivered.get(), latencies.length));
+        Arrays.sort(sorted);
+        long polls = Math.max(1L, windowRequests);
+        result.put("requestsPerSecond", round(windowRequests / seconds));
+        result.put("bytesPerSecond", round(windowBytes / seconds));
+        result.put("bytesPerPoll", windowBytes / polls);
+        result.put("delivered", sorted.length + "/" + (long) clients * commits);
+        result.put("latencyP50Ms", percentile(sorted, 0.5));
+        result.put("latencyP99Ms", percentile(sorted, 0.99));
+        result.put("latencyMaxMs", sorted.length == 0 ? -1 : sorted[sorted.length - 1]);
+        result.put("cpuMicrosPerPoll", round(usage[0] / 1000D / polls));
+        result.put("allocBytesPerPoll", usage[1] / polls);
+
+        // 先关闭服务端断开推送连接，否则断开连接要等到读超时
+        server.stop();
+        for (DefaultHandler handler : handlers) {
+            handler.destroy();
+        }
+        transport.close();
+    }
+
+    /**
+     * 客户端各线程（拉取、推送、通知）的[CPU时间ns, 分配字节数]
+     */
+    private static Map<Long, long[]> threadUsage(com.sun.management.ThreadMXBean threads) {
+        Map<Long, long[]> usage = new HashMap<>();
+        for (Thread thread : Thread.getAllStackTraces().keySet()) {
+            if (thread.getName().startsWith(THREAD_PREFIX)) {
+                long id = thread.getId();
+                usage.put(id, new long[]{threads.getThreadCpuTime(id), threads.getThreadAllocatedBytes(id)});
+            }
+        }
+        return usage;
+    }
+
+    /**
+     * 窗口内新建的线程从0计起，窗口内已结束的线程不计入
+     */
+    private static long[] usageSince(com.sun.management.ThreadMXBean threads, Map<Long, long[]> before) {
+        long[] total = new long[2];
+        threadUsage(threads).forEach((id, now) -> {
+            long[] then = before.getOrDefault(id, new long[2]);
+            for (int i = 0; i < total.length; i++) {
+                if (now[i] >= 0 && then[i] >= 0) {
+                    total[i] += now[i] - then[i];
+                }
+            }
+        });
+        return total;
+    }
+
+    private static long percentile(long[] sorted, double percentile) {
+        if (sorted.length == 0) {
+            return -1;
+        }
+        return sorted[Math.min(sorted.length - 1, (int) Math.ceil(sorted.length * percentile) - 1)];
+    }
+
+    private static double round(double value) {
+        return Math.round(value * 10) / 10D;
+    }
+
+    /**
+     * @return 有指标超出容忍度或送达数减少时返回1
+     */
+    private static int compare(Map<String, Object> baseline, Map<String, Object> result, double tolerance) {
+        int status = 0;
+        System.out.printf("%n%-22s %14s %14s %10s%n", "metric", "baseline", "current", "change");
+        for (String metric : REGRESSION_METRICS) {
+            if (!(baseline.get(metric) instanceof Number)) {
+                continue;
+            }
+            double before = ((Number) baseline.get(metric)).doubleValue();
+            double now = ((Number) result.get(metric)).doubleValue();
+            boolean regressed = before > 0 && now > before * (1 + tolerance);
+            System.out.printf("%-22s %14.1f %14.1f %9.1f%% %s%n", metric, before, now,
+                    before > 0 ? (now - before) * 100 / before : 0D, regressed ? "REGRESSED" : "");
+            if (regressed) {
+                status = 1;
+            }
+        }
+        if (deliveredRatio(result.get("delivered")) < deliveredRatio(baseline.get("delivered"))) {
+            System.out.printf("delivered %s, baseline %s REGRESSED%n", result.get("delivered"), baseline.get("delivered"));
+            status = 1;
+        }
+        return status;
+    }
+
+    private static double deliveredRatio(Object delivered) {
+        if (delivered == null) {
+            return 0D;
+        }
+        String[] parts = delivered.toString().split("/");
+        double expected = Double.parseDouble(parts[1]);
+        return expected == 0 ? 1D : Double.parseDouble(parts[0]) / expected;
+    }
+}
@@ -0,0 +1,128 @@
+package com.springcloud.config.client.worker;
+
+import com.springcloud.config.server.configuration.DeltaServerAutoConfiguration;
+import com.springcloud.config.server.configuration.PushServerAutoConfiguration;
+import org.eclipse.jgit.api.Git;
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.autoconfigure.ImportAutoConfiguration;
+import org.springframework.boot.autoconfigure.context.PropertyPlaceholderAutoConfiguration;
+import org.springframework.boot.autoconfigure.http.HttpMessageConvertersAutoConfiguration;
+import org.springframework.boot.autoconfigure.jackson.JacksonAutoConfiguration;
+import org.springframework.boot.autoconfigure.task.TaskExecutionAutoConfiguration;
+import org.springframework.boot.autoconfigure.web.servlet.DispatcherServletAutoConfiguration;
+import org.springframework.boot.autoconfigure.web.servlet.ServletWebServerFactoryAutoConfiguration;
+import org.springframework.boot.autoconfigure.web.servlet.WebMvcAutoConfiguration;
+import org.springframework.boot.web.servlet.context.ServletWebServerApplicationContext;
+import org.springframework.cloud.config.server.EnableConfigServer;
+import org.springframework.cloud.config.server.config.ConfigServerAutoConfiguration;
+import org.springframework.context.annotation.Configuration;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * 进程内的真实config server：以本地临时git仓库为后端，带增量拉取与SSE推送端点。
+ * {name}.yml随提交变化，application.yml为不变的大配置文件；每次提交都是一次git commit，版本号为commit id
+ */
+class GitConfigServer implements ConfigServerHarness {
+
+    private final Path repository;
+
+    private final Git git;
+
+    private final Path clone;
+
+    private final ServletWebServerApplicationContext context;
+
+    private final String fileName;
+
+    private int revision;
+
+    /**
+     * @param keys application.yml的key数
+     */
+    GitConfigServer(int keys) throws Exception {
+        repository = Files.createTempDirectory("fleet-config-repo");
+        git = Git.init().setDirectory(repository.toFile()).call();
+        clone = Files.createTempDirectory("fleet-config-clone");
+        StringBuilder yaml = new StringBuilder();
+        for (int j = 0; j < keys; j++) {
+            yaml.append("app.module").append(j % 64).append(".key").append(j).append(": value-").append(j).append('\n');
+        }
+        write("application.yml", yaml.toString());
+        commit();
+
+        Map<String, Object> properties = new HashMap<>();
+        properties.put("server.port", 0);
+        properties.put("spring.main.banner-mode", "off");
+        properties.put("spring.cloud.bootstrap.enabled", false);
+        properties.put("spring.cloud.config.enabled", false);
+        // file:开头的仓库直接在原目录上checkout，与提交相互干扰；以本地路径作为uri时才clone到basedir
+        properties.put("spring.cloud.config.server.git.uri", repository.toString());
+        properties.put("spring.cloud.config.server.git.basedir", clone.toString());
+        properties.put("spring.cloud.config.server.push.watch-interval", 200L);
+        SpringApplication application = new SpringApplication(ServerConfiguration.class);
+        application.setWebApplicationType(WebApplicationType.SERVLET);
+        application.setDefaultProperties(properties);
+        context = (ServletWebServerApplicationContext) application.run();
+        // 与config server拼接的名称一致：{uri}/{file}
+        fileName = repository + "/" + StubConfigServer.APP_NAME + ".yml";
+    }
+
+    @Override
+    public String uri() {
+        return "http://127.0.0.1:" + context.getWebServer().getPort();
+    }
+
+    @Override
+    public String fileName() {
+        return fileName;
+    }
+
+    @Override
+    public synchronized String commit() throws Exception {
+        write(StubConfigServer.APP_NAME + ".yml", REVISION_KEY + ": " + revision + "\n");
+        git.add().addFilepattern(".").call();
+        return git.commit().setMessage("revision " + revision++).call().getName();
+    }
+
+    private void write(String file, String content) throws IOException {
+        Files.write(repository.resolve(file), content.getBytes(StandardCharsets.UTF_8));
+    }
+
+    @Override
+    public void stop() {
+        context.close();
+        git.close();
+        delete(repository.toFile());
+        delete(clone.toFile());
+    }
+
+    private static void delete(File file) {
+        File[] children = file.listFiles();
+        if (children != null) {
+            for (File child : children) {
+                delete(child);
+            }
+        }
+        file.delete();
+    }
+
+    /**
+     * 打包后的spring.factories相互覆盖，逐个引入所需的自动配置
+     */
+    @Configuration
+    @EnableConfigServer
+    @ImportAutoConfiguration({PropertyPlaceholderAutoConfiguration.class, ServletWebServerFactoryAutoConfiguration.class,
+            DispatcherServletAutoConfiguration.class, WebMvcAutoConfiguration.class, TaskExecutionAutoConfiguration.class,
+            HttpMessageConvertersAutoConfiguration.class, JacksonAutoConfiguration.class, ConfigServerAutoConfiguration.class,
+            DeltaServerAutoConfiguration.class, PushServerAutoConfiguration.class})
+    static class ServerConfiguration {
+    }
+}
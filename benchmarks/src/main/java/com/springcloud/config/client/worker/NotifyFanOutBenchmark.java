@@ -0,0 +1,101 @@
+package com.springcloud.config.client.worker;
+
+import com.springcloud.config.client.ConfigFixtures;
+import com.springcloud.config.client.config.ConfigCache;
+import com.springcloud.config.client.config.ConfigSnapshot;
+import com.springcloud.config.client.configuration.DynamicConfigProperties;
+import com.springcloud.config.client.listener.ChangeType;
+import com.springcloud.config.client.listener.ConfigChange;
+import com.springcloud.config.client.listener.ConfigChangeEvent;
+import com.springcloud.config.client.listener.Listener;
+import com.springcloud.config.client.metrics.ConfigMetrics;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.Collections;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 变更通知扇出：拉取线程上合并变更并投递给配置文件的全部监听器
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class NotifyFanOutBenchmark {
+
+    @Param({"1", "100", "1000"})
+    private int listeners;
+
+    /**
+     * INLINE：监听器自带同步executor，测量完整回调；POOLED：交给回调线程池，只测量拉取线程上的投递开销
+     */
+    @Param({"INLINE", "POOLED"})
+    private String mode;
+
+    private ListenerDispatcher dispatcher;
+
+    private ChangeCoalescer coalescer;
+
+    private ConfigCache configCache;
+
+    private ConfigChangeEvent changeEvent;
+
+    @Setup(Level.Trial)
+    public void setup(Blackhole blackhole) {
+        DynamicConfigProperties.Dispatch dispatch = new DynamicConfigProperties.Dispatch();
+        dispatch.setQueueCapacity(listeners);
+        dispatcher = new ListenerDispatcher(dispatch, ConfigMetrics.NOOP);
+        coalescer = new ChangeCoalescer(dispatcher, null, 0L);
+
+        configCache = new ConfigCache("app", "application.yml", ConfigSnapshot.of("v1", ConfigFixtures.config(100, 0)));
+        Executor executor = "INLINE".equals(mode) ? Runnable::run : null;
+        for (int i = 0; i < listeners; i++) {
+            configCache.addListener(new Listener() {
+                @Override
+                public void executeEvent() {
+                }
+
+                @Override
+                public void executeEvent(ConfigChangeEvent changeEvent) {
+                    blackhole.consume(changeEvent.getChange("module0.component0.setting0"));
+                }
+
+                @Override
+                public Executor getExecutor() {
+                    return executor;
+                }
+            });
+        }
+
+        String key = ConfigFixtures.key(0);
+        changeEvent = new ConfigChangeEvent("app", "application.yml", "v2", Collections.singletonMap(key,
+                new ConfigChange(key, ConfigFixtures.value(0, 0), ConfigFixtures.value(0, 1), ChangeType.MODIFIED)));
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        dispatcher.shutdown();
+    }
+
+    @Benchmark
+    public void notifyListeners() {
+        coalescer.add(configCache, changeEvent);
+        coalescer.flush();
+    }
+}
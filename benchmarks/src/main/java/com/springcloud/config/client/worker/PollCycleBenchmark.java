@@ -0,0 +1,159 @@
+package com.springcloud.config.client.worker;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.springcloud.config.client.ConfigFixtures;
+import com.springcloud.config.client.configuration.DynamicConfigProperties;
+import com.springcloud.config.client.listener.ConfigChangeEvent;
+import com.springcloud.config.client.listener.Listener;
+import com.springcloud.config.client.metrics.ConfigMetrics;
+import com.springcloud.config.client.transport.ConfigHttpTransport;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.cloud.config.client.ConfigClientProperties;
+import org.springframework.core.env.StandardEnvironment;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 完整拉取周期：HTTP请求、反序列化、摘要、diff与通知，服务端为进程内的stub
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Dsun.net.httpserver.nodelay=true")
+public class PollCycleBenchmark {
+
+    private static final String APP_NAME = "app";
+
+    private static final String FILE_NAME = "application.yml";
+
+    @Param({"100", "10000"})
+    private int keys;
+
+    /**
+     * NOT_MODIFIED：服务端返回304；SAME_VERSION：返回完整配置但版本未变；
+     * NEW_COMMIT：版本变化但该文件内容未变；CHANGED：版本变化且一个key被修改
+     */
+    @Param({"NOT_MODIFIED", "SAME_VERSION", "NEW_COMMIT", "CHANGED"})
+    private String scenario;
+
+    private HttpServer server;
+
+    private ConfigHttpTransport transport;
+
+    private DefaultHandler handler;
+
+    private final AtomicLong revision = new AtomicLong();
+
+    /**
+     * 两份只有一个key不同的配置，版本号拼接在末尾
+     */
+    private byte[][] bodyPrefixes;
+
+    @Setup(Level.Trial)
+    public void setup() throws Exception {
+        ObjectMapper mapper = new ObjectMapper();
+        Map<String, Object> config = ConfigFixtures.config(keys, 0);
+        bodyPrefixes = new byte[2][];
+        for (int i = 0; i < 2; i++) {
+            config.put(ConfigFixtures.key(0), ConfigFixtures.value(0, i));
+            Map<String, Object> source = new LinkedHashMap<>();
+            source.put("name", FILE_NAME);
+            source.put("source", config);
+            String json = "{\"name\":\"" + APP_NAME + "\",\"profiles\":[\"default\"],\"label\":null,\"state\":null,"
+                    + "\"propertySources\":[" + mapper.writeValueAsString(source) + "],\"version\":\"";
+            bodyPrefixes[i] = json.getBytes(StandardCharsets.UTF_8);
+        }
+
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext("/", this::serve);
+        server.start();
+
+        ConfigClientProperties clientProperties = new ConfigClientProperties(new StandardEnvironment());
+        clientProperties.setName(APP_NAME);
+        clientProperties.setProfile("default");
+        clientProperties.setLabel(null);
+        clientProperties.setUri(new String[]{"http://127.0.0.1:" + server.getAddress().getPort()});
+        DynamicConfigProperties dynamicProperties = new DynamicConfigProperties();
+        // 不启动后台拉取，由基准方法驱动
+        dynamicProperties.setInitialDelay(TimeUnit.DAYS.toMillis(1));
+
+        transport = new ConfigHttpTransport(clientProperties, dynamicProperties);
+        handler = new DefaultHandler(transport.getRestTemplate(), clientProperties, dynamicProperties, null, ConfigMetrics.NOOP);
+        handler.addListeners(APP_NAME, FILE_NAME, "v0", ConfigFixtures.config(keys, 0), Collections.singletonList(new Listener() {
+            @Override
+            public void executeEvent() {
+            }
+
+            @Override
+            public void executeEvent(ConfigChangeEvent changeEvent) {
+            }
+
+            @Override
+            public Executor getExecutor() {
+                return Runnable::run;
+            }
+        }));
+        // 首次拉取建立ETag与版本号
+        handler.pollOnce();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        handler.destroy();
+        transport.close();
+        server.stop(0);
+    }
+
+    @Benchmark
+    public boolean poll() throws Exception {
+        return handler.pollOnce();
+    }
+
+    private void serve(HttpExchange exchange) throws IOException {
+        long current = revision.get();
+        String etag = "\"" + current + "\"";
+        if ("NOT_MODIFIED".equals(scenario) && etag.equals(exchange.getRequestHeaders().getFirst("If-None-Match"))) {
+            exchange.getResponseHeaders().set("ETag", etag);
+            exchange.sendResponseHeaders(304, -1);
+            exchange.close();
+            return;
+        }
+        if ("NEW_COMMIT".equals(scenario) || "CHANGED".equals(scenario)) {
+            current = revision.incrementAndGet();
+        }
+        byte[] prefix = bodyPrefixes["CHANGED".equals(scenario) ? (int) (current & 1) : 0];
+        byte[] suffix = ("v" + current + "\"}").getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "application/json");
+        exchange.getResponseHeaders().set("ETag", "\"" + current + "\"");
+        exchange.sendResponseHeaders(200, prefix.length + suffix.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(prefix);
+            out.write(suffix);
+        }
+    }
+}
@@ -0,0 +1,83 @@
+package com.springcloud.config.client.worker;
+
+import com.springcloud.config.client.configuration.DynamicConfigProperties;
+
+import java.util.Arrays;
+import java.util.PriorityQueue;
+import java.util.Random;
+
+/**
+ * 拉取节奏仿真（虚拟时间）：一批实例几乎同时启动，中途config server故障一段时间，
+ * 统计config server每秒收到的请求数，对比有无抖动时的请求峰值
+ * <p>
+ * 用法：java -cp benchmarks/target/benchmarks.jar com.springcloud.config.client.worker.PollHerdSimulation [instances] [jitter...]
+ */
+public class PollHerdSimulation {
+
+    private static final long DURATION = 10 * 60 * 1000L;
+
+    private static final long OUTAGE_START = 3 * 60 * 1000L;
+
+    private static final long OUTAGE_END = 4 * 60 * 1000L;
+
+    /**
+     * 实例在该时间窗口内陆续启动（毫秒）
+     */
+    private static final long ROLLOUT = 2000L;
+
+    private static final long LATENCY = 20L;
+
+    public static void main(String[] args) {
+        int instances = args.length > 0 ? Integer.parseInt(args[0]) : 2000;
+        double[] jitters = args.length > 1
+                ? Arrays.stream(args, 1, args.length).mapToDouble(Double::parseDouble).toArray()
+                : new double[]{0D, 0.2D};
+        System.out.printf("instances=%d, poll-interval=5000ms, outage=[%ds, %ds)%n", instances, OUTAGE_START / 1000, OUTAGE_END / 1000);
+        System.out.printf("%-8s %12s %12s %12s %20s%n", "jitter", "mean req/s", "p99 req/s", "peak req/s", "peak after outage");
+        for (double jitter : jitters) {
+            int[] perSecond = simulate(instances, jitter);
+            int[] steady = Arrays.copyOfRange(perSecond, 60, (int) (OUTAGE_START / 1000));
+            int[] sorted = perSecond.clone();
+            Arrays.sort(sorted);
+            int afterOutage = Arrays.stream(perSecond, (int) (OUTAGE_END / 1000), (int) (OUTAGE_END / 1000) + 120).max().orElse(0);
+            System.out.printf("%-8.2f %12.1f %12d %12d %20d%n", jitter, Arrays.stream(steady).average().orElse(0),
+                    sorted[(int) (sorted.length * 0.99)], sorted[sorted.length - 1], afterOutage);
+        }
+    }
+
+    static int[] simulate(int instances, double jitter) {
+        DynamicConfigProperties properties = new DynamicConfigProperties();
+        properties.setJitter(jitter);
+        Random seeds = new Random(42);
+        PollIntervalPolicy[] policies = new PollIntervalPolicy[instances];
+        int[] failures = new int[instances];
+        // [下次请求时间, 实例编号]
+        PriorityQueue<long[]> queue = new PriorityQueue<>((a, b) -> Long.compare(a[0], b[0]));
+        for (int i = 0; i < instances; i++) {
+            long startAt = (long) (seeds.nextDouble() * ROLLOUT);
+            Random random = new Random(seeds.nextLong());
+            policies[i] = new PollIntervalPolicy(properties.getPollInterval(), properties, true, startAt, random::nextDouble);
+            queue.add(new long[]{startAt + policies[i].initialDelay(properties.getInitialDelay()), i});
+        }
+
+        int[] perSecond = new int[(int) (DURATION / 1000)];
+        while (!queue.isEmpty()) {
+            long[] next = queue.poll();
+            long now = next[0];
+            if (now >= DURATION) {
+                continue;
+            }
+            int i = (int) next[1];
+            perSecond[(int) (now / 1000)]++;
+            long delay;
+            if (now >= OUTAGE_START && now < OUTAGE_END) {
+                delay = policies[i].failureDelay(++failures[i]);
+            } else {
+                failures[i] = 0;
+                delay = policies[i].nextDelay(false, now + LATENCY);
+            }
+            queue.add(new long[]{now + LATENCY + delay, i});
+        }
+        return perSecond;
+    }
+}
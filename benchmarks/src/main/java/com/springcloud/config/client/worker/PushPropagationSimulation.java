@@ -0,0 +1,94 @@
+package com.springcloud.config.client.worker;
+
+import com.springcloud.config.client.configuration.DynamicConfigProperties;
+import com.springcloud.config.client.listener.ConfigChangeEvent;
+import com.springcloud.config.client.listener.Listener;
+import com.springcloud.config.client.metrics.ConfigMetrics;
+import com.springcloud.config.client.transport.ConfigHttpTransport;
+import org.springframework.cloud.config.client.ConfigClientProperties;
+import org.springframework.core.env.StandardEnvironment;
+
+import java.util.*;
+import java.util.concurrent.*;
+
+/**
+ * 变更传播延迟：stub config server提交若干次配置，统计从提交到监听器回调的耗时，
+ * 以及无变更期间服务端收到的拉取请求数，对比纯轮询与SSE推送
+ * <p>
+ * 用法：java -cp benchmarks/target/benchmarks.jar com.springcloud.config.client.worker.PushPropagationSimulation [commits]
+ */
+public class PushPropagationSimulation {
+
+    private static final String APP_NAME = StubConfigServer.APP_NAME;
+
+    private static final long IDLE = 15000L;
+
+    public static void main(String[] args) throws Exception {
+        int commits = args.length > 0 ? Integer.parseInt(args[0]) : 10;
+        System.out.printf("commits=%d, poll-interval=5000ms, idle window=%ds%n", commits, IDLE / 1000);
+        System.out.printf("%-6s %12s %12s %12s %18s%n", "mode", "delivered", "p50 ms", "max ms", "idle polls");
+        for (boolean push : new boolean[]{false, true}) {
+            run(push, commits);
+        }
+        System.exit(0);
+    }
+
+    private static void run(boolean push, int commits) throws Exception {
+        StubConfigServer server = new StubConfigServer();
+        ConfigClientProperties clientProperties = new ConfigClientProperties(new StandardEnvironment());
+        clientProperties.setName(APP_NAME);
+        clientProperties.setProfile("default");
+        clientProperties.setLabel(null);
+        clientProperties.setUri(new String[]{server.uri()});
+        DynamicConfigProperties dynamicProperties = new DynamicConfigProperties();
+        dynamicProperties.setInitialDelay(0L);
+        dynamicProperties.getPush().setEnabled(push);
+
+        Map<String, Long> committedAt = new ConcurrentHashMap<>();
+        List<Long> latencies = Collections.synchronizedList(new ArrayList<>());
+        ConfigHttpTransport transport = new ConfigHttpTransport(clientProperties, dynamicProperties);
+        DefaultHandler handler = new DefaultHandler(transport.getRestTemplate(), clientProperties, dynamicProperties, null,
+                ConfigMetrics.NOOP);
+        handler.addListeners(APP_NAME, StubConfigServer.FILE_NAME, null, Collections.emptyMap(),
+                Collections.singletonList(new Listener() {
+                    @Override
+                    public void executeEvent() {
+                    }
+
+                    @Override
+                    public void executeEvent(ConfigChangeEvent changeEvent) {
+                        Long at = committedAt.get(changeEvent.getCommitVersion());
+                        if (at != null) {
+                            latencies.add(System.currentTimeMillis() - at);
+                        }
+                    }
+
+                    @Override
+                    public Executor getExecutor() {
+                        return Runnable::run;
+                    }
+                }));
+
+        // 等待首次拉取与推送连接建立
+        Thread.sleep(2000L);
+        Random random = new Random(42);
+        for (int i = 0; i < commits; i++) {
+            Thread.sleep(1500L + random.nextInt(1000));
+            String version = server.commit();
+            committedAt.put(version, System.currentTimeMillis());
+        }
+        Thread.sleep(push ? 500L : 7000L);
+        int before = server.polls();
+        Thread.sleep(IDLE);
+        int idlePolls = server.polls() - before;
+
+        List<Long> sorted = new ArrayList<>(latencies);
+        Collections.sort(sorted);
+        System.out.printf("%-6s %12s %12d %12d %18d%n", push ? "push" : "poll", sorted.size() + "/" + commits,
+                sorted.isEmpty() ? -1 : sorted.get(sorted.size() / 2), sorted.isEmpty() ? -1 : sorted.get(sorted.size() - 1),
+                idlePolls);
+        handler.destroy();
+        transport.close();
+        server.stop();
+    }
+}
@@ -0,0 +1,203 @@
+package com.springcloud.config.client.worker;
+
+import com.springcloud.config.client.configuration.DynamicConfigProperties;
+import com.springcloud.config.client.listener.ConfigChangeEvent;
+import com.springcloud.config.client.listener.Listener;
+import com.springcloud.config.client.metrics.ConfigMetrics;
+import com.springcloud.config.client.transport.ConfigHttpTransport;
+import org.springframework.cloud.config.client.ConfigClientProperties;
+import org.springframework.core.env.StandardEnvironment;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 同机共享：启动若干个本地子进程（各自一个DefaultHandler）连接同一个stub config server，
+ * 对比各自拉取与同机共享时服务端的请求数与变更传播延迟；共享模式下再kill掉leader进程，
+ * 统计其他进程接替leader的耗时以及之后的提交是否仍能送达所有存活进程
+ * <p>
+ * 用法：java -cp benchmarks/target/benchmarks.jar com.springcloud.config.client.worker.SharedConfigSimulation [processes]
+ */
+public class SharedConfigSimulation {
+
+    private static final String CHILD = "child";
+
+    private static final long POLL_INTERVAL = 1000L;
+
+    private static final int COMMITS = 5;
+
+    public static void main(String[] args) throws Exception {
+        if (args.length > 0 && CHILD.equals(args[0])) {
+            child(args[1], args[2], Boolean.parseBoolean(args[3]), args[4]);
+            return;
+        }
+        int processes = args.length > 0 ? Integer.parseInt(args[0]) : 8;
+        System.out.printf("processes=%d, poll-interval=%dms, read-interval=100ms, commits=%d%n", processes, POLL_INTERVAL, COMMITS);
+        System.out.printf("%-16s %12s %12s %12s %12s%n", "mode", "delivered", "p50 ms", "max ms", "server req/s");
+        run(processes, false);
+        run(processes, true);
+        System.exit(0);
+    }
+
+    private static void run(int processes, boolean shared) throws Exception {
+        StubConfigServer server = new StubConfigServer();
+        String dir = Files.createTempDirectory("shared-config").toString();
+        Map<String, Long> committedAt = new ConcurrentHashMap<>();
+        Map<String, List<Long>> latencies = new ConcurrentHashMap<>();
+        CountDownLatch ready = new CountDownLatch(processes);
+        List<Process> children = new ArrayList<>(processes);
+        for (int i = 0; i < processes; i++) {
+            children.add(startChild(server.uri(), dir, shared, String.valueOf(i), ready, committedAt, latencies));
+        }
+        // 等待各进程启动、完成首次拉取并选出leader
+        if (!ready.await(120, TimeUnit.SECONDS)) {
+            System.out.printf("only %d/%d processes started%n", processes - ready.getCount(), processes);
+        }
+        Thread.sleep(2000L);
+        report(shared ? "shared" : "independent", server, committedAt, latencies, processes, children.size());
+
+        if (shared) {
+            String leader = leader(server);
+            if (!leader.matches("\\d+")) {
+                throw new IllegalStateException("no leader polled config server");
+            }
+            long killedAt = System.currentTimeMillis();
+            int before = server.polls();
+            children.get(Integer.parseInt(leader)).destroyForcibly().waitFor();
+            // 接替者成为leader后立即拉取一次
+            while (server.polls() == before && System.currentTimeMillis() - killedAt < 10000L) {
+                Thread.sleep(5L);
+            }
+            System.out.printf("killed leader %s, new leader %s took over after %dms%n", leader, leader(server),
+                    System.currentTimeMillis() - killedAt);
+            committedAt.clear();
+            latencies.clear();
+            report("shared failover", server, committedAt, latencies, processes, processes - 1);
+        }
+        for (Process child : children) {
+            child.destroyForcibly();
+        }
+        server.stop();
+    }
+
+    private static void report(String mode, StubConfigServer server, Map<String, Long> committedAt,
+                               Map<String, List<Long>> latencies, int processes, int alive) throws InterruptedException {
+        int before = server.polls();
+        long start = System.currentTimeMillis();
+        Random random = new Random(42);
+        for (int i = 0; i < COMMITS; i++) {
+            Thread.sleep(1000L + random.nextInt(500));
+            String version = server.commit();
+            committedAt.put(version, System.currentTimeMillis());
+        }
+        Thread.sleep(POLL_INTERVAL * 2);
+        double seconds = (System.currentTimeMillis() - start) / 1000D;
+        int requests = server.polls() - before;
+
+        List<Long> sorted = new ArrayList<>();
+        latencies.values().forEach(sorted::addAll);
+        Collections.sort(sorted);
+        System.out.printf("%-16s %12s %12d %12d %12.1f%n", mode, sorted.size() + "/" + COMMITS * alive,
+                sorted.isEmpty() ? -1 : sorted.get(sorted.size() / 2), sorted.isEmpty() ? -1 : sorted.get(sorted.size() - 1),
+                requests / seconds);
+    }
+
+    /**
+     * 最近拉取最多的进程，共享模式下即leader
+     */
+    private static String leader(StubConfigServer server) {
+        Map<String, Integer> snapshot = new HashMap<>();
+        server.clientPolls().forEach((client, polls) -> snapshot.put(client, polls.getAndSet(0)));
+        return snapshot.entrySet().stream().max(Map.Entry.comparingByValue()).map(Map.Entry::getKey).orElse("-");
+    }
+
+    private static Process startChild(String uri, String dir, boolean shared, String id, CountDownLatch ready,
+                                      Map<String, Long> committedAt, Map<String, List<Long>> latencies) throws Exception {
+        String java = System.getProperty("java.home") + File.separator + "bin" + File.separator + "java";
+        Process process = new ProcessBuilder(java, "-Xmx64m", "-cp", System.getProperty("java.class.path"),
+                SharedConfigSimulation.class.getName(), CHILD, uri, dir, String.valueOf(shared), id)
+                .redirectErrorStream(true)
+                .start();
+        Thread reader = new Thread(() -> {
+            try (BufferedReader in = new BufferedReader(new InputStreamReader(process.getInputStream(), StandardCharsets.UTF_8))) {
+                // 两次拉取之间有多次提交时只会看到最新版本，之前的提交也算送达
+                int seen = 0;
+                String line;
+                while ((line = in.readLine()) != null) {
+                    if (line.startsWith("READY ")) {
+                        ready.countDown();
+                    }
+                    // CHANGE {id} v{revision}
+                    if (!line.startsWith("CHANGE ")) {
+                        continue;
+                    }
+                    long now = System.currentTimeMillis();
+                    int revision = Integer.parseInt(line.substring(line.lastIndexOf(' ') + 2));
+                    for (int i = seen + 1; i <= revision; i++) {
+                        Long at = committedAt.get("v" + i);
+                        if (at != null) {
+                            latencies.computeIfAbsent(id, it -> Collections.synchronizedList(new ArrayList<>())).add(now - at);
+                        }
+                    }
+                    seen = Math.max(seen, revision);
+                }
+            } catch (Exception ignored) {
+            }
+        }, "shared-config-child-" + id);
+        reader.setDaemon(true);
+        reader.start();
+        return process;
+    }
+
+    private static void child(String uri, String dir, boolean shared, String id) throws Exception {
+        ConfigClientProperties clientProperties = new ConfigClientProperties(new StandardEnvironment());
+        clientProperties.setName(StubConfigServer.APP_NAME);
+        clientProperties.setProfile("default");
+        clientProperties.setLabel(null);
+        clientProperties.setUri(new String[]{uri});
+        clientProperties.getHeaders().put(StubConfigServer.CLIENT_HEADER, id);
+        DynamicConfigProperties dynamicProperties = new DynamicConfigProperties();
+        dynamicProperties.setInitialDelay(0L);
+        dynamicProperties.setPollInterval(POLL_INTERVAL);
+        dynamicProperties.getShared().setEnabled(shared);
+        dynamicProperties.getShared().setDir(dir);
+        dynamicProperties.getShared().setReadInterval(100L);
+
+        ConfigHttpTransport transport = new ConfigHttpTransport(clientProperties, dynamicProperties);
+        DefaultHandler handler = new DefaultHandler(transport.getRestTemplate(), clientProperties, dynamicProperties, null,
+                ConfigMetrics.NOOP);
+        handler.addListeners(StubConfigServer.APP_NAME, StubConfigServer.FILE_NAME, null, Collections.emptyMap(),
+                Collections.singletonList(new Listener() {
+                    @Override
+                    public void executeEvent() {
+                    }
+
+                    @Override
+                    public void executeEvent(ConfigChangeEvent changeEvent) {
+                        System.out.println("CHANGE " + id + " " + changeEvent.getCommitVersion());
+                        System.out.flush();
+                    }
+
+                    @Override
+                    public Executor getExecutor() {
+                        return Runnable::run;
+                    }
+                }));
+        System.out.println("READY " + id);
+        System.out.flush();
+        // 父进程退出后跟着退出
+        while (System.in.read() >= 0) {
+            Thread.yield();
+        }
+        handler.destroy();
+        System.exit(0);
+    }
+}
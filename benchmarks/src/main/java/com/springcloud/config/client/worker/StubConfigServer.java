@@ -0,0 +1,225 @@
+package com.springcloud.config.client.worker;
+
+import com.springcloud.config.client.thread.NamedThreadFactory;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 进程内的stub config server：/{name}/{profile}返回配置，/push/subscribe以SSE推送每次提交，
+ * /delta/{name}/{profile}?since=只支持版本检查（版本未变化时304，否则404由客户端全量拉取），
+ * /manifest/{name}/{profile}?since=&known=返回配置文件清单，只带未上报摘要的文件内容。
+ * 配置为一个随提交变化的配置文件，外加若干个不变的大配置文件；按请求头{@link #CLIENT_HEADER}分别统计各客户端的拉取次数
+ */
+class StubConfigServer implements ConfigServerHarness {
+
+    static final String APP_NAME = "app";
+
+    static final String FILE_NAME = "application.yml";
+
+    static final String CLIENT_HEADER = "X-Client-Id";
+
+    private final HttpServer server;
+
+    private final AtomicInteger polls = new AtomicInteger();
+
+    private final Map<String, AtomicInteger> clientPolls = new ConcurrentHashMap<>();
+
+    private final List<OutputStream> streams = new CopyOnWriteArrayList<>();
+
+    private final AtomicLong bytes = new AtomicLong();
+
+    /**
+     * 不变的配置文件名与内容，内容已序列化为JSON
+     */
+    private final List<String[]> staticSources = new ArrayList<>();
+
+    private volatile int revision;
+
+    /**
+     * 当前版本的响应体
+     */
+    private volatile byte[] body;
+
+    StubConfigServer() throws IOException {
+        this(0, 0);
+    }
+
+    /**
+     * @param files 额外的不变配置文件数
+     * @param keys  每个不变配置文件的key数
+     */
+    StubConfigServer(int files, int keys) throws IOException {
+        for (int i = 0; i < files; i++) {
+            StringBuilder source = new StringBuilder("{");
+            for (int j = 0; j < keys; j++) {
+                source.append(j == 0 ? "" : ",").append("\"app.module").append(j % 64).append(".key").append(j)
+                        .append("\":\"value-").append(i).append('-').append(j).append('"');
+            }
+            staticSources.add(new String[]{"application-" + i + ".yml", source.append('}').toString()});
+        }
+        body = body(0);
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.setExecutor(Executors.newCachedThreadPool(new NamedThreadFactory("stub-config-server", true)));
+        server.createContext("/", this::serveEnvironment);
+        server.createContext("/delta/", this::serveDelta);
+        server.createContext("/manifest/", this::serveManifest);
+        server.createContext("/push/subscribe", this::subscribe);
+        server.start();
+    }
+
+    @Override
+    public String uri() {
+        return "http://127.0.0.1:" + server.getAddress().getPort();
+    }
+
+    int polls() {
+        return polls.get();
+    }
+
+    /**
+     * 已发送的响应体字节数
+     */
+    long bytes() {
+        return bytes.get();
+    }
+
+    @Override
+    public String fileName() {
+        return FILE_NAME;
+    }
+
+    String version() {
+        return "v" + revision;
+    }
+
+    /**
+     * 各客户端的拉取次数
+     */
+    Map<String, AtomicInteger> clientPolls() {
+        return clientPolls;
+    }
+
+    @Override
+    public synchronized String commit() {
+        revision++;
+        body = body(revision);
+        String version = "v" + revision;
+        byte[] event = ("id: " + revision + "\nevent: change\ndata: {\"application\":\"" + APP_NAME
+                + "\",\"profile\":\"default\",\"label\":\"\",\"version\":\"" + version + "\"}\n\n")
+                .getBytes(StandardCharsets.UTF_8);
+        for (OutputStream stream : streams) {
+            try {
+                stream.write(event);
+                stream.flush();
+            } catch (IOException e) {
+                streams.remove(stream);
+            }
+        }
+        return version;
+    }
+
+    private void serveEnvironment(HttpExchange exchange) throws IOException {
+        polls.incrementAndGet();
+        String client = exchange.getRequestHeaders().getFirst(CLIENT_HEADER);
+        if (client != null) {
+            clientPolls.computeIfAbsent(client, it -> new AtomicInteger()).incrementAndGet();
+        }
+        byte[] body = this.body;
+        bytes.addAndGet(body.length);
+        exchange.getResponseHeaders().set("Content-Type", "application/json");
+        exchange.sendResponseHeaders(200, body.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(body);
+        }
+    }
+
+    private void serveDelta(HttpExchange exchange) throws IOException {
+        polls.incrementAndGet();
+        String query = exchange.getRequestURI().getQuery();
+        boolean unchanged = query != null && query.contains("since=" + version());
+        exchange.sendResponseHeaders(unchanged ? 304 : 404, -1);
+        exchange.close();
+    }
+
+    /**
+     * 摘要：随提交变化的文件为r{revision}，不变的文件为s{序号}
+     */
+    private void serveManifest(HttpExchange exchange) throws IOException {
+        polls.incrementAndGet();
+        Map<String, String> query = new HashMap<>();
+        String rawQuery = exchange.getRequestURI().getRawQuery();
+        for (String param : rawQuery == null ? new String[0] : rawQuery.split("&")) {
+            int index = param.indexOf('=');
+            if (index > 0) {
+                query.put(param.substring(0, index), URLDecoder.decode(param.substring(index + 1), "UTF-8"));
+            }
+        }
+        int revision = this.revision;
+        if (("v" + revision).equals(query.get("since"))) {
+            exchange.sendResponseHeaders(304, -1);
+            exchange.close();
+            return;
+        }
+        Set<String> known = new HashSet<>(Arrays.asList(query.getOrDefault("known", "").split(",")));
+        StringBuilder manifest = new StringBuilder("{\"name\":\"").append(APP_NAME)
+                .append("\",\"profiles\":[\"default\"],\"label\":null,\"state\":null,\"version\":\"v").append(revision)
+                .append("\",\"propertySources\":[");
+        appendManifestSource(manifest, FILE_NAME, "r" + revision, "{\"" + REVISION_KEY + "\":" + revision + "}", known);
+        for (int i = 0; i < staticSources.size(); i++) {
+            manifest.append(',');
+            appendManifestSource(manifest, staticSources.get(i)[0], "s" + i, staticSources.get(i)[1], known);
+        }
+        byte[] body = manifest.append("]}").toString().getBytes(StandardCharsets.UTF_8);
+        bytes.addAndGet(body.length);
+        exchange.getResponseHeaders().set("Content-Type", "application/json");
+        exchange.sendResponseHeaders(200, body.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(body);
+        }
+    }
+
+    private static void appendManifestSource(StringBuilder manifest, String name, String digest, String source, Set<String> known) {
+        manifest.append("{\"name\":\"").append(name).append("\",\"digest\":\"").append(digest).append("\",\"source\":")
+                .append(known.contains(digest) ? "null" : source).append('}');
+    }
+
+    private byte[] body(int revision) {
+        StringBuilder body = new StringBuilder("{\"name\":\"").append(APP_NAME)
+                .append("\",\"profiles\":[\"default\"],\"label\":null,\"state\":null,\"version\":\"v").append(revision)
+                .append("\",\"propertySources\":[{\"name\":\"").append(FILE_NAME).append("\",\"source\":{\"")
+                .append(REVISION_KEY).append("\":").append(revision).append("}}");
+        for (String[] source : staticSources) {
+            body.append(",{\"name\":\"").append(source[0]).append("\",\"source\":").append(source[1]).append('}');
+        }
+        return body.append("]}").toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+    /**
+     * 保持连接不关闭，提交时写入事件
+     */
+    private synchronized void subscribe(HttpExchange exchange) throws IOException {
+        exchange.getResponseHeaders().set("Content-Type", "text/event-stream");
+        exchange.sendResponseHeaders(200, 0);
+        OutputStream out = exchange.getResponseBody();
+        out.write(("id: " + revision + "\nevent: connected\ndata:\n\n").getBytes(StandardCharsets.UTF_8));
+        out.flush();
+        streams.add(out);
+    }
+
+    @Override
+    public void stop() {
+        server.stop(0);
+    }
+}
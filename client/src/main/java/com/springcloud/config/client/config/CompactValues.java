@@ -0,0 +1,259 @@
+package com.springcloud.config.client.config;
+
+import com.google.common.collect.Interner;
+import com.google.common.collect.Interners;
+
+import java.util.*;
+import java.util.function.BiConsumer;
+
+/**
+ * 配置值的紧凑只读存储：
+ * <ul>
+ * <li>key按字典序排列、去重后存放在数组中，另有开放寻址的下标表用于按key查找</li>
+ * <li>key与字符串值经弱引用驻留，同一配置文件的多个版本共享相同的字符串</li>
+ * <li>Integer、Long、Double、Boolean不装箱存放，读取时再装箱</li>
+ * </ul>
+ * 同为该类型的两份配置可以按顺序归并比较，见{@link #sameValue}
+ */
+public final class CompactValues extends AbstractMap<String, Object> {
+
+    private static final Interner<String> STRINGS = Interners.newWeakInterner();
+
+    private static final CompactValues EMPTY = new CompactValues(new String[0], new byte[0], new Object[0], null);
+
+    private static final byte REF = 0;
+
+    private static final byte NULL = 1;
+
+    private static final byte TRUE = 2;
+
+    private static final byte FALSE = 3;
+
+    private static final byte INT = 4;
+
+    private static final byte LONG = 5;
+
+    private static final byte DOUBLE = 6;
+
+    private final String[] keys;
+
+    private final byte[] kinds;
+
+    /**
+     * 非基本类型的值，基本类型对应位置为null
+     */
+    private final Object[] refs;
+
+    /**
+     * 数值，全部为非数值时为null
+     */
+    private final long[] numbers;
+
+    /**
+     * 下标表，存放keys下标+1，0表示空
+     */
+    private final int[] table;
+
+    private Set<Entry<String, Object>> entrySet;
+
+    private CompactValues(String[] keys, byte[] kinds, Object[] refs, long[] numbers) {
+        this.keys = keys;
+        this.kinds = kinds;
+        this.refs = refs;
+        this.numbers = numbers;
+        this.table = new int[tableSize(keys.length)];
+        int mask = table.length - 1;
+        for (int i = 0; i < keys.length; i++) {
+            int slot = spread(keys[i].hashCode()) & mask;
+            while (table[slot] != 0) {
+                slot = (slot + 1) & mask;
+            }
+            table[slot] = i + 1;
+        }
+    }
+
+    /**
+     * 复制配置值，key取toString，toString相同的key以后出现的为准
+     */
+    public static CompactValues of(Map<?, ?> source) {
+        if (source instanceof CompactValues) {
+            return (CompactValues) source;
+        }
+        if (source.isEmpty()) {
+            return EMPTY;
+        }
+        TreeMap<String, Object> sorted = new TreeMap<>();
+        for (Entry<?, ?> entry : source.entrySet()) {
+            sorted.put(entry.getKey().toString(), entry.getValue());
+        }
+        int size = sorted.size();
+        String[] keys = new String[size];
+        byte[] kinds = new byte[size];
+        Object[] refs = new Object[size];
+        long[] numbers = null;
+        int i = 0;
+        for (Entry<String, Object> entry : sorted.entrySet()) {
+            keys[i] = STRINGS.intern(entry.getKey());
+            Object value = entry.getValue();
+            if (value == null) {
+                kinds[i] = NULL;
+            } else if (value instanceof Boolean) {
+                kinds[i] = (Boolean) value ? TRUE : FALSE;
+            } else if (value instanceof Integer || value instanceof Long || value instanceof Double) {
+                if (numbers == null) {
+                    numbers = new long[size];
+                }
+                if (value instanceof Integer) {
+                    kinds[i] = INT;
+                    numbers[i] = (Integer) value;
+                } else if (value instanceof Long) {
+                    kinds[i] = LONG;
+                    numbers[i] = (Long) value;
+                } else {
+                    kinds[i] = DOUBLE;
+                    numbers[i] = Double.doubleToLongBits((Double) value);
+                }
+            } else {
+                kinds[i] = REF;
+                refs[i] = value instanceof String ? STRINGS.intern((String) value) : value;
+            }
+            i++;
+        }
+        return new CompactValues(keys, kinds, refs, numbers);
+    }
+
+    /**
+     * @return key的下标，不存在时返回-1
+     */
+    public int indexOf(Object key) {
+        if (!(key instanceof String) || keys.length == 0) {
+            return -1;
+        }
+        int mask = table.length - 1;
+        int slot = spread(key.hashCode()) & mask;
+        int index;
+        while ((index = table[slot]) != 0) {
+            String candidate = keys[index - 1];
+            if (candidate == key || candidate.equals(key)) {
+                return index - 1;
+            }
+            slot = (slot + 1) & mask;
+        }
+        return -1;
+    }
+
+    public String keyAt(int index) {
+        return keys[index];
+    }
+
+    public Object valueAt(int index) {
+        switch (kinds[index]) {
+            case NULL:
+                return null;
+            case TRUE:
+                return Boolean.TRUE;
+            case FALSE:
+                return Boolean.FALSE;
+            case INT:
+                return (int) numbers[index];
+            case LONG:
+                return numbers[index];
+            case DOUBLE:
+                return Double.longBitsToDouble(numbers[index]);
+            default:
+                return refs[index];
+        }
+    }
+
+    /**
+     * 两份配置中各自下标处的值是否相等，不装箱
+     */
+    public static boolean sameValue(CompactValues a, int i, CompactValues b, int j) {
+        byte kind = a.kinds[i];
+        if (kind != b.kinds[j]) {
+            return false;
+        }
+        switch (kind) {
+            case REF:
+                return a.refs[i] == b.refs[j] || a.refs[i].equals(b.refs[j]);
+            case INT:
+            case LONG:
+            case DOUBLE:
+                return a.numbers[i] == b.numbers[j];
+            default:
+                return true;
+        }
+    }
+
+    @Override
+    public int size() {
+        return keys.length;
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+        return indexOf(key) >= 0;
+    }
+
+    @Override
+    public Object get(Object key) {
+        int index = indexOf(key);
+        return index < 0 ? null : valueAt(index);
+    }
+
+    @Override
+    public Set<Entry<String, Object>> entrySet() {
+        Set<Entry<String, Object>> result = entrySet;
+        if (result == null) {
+            result = new AbstractSet<Entry<String, Object>>() {
+                @Override
+                public Iterator<Entry<String, Object>> iterator() {
+                    return new Iterator<Entry<String, Object>>() {
+
+                        private int next;
+
+                        @Override
+                        public boolean hasNext() {
+                            return next < keys.length;
+                        }
+
+                        @Override
+                        public Entry<String, Object> next() {
+                            if (next >= keys.length) {
+                                throw new NoSuchElementException();
+                            }
+                            int index = next++;
+                            return new SimpleImmutableEntry<>(keys[index], valueAt(index));
+                        }
+                    };
+                }
+
+                @Override
+                public int size() {
+                    return keys.length;
+                }
+            };
+            entrySet = result;
+        }
+        return result;
+    }
+
+    @Override
+    public void forEach(BiConsumer<? super String, ? super Object> action) {
+        for (int i = 0; i < keys.length; i++) {
+            action.accept(keys[i], valueAt(i));
+        }
+    }
+
+    private static int tableSize(int size) {
+        int capacity = 2;
+        while (capacity < size * 2) {
+            capacity <<= 1;
+        }
+        return capacity;
+    }
+
+    private static int spread(int hash) {
+        return hash ^ (hash >>> 16);
+    }
+}
@@ -1,97 +1,54 @@
 package com.springcloud.config.client.config;
 
-import com.springcloud.config.client.exception.ConfigException;
 import com.springcloud.config.client.listener.Listener;
-import com.springcloud.config.client.util.Safes;
-import org.slf4j.Logger;
-import org.slf4j.LoggerFactory;
 
-import java.util.HashMap;
 import java.util.Map;
 import java.util.concurrent.CopyOnWriteArrayList;
 
 /**
- * 配置缓存数据
+ * 配置缓存数据，配置内容以不可变快照整体发布
  */
 public class ConfigCache {
 
-    private static final Logger logger = LoggerFactory.getLogger(ConfigCache.class);
+    private final String appName;
 
-    private String appName;
+    private final String configFileName;
 
-    private String configFileName;
-
-    private String commitVersion;
-
-    private Map<String, Object> configValue = new HashMap<>(16);
+    private volatile ConfigSnapshot snapshot;
 
     private CopyOnWriteArrayList<Listener> listeners = new CopyOnWriteArrayList<>();
 
+    public ConfigCache(String appName, String configFileName, ConfigSnapshot snapshot) {
+        this.appName = appName;
+        this.configFileName = configFileName;
+        this.snapshot = snapshot;
+    }
+
     public void addListener(Listener listener) {
         listeners.addIfAbsent(listener);
     }
 
-    public void notifyListener() {
-        Safes.of(listeners).forEach(this::doNotifyListener);
+    /**
+     * 发布新快照，读线程要么看到旧快照要么看到新快照
+     */
+    public void publish(ConfigSnapshot snapshot) {
+        this.snapshot = snapshot;
     }
 
-    private void doNotifyListener(Listener listener) {
-        Runnable job = () -> {
-            ClassLoader myClassLoader = Thread.currentThread().getContextClassLoader();
-            ClassLoader appClassLoader = listener.getClass().getClassLoader();
-            try {
-
-                // 执行回调之前先将线程classloader设置为具体webapp的classloader，以免回调方法中调用spi接口是出现异常或错用（多应用部署才会有该问题）。
-                Thread.currentThread().setContextClassLoader(appClassLoader);
-                listener.executeEvent();
-
-                logger.info("appName:{},configFileName:{},commitVersion:{} notify success",
-                        appName, configFileName, commitVersion);
-            } catch (ConfigException ex) {
-                logger.error("appName:{},configFileName:{},commitVersion:{} notify fail,errCode:{},errMsg:{}",
-                        appName, configFileName, commitVersion, ex.getErrorCode(), ex.getErrMsg());
-            } catch (Throwable t) {
-                logger.error("appName:{},configFileName:{},commitVersion:{} notify fail,throwable:{}",
-                        appName, configFileName, commitVersion, t.getCause());
-            } finally {
-                Thread.currentThread().setContextClassLoader(myClassLoader);
-            }
-        };
-
-        try {
-            if (null != listener.getExecutor()) {
-                listener.getExecutor().execute(job);
-            } else {
-                job.run();
-            }
-        } catch (Throwable t) {
-            logger.error("appName:{},configFileName:{},commitVersion:{} notify fail,throwable:{}",
-                    appName, configFileName, commitVersion, t.getCause());
-        }
+    public ConfigSnapshot getSnapshot() {
+        return snapshot;
     }
 
     public String getAppName() {
         return appName;
     }
 
-    public void setAppName(String appName) {
-        this.appName = appName;
-    }
-
     public String getConfigFileName() {
         return configFileName;
     }
 
-    public void setConfigFileName(String configFileName) {
-        this.configFileName = configFileName;
-    }
-
     public String getCommitVersion() {
-        return commitVersion;
-    }
-
-    public void setCommitVersion(String commitVersion) {
-        this.commitVersion = commitVersion;
+        return snapshot.getVersion();
     }
 
     public CopyOnWriteArrayList<Listener> getListeners() {
@@ -99,10 +56,10 @@ public class ConfigCache {
     }
 
     public Map<String, Object> getConfigValue() {
-        return configValue;
+        return snapshot.getValues();
     }
 
-    public void setConfigValue(Map<String, Object> configValue) {
-        this.configValue = configValue;
+    public long getDigest() {
+        return snapshot.getDigest();
     }
 }
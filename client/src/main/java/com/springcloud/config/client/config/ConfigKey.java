@@ -0,0 +1,51 @@
+package com.springcloud.config.client.config;
+
+import java.util.Objects;
+
+/**
+ * 配置缓存的key：target（application/profile/label）+ 配置文件名，按字段比较，不拼接字符串
+ */
+public final class ConfigKey {
+
+    private final ConfigTarget target;
+
+    private final String configFileName;
+
+    private final int hash;
+
+    public ConfigKey(ConfigTarget target, String configFileName) {
+        this.target = Objects.requireNonNull(target, "target");
+        this.configFileName = Objects.requireNonNull(configFileName, "configFileName");
+        this.hash = 31 * target.hashCode() + configFileName.hashCode();
+    }
+
+    public ConfigTarget getTarget() {
+        return target;
+    }
+
+    public String getConfigFileName() {
+        return configFileName;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (o == null || getClass() != o.getClass()) {
+            return false;
+        }
+        ConfigKey that = (ConfigKey) o;
+        return hash == that.hash && configFileName.equals(that.configFileName) && target.equals(that.target);
+    }
+
+    @Override
+    public int hashCode() {
+        return hash;
+    }
+
+    @Override
+    public String toString() {
+        return target + "#" + configFileName;
+    }
+}
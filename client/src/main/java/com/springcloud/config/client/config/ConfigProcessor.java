@@ -22,4 +22,49 @@ public interface ConfigProcessor {
      */
     void addListener(String appName, String configFileName, String version, Map<String, Object> configValue, Listener listener) throws ConfigException;
 
+    /**
+     * 以bootstrap拉取到的本应用配置一次注册全部配置文件，直接引用配置值，不复制
+     *
+     * @param version  git提交版本号
+     * @param sources  配置文件名称 -> 配置值，按优先级从高到低，注册后不得再修改
+     * @param listener 监听器
+     */
+    void addBootstrapListener(String version, Map<String, Map<String, Object>> sources, Listener listener) throws ConfigException;
+
+    /**
+     * 追踪本应用以外的一组配置，与本应用在同一个拉取线程中拉取
+     *
+     * @param target (application, profile, label)
+     */
+    void addTarget(ConfigTarget target) throws ConfigException;
+
+    /**
+     * 为追踪的配置注册监听器，首次拉取到该配置文件时以新增（ADDED）变更回调
+     *
+     * @param target         (application, profile, label)
+     * @param configFileName 配置文件名称（config server返回的property source名称）
+     * @param listener       监听器
+     */
+    void addListener(ConfigTarget target, String configFileName, Listener listener) throws ConfigException;
+
+    /**
+     * 按key前缀为本应用注册监听器，不限配置文件，只回调该前缀下的变更
+     *
+     * @param keyPrefix 如db.pool匹配db.pool、db.pool.size、db.pool[0]，为空时匹配所有key
+     * @param listener  监听器
+     */
+    void addPrefixListener(String keyPrefix, Listener listener) throws ConfigException;
+
+    /**
+     * 按key前缀为追踪的配置注册监听器
+     */
+    void addPrefixListener(ConfigTarget target, String keyPrefix, Listener listener) throws ConfigException;
+
+    /**
+     * 配置文件的当前快照
+     *
+     * @return 尚未注册或拉取到该配置文件时为null
+     */
+    ConfigSnapshot getSnapshot(ConfigTarget target, String configFileName);
+
 }
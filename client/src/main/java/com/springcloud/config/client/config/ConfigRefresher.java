@@ -9,7 +9,6 @@ import org.slf4j.LoggerFactory;
 import org.springframework.beans.BeansException;
 import org.springframework.boot.context.event.ApplicationReadyEvent;
 import org.springframework.cloud.config.client.ConfigClientProperties;
-import org.springframework.cloud.endpoint.event.RefreshEvent;
 import org.springframework.context.ApplicationContext;
 import org.springframework.context.ApplicationContextAware;
 import org.springframework.context.ApplicationListener;
@@ -20,11 +19,10 @@ import org.springframework.core.env.*;
 import org.springframework.lang.Nullable;
 
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
-import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.Executor;
 import java.util.concurrent.atomic.AtomicBoolean;
 
 @Order(Ordered.HIGHEST_PRECEDENCE)
@@ -40,11 +38,27 @@ public class ConfigRefresher implements ApplicationListener<ApplicationReadyEven
 
     private AtomicBoolean ready = new AtomicBoolean(false);
 
-    private Map<String, Listener> listenerMap = new ConcurrentHashMap<>(16);
+    /**
+     * 所有配置文件共用的刷新监听器
+     */
+    private final Listener refreshListener;
 
-    public ConfigRefresher(ConfigProcessor configProcessor, ConfigClientProperties configClientProperties) {
+    /**
+     * 快速启动，见{@link com.springcloud.config.client.configuration.DynamicConfigProperties#isFastStart()}
+     */
+    private final boolean fastStart;
+
+    public ConfigRefresher(ConfigProcessor configProcessor, ConfigClientProperties configClientProperties,
+                           Listener refreshListener) {
+        this(configProcessor, configClientProperties, refreshListener, false);
+    }
+
+    public ConfigRefresher(ConfigProcessor configProcessor, ConfigClientProperties configClientProperties,
+                           Listener refreshListener, boolean fastStart) {
         this.configProcessor = configProcessor;
         this.configClientProperties = configClientProperties;
+        this.refreshListener = refreshListener;
+        this.fastStart = fastStart;
     }
 
     @Override
@@ -61,27 +75,16 @@ public class ConfigRefresher implements ApplicationListener<ApplicationReadyEven
     }
 
     private void registerEnvironmentListener() {
-        ConfigurableEnvironment environment = applicationContext.getEnvironment();
-        CompositePropertySource source = (CompositePropertySource) environment.getPropertySources().get(Constant.BOOTSTRAP_PROPERTIES);
-
-        if (Objects.isNull(source)) {
-            logger.error("can not resolve bootstrapProperties");
+        CompositePropertySource configService = configService();
+        if (fastStart) {
+            registerBootstrapListener(configService);
             return;
         }
-
-        Optional<PropertySource<?>> propertySourceOptional = Safes.of(source.getPropertySources())
-                .stream()
-                .filter(it -> Constant.CONFIG_SERVICE.equals(it.getName()))
-                .findAny();
-
-        if (!propertySourceOptional.isPresent()) {
-            logger.error("can not get configService from bootstrapProperpties");
+        if (Objects.isNull(configService)) {
             return;
         }
 
         String gitVersion = "";
-        CompositePropertySource configService = (CompositePropertySource) propertySourceOptional.get();
-
 
         for (PropertySource<?> currentSource : Safes.of(configService.getPropertySources())) {
             Map<String, Object> configValue = new HashMap<>();
@@ -101,27 +104,59 @@ public class ConfigRefresher implements ApplicationListener<ApplicationReadyEven
         }
     }
 
-    private void registerConfigListener(String appName, String configFileName, String gitVersion, Map<String, Object> configValue) {
-        Listener listener = listenerMap.computeIfAbsent(composeListenerUniqueKey(appName, configFileName), it -> new Listener() {
-            @Override
-            public void executeEvent() {
-                applicationContext.publishEvent(new RefreshEvent(this, null, "Refresh git config"));
-            }
+    /**
+     * bootstrap阶段从config server拉取到的配置，无法定位时返回null
+     */
+    private CompositePropertySource configService() {
+        ConfigurableEnvironment environment = applicationContext.getEnvironment();
+        CompositePropertySource source = (CompositePropertySource) environment.getPropertySources().get(Constant.BOOTSTRAP_PROPERTIES);
 
-            @Override
-            public Executor getExecutor() {
-                return null;
-            }
-        });
+        if (Objects.isNull(source)) {
+            logger.error("can not resolve bootstrapProperties");
+            return null;
+        }
 
+        Optional<PropertySource<?>> propertySourceOptional = Safes.of(source.getPropertySources())
+                .stream()
+                .filter(it -> Constant.CONFIG_SERVICE.equals(it.getName()))
+                .findAny();
+
+        if (!propertySourceOptional.isPresent()) {
+            logger.error("can not get configService from bootstrapProperpties");
+            return null;
+        }
+        return (CompositePropertySource) propertySourceOptional.get();
+    }
+
+    /**
+     * 快速启动：直接引用各配置文件的配置值一次注册，不逐key复制；
+     * 无法定位bootstrap配置时以空配置注册，由首次拉取补齐
+     */
+    private void registerBootstrapListener(CompositePropertySource configService) {
+        String gitVersion = null;
+        Map<String, Map<String, Object>> sources = new LinkedHashMap<>();
+        if (Objects.nonNull(configService)) {
+            for (PropertySource<?> currentSource : Safes.of(configService.getPropertySources())) {
+                if (Constant.CONFIG_CLIENT.equals(currentSource.getName())) {
+                    gitVersion = (String) currentSource.getProperty(Constant.CONFIG_CLIENT_VERSION);
+                } else if (currentSource instanceof MapPropertySource) {
+                    sources.put(currentSource.getName(), ((MapPropertySource) currentSource).getSource());
+                }
+            }
+        }
         try {
-            configProcessor.addListener(appName, configFileName, gitVersion, configValue, listener);
+            configProcessor.addBootstrapListener(gitVersion, sources, refreshListener);
         } catch (ConfigException e) {
             logger.error("add listener error", e);
         }
     }
 
-    private String composeListenerUniqueKey(String appName, String configFileName) {
-        return appName + configFileName;
+    private void registerConfigListener(String appName, String configFileName, String gitVersion, Map<String, Object> configValue) {
+        try {
+            configProcessor.addListener(appName, configFileName, gitVersion, configValue, refreshListener);
+        } catch (ConfigException e) {
+            logger.error("add listener error", e);
+        }
     }
 }
+
@@ -0,0 +1,90 @@
+package com.springcloud.config.client.config;
+
+import com.springcloud.config.client.util.Digests;
+
+import java.util.Collections;
+import java.util.Map;
+
+/**
+ * 配置文件某一版本的不可变快照，读线程拿到引用即得到一致的版本与配置值
+ */
+public final class ConfigSnapshot {
+
+    private final String version;
+
+    private final Map<String, Object> values;
+
+    private final long fetchTimestamp;
+
+    private long digest;
+
+    /**
+     * 摘要是否已计算，先写digest再写该标记
+     */
+    private volatile boolean digested;
+
+    private ConfigSnapshot(String version, Map<String, Object> values, long fetchTimestamp, long digest, boolean digested) {
+        this.version = version;
+        this.values = values;
+        this.fetchTimestamp = fetchTimestamp;
+        this.digest = digest;
+        this.digested = digested;
+    }
+
+    /**
+     * 复制配置值生成快照，以{@link CompactValues}紧凑存放
+     */
+    public static ConfigSnapshot of(String version, Map<?, ?> values) {
+        CompactValues copy = CompactValues.of(values);
+        return new ConfigSnapshot(version, copy, System.currentTimeMillis(), Digests.digest(copy), true);
+    }
+
+    /**
+     * 直接引用配置值生成快照，不复制；调用方保证之后不再修改。摘要在首次使用时计算
+     */
+    public static ConfigSnapshot wrap(String version, Map<String, Object> values) {
+        return new ConfigSnapshot(version, Collections.unmodifiableMap(values), System.currentTimeMillis(), 0L, false);
+    }
+
+    /**
+     * 内容不变、仅git版本号前进时复用配置值
+     */
+    public ConfigSnapshot withVersion(String version) {
+        boolean known = digested;
+        return new ConfigSnapshot(version, values, System.currentTimeMillis(), known ? digest : 0L, known);
+    }
+
+    public String getVersion() {
+        return version;
+    }
+
+    public Map<String, Object> getValues() {
+        return values;
+    }
+
+    public long getFetchTimestamp() {
+        return fetchTimestamp;
+    }
+
+    /**
+     * 整个配置文件的摘要，摘要相同即可跳过比较；不同时由{@link com.springcloud.config.client.listener.ConfigChanges#diff}逐键找出变化，
+     * 逐键摘要既要多占内存，也省不掉逐键比较。并发首次调用时可能重复计算，结果相同
+     */
+    public long getDigest() {
+        if (!digested) {
+            digest = Digests.digest(values);
+            digested = true;
+        }
+        return digest;
+    }
+
+    @Override
+    public String toString() {
+        return "ConfigSnapshot{" +
+                "version='" + version + '\'' +
+                ", size=" + values.size() +
+                ", fetchTimestamp=" + fetchTimestamp +
+                ", digest=" + (digested ? String.valueOf(digest) : "?") +
+                '}';
+    }
+}
@@ -0,0 +1,77 @@
+package com.springcloud.config.client.config;
+
+import org.springframework.util.StringUtils;
+
+import java.util.Objects;
+
+/**
+ * 一组需要拉取的配置：(application, profile, label)，label可为逗号分隔的多个分支，为空时使用服务端默认分支
+ */
+public final class ConfigTarget {
+
+    private final String application;
+
+    private final String profile;
+
+    private final String label;
+
+    private final int hash;
+
+    public ConfigTarget(String application, String profile, String label) {
+        if (!StringUtils.hasText(application) || !StringUtils.hasText(profile)) {
+            throw new IllegalArgumentException("application and profile must not be empty");
+        }
+        this.application = application.trim();
+        this.profile = profile.trim();
+        this.label = StringUtils.hasText(label) ? label.trim() : "";
+        this.hash = Objects.hash(this.application, this.profile, this.label);
+    }
+
+    public String getApplication() {
+        return application;
+    }
+
+    public String getProfile() {
+        return profile;
+    }
+
+    public String getLabel() {
+        return label;
+    }
+
+    /**
+     * 依次尝试的分支
+     */
+    public String[] getLabels() {
+        if (label.isEmpty()) {
+            return new String[]{""};
+        }
+        String[] labels = StringUtils.commaDelimitedListToStringArray(label);
+        for (int i = 0; i < labels.length; i++) {
+            labels[i] = labels[i].trim();
+        }
+        return labels;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (o == null || getClass() != o.getClass()) {
+            return false;
+        }
+        ConfigTarget that = (ConfigTarget) o;
+        return application.equals(that.application) && profile.equals(that.profile) && label.equals(that.label);
+    }
+
+    @Override
+    public int hashCode() {
+        return hash;
+    }
+
+    @Override
+    public String toString() {
+        return application + "/" + profile + (label.isEmpty() ? "" : "/" + label);
+    }
+}
@@ -28,4 +28,34 @@ public class DefaultConfigProcessor implements ConfigProcessor {
         handler.addListeners(appName, configFileName, version, configValue, Lists.newArrayList(listener));
     }
 
+    @Override
+    public void addBootstrapListener(String version, Map<String, Map<String, Object>> sources, Listener listener) throws ConfigException {
+        handler.addBootstrapListeners(version, sources, Lists.newArrayList(listener));
+    }
+
+    @Override
+    public void addTarget(ConfigTarget target) throws ConfigException {
+        handler.addTarget(target);
+    }
+
+    @Override
+    public void addListener(ConfigTarget target, String configFileName, Listener listener) throws ConfigException {
+        handler.addListeners(target, configFileName, Lists.newArrayList(listener));
+    }
+
+    @Override
+    public void addPrefixListener(String keyPrefix, Listener listener) throws ConfigException {
+        handler.addPrefixListeners(keyPrefix, Lists.newArrayList(listener));
+    }
+
+    @Override
+    public void addPrefixListener(ConfigTarget target, String keyPrefix, Listener listener) throws ConfigException {
+        handler.addPrefixListeners(target, keyPrefix, Lists.newArrayList(listener));
+    }
+
+    @Override
+    public ConfigSnapshot getSnapshot(ConfigTarget target, String configFileName) {
+        return handler.getSnapshot(target, configFileName);
+    }
+
 }
@@ -2,21 +2,42 @@ package com.springcloud.config.client.configuration;
 
 import com.springcloud.config.client.config.ConfigRefresher;
 import com.springcloud.config.client.config.DefaultConfigProcessor;
+import com.springcloud.config.client.constant.Constant;
+import com.springcloud.config.client.flag.FeatureFlags;
+import com.springcloud.config.client.listener.RefreshListener;
+import com.springcloud.config.client.listener.TargetedRefreshListener;
+import com.springcloud.config.client.metrics.ConfigMetrics;
+import com.springcloud.config.client.metrics.MicrometerConfigMetrics;
+import com.springcloud.config.client.reactive.ConfigPublishers;
+import com.springcloud.config.client.transport.ConfigHttpTransport;
+import com.springcloud.config.client.util.Safes;
 import com.springcloud.config.client.worker.DefaultHandler;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnBean;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnClass;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.boot.context.properties.EnableConfigurationProperties;
 import org.springframework.cloud.config.client.ConfigClientProperties;
 import org.springframework.cloud.config.client.ConfigServicePropertySourceLocator;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.CompositePropertySource;
 import org.springframework.core.env.ConfigurableEnvironment;
+import org.springframework.core.env.EnumerablePropertySource;
+import org.springframework.core.env.PropertySource;
 import org.springframework.web.client.RestTemplate;
 
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
 @Configuration
-@EnableConfigurationProperties
+@EnableConfigurationProperties(DynamicConfigProperties.class)
 public class ConfigAutoConfiguration {
 
     @Autowired
@@ -34,11 +55,39 @@ public class ConfigAutoConfiguration {
         return new ConfigClientProperties(this.environment);
     }
 
+    /**
+     * 独立的HTTP连接池，需显式开启；开启后拉取配置不再使用上下文中的RestTemplate
+     */
+    @Bean(destroyMethod = "close")
+    @ConditionalOnMissingBean
+    @ConditionalOnProperty("spring.cloud.config.dynamic.transport.enabled")
+    public ConfigHttpTransport configHttpTransport(ConfigClientProperties configClientProperties,
+                                                   DynamicConfigProperties dynamicConfigProperties,
+                                                   ObjectProvider<ConfigMetrics> configMetrics) {
+        return new ConfigHttpTransport(configClientProperties, dynamicConfigProperties,
+                configMetrics.getIfAvailable(() -> ConfigMetrics.NOOP));
+    }
+
+    @Bean
+    @ConditionalOnMissingBean
+    public RefreshListener refreshListener(ApplicationEventPublisher applicationEventPublisher,
+                                           DynamicConfigProperties dynamicConfigProperties) {
+        if (dynamicConfigProperties.getRefreshMode() == DynamicConfigProperties.RefreshMode.TARGETED) {
+            return new TargetedRefreshListener(applicationEventPublisher);
+        }
+        return new RefreshListener(applicationEventPublisher);
+    }
+
     @Bean(destroyMethod = "destroy")
     @ConditionalOnMissingBean
     @ConditionalOnProperty(value = "spring.cloud.config.enabled", matchIfMissing = true)
-    public DefaultHandler defaultHandler(RestTemplate restTemplate, ConfigClientProperties configClientProperties) {
-        return new DefaultHandler(restTemplate, configClientProperties);
+    public DefaultHandler defaultHandler(RestTemplate restTemplate, ObjectProvider<ConfigHttpTransport> configHttpTransport,
+                                         ConfigClientProperties configClientProperties,
+                                         DynamicConfigProperties dynamicConfigProperties, RefreshListener refreshListener,
+                                         ObjectProvider<ConfigMetrics> configMetrics) {
+        ConfigHttpTransport transport = configHttpTransport.getIfAvailable();
+        return new DefaultHandler(transport == null ? restTemplate : transport.getRestTemplate(), configClientProperties,
+                dynamicConfigProperties, refreshListener, configMetrics.getIfAvailable(() -> ConfigMetrics.NOOP));
     }
 
     @Bean
@@ -49,7 +98,80 @@ public class ConfigAutoConfiguration {
 
     @Bean
     @ConditionalOnBean(ConfigServicePropertySourceLocator.class)
-    public ConfigRefresher configRefresher(DefaultConfigProcessor defaultConfigProcessor, ConfigClientProperties configClientProperties) {
-        return new ConfigRefresher(defaultConfigProcessor, configClientProperties);
+    public ConfigRefresher configRefresher(DefaultConfigProcessor defaultConfigProcessor, ConfigClientProperties configClientProperties,
+                                           DynamicConfigProperties dynamicConfigProperties, RefreshListener refreshListener) {
+        return new ConfigRefresher(defaultConfigProcessor, configClientProperties, refreshListener,
+                dynamicConfigProperties.isFastStart());
+    }
+
+    /**
+     * 先按bootstrap拉取到的配置编译，之后本应用配置每次变化时重新编译
+     */
+    @Bean
+    @ConditionalOnMissingBean
+    @ConditionalOnProperty("spring.cloud.config.dynamic.flags.enabled")
+    public FeatureFlags featureFlags(DynamicConfigProperties dynamicConfigProperties, ObjectProvider<DefaultHandler> defaultHandler) {
+        FeatureFlags featureFlags = new FeatureFlags(dynamicConfigProperties.getFlags().getPrefix());
+        featureFlags.compile(bootstrapSources());
+        defaultHandler.ifAvailable(it -> it.addSnapshotListener(featureFlags));
+        return featureFlags;
+    }
+
+    /**
+     * bootstrap阶段从config server拉取到的各配置文件，按优先级从高到低排列
+     */
+    private List<Map<String, Object>> bootstrapSources() {
+        List<Map<String, Object>> sources = new ArrayList<>();
+        PropertySource<?> bootstrap = environment.getPropertySources().get(Constant.BOOTSTRAP_PROPERTIES);
+        if (!(bootstrap instanceof CompositePropertySource)) {
+            return sources;
+        }
+        for (PropertySource<?> it : ((CompositePropertySource) bootstrap).getPropertySources()) {
+            if (!Constant.CONFIG_SERVICE.equals(it.getName()) || !(it instanceof CompositePropertySource)) {
+                continue;
+            }
+            for (PropertySource<?> source : Safes.of(((CompositePropertySource) it).getPropertySources())) {
+                if (Constant.CONFIG_CLIENT.equals(source.getName()) || !(source instanceof EnumerablePropertySource)) {
+                    continue;
+                }
+                Map<String, Object> values = new HashMap<>();
+                for (String key : ((EnumerablePropertySource<?>) source).getPropertyNames()) {
+                    values.put(key, source.getProperty(key));
+                }
+                sources.add(values);
+            }
+        }
+        return sources;
+    }
+
+    /**
+     * 存在reactive-streams时提供响应式订阅
+     */
+    @Configuration
+    @ConditionalOnClass(name = "org.reactivestreams.Publisher")
+    static class ReactiveConfiguration {
+
+        @Bean(destroyMethod = "destroy")
+        @ConditionalOnMissingBean
+        @ConditionalOnProperty(value = "spring.cloud.config.enabled", matchIfMissing = true)
+        public ConfigPublishers configPublishers(DefaultConfigProcessor defaultConfigProcessor,
+                                                 ConfigClientProperties configClientProperties) {
+            return new ConfigPublishers(defaultConfigProcessor, configClientProperties);
+        }
+    }
+
+    /**
+     * 存在MeterRegistry时输出Micrometer指标，否则不做任何埋点
+     */
+    @Configuration
+    @ConditionalOnClass(name = "io.micrometer.core.instrument.MeterRegistry")
+    static class MicrometerMetricsConfiguration {
+
+        @Bean
+        @ConditionalOnMissingBean
+        public ConfigMetrics configMetrics(ObjectProvider<MeterRegistry> meterRegistry) {
+            MeterRegistry registry = meterRegistry.getIfAvailable();
+            return registry == null ? ConfigMetrics.NOOP : new MicrometerConfigMetrics(registry);
+        }
     }
 }
@@ -0,0 +1,880 @@
+package com.springcloud.config.client.configuration;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * 动态配置客户端参数
+ */
+@ConfigurationProperties(prefix = DynamicConfigProperties.PREFIX)
+public class DynamicConfigProperties {
+
+    public static final String PREFIX = "spring.cloud.config.dynamic";
+
+    /**
+     * 首次拉取延迟（毫秒）
+     */
+    private long initialDelay = 1000L;
+
+    /**
+     * 拉取间隔（毫秒）
+     */
+    private long pollInterval = 5000L;
+
+    /**
+     * 条件拉取：携带上次的ETag与git版本号，配置未变更时服务端返回304，不再下载完整配置
+     */
+    private boolean conditionalFetch = true;
+
+    /**
+     * 快速启动：直接以bootstrap拉取到的配置作为初始快照，不复制配置值；首次拉取推迟到第一个监听器注册之后
+     * （通常是ApplicationReadyEvent时注册的bootstrap配置），以bootstrap的版本号为基准只检查版本（增量端点返回304），不再下载完整配置
+     */
+    private boolean fastStart = false;
+
+    /**
+     * 拉取失败后的首次重试间隔（毫秒），连续失败时按2倍递增
+     */
+    private long failureBackoff = 3000L;
+
+    /**
+     * 拉取失败重试间隔上限（毫秒）
+     */
+    private long maxFailureBackoff = 60000L;
+
+    /**
+     * 拉取间隔随机抖动比例（0~1），间隔在[1-jitter, 1+jitter]倍之间随机，首次拉取在一个拉取间隔内随机分散；0表示不抖动
+     */
+    private double jitter = 0.2;
+
+    /**
+     * 变更通知防抖窗口（毫秒）：窗口内的多次变更合并后只回调一次监听器，0表示每个拉取周期结束时立即回调
+     */
+    private long debounceWindow = 0L;
+
+    /**
+     * 追踪多个application时，profile、label相同的合并为一个请求（/{app1,app2}/{profile}/{label}），
+     * 按文件名{application}[-{profile}]区分配置文件归属，其余文件视为共享
+     */
+    private boolean batchRequests = false;
+
+    /**
+     * 无法合并的请求最多并发拉取数
+     */
+    private int maxConcurrentPolls = 4;
+
+    /**
+     * 拉取方式：FULL每次下载完整配置；DELTA携带上次的版本号请求服务端增量端点，只下载变化的key，
+     * 服务端不支持或不认识该版本时退回全量拉取；SOURCES上报已持有的各配置文件摘要，只下载内容变化的文件，
+     * 不依赖服务端能检出历史版本。长轮询时不生效
+     */
+    private FetchMode fetchMode = FetchMode.FULL;
+
+    /**
+     * 配置变更后的刷新方式：CONTEXT发布RefreshEvent完整刷新上下文；TARGETED用已拉取到的变更更新上下文中的配置，
+     * 只重新绑定受影响的@ConfigurationProperties、只销毁受影响的refresh scope bean
+     */
+    private RefreshMode refreshMode = RefreshMode.CONTEXT;
+
+    private Adaptive adaptive = new Adaptive();
+
+    private LongPoll longPoll = new LongPoll();
+
+    private Replica replica = new Replica();
+
+    private Snapshot snapshot = new Snapshot();
+
+    private Transport transport = new Transport();
+
+    private Dispatch dispatch = new Dispatch();
+
+    private Push push = new Push();
+
+    private Flags flags = new Flags();
+
+    private Shared shared = new Shared();
+
+    public long getInitialDelay() {
+        return initialDelay;
+    }
+
+    public void setInitialDelay(long initialDelay) {
+        this.initialDelay = initialDelay;
+    }
+
+    public long getPollInterval() {
+        return pollInterval;
+    }
+
+    public void setPollInterval(long pollInterval) {
+        this.pollInterval = pollInterval;
+    }
+
+    public boolean isConditionalFetch() {
+        return conditionalFetch;
+    }
+
+    public void setConditionalFetch(boolean conditionalFetch) {
+        this.conditionalFetch = conditionalFetch;
+    }
+
+    public boolean isFastStart() {
+        return fastStart;
+    }
+
+    public void setFastStart(boolean fastStart) {
+        this.fastStart = fastStart;
+    }
+
+    public long getFailureBackoff() {
+        return failureBackoff;
+    }
+
+    public void setFailureBackoff(long failureBackoff) {
+        this.failureBackoff = failureBackoff;
+    }
+
+    public long getMaxFailureBackoff() {
+        return maxFailureBackoff;
+    }
+
+    public void setMaxFailureBackoff(long maxFailureBackoff) {
+        this.maxFailureBackoff = maxFailureBackoff;
+    }
+
+    public double getJitter() {
+        return jitter;
+    }
+
+    public void setJitter(double jitter) {
+        this.jitter = jitter;
+    }
+
+    public boolean isBatchRequests() {
+        return batchRequests;
+    }
+
+    public void setBatchRequests(boolean batchRequests) {
+        this.batchRequests = batchRequests;
+    }
+
+    public int getMaxConcurrentPolls() {
+        return maxConcurrentPolls;
+    }
+
+    public void setMaxConcurrentPolls(int maxConcurrentPolls) {
+        this.maxConcurrentPolls = maxConcurrentPolls;
+    }
+
+    public FetchMode getFetchMode() {
+        return fetchMode;
+    }
+
+    public void setFetchMode(FetchMode fetchMode) {
+        this.fetchMode = fetchMode;
+    }
+
+    public RefreshMode getRefreshMode() {
+        return refreshMode;
+    }
+
+    public void setRefreshMode(RefreshMode refreshMode) {
+        this.refreshMode = refreshMode;
+    }
+
+    public Push getPush() {
+        return push;
+    }
+
+    public void setPush(Push push) {
+        this.push = push;
+    }
+
+    public Flags getFlags() {
+        return flags;
+    }
+
+    public void setFlags(Flags flags) {
+        this.flags = flags;
+    }
+
+    public Shared getShared() {
+        return shared;
+    }
+
+    public void setShared(Shared shared) {
+        this.shared = shared;
+    }
+
+    public Adaptive getAdaptive() {
+        return adaptive;
+    }
+
+    public void setAdaptive(Adaptive adaptive) {
+        this.adaptive = adaptive;
+    }
+
+    public long getDebounceWindow() {
+        return debounceWindow;
+    }
+
+    public void setDebounceWindow(long debounceWindow) {
+        this.debounceWindow = debounceWindow;
+    }
+
+    public LongPoll getLongPoll() {
+        return longPoll;
+    }
+
+    public void setLongPoll(LongPoll longPoll) {
+        this.longPoll = longPoll;
+    }
+
+    public Replica getReplica() {
+        return replica;
+    }
+
+    public void setReplica(Replica replica) {
+        this.replica = replica;
+    }
+
+    public Snapshot getSnapshot() {
+        return snapshot;
+    }
+
+    public void setSnapshot(Snapshot snapshot) {
+        this.snapshot = snapshot;
+    }
+
+    public Transport getTransport() {
+        return transport;
+    }
+
+    public void setTransport(Transport transport) {
+        this.transport = transport;
+    }
+
+    public Dispatch getDispatch() {
+        return dispatch;
+    }
+
+    public void setDispatch(Dispatch dispatch) {
+        this.dispatch = dispatch;
+    }
+
+    public enum FetchMode {
+
+        FULL,
+
+        DELTA,
+
+        SOURCES
+    }
+
+    public enum RefreshMode {
+
+        CONTEXT,
+
+        TARGETED
+    }
+
+    /**
+     * 自适应拉取间隔，长轮询时不生效
+     */
+    public static class Adaptive {
+
+        /**
+         * 发现变更后加快拉取的间隔（毫秒），小于等于0表示不加快
+         */
+        private long fastInterval = 1000L;
+
+        /**
+         * 发现变更后加快拉取的持续时间（毫秒），默认0不加快。开启后整批实例会在同一提交后一齐加快拉取，
+         * config server的请求量按poll-interval/fast-interval倍放大，需确认服务端容量
+         */
+        private long fastWindow = 0L;
+
+        /**
+         * 连续多久（毫秒）无变更后放慢拉取，小于等于0表示不放慢
+         */
+        private long stableAfter = 0L;
+
+        /**
+         * 放慢后的拉取间隔（毫秒），不小于poll-interval
+         */
+        private long stableInterval = 30000L;
+
+        public long getFastInterval() {
+            return fastInterval;
+        }
+
+        public void setFastInterval(long fastInterval) {
+            this.fastInterval = fastInterval;
+        }
+
+        public long getFastWindow() {
+            return fastWindow;
+        }
+
+        public void setFastWindow(long fastWindow) {
+            this.fastWindow = fastWindow;
+        }
+
+        public long getStableAfter() {
+            return stableAfter;
+        }
+
+        public void setStableAfter(long stableAfter) {
+            this.stableAfter = stableAfter;
+        }
+
+        public long getStableInterval() {
+            return stableInterval;
+        }
+
+        public void setStableInterval(long stableInterval) {
+            this.stableInterval = stableInterval;
+        }
+    }
+
+    /**
+     * 长轮询：请求服务端扩展模块的/poll端点，服务端挂起请求直到版本变化或超时；
+     * 服务端未部署该端点时退回按poll-interval普通拉取
+     */
+    public static class LongPoll {
+
+        private boolean enabled = false;
+
+        /**
+         * 服务端最长挂起时间（毫秒），需小于读超时
+         */
+        private long timeout = 30000L;
+
+        /**
+         * 两次长轮询之间的间隔（毫秒）
+         */
+        private long interval = 1000L;
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public long getTimeout() {
+            return timeout;
+        }
+
+        public void setTimeout(long timeout) {
+            this.timeout = timeout;
+        }
+
+        public long getInterval() {
+            return interval;
+        }
+
+        public void setInterval(long interval) {
+            this.interval = interval;
+        }
+    }
+
+    /**
+     * 多个config server副本的选择与对冲请求
+     */
+    public static class Replica {
+
+        /**
+         * 延迟EWMA的平滑系数
+         */
+        private double ewmaAlpha = 0.3;
+
+        /**
+         * 延迟EWMA的半衰期（毫秒）：副本长时间没有新样本时EWMA按此衰减，慢副本恢复后能被重新选中，0表示不衰减
+         */
+        private long ewmaHalfLife = 60000L;
+
+        /**
+         * 连续失败多少次后熔断该副本
+         */
+        private int failureThreshold = 3;
+
+        /**
+         * 熔断持续时间（毫秒），到期后放行一次试探请求
+         */
+        private long openDuration = 30000L;
+
+        /**
+         * 对冲请求：首选副本超过分位延迟仍未响应时，向下一个副本再发一次请求，取先返回者
+         */
+        private boolean hedgeEnabled = false;
+
+        /**
+         * 对冲等待时间取最近请求延迟的分位数
+         */
+        private double hedgePercentile = 95;
+
+        /**
+         * 对冲等待时间下限（毫秒）
+         */
+        private long hedgeMinDelay = 50L;
+
+        /**
+         * 延迟样本少于该值时使用下限作为对冲等待时间
+         */
+        private int hedgeMinSamples = 20;
+
+        public double getEwmaAlpha() {
+            return ewmaAlpha;
+        }
+
+        public void setEwmaAlpha(double ewmaAlpha) {
+            this.ewmaAlpha = ewmaAlpha;
+        }
+
+        public long getEwmaHalfLife() {
+            return ewmaHalfLife;
+        }
+
+        public void setEwmaHalfLife(long ewmaHalfLife) {
+            this.ewmaHalfLife = ewmaHalfLife;
+        }
+
+        public int getFailureThreshold() {
+            return failureThreshold;
+        }
+
+        public void setFailureThreshold(int failureThreshold) {
+            this.failureThreshold = failureThreshold;
+        }
+
+        public long getOpenDuration() {
+            return openDuration;
+        }
+
+        public void setOpenDuration(long openDuration) {
+            this.openDuration = openDuration;
+        }
+
+        public boolean isHedgeEnabled() {
+            return hedgeEnabled;
+        }
+
+        public void setHedgeEnabled(boolean hedgeEnabled) {
+            this.hedgeEnabled = hedgeEnabled;
+        }
+
+        public double getHedgePercentile() {
+            return hedgePercentile;
+        }
+
+        public void setHedgePercentile(double hedgePercentile) {
+            this.hedgePercentile = hedgePercentile;
+        }
+
+        public long getHedgeMinDelay() {
+            return hedgeMinDelay;
+        }
+
+        public void setHedgeMinDelay(long hedgeMinDelay) {
+            this.hedgeMinDelay = hedgeMinDelay;
+        }
+
+        public int getHedgeMinSamples() {
+            return hedgeMinSamples;
+        }
+
+        public void setHedgeMinSamples(int hedgeMinSamples) {
+            this.hedgeMinSamples = hedgeMinSamples;
+        }
+    }
+
+    /**
+     * 本地快照：每次应用配置后落盘，config server不可用时用于启动
+     */
+    public static class Snapshot {
+
+        private boolean enabled = false;
+
+        /**
+         * 快照目录
+         */
+        private String dir = System.getProperty("user.home") + "/.dynamic-config/snapshot";
+
+        /**
+         * 存在快照时直接使用快照启动，不等待bootstrap阶段的远端拉取
+         */
+        private boolean preferLocal = false;
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public String getDir() {
+            return dir;
+        }
+
+        public void setDir(String dir) {
+            this.dir = dir;
+        }
+
+        public boolean isPreferLocal() {
+            return preferLocal;
+        }
+
+        public void setPreferLocal(boolean preferLocal) {
+            this.preferLocal = preferLocal;
+        }
+    }
+
+    /**
+     * 拉取配置使用的HTTP连接池
+     */
+    public static class Transport {
+
+        /**
+         * 是否使用独立的连接池拉取配置；未开启时使用上下文中的RestTemplate
+         */
+        private boolean enabled = false;
+
+        /**
+         * 连接池最大连接数
+         */
+        private int maxConnections = 20;
+
+        /**
+         * 每个config server的最大连接数
+         */
+        private int maxConnectionsPerRoute = 4;
+
+        /**
+         * 建立连接超时（毫秒）
+         */
+        private long connectTimeout = 3000L;
+
+        /**
+         * 读超时（毫秒），小于等于0时使用spring.cloud.config.request-read-timeout
+         */
+        private long readTimeout = 0L;
+
+        /**
+         * 从连接池获取连接的超时（毫秒）
+         */
+        private long connectionRequestTimeout = 1000L;
+
+        /**
+         * 空闲连接保活时间（毫秒），超过后关闭
+         */
+        private long keepAlive = 60000L;
+
+        /**
+         * 连接最长存活时间（毫秒）
+         */
+        private long timeToLive = 300000L;
+
+        /**
+         * 空闲超过该时间（毫秒）的连接复用前先校验
+         */
+        private long validateAfterInactivity = 2000L;
+
+        /**
+         * 请求携带Accept-Encoding: gzip并流式解压响应
+         */
+        private boolean compression = true;
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public int getMaxConnections() {
+            return maxConnections;
+        }
+
+        public void setMaxConnections(int maxConnections) {
+            this.maxConnections = maxConnections;
+        }
+
+        public int getMaxConnectionsPerRoute() {
+            return maxConnectionsPerRoute;
+        }
+
+        public void setMaxConnectionsPerRoute(int maxConnectionsPerRoute) {
+            this.maxConnectionsPerRoute = maxConnectionsPerRoute;
+        }
+
+        public long getConnectTimeout() {
+            return connectTimeout;
+        }
+
+        public void setConnectTimeout(long connectTimeout) {
+            this.connectTimeout = connectTimeout;
+        }
+
+        public long getReadTimeout() {
+            return readTimeout;
+        }
+
+        public void setReadTimeout(long readTimeout) {
+            this.readTimeout = readTimeout;
+        }
+
+        public long getConnectionRequestTimeout() {
+            return connectionRequestTimeout;
+        }
+
+        public void setConnectionRequestTimeout(long connectionRequestTimeout) {
+            this.connectionRequestTimeout = connectionRequestTimeout;
+        }
+
+        public long getKeepAlive() {
+            return keepAlive;
+        }
+
+        public void setKeepAlive(long keepAlive) {
+            this.keepAlive = keepAlive;
+        }
+
+        public long getTimeToLive() {
+            return timeToLive;
+        }
+
+        public void setTimeToLive(long timeToLive) {
+            this.timeToLive = timeToLive;
+        }
+
+        public long getValidateAfterInactivity() {
+            return validateAfterInactivity;
+        }
+
+        public void setValidateAfterInactivity(long validateAfterInactivity) {
+            this.validateAfterInactivity = validateAfterInactivity;
+        }
+
+        public boolean isCompression() {
+            return compression;
+        }
+
+        public void setCompression(boolean compression) {
+            this.compression = compression;
+        }
+    }
+
+    /**
+     * 监听器回调线程池
+     */
+    public static class Dispatch {
+
+        /**
+         * 回调线程数
+         */
+        private int threads = 2;
+
+        /**
+         * 排队告警阈值：同一监听器最多排队一个任务，新变更会合并进去，变更不会被丢弃；排队数超过该值时输出告警
+         */
+        private int queueCapacity = 64;
+
+        /**
+         * 单次回调超时（毫秒），超时后中断回调线程，小于等于0表示不限制
+         */
+        private long timeout = 0L;
+
+        /**
+         * JDK 21+上使用虚拟线程执行回调
+         */
+        private boolean virtualThreads = false;
+
+        public int getThreads() {
+            return threads;
+        }
+
+        public void setThreads(int threads) {
+            this.threads = threads;
+        }
+
+        public int getQueueCapacity() {
+            return queueCapacity;
+        }
+
+        public void setQueueCapacity(int queueCapacity) {
+            this.queueCapacity = queueCapacity;
+        }
+
+        public long getTimeout() {
+            return timeout;
+        }
+
+        public void setTimeout(long timeout) {
+            this.timeout = timeout;
+        }
+
+        public boolean isVirtualThreads() {
+            return virtualThreads;
+        }
+
+        public void setVirtualThreads(boolean virtualThreads) {
+            this.virtualThreads = virtualThreads;
+        }
+    }
+
+    /**
+     * 服务端推送：以SSE订阅配置变更，收到通知后立即拉取对应配置，轮询只作为兜底。长轮询时不生效
+     */
+    public static class Push {
+
+        private boolean enabled = false;
+
+        /**
+         * 订阅路径，相对config server地址
+         */
+        private String path = "/push/subscribe";
+
+        /**
+         * 推送连接正常时的兜底拉取间隔（毫秒），断开期间恢复poll-interval
+         */
+        private long pollInterval = 60000L;
+
+        /**
+         * 断线后的首次重连间隔（毫秒），连续失败时按2倍递增
+         */
+        private long reconnectDelay = 1000L;
+
+        /**
+         * 重连间隔上限（毫秒）
+         */
+        private long maxReconnectDelay = 30000L;
+
+        /**
+         * 读超时（毫秒），需大于服务端心跳间隔
+         */
+        private int readTimeout = 60000;
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public String getPath() {
+            return path;
+        }
+
+        public void setPath(String path) {
+            this.path = path;
+        }
+
+        public long getPollInterval() {
+            return pollInterval;
+        }
+
+        public void setPollInterval(long pollInterval) {
+            this.pollInterval = pollInterval;
+        }
+
+        public long getReconnectDelay() {
+            return reconnectDelay;
+        }
+
+        public void setReconnectDelay(long reconnectDelay) {
+            this.reconnectDelay = reconnectDelay;
+        }
+
+        public long getMaxReconnectDelay() {
+            return maxReconnectDelay;
+        }
+
+        public void setMaxReconnectDelay(long maxReconnectDelay) {
+            this.maxReconnectDelay = maxReconnectDelay;
+        }
+
+        public int getReadTimeout() {
+            return readTimeout;
+        }
+
+        public void setReadTimeout(int readTimeout) {
+            this.readTimeout = readTimeout;
+        }
+    }
+
+    /**
+     * 功能开关，配置更新时整体编译
+     */
+    public static class Flags {
+
+        private boolean enabled = false;
+
+        /**
+         * 开关定义的key前缀
+         */
+        private String prefix = "flags";
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public String getPrefix() {
+            return prefix;
+        }
+
+        public void setPrefix(String prefix) {
+            this.prefix = prefix;
+        }
+    }
+
+    /**
+     * 同机共享：同一台机器上同一应用的多个进程以文件锁选出一个leader拉取本应用配置，
+     * 写入内存映射文件，其余进程只读共享内存，不访问config server；leader退出后由其他进程接替
+     */
+    public static class Shared {
+
+        private boolean enabled = false;
+
+        /**
+         * 共享文件目录，同机进程需一致且以同一用户运行；目录与文件只允许该用户访问
+         */
+        private String dir = System.getProperty("user.home") + "/.dynamic-config/shared";
+
+        /**
+         * 非leader进程检查共享内存与竞选leader的间隔（毫秒）
+         */
+        private long readInterval = 200L;
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public String getDir() {
+            return dir;
+        }
+
+        public void setDir(String dir) {
+            this.dir = dir;
+        }
+
+        public long getReadInterval() {
+            return readInterval;
+        }
+
+        public void setReadInterval(long readInterval) {
+            this.readInterval = readInterval;
+        }
+    }
+}
@@ -0,0 +1,27 @@
+package com.springcloud.config.client.configuration;
+
+import com.springcloud.config.client.snapshot.SnapshotPropertySourceLocator;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.cloud.config.client.ConfigClientProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+
+/**
+ * 本地快照的bootstrap配置，需先于ConfigServiceBootstrapConfiguration解析以替换默认的定位器
+ */
+@Configuration
+@Order(Ordered.HIGHEST_PRECEDENCE)
+@EnableConfigurationProperties(DynamicConfigProperties.class)
+@ConditionalOnProperty(value = "spring.cloud.config.enabled", matchIfMissing = true)
+public class SnapshotBootstrapConfiguration {
+
+    @Bean
+    @ConditionalOnProperty(prefix = DynamicConfigProperties.PREFIX, name = "snapshot.enabled")
+    public SnapshotPropertySourceLocator snapshotPropertySourceLocator(ConfigClientProperties configClientProperties,
+                                                                       DynamicConfigProperties dynamicConfigProperties) {
+        return new SnapshotPropertySourceLocator(configClientProperties, dynamicConfigProperties.getSnapshot());
+    }
+}
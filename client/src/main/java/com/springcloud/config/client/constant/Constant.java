@@ -9,4 +9,14 @@ public class Constant {
     public static final String CONFIG_CLIENT = "configClient";
 
     public static final String CONFIG_CLIENT_VERSION = "config.client.version";
+
+    /**
+     * 客户端当前持有的git版本号，服务端版本一致时可直接返回304
+     */
+    public static final String VERSION_HEADER = "X-Config-Version";
+
+    /**
+     * 长轮询最长挂起时间（毫秒）
+     */
+    public static final String LONG_POLL_TIMEOUT_HEADER = "X-Config-Long-Poll-Timeout";
 }
@@ -0,0 +1,74 @@
+package com.springcloud.config.client.flag;
+
+import com.springcloud.config.client.listener.SnapshotListener;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 功能开关：配置更新时整体编译一次，以不可变结构整体替换；判定只做哈希查找与整数比较，不解析字符串、不分配对象
+ * <pre>
+ * if (featureFlags.isEnabled("search-v2", userId)) { ... }
+ * </pre>
+ */
+public class FeatureFlags implements SnapshotListener {
+
+    private static final Logger logger = LoggerFactory.getLogger(FeatureFlags.class);
+
+    private final String prefix;
+
+    private volatile Map<String, Flag> flags = Collections.emptyMap();
+
+    public FeatureFlags(String prefix) {
+        this.prefix = prefix;
+    }
+
+    /**
+     * 开关存在、总开关打开且全量时为true
+     */
+    public boolean isEnabled(String name) {
+        Flag flag = flags.get(name);
+        return flag != null && flag.evaluate();
+    }
+
+    /**
+     * 按调用方key判定，开关不存在时为false
+     */
+    public boolean isEnabled(String name, String key) {
+        Flag flag = flags.get(name);
+        return flag != null && flag.evaluate(key);
+    }
+
+    /**
+     * 按调用方key判定，开关不存在时返回defaultValue
+     */
+    public boolean isEnabled(String name, String key, boolean defaultValue) {
+        Flag flag = flags.get(name);
+        return flag == null ? defaultValue : flag.evaluate(key);
+    }
+
+    public Flag getFlag(String name) {
+        return flags.get(name);
+    }
+
+    public Map<String, Flag> getFlags() {
+        return Collections.unmodifiableMap(flags);
+    }
+
+    @Override
+    public void onSnapshot(List<Map<String, Object>> sources) {
+        compile(sources);
+    }
+
+    /**
+     * 编译全部开关后整体替换
+     */
+    public void compile(List<Map<String, Object>> sources) {
+        Map<String, Flag> compiled = FlagCompiler.compile(prefix, sources);
+        flags = compiled;
+        logger.info("compiled {} feature flags", compiled.size());
+    }
+}
@@ -0,0 +1,113 @@
+package com.springcloud.config.client.flag;
+
+import com.springcloud.config.client.util.Digests;
+
+import java.util.Collections;
+import java.util.Set;
+
+/**
+ * 编译后的单个开关，不可变。判定顺序：总开关关闭 → 关；在拒绝名单 → 关；在允许名单 → 开；
+ * 按调用方key的稳定哈希落在灰度比例内 → 开
+ */
+public final class Flag {
+
+    /**
+     * 灰度比例的精度：万分之一
+     */
+    static final int BUCKETS = 10000;
+
+    private final String name;
+
+    private final boolean enabled;
+
+    /**
+     * 灰度比例（万分比），BUCKETS表示全量
+     */
+    private final int rollout;
+
+    private final Set<String> allow;
+
+    private final Set<String> deny;
+
+    /**
+     * 按开关名称加盐，不同开关的灰度人群互相独立
+     */
+    private final long salt;
+
+    Flag(String name, boolean enabled, int rollout, Set<String> allow, Set<String> deny) {
+        this.name = name;
+        this.enabled = enabled;
+        this.rollout = Math.max(0, Math.min(BUCKETS, rollout));
+        this.allow = allow.isEmpty() ? Collections.emptySet() : allow;
+        this.deny = deny.isEmpty() ? Collections.emptySet() : deny;
+        this.salt = Digests.hash(name);
+    }
+
+    /**
+     * 不区分调用方的判定：总开关打开且全量
+     */
+    public boolean evaluate() {
+        return enabled && rollout == BUCKETS;
+    }
+
+    /**
+     * @param key 调用方标识（用户id、租户等），为空时只有全量开关为开
+     */
+    public boolean evaluate(String key) {
+        if (!enabled) {
+            return false;
+        }
+        if (key == null) {
+            return rollout == BUCKETS;
+        }
+        if (deny.contains(key)) {
+            return false;
+        }
+        if (allow.contains(key)) {
+            return true;
+        }
+        return rollout == BUCKETS || (rollout > 0 && bucket(key) < rollout);
+    }
+
+    /**
+     * 调用方key在该开关下的分桶[0, BUCKETS)，跨进程、跨版本稳定
+     */
+    int bucket(String key) {
+        long hash = Digests.mix(Digests.hash(key) ^ salt);
+        return (int) ((hash >>> 1) % BUCKETS);
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * @return 灰度百分比
+     */
+    public double getRolloutPercent() {
+        return rollout * 100D / BUCKETS;
+    }
+
+    public Set<String> getAllow() {
+        return allow;
+    }
+
+    public Set<String> getDeny() {
+        return deny;
+    }
+
+    @Override
+    public String toString() {
+        return "Flag{" +
+                "name='" + name + '\'' +
+                ", enabled=" + enabled +
+                ", rollout=" + getRolloutPercent() + "%" +
+                ", allow=" + allow.size() +
+                ", deny=" + deny.size() +
+                '}';
+    }
+}
@@ -0,0 +1,158 @@
+package com.springcloud.config.client.flag;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.math.BigDecimal;
+import java.util.*;
+
+/**
+ * 把配置中的开关定义编译为{@link Flag}。支持的写法（前缀默认flags）：
+ * <pre>
+ * flags.new-checkout: true              # 布尔开关
+ * flags.search-v2.enabled: true         # 总开关，缺省为true
+ * flags.search-v2.rollout: 12.5%        # 灰度比例，可省略%，缺省为100%
+ * flags.search-v2.allow: u1,u2          # 允许名单，也可写成yaml列表
+ * flags.search-v2.deny: u3
+ * </pre>
+ */
+final class FlagCompiler {
+
+    private static final Logger logger = LoggerFactory.getLogger(FlagCompiler.class);
+
+    private static final String ENABLED = "enabled";
+
+    private static final String ROLLOUT = "rollout";
+
+    private static final String ALLOW = "allow";
+
+    private static final String DENY = "deny";
+
+    private FlagCompiler() {
+    }
+
+    /**
+     * @param sources 按优先级从高到低排列，同名key以优先级高的为准
+     */
+    static Map<String, Flag> compile(String prefix, List<Map<String, Object>> sources) {
+        String keyPrefix = prefix + ".";
+        Map<String, Object> merged = new HashMap<>();
+        for (int i = sources.size() - 1; i >= 0; i--) {
+            for (Map.Entry<String, Object> entry : sources.get(i).entrySet()) {
+                if (entry.getKey().startsWith(keyPrefix)) {
+                    merged.put(entry.getKey().substring(keyPrefix.length()), entry.getValue());
+                }
+            }
+        }
+
+        Map<String, Definition> definitions = new HashMap<>();
+        for (Map.Entry<String, Object> entry : merged.entrySet()) {
+            String key = entry.getKey();
+            String attribute = null;
+            String name = key;
+            int dot = key.lastIndexOf('.');
+            if (dot > 0) {
+                String last = key.substring(dot + 1);
+                int bracket = last.indexOf('[');
+                String candidate = bracket >= 0 ? last.substring(0, bracket) : last;
+                if (ENABLED.equals(candidate) || ROLLOUT.equals(candidate) || ALLOW.equals(candidate) || DENY.equals(candidate)) {
+                    attribute = candidate;
+                    name = key.substring(0, dot);
+                }
+            }
+            Definition definition = definitions.computeIfAbsent(name, Definition::new);
+            try {
+                definition.set(attribute, entry.getValue());
+            } catch (IllegalArgumentException e) {
+                definition.invalid = true;
+                logger.warn("illegal feature flag {}{}: {}", keyPrefix, key, e.getMessage());
+            }
+        }
+
+        Map<String, Flag> flags = new HashMap<>(Math.max(16, definitions.size() * 2));
+        for (Definition definition : definitions.values()) {
+            if (!definition.invalid) {
+                flags.put(definition.name, definition.toFlag());
+            }
+        }
+        return flags;
+    }
+
+    private static final class Definition {
+
+        private final String name;
+
+        private boolean enabled = true;
+
+        private int rollout = Flag.BUCKETS;
+
+        private final Set<String> allow = new HashSet<>();
+
+        private final Set<String> deny = new HashSet<>();
+
+        private boolean invalid;
+
+        Definition(String name) {
+            this.name = name;
+        }
+
+        void set(String attribute, Object value) {
+            if (attribute == null || ENABLED.equals(attribute)) {
+                enabled = toBoolean(value);
+            } else if (ROLLOUT.equals(attribute)) {
+                rollout = toBuckets(value);
+            } else if (ALLOW.equals(attribute)) {
+                addAll(allow, value);
+            } else {
+                addAll(deny, value);
+            }
+        }
+
+        Flag toFlag() {
+            return new Flag(name, enabled, rollout, allow, deny);
+        }
+    }
+
+    private static boolean toBoolean(Object value) {
+        if (value instanceof Boolean) {
+            return (Boolean) value;
+        }
+        String text = String.valueOf(value).trim();
+        if ("true".equalsIgnoreCase(text) || "on".equalsIgnoreCase(text)) {
+            return true;
+        }
+        if ("false".equalsIgnoreCase(text) || "off".equalsIgnoreCase(text)) {
+            return false;
+        }
+        throw new IllegalArgumentException("not a boolean: " + value);
+    }
+
+    private static int toBuckets(Object value) {
+        String text = String.valueOf(value).trim();
+        if (text.endsWith("%")) {
+            text = text.substring(0, text.length() - 1).trim();
+        }
+        BigDecimal percent;
+        try {
+            percent = new BigDecimal(text);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("not a percentage: " + value);
+        }
+        if (percent.signum() < 0 || percent.compareTo(BigDecimal.valueOf(100)) > 0) {
+            throw new IllegalArgumentException("percentage out of [0, 100]: " + value);
+        }
+        return percent.multiply(BigDecimal.valueOf(Flag.BUCKETS / 100)).intValue();
+    }
+
+    private static void addAll(Set<String> target, Object value) {
+        if (value == null) {
+            return;
+        }
+        for (String item : String.valueOf(value).split(",")) {
+            String trimmed = item.trim();
+            if (!trimmed.isEmpty()) {
+                target.add(trimmed);
+            }
+        }
+    }
+}
@@ -0,0 +1,13 @@
+package com.springcloud.config.client.listener;
+
+/**
+ * 配置项变更类型
+ */
+public enum ChangeType {
+
+    ADDED,
+
+    MODIFIED,
+
+    REMOVED
+}
@@ -0,0 +1,48 @@
+package com.springcloud.config.client.listener;
+
+/**
+ * 单个配置项的变更明细
+ */
+public final class ConfigChange {
+
+    private final String key;
+
+    private final Object oldValue;
+
+    private final Object newValue;
+
+    private final ChangeType changeType;
+
+    public ConfigChange(String key, Object oldValue, Object newValue, ChangeType changeType) {
+        this.key = key;
+        this.oldValue = oldValue;
+        this.newValue = newValue;
+        this.changeType = changeType;
+    }
+
+    public String getKey() {
+        return key;
+    }
+
+    public Object getOldValue() {
+        return oldValue;
+    }
+
+    public Object getNewValue() {
+        return newValue;
+    }
+
+    public ChangeType getChangeType() {
+        return changeType;
+    }
+
+    @Override
+    public String toString() {
+        return "ConfigChange{" +
+                "key='" + key + '\'' +
+                ", oldValue=" + oldValue +
+                ", newValue=" + newValue +
+                ", changeType=" + changeType +
+                '}';
+    }
+}
@@ -0,0 +1,139 @@
+package com.springcloud.config.client.listener;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * 一个配置文件在一次git提交中的变更集合，不可变
+ */
+public final class ConfigChangeEvent {
+
+    private final String appName;
+
+    /**
+     * 追踪多组配置时区分同一application的不同profile，可为空
+     */
+    private final String profile;
+
+    private final String configFileName;
+
+    private final String commitVersion;
+
+    private final Map<String, ConfigChange> changes;
+
+    /**
+     * 客户端发现该变更的时间（毫秒）
+     */
+    private final long observedAt;
+
+    public ConfigChangeEvent(String appName, String configFileName, String commitVersion, Map<String, ConfigChange> changes) {
+        this(appName, configFileName, commitVersion, changes, System.currentTimeMillis());
+    }
+
+    public ConfigChangeEvent(String appName, String configFileName, String commitVersion, Map<String, ConfigChange> changes,
+                             long observedAt) {
+        this(appName, null, configFileName, commitVersion, changes, observedAt);
+    }
+
+    public ConfigChangeEvent(String appName, String profile, String configFileName, String commitVersion,
+                             Map<String, ConfigChange> changes, long observedAt) {
+        this.appName = appName;
+        this.profile = profile;
+        this.configFileName = configFileName;
+        this.commitVersion = commitVersion;
+        this.changes = Collections.unmodifiableMap(new LinkedHashMap<>(changes));
+        this.observedAt = observedAt;
+    }
+
+    public String getAppName() {
+        return appName;
+    }
+
+    public String getProfile() {
+        return profile;
+    }
+
+    /**
+     * 配置文件的唯一标识，合并变更时使用
+     */
+    public String getSourceKey() {
+        return appName + "/" + profile + "#" + configFileName;
+    }
+
+    public String getConfigFileName() {
+        return configFileName;
+    }
+
+    public String getCommitVersion() {
+        return commitVersion;
+    }
+
+    public long getObservedAt() {
+        return observedAt;
+    }
+
+    public Map<String, ConfigChange> getChanges() {
+        return changes;
+    }
+
+    public Set<String> getChangedKeys() {
+        return changes.keySet();
+    }
+
+    public boolean isChanged(String key) {
+        return changes.containsKey(key);
+    }
+
+    public ConfigChange getChange(String key) {
+        return changes.get(key);
+    }
+
+    public boolean isEmpty() {
+        return changes.isEmpty();
+    }
+
+    /**
+     * 合并同一配置文件随后的一次变更：旧值取本事件，新值取later，前后抵消的key被移除，发现时间取较早的本事件
+     */
+    public ConfigChangeEvent merge(ConfigChangeEvent later) {
+        Map<String, ConfigChange> merged = new LinkedHashMap<>(changes);
+        for (ConfigChange change : later.getChanges().values()) {
+            String key = change.getKey();
+            ConfigChange earlier = merged.get(key);
+            if (earlier == null) {
+                merged.put(key, change);
+                continue;
+            }
+            Object oldValue = earlier.getOldValue();
+            Object newValue = change.getNewValue();
+            ChangeType changeType;
+            if (earlier.getChangeType() == ChangeType.ADDED) {
+                changeType = change.getChangeType() == ChangeType.REMOVED ? null : ChangeType.ADDED;
+            } else if (change.getChangeType() == ChangeType.REMOVED) {
+                changeType = ChangeType.REMOVED;
+            } else {
+                changeType = Objects.equals(oldValue, newValue) ? null : ChangeType.MODIFIED;
+            }
+            if (changeType == null) {
+                merged.remove(key);
+            } else {
+                merged.put(key, new ConfigChange(key, oldValue, newValue, changeType));
+            }
+        }
+        return new ConfigChangeEvent(appName, profile, configFileName, later.getCommitVersion(), merged, observedAt);
+    }
+
+    @Override
+    public String toString() {
+        return "ConfigChangeEvent{" +
+                "appName='" + appName + '\'' +
+                ", profile='" + profile + '\'' +
+                ", configFileName='" + configFileName + '\'' +
+                ", commitVersion='" + commitVersion + '\'' +
+                ", changedKeys=" + changes.keySet() +
+                '}';
+    }
+}
@@ -0,0 +1,80 @@
+package com.springcloud.config.client.listener;
+
+import com.springcloud.config.client.config.CompactValues;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * 配置差异计算
+ */
+public final class ConfigChanges {
+
+    private ConfigChanges() {
+    }
+
+    /**
+     * 比较两个版本的配置，返回新增、修改、删除的key
+     */
+    public static Map<String, ConfigChange> diff(Map<String, Object> before, Map<String, Object> after) {
+        if (before instanceof CompactValues && after instanceof CompactValues) {
+            return diff((CompactValues) before, (CompactValues) after);
+        }
+        Map<String, ConfigChange> result = new HashMap<>();
+        int retained = 0;
+        for (Map.Entry<String, Object> entry : before.entrySet()) {
+            String key = entry.getKey();
+            Object oldValue = entry.getValue();
+            Object newValue = after.get(key);
+            if (newValue == null && !after.containsKey(key)) {
+                result.put(key, new ConfigChange(key, oldValue, null, ChangeType.REMOVED));
+                continue;
+            }
+            retained++;
+            if (!Objects.equals(oldValue, newValue)) {
+                result.put(key, new ConfigChange(key, oldValue, newValue, ChangeType.MODIFIED));
+            }
+        }
+        // after中的key都已在before中出现过时无需再遍历
+        if (retained == after.size()) {
+            return result;
+        }
+        for (Map.Entry<String, Object> entry : after.entrySet()) {
+            String key = entry.getKey();
+            if (!before.containsKey(key)) {
+                result.put(key, new ConfigChange(key, null, entry.getValue(), ChangeType.ADDED));
+            }
+        }
+        return result;
+    }
+
+    /**
+     * 两份key有序的配置按顺序归并比较，不做哈希查找，未变化的值不装箱
+     */
+    static Map<String, ConfigChange> diff(CompactValues before, CompactValues after) {
+        Map<String, ConfigChange> result = new HashMap<>();
+        int i = 0;
+        int j = 0;
+        while (i < before.size() || j < after.size()) {
+            int cmp = i >= before.size() ? 1 : j >= after.size() ? -1 : before.keyAt(i).compareTo(after.keyAt(j));
+            if (cmp < 0) {
+                String key = before.keyAt(i);
+                result.put(key, new ConfigChange(key, before.valueAt(i), null, ChangeType.REMOVED));
+                i++;
+            } else if (cmp > 0) {
+                String key = after.keyAt(j);
+                result.put(key, new ConfigChange(key, null, after.valueAt(j), ChangeType.ADDED));
+                j++;
+            } else {
+                if (!CompactValues.sameValue(before, i, after, j)) {
+                    String key = after.keyAt(j);
+                    result.put(key, new ConfigChange(key, before.valueAt(i), after.valueAt(j), ChangeType.MODIFIED));
+                }
+                i++;
+                j++;
+            }
+        }
+        return result;
+    }
+}
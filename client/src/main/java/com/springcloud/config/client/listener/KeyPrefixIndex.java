@@ -0,0 +1,117 @@
+package com.springcloud.config.client.listener;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.BiConsumer;
+
+/**
+ * 按key前缀索引订阅方：以"."与"["分段的前缀树，db.pool匹配db.pool、db.pool.size、db.pool[0]，不匹配db.poolSize。
+ * 查找只沿变更的key向下走，耗时与变更key数及key深度成正比，与订阅数无关。
+ * 注册与查找可并发
+ */
+public class KeyPrefixIndex<T> {
+
+    private final Node<T> root = new Node<>();
+
+    private volatile int size;
+
+    /**
+     * @param prefix 为空时匹配所有key
+     */
+    public synchronized void add(String prefix, T subscriber) {
+        Node<T> node = root;
+        int start = 0;
+        while (start < prefix.length()) {
+            int end = segmentEnd(prefix, start);
+            node = node.children.computeIfAbsent(prefix.substring(start, end), it -> new Node<>());
+            start = next(prefix, end);
+        }
+        if (node.subscribers.addIfAbsent(subscriber)) {
+            size++;
+        }
+    }
+
+    public synchronized boolean remove(String prefix, T subscriber) {
+        Node<T> node = root;
+        int start = 0;
+        while (node != null && start < prefix.length()) {
+            int end = segmentEnd(prefix, start);
+            node = node.children.get(prefix.substring(start, end));
+            start = next(prefix, end);
+        }
+        if (node != null && node.subscribers.remove(subscriber)) {
+            size--;
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * 对key的每个匹配的订阅方回调一次（同一订阅方注册了多个匹配的前缀时回调多次）
+     */
+    public void match(String key, BiConsumer<T, String> consumer) {
+        Node<T> node = root;
+        int start = 0;
+        while (true) {
+            for (T subscriber : node.subscribers) {
+                consumer.accept(subscriber, key);
+            }
+            if (start >= key.length() || node.children.isEmpty()) {
+                return;
+            }
+            int end = segmentEnd(key, start);
+            node = node.children.get(key.substring(start, end));
+            if (node == null) {
+                return;
+            }
+            start = next(key, end);
+        }
+    }
+
+    public void match(Collection<String> keys, BiConsumer<T, String> consumer) {
+        if (size == 0) {
+            return;
+        }
+        for (String key : keys) {
+            match(key, consumer);
+        }
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    /**
+     * 分段结束位置："."或"["之前，"["开头的段到"]"为止
+     */
+    private static int segmentEnd(String key, int start) {
+        if (key.charAt(start) == '[') {
+            int close = key.indexOf(']', start);
+            return close < 0 ? key.length() : close + 1;
+        }
+        for (int i = start; i < key.length(); i++) {
+            char c = key.charAt(i);
+            if (c == '.' || c == '[') {
+                return i;
+            }
+        }
+        return key.length();
+    }
+
+    private static int next(String key, int end) {
+        return end < key.length() && key.charAt(end) == '.' ? end + 1 : end;
+    }
+
+    private static final class Node<T> {
+
+        private final Map<String, Node<T>> children = new ConcurrentHashMap<>(4);
+
+        private final CopyOnWriteArrayList<T> subscribers = new CopyOnWriteArrayList<>();
+    }
+}
@@ -1,5 +1,6 @@
 package com.springcloud.config.client.listener;
 
+import java.util.List;
 import java.util.concurrent.Executor;
 
 /**
@@ -12,6 +13,22 @@ public interface Listener {
      */
     void executeEvent();
 
+    /**
+     * 执行监听事件，携带本次变更的key、新旧值、配置文件名称与git版本号。
+     * 默认回退到{@link #executeEvent()}，只关心部分key的监听器可覆盖此方法按需处理
+     */
+    default void executeEvent(ConfigChangeEvent changeEvent) {
+        executeEvent();
+    }
+
+    /**
+     * 执行合并后的监听事件：一次拉取周期（及防抖窗口）内的全部变更，每个配置文件一个事件。
+     * 默认逐个文件回调{@link #executeEvent(ConfigChangeEvent)}，只需整体处理一次的监听器（如刷新上下文）可覆盖此方法
+     */
+    default void executeEvents(List<ConfigChangeEvent> changeEvents) {
+        changeEvents.forEach(this::executeEvent);
+    }
+
     /**
      * 定义执行处理器
      */
@@ -0,0 +1,35 @@
+package com.springcloud.config.client.listener;
+
+import org.springframework.cloud.endpoint.event.RefreshEvent;
+import org.springframework.context.ApplicationEventPublisher;
+
+import java.util.List;
+import java.util.concurrent.Executor;
+
+/**
+ * 默认监听器：配置变更后发布RefreshEvent刷新上下文。
+ * 所有配置文件共用同一个实例，一次拉取周期内多个文件的变更只刷新一次
+ */
+public class RefreshListener implements Listener {
+
+    private final ApplicationEventPublisher publisher;
+
+    public RefreshListener(ApplicationEventPublisher publisher) {
+        this.publisher = publisher;
+    }
+
+    @Override
+    public void executeEvent() {
+        publisher.publishEvent(new RefreshEvent(this, null, "Refresh git config"));
+    }
+
+    @Override
+    public void executeEvents(List<ConfigChangeEvent> changeEvents) {
+        executeEvent();
+    }
+
+    @Override
+    public Executor getExecutor() {
+        return null;
+    }
+}
@@ -0,0 +1,15 @@
+package com.springcloud.config.client.listener;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 本应用配置整体更新的回调：在拉取线程上、通知{@link Listener}之前执行，用于基于完整快照重建派生结构
+ */
+public interface SnapshotListener {
+
+    /**
+     * @param sources 本应用各配置文件的最新内容，按优先级从高到低排列
+     */
+    void onSnapshot(List<Map<String, Object>> sources);
+}
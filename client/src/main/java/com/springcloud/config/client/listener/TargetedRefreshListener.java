@@ -0,0 +1,336 @@
+package com.springcloud.config.client.listener;
+
+import com.springcloud.config.client.constant.Constant;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.BeansException;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.beans.factory.config.BeanDefinition;
+import org.springframework.beans.factory.config.ConfigurableListableBeanFactory;
+import org.springframework.boot.context.properties.ConfigurationBeanFactoryMetadata;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.source.ConfigurationPropertyName;
+import org.springframework.cloud.context.environment.EnvironmentChangeEvent;
+import org.springframework.cloud.context.properties.ConfigurationPropertiesRebinder;
+import org.springframework.cloud.context.scope.refresh.RefreshScope;
+import org.springframework.context.ApplicationContext;
+import org.springframework.context.ApplicationContextAware;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.core.annotation.AnnotatedElementUtils;
+import org.springframework.core.annotation.AnnotationUtils;
+import org.springframework.core.env.CompositePropertySource;
+import org.springframework.core.env.EnumerablePropertySource;
+import org.springframework.core.env.MapPropertySource;
+import org.springframework.core.env.MutablePropertySources;
+import org.springframework.core.env.PropertySource;
+import org.springframework.lang.Nullable;
+import org.springframework.util.ClassUtils;
+import org.springframework.util.ReflectionUtils;
+
+import java.lang.annotation.Annotation;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Method;
+import java.util.*;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * 定向刷新：不重新bootstrap，用已拉取到的变更替换上下文中对应的配置文件，
+ * 只重新绑定前缀与变更key有交集的{@code @ConfigurationProperties}，只销毁引用了变更key或依赖了重新绑定的bean的refresh scope bean。
+ * 配置文件增减、或无法定位上下文中的配置时退回完整刷新
+ */
+public class TargetedRefreshListener extends RefreshListener implements ApplicationContextAware {
+
+    private static final Logger logger = LoggerFactory.getLogger(TargetedRefreshListener.class);
+
+    private static final Pattern PLACEHOLDER = Pattern.compile("\\$\\{([^:}]+)");
+
+    private static final String REFRESH_SCOPE = "refresh";
+
+    private static final String SCOPED_TARGET_PREFIX = "scopedTarget.";
+
+    private final ApplicationEventPublisher publisher;
+
+    private ConfigurableApplicationContext applicationContext;
+
+    public TargetedRefreshListener(ApplicationEventPublisher publisher) {
+        super(publisher);
+        this.publisher = publisher;
+    }
+
+    @Override
+    public void setApplicationContext(@Nullable ApplicationContext applicationContext) throws BeansException {
+        this.applicationContext = (ConfigurableApplicationContext) applicationContext;
+    }
+
+    @Override
+    public synchronized void executeEvents(List<ConfigChangeEvent> changeEvents) {
+        try {
+            if (refresh(changeEvents)) {
+                return;
+            }
+        } catch (RuntimeException e) {
+            logger.warn("targeted refresh error, fall back to context refresh", e);
+        }
+        executeEvent();
+    }
+
+    /**
+     * @return 是否完成定向刷新，false时由调用方完整刷新
+     */
+    private boolean refresh(List<ConfigChangeEvent> changeEvents) {
+        if (applicationContext == null) {
+            return false;
+        }
+        Set<String> keys = new LinkedHashSet<>();
+        if (!replacePropertySources(changeEvents, keys)) {
+            return false;
+        }
+        if (keys.isEmpty()) {
+            return true;
+        }
+        List<ConfigurationPropertyName> changedNames = new ArrayList<>(keys.size());
+        for (String key : keys) {
+            ConfigurationPropertyName name = propertyName(key);
+            if (name != null && !name.isEmpty()) {
+                changedNames.add(name);
+            }
+        }
+
+        Set<String> rebound = rebind(changedNames);
+        Set<String> evicted = evict(keys, changedNames, rebound);
+        // 与完整刷新一样通知变更的key（日志级别等随之更新）；事件源不是上下文，ConfigurationPropertiesRebinder不再全部重新绑定
+        publisher.publishEvent(new EnvironmentChangeEvent(this, keys));
+        logger.info("targeted refresh, keys:{}, rebound:{}, evicted:{}", keys, rebound, evicted);
+        return true;
+    }
+
+    /**
+     * 整体替换bootstrapProperties，读线程要么看到旧配置要么看到新配置
+     *
+     * @param keys 输出变更的key
+     * @return 变更的配置文件是否都在上下文中
+     */
+    private boolean replacePropertySources(List<ConfigChangeEvent> changeEvents, Set<String> keys) {
+        MutablePropertySources propertySources = applicationContext.getEnvironment().getPropertySources();
+        PropertySource<?> bootstrap = propertySources.get(Constant.BOOTSTRAP_PROPERTIES);
+        if (!(bootstrap instanceof CompositePropertySource)) {
+            return false;
+        }
+        Map<String, List<ConfigChangeEvent>> eventsBySource = new LinkedHashMap<>();
+        for (ConfigChangeEvent changeEvent : changeEvents) {
+            eventsBySource.computeIfAbsent(changeEvent.getConfigFileName(), it -> new ArrayList<>()).add(changeEvent);
+        }
+
+        CompositePropertySource replacement = new CompositePropertySource(bootstrap.getName());
+        Set<String> replaced = new HashSet<>();
+        for (PropertySource<?> source : ((CompositePropertySource) bootstrap).getPropertySources()) {
+            if (!Constant.CONFIG_SERVICE.equals(source.getName()) || !(source instanceof CompositePropertySource)) {
+                replacement.addPropertySource(source);
+                continue;
+            }
+            CompositePropertySource configService = new CompositePropertySource(source.getName());
+            for (PropertySource<?> fileSource : ((CompositePropertySource) source).getPropertySources()) {
+                List<ConfigChangeEvent> events = eventsBySource.get(fileSource.getName());
+                if (events == null || !(fileSource instanceof EnumerablePropertySource)) {
+                    configService.addPropertySource(fileSource);
+                    continue;
+                }
+                configService.addPropertySource(apply((EnumerablePropertySource<?>) fileSource, events, keys));
+                replaced.add(fileSource.getName());
+            }
+            replacement.addPropertySource(configService);
+        }
+        if (!replaced.containsAll(eventsBySource.keySet())) {
+            return false;
+        }
+        propertySources.replace(bootstrap.getName(), replacement);
+        return true;
+    }
+
+    private static MapPropertySource apply(EnumerablePropertySource<?> source, List<ConfigChangeEvent> events, Set<String> keys) {
+        Map<String, Object> values;
+        if (source instanceof MapPropertySource) {
+            values = new LinkedHashMap<>(((MapPropertySource) source).getSource());
+        } else {
+            values = new LinkedHashMap<>();
+            for (String name : source.getPropertyNames()) {
+                values.put(name, source.getProperty(name));
+            }
+        }
+        for (ConfigChangeEvent event : events) {
+            for (ConfigChange change : event.getChanges().values()) {
+                if (change.getChangeType() == ChangeType.REMOVED) {
+                    values.remove(change.getKey());
+                } else {
+                    values.put(change.getKey(), change.getNewValue());
+                }
+                keys.add(change.getKey());
+            }
+        }
+        return new MapPropertySource(source.getName(), values);
+    }
+
+    /**
+     * 重新绑定前缀与变更key有交集的单例{@code @ConfigurationProperties}
+     */
+    private Set<String> rebind(List<ConfigurationPropertyName> changedNames) {
+        Set<String> rebound = new LinkedHashSet<>();
+        ConfigurationPropertiesRebinder rebinder = applicationContext.getBeanProvider(ConfigurationPropertiesRebinder.class).getIfUnique();
+        if (rebinder == null) {
+            return rebound;
+        }
+        for (String beanName : rebinder.getBeanNames()) {
+            ConfigurationProperties annotation = findConfigurationProperties(beanName);
+            if (annotation != null && overlaps(prefix(annotation), changedNames) && rebinder.rebind(beanName)) {
+                rebound.add(beanName);
+            }
+        }
+        return rebound;
+    }
+
+    /**
+     * 销毁受影响的refresh scope bean，下次访问时按新配置重新创建
+     */
+    private Set<String> evict(Set<String> keys, List<ConfigurationPropertyName> changedNames, Set<String> rebound) {
+        Set<String> evicted = new LinkedHashSet<>();
+        RefreshScope refreshScope = applicationContext.getBeanProvider(RefreshScope.class).getIfUnique();
+        if (refreshScope == null) {
+            return evicted;
+        }
+        ConfigurableListableBeanFactory beanFactory = applicationContext.getBeanFactory();
+        for (String beanName : beanFactory.getBeanDefinitionNames()) {
+            BeanDefinition definition = beanFactory.getBeanDefinition(beanName);
+            if (!REFRESH_SCOPE.equals(definition.getScope())) {
+                continue;
+            }
+            if (affected(beanName, keys, changedNames, rebound, beanFactory)) {
+                refreshScope.refresh(beanName);
+                evicted.add(beanName.startsWith(SCOPED_TARGET_PREFIX) ? beanName.substring(SCOPED_TARGET_PREFIX.length()) : beanName);
+            }
+        }
+        return evicted;
+    }
+
+    private boolean affected(String beanName, Set<String> keys, List<ConfigurationPropertyName> changedNames, Set<String> rebound,
+                             ConfigurableListableBeanFactory beanFactory) {
+        ConfigurationProperties annotation = findConfigurationProperties(beanName);
+        if (annotation != null && overlaps(prefix(annotation), changedNames)) {
+            return true;
+        }
+        for (String dependency : beanFactory.getDependenciesForBean(beanName)) {
+            if (rebound.contains(dependency)) {
+                return true;
+            }
+        }
+        for (String placeholder : placeholders(beanName)) {
+            if (keys.contains(placeholder)) {
+                return true;
+            }
+            ConfigurationPropertyName name = propertyName(placeholder);
+            if (name == null) {
+                continue;
+            }
+            for (ConfigurationPropertyName changed : changedNames) {
+                if (name.equals(changed) || name.isAncestorOf(changed) || changed.isAncestorOf(name)) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    @Nullable
+    private ConfigurationProperties findConfigurationProperties(String beanName) {
+        ConfigurationBeanFactoryMetadata metadata = applicationContext.getBeanProvider(ConfigurationBeanFactoryMetadata.class).getIfUnique();
+        if (metadata != null) {
+            ConfigurationProperties annotation = metadata.findFactoryAnnotation(beanName, ConfigurationProperties.class);
+            if (annotation != null) {
+                return annotation;
+            }
+        }
+        Class<?> type = userType(beanName);
+        return type == null ? null : AnnotationUtils.findAnnotation(type, ConfigurationProperties.class);
+    }
+
+    /**
+     * bean类的字段、方法、构造参数以及{@code @Bean}方法参数上{@code @Value}引用的配置key
+     */
+    private Set<String> placeholders(String beanName) {
+        Set<String> placeholders = new HashSet<>();
+        Class<?> type = userType(beanName);
+        if (type != null) {
+            ReflectionUtils.doWithFields(type, field -> addPlaceholders(field.getAnnotation(Value.class), placeholders));
+            ReflectionUtils.doWithMethods(type, method -> addMethodPlaceholders(method, placeholders));
+            for (Constructor<?> constructor : type.getDeclaredConstructors()) {
+                for (Annotation[] annotations : constructor.getParameterAnnotations()) {
+                    addParameterPlaceholders(annotations, placeholders);
+                }
+            }
+        }
+        ConfigurationBeanFactoryMetadata metadata = applicationContext.getBeanProvider(ConfigurationBeanFactoryMetadata.class).getIfUnique();
+        Method factoryMethod = metadata == null ? null : metadata.findFactoryMethod(beanName);
+        if (factoryMethod != null) {
+            addMethodPlaceholders(factoryMethod, placeholders);
+        }
+        return placeholders;
+    }
+
+    private static void addMethodPlaceholders(Method method, Set<String> placeholders) {
+        addPlaceholders(AnnotatedElementUtils.findMergedAnnotation(method, Value.class), placeholders);
+        for (Annotation[] annotations : method.getParameterAnnotations()) {
+            addParameterPlaceholders(annotations, placeholders);
+        }
+    }
+
+    private static void addParameterPlaceholders(Annotation[] annotations, Set<String> placeholders) {
+        for (Annotation annotation : annotations) {
+            if (annotation instanceof Value) {
+                addPlaceholders((Value) annotation, placeholders);
+            }
+        }
+    }
+
+    private static void addPlaceholders(@Nullable Value value, Set<String> placeholders) {
+        if (value == null) {
+            return;
+        }
+        Matcher matcher = PLACEHOLDER.matcher(value.value());
+        while (matcher.find()) {
+            placeholders.add(matcher.group(1).trim());
+        }
+    }
+
+    @Nullable
+    private Class<?> userType(String beanName) {
+        Class<?> type = applicationContext.getBeanFactory().getType(beanName);
+        return type == null ? null : ClassUtils.getUserClass(type);
+    }
+
+    /**
+     * 按relaxed binding的规范形式比较，无法转换的key返回null
+     */
+    @Nullable
+    private static ConfigurationPropertyName propertyName(String key) {
+        String canonical = key.toLowerCase(Locale.ROOT);
+        return ConfigurationPropertyName.isValid(canonical) ? ConfigurationPropertyName.of(canonical) : null;
+    }
+
+    private static String prefix(ConfigurationProperties annotation) {
+        return annotation.prefix().isEmpty() ? annotation.value() : annotation.prefix();
+    }
+
+    private static boolean overlaps(String prefix, List<ConfigurationPropertyName> changedNames) {
+        ConfigurationPropertyName name = propertyName(prefix);
+        if (name == null || name.isEmpty()) {
+            return true;
+        }
+        for (ConfigurationPropertyName changed : changedNames) {
+            if (name.equals(changed) || name.isAncestorOf(changed) || changed.isAncestorOf(name)) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
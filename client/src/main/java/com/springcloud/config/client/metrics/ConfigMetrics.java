@@ -0,0 +1,71 @@
+package com.springcloud.config.client.metrics;
+
+/**
+ * 客户端指标埋点，未接入监控时使用{@link #NOOP}
+ */
+public interface ConfigMetrics {
+
+    ConfigMetrics NOOP = new ConfigMetrics() {
+    };
+
+    /**
+     * 一次HTTP拉取请求
+     *
+     * @param uri    config server地址
+     * @param label  git分支
+     * @param status HTTP状态码，连接失败时为error
+     * @param nanos  请求耗时
+     */
+    default void recordRequest(String uri, String label, String status, long nanos) {
+    }
+
+    /**
+     * 响应体在网络上传输的字节数（压缩后）
+     */
+    default void recordResponseBytes(String uri, long bytes) {
+    }
+
+    /**
+     * 一个label的拉取结果
+     *
+     * @param result not_modified：服务端返回304；unchanged：返回了配置但无配置文件变化；changed：有配置文件变化
+     */
+    default void recordPollResult(String label, String result) {
+    }
+
+    /**
+     * 一次完整拉取周期正常结束，用于计算配置陈旧时间
+     */
+    default void recordPollCompleted() {
+    }
+
+    /**
+     * 一个配置文件的diff耗时与变更key数
+     */
+    default void recordDiff(long nanos, int changedKeys) {
+    }
+
+    /**
+     * 一次监听器回调
+     */
+    default void recordListener(String listener, boolean success, long nanos) {
+    }
+
+    /**
+     * 监听器回调从投递到开始执行的排队时间
+     */
+    default void recordListenerQueueDelay(long millis) {
+    }
+
+    /**
+     * 一次监听器回调超时被中断
+     */
+    default void recordListenerTimeout(String listener) {
+    }
+
+    /**
+     * 变更传播延迟：拉取线程发现新版本到监听器回调结束
+     */
+    default void recordPropagation(long millis) {
+    }
+}
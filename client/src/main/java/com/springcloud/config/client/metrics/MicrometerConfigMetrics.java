@@ -0,0 +1,128 @@
+package com.springcloud.config.client.metrics;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.TimeGauge;
+import io.micrometer.core.instrument.Timer;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 基于Micrometer的指标实现
+ */
+public class MicrometerConfigMetrics implements ConfigMetrics {
+
+    private static final String PREFIX = "config.client.";
+
+    private final MeterRegistry registry;
+
+    private final DistributionSummary changedKeys;
+
+    private final Timer diff;
+
+    private final Timer propagation;
+
+    private final Timer listenerQueueDelay;
+
+    /**
+     * 按tag缓存的指标，避免每次埋点都构建并到registry中查找
+     */
+    private final Map<List<String>, Timer> requests = new ConcurrentHashMap<>(16);
+
+    private final Map<String, DistributionSummary> responseBytes = new ConcurrentHashMap<>(4);
+
+    private final Map<List<String>, Timer> listeners = new ConcurrentHashMap<>(16);
+
+    /**
+     * 上次拉取周期正常结束的时间，启动时取创建时间，拉取一直失败时陈旧时间持续增长
+     */
+    private volatile long lastPollCompleted = System.currentTimeMillis();
+
+    public MicrometerConfigMetrics(MeterRegistry registry) {
+        this.registry = registry;
+        this.diff = Timer.builder(PREFIX + "diff")
+                .description("Time spent computing the changed keys of a config file")
+                .register(registry);
+        this.changedKeys = DistributionSummary.builder(PREFIX + "diff.changed.keys")
+                .description("Number of changed keys per changed config file")
+                .register(registry);
+        this.propagation = Timer.builder(PREFIX + "propagation")
+                .description("Time from a new commit being observed to its listeners completing")
+                .publishPercentileHistogram()
+                .register(registry);
+        this.listenerQueueDelay = Timer.builder(PREFIX + "listener.queue.delay")
+                .description("Time a listener callback waits for a dispatch thread")
+                .register(registry);
+        TimeGauge.builder(PREFIX + "staleness", this, TimeUnit.MILLISECONDS,
+                it -> System.currentTimeMillis() - it.lastPollCompleted)
+                .description("Time since the last successful poll cycle")
+                .register(registry);
+    }
+
+    @Override
+    public void recordRequest(String uri, String label, String status, long nanos) {
+        requests.computeIfAbsent(Arrays.asList(uri, label, status), key -> Timer.builder(PREFIX + "poll.requests")
+                .description("Config server request latency")
+                .tag("uri", uri)
+                .tag("label", label)
+                .tag("status", status)
+                .register(registry))
+                .record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    @Override
+    public void recordResponseBytes(String uri, long bytes) {
+        responseBytes.computeIfAbsent(uri, key -> DistributionSummary.builder(PREFIX + "poll.response.bytes")
+                .description("Bytes received from the config server, before decompression")
+                .baseUnit("bytes")
+                .tag("uri", uri)
+                .register(registry))
+                .record(bytes);
+    }
+
+    @Override
+    public void recordPollResult(String label, String result) {
+        registry.counter(PREFIX + "poll.results", "label", label, "result", result).increment();
+    }
+
+    @Override
+    public void recordPollCompleted() {
+        lastPollCompleted = System.currentTimeMillis();
+    }
+
+    @Override
+    public void recordDiff(long nanos, int changedKeys) {
+        diff.record(nanos, TimeUnit.NANOSECONDS);
+        this.changedKeys.record(changedKeys);
+    }
+
+    @Override
+    public void recordListener(String listener, boolean success, long nanos) {
+        String result = success ? "success" : "failure";
+        listeners.computeIfAbsent(Arrays.asList(listener, result), key -> Timer.builder(PREFIX + "listener")
+                .description("Listener callback execution time")
+                .tag("listener", listener)
+                .tag("result", result)
+                .register(registry))
+                .record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    @Override
+    public void recordListenerQueueDelay(long millis) {
+        listenerQueueDelay.record(millis, TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public void recordListenerTimeout(String listener) {
+        registry.counter(PREFIX + "listener.timeouts", "listener", listener).increment();
+    }
+
+    @Override
+    public void recordPropagation(long millis) {
+        propagation.record(millis, TimeUnit.MILLISECONDS);
+    }
+}
@@ -0,0 +1,68 @@
+package com.springcloud.config.client.reactive;
+
+import com.springcloud.config.client.listener.ConfigChangeEvent;
+
+import java.util.Map;
+
+/**
+ * 订阅流中的一个元素：配置文件（或其中某个key前缀）的最新内容，以及距上一个元素的变更，不可变
+ */
+public final class ConfigEvent {
+
+    /**
+     * 距上一个元素的变更，订阅时回放的当前快照为空变更
+     */
+    private final ConfigChangeEvent changeEvent;
+
+    /**
+     * 最新内容，只包含key前缀下的配置
+     */
+    private final Map<String, Object> values;
+
+    /**
+     * 是否包含订阅时回放的快照：订阅方尚未收到过任何内容
+     */
+    private final boolean replay;
+
+    ConfigEvent(ConfigChangeEvent changeEvent, Map<String, Object> values, boolean replay) {
+        this.changeEvent = changeEvent;
+        this.values = values;
+        this.replay = replay;
+    }
+
+    /**
+     * 订阅方来不及消费时与随后的元素合并：内容取later，变更前后合并
+     */
+    ConfigEvent merge(ConfigEvent later) {
+        return new ConfigEvent(changeEvent.merge(later.changeEvent), later.values, replay || later.replay);
+    }
+
+    public ConfigChangeEvent getChangeEvent() {
+        return changeEvent;
+    }
+
+    public Map<String, Object> getValues() {
+        return values;
+    }
+
+    public Object getValue(String key) {
+        return values.get(key);
+    }
+
+    public String getCommitVersion() {
+        return changeEvent.getCommitVersion();
+    }
+
+    public boolean isReplay() {
+        return replay;
+    }
+
+    @Override
+    public String toString() {
+        return "ConfigEvent{" +
+                "changeEvent=" + changeEvent +
+                ", keys=" + values.size() +
+                ", replay=" + replay +
+                '}';
+    }
+}
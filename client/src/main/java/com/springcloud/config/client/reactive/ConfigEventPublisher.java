@@ -0,0 +1,166 @@
+package com.springcloud.config.client.reactive;
+
+import com.springcloud.config.client.config.ConfigSnapshot;
+import com.springcloud.config.client.listener.ConfigChange;
+import com.springcloud.config.client.listener.ConfigChangeEvent;
+import com.springcloud.config.client.listener.Listener;
+import org.reactivestreams.Publisher;
+import org.reactivestreams.Subscriber;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArraySet;
+import java.util.concurrent.Executor;
+import java.util.function.Supplier;
+
+/**
+ * 一个配置文件（可限定key前缀）的变更流，多个订阅方共享同一个监听器。
+ * 订阅时先回放当前快照，之后每次变更投递最新内容与变更明细；订阅方按需请求，慢订阅方只拿到合并后的最新内容
+ */
+public class ConfigEventPublisher implements Publisher<ConfigEvent> {
+
+    private final String application;
+
+    private final String profile;
+
+    private final String configFileName;
+
+    /**
+     * key前缀，为空时为整个配置文件
+     */
+    private final String keyPrefix;
+
+    private final Supplier<ConfigSnapshot> snapshot;
+
+    private final Executor executor;
+
+    private final Set<ConfigEventSubscription> subscriptions = new CopyOnWriteArraySet<>();
+
+    private final Listener listener = new PublishingListener();
+
+    private volatile boolean closed;
+
+    ConfigEventPublisher(String application, String profile, String configFileName, String keyPrefix,
+                         Supplier<ConfigSnapshot> snapshot, Executor executor) {
+        this.application = application;
+        this.profile = profile;
+        this.configFileName = configFileName;
+        this.keyPrefix = keyPrefix;
+        this.snapshot = snapshot;
+        this.executor = executor;
+    }
+
+    @Override
+    public void subscribe(Subscriber<? super ConfigEvent> subscriber) {
+        if (subscriber == null) {
+            throw new NullPointerException("subscriber");
+        }
+        ConfigEventSubscription[] holder = new ConfigEventSubscription[1];
+        ConfigEventSubscription subscription = new ConfigEventSubscription(subscriber, executor,
+                () -> subscriptions.remove(holder[0]));
+        holder[0] = subscription;
+        subscriber.onSubscribe(subscription);
+        // onSubscribe返回后再加入，之后的元素不会与onSubscribe并发
+        subscriptions.add(subscription);
+        ConfigSnapshot current = snapshot.get();
+        if (current != null && current.getVersion() != null) {
+            subscription.offer(new ConfigEvent(new ConfigChangeEvent(application, profile, configFileName, current.getVersion(),
+                    Collections.emptyMap(), current.getFetchTimestamp()), filter(current.getValues()), true));
+        }
+        if (closed) {
+            subscription.complete();
+        }
+    }
+
+    /**
+     * 通知所有订阅方结束
+     */
+    void close() {
+        closed = true;
+        subscriptions.forEach(ConfigEventSubscription::complete);
+    }
+
+    Listener getListener() {
+        return listener;
+    }
+
+    public int getSubscriberCount() {
+        return subscriptions.size();
+    }
+
+    private boolean matches(String key) {
+        return keyPrefix == null || key.startsWith(keyPrefix) && (key.length() == keyPrefix.length()
+                || key.charAt(keyPrefix.length()) == '.' || key.charAt(keyPrefix.length()) == '[');
+    }
+
+    private Map<String, Object> filter(Map<String, Object> values) {
+        if (keyPrefix == null) {
+            return values;
+        }
+        Map<String, Object> filtered = new HashMap<>();
+        values.forEach((key, value) -> {
+            if (matches(key)) {
+                filtered.put(key, value);
+            }
+        });
+        return Collections.unmodifiableMap(filtered);
+    }
+
+    private void publish(ConfigChangeEvent changeEvent) {
+        if (subscriptions.isEmpty()) {
+            return;
+        }
+        Map<String, ConfigChange> changes = changeEvent.getChanges();
+        if (keyPrefix != null) {
+            changes = new LinkedHashMap<>();
+            for (ConfigChange change : changeEvent.getChanges().values()) {
+                if (matches(change.getKey())) {
+                    changes.put(change.getKey(), change);
+                }
+            }
+            if (changes.isEmpty()) {
+                return;
+            }
+            changeEvent = new ConfigChangeEvent(changeEvent.getAppName(), changeEvent.getProfile(),
+                    changeEvent.getConfigFileName(), changeEvent.getCommitVersion(), changes, changeEvent.getObservedAt());
+        }
+        ConfigSnapshot current = snapshot.get();
+        ConfigEvent event = new ConfigEvent(changeEvent, filter(current == null ? Collections.emptyMap() : current.getValues()), false);
+        subscriptions.forEach(it -> it.offer(event));
+    }
+
+    /**
+     * 在拉取线程上直接回调，只做合并与提交投递任务
+     */
+    private class PublishingListener implements Listener {
+
+        @Override
+        public void executeEvent() {
+        }
+
+        @Override
+        public void executeEvent(ConfigChangeEvent changeEvent) {
+            publish(changeEvent);
+        }
+
+        @Override
+        public void executeEvents(List<ConfigChangeEvent> changeEvents) {
+            changeEvents.forEach(ConfigEventPublisher.this::publish);
+        }
+
+        @Override
+        public Executor getExecutor() {
+            return Runnable::run;
+        }
+
+        @Override
+        public String toString() {
+            return "ConfigEventPublisher{" + application + "/" + profile + "#" + configFileName
+                    + (keyPrefix == null ? "" : ":" + keyPrefix) + "}";
+        }
+    }
+}
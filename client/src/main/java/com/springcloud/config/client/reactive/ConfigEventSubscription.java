@@ -0,0 +1,140 @@
+package com.springcloud.config.client.reactive;
+
+import org.reactivestreams.Subscriber;
+import org.reactivestreams.Subscription;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * 单个订阅：只保留一个待投递元素，订阅方没有需求期间到达的元素合并进去（只保留最新内容），
+ * 有需求时在投递线程池中串行投递，不占用拉取线程与订阅方的请求线程
+ */
+final class ConfigEventSubscription implements Subscription {
+
+    private static final Logger logger = LoggerFactory.getLogger(ConfigEventSubscription.class);
+
+    private final Subscriber<? super ConfigEvent> subscriber;
+
+    private final Executor executor;
+
+    private final Runnable onCancel;
+
+    private final AtomicLong requested = new AtomicLong();
+
+    private final AtomicReference<ConfigEvent> pending = new AtomicReference<>();
+
+    /**
+     * 投递循环的待处理信号数，从0变为非0的线程负责提交投递任务
+     */
+    private final AtomicInteger wip = new AtomicInteger();
+
+    private volatile boolean cancelled;
+
+    private volatile boolean completed;
+
+    private Throwable error;
+
+    ConfigEventSubscription(Subscriber<? super ConfigEvent> subscriber, Executor executor, Runnable onCancel) {
+        this.subscriber = subscriber;
+        this.executor = executor;
+        this.onCancel = onCancel;
+    }
+
+    @Override
+    public void request(long n) {
+        if (n <= 0) {
+            error = new IllegalArgumentException("non-positive subscription request: " + n);
+            completed = true;
+        } else {
+            long current;
+            do {
+                current = requested.get();
+                if (current == Long.MAX_VALUE) {
+                    break;
+                }
+            } while (!requested.compareAndSet(current, current + n < 0 ? Long.MAX_VALUE : current + n));
+        }
+        schedule();
+    }
+
+    @Override
+    public void cancel() {
+        if (!cancelled) {
+            cancelled = true;
+            pending.set(null);
+            onCancel.run();
+        }
+    }
+
+    /**
+     * 合并进待投递元素，不阻塞
+     */
+    void offer(ConfigEvent event) {
+        if (cancelled) {
+            return;
+        }
+        pending.accumulateAndGet(event, (current, next) -> current == null ? next : current.merge(next));
+        schedule();
+    }
+
+    /**
+     * 投递完待投递元素后结束订阅
+     */
+    void complete() {
+        completed = true;
+        schedule();
+    }
+
+    private void schedule() {
+        if (wip.getAndIncrement() != 0) {
+            return;
+        }
+        try {
+            executor.execute(this::drain);
+        } catch (RejectedExecutionException e) {
+            cancelled = true;
+            onCancel.run();
+        }
+    }
+
+    private void drain() {
+        int missed = 1;
+        do {
+            if (cancelled) {
+                return;
+            }
+            if (error != null) {
+                cancel();
+                subscriber.onError(error);
+                return;
+            }
+            if (requested.get() > 0) {
+                ConfigEvent event = pending.getAndSet(null);
+                if (event != null) {
+                    if (requested.get() != Long.MAX_VALUE) {
+                        requested.decrementAndGet();
+                    }
+                    try {
+                        subscriber.onNext(event);
+                    } catch (Throwable t) {
+                        logger.error("config event subscriber error, cancel subscription:{}", subscriber, t);
+                        cancel();
+                        return;
+                    }
+                }
+            }
+            if (completed && pending.get() == null) {
+                cancel();
+                subscriber.onComplete();
+                return;
+            }
+            missed = wip.addAndGet(-missed);
+        } while (missed != 0);
+    }
+}
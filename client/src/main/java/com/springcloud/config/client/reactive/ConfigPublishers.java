@@ -0,0 +1,85 @@
+package com.springcloud.config.client.reactive;
+
+import com.springcloud.config.client.config.ConfigProcessor;
+import com.springcloud.config.client.config.ConfigTarget;
+import com.springcloud.config.client.exception.ConfigException;
+import com.springcloud.config.client.thread.NamedThreadFactory;
+import org.springframework.cloud.config.client.ConfigClientProperties;
+
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 基于{@link ConfigProcessor}创建{@link ConfigEventPublisher}，可用Reactor的{@code Flux.from(publisher)}等接入响应式应用：
+ * <pre>
+ * Flux.from(configPublishers.publisher("https://git/config-repo/app-prod.yml", "db.pool"))
+ *     .subscribe(event -> resize(event.getValues()));
+ * </pre>
+ * 同一(配置文件, key前缀)共享一个publisher与监听器
+ */
+public class ConfigPublishers {
+
+    private static final String THREAD_NAME = "cloud-config-publisher";
+
+    private final ConfigProcessor configProcessor;
+
+    private final ConfigTarget primaryTarget;
+
+    private final ConcurrentHashMap<String, ConfigEventPublisher> publishers = new ConcurrentHashMap<>();
+
+    /**
+     * 投递线程池，订阅方的回调在这里执行
+     */
+    private final ExecutorService executor;
+
+    public ConfigPublishers(ConfigProcessor configProcessor, ConfigClientProperties configClientProperties) {
+        this.configProcessor = configProcessor;
+        this.primaryTarget = new ConfigTarget(configClientProperties.getName(), configClientProperties.getProfile(),
+                configClientProperties.getLabel());
+        ThreadPoolExecutor pool = new ThreadPoolExecutor(2, 2, 60L, TimeUnit.SECONDS, new LinkedBlockingQueue<>(),
+                new NamedThreadFactory(THREAD_NAME, true));
+        pool.allowCoreThreadTimeOut(true);
+        this.executor = pool;
+    }
+
+    /**
+     * 本应用某个配置文件的变更流
+     *
+     * @param keyPrefix 只关心该前缀下的key（如db.pool匹配db.pool、db.pool.size），为空时为整个配置文件
+     */
+    public ConfigEventPublisher publisher(String configFileName, String keyPrefix) throws ConfigException {
+        return publisher(primaryTarget, configFileName, keyPrefix);
+    }
+
+    /**
+     * 追踪的其他配置中某个配置文件的变更流，尚未拉取到该配置时首次拉取后投递
+     */
+    public ConfigEventPublisher publisher(ConfigTarget target, String configFileName, String keyPrefix) throws ConfigException {
+        Objects.requireNonNull(configFileName, "configFileName");
+        String prefix = keyPrefix == null || keyPrefix.isEmpty() ? null : keyPrefix;
+        String key = target + "#" + configFileName + (prefix == null ? "" : ":" + prefix);
+        ConfigEventPublisher publisher = publishers.get(key);
+        if (publisher != null) {
+            return publisher;
+        }
+        synchronized (publishers) {
+            publisher = publishers.get(key);
+            if (publisher == null) {
+                publisher = new ConfigEventPublisher(target.getApplication(), target.getProfile(), configFileName, prefix,
+                        () -> configProcessor.getSnapshot(target, configFileName), executor);
+                configProcessor.addListener(target, configFileName, publisher.getListener());
+                publishers.put(key, publisher);
+            }
+        }
+        return publisher;
+    }
+
+    public void destroy() {
+        publishers.values().forEach(ConfigEventPublisher::close);
+        executor.shutdown();
+    }
+}
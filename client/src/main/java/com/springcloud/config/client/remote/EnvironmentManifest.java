@@ -0,0 +1,84 @@
+package com.springcloud.config.client.remote;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 服务端返回的label最新版本的配置文件清单（/manifest/{name}/{profile}/{label}?known={digest,...}），
+ * 只携带未上报摘要的文件内容
+ */
+public class EnvironmentManifest {
+
+    private String name;
+
+    private String[] profiles = new String[0];
+
+    private String label;
+
+    private String version;
+
+    private String state;
+
+    /**
+     * 全部配置文件，按优先级排列
+     */
+    private List<ManifestSource> propertySources = new ArrayList<>();
+
+    public String getName() {
+        return name;
+    }
+
+    public void setName(String name) {
+        this.name = name;
+    }
+
+    public String[] getProfiles() {
+        return profiles;
+    }
+
+    public void setProfiles(String[] profiles) {
+        this.profiles = profiles;
+    }
+
+    public String getLabel() {
+        return label;
+    }
+
+    public void setLabel(String label) {
+        this.label = label;
+    }
+
+    public String getVersion() {
+        return version;
+    }
+
+    public void setVersion(String version) {
+        this.version = version;
+    }
+
+    public String getState() {
+        return state;
+    }
+
+    public void setState(String state) {
+        this.state = state;
+    }
+
+    public List<ManifestSource> getPropertySources() {
+        return propertySources;
+    }
+
+    public void setPropertySources(List<ManifestSource> propertySources) {
+        this.propertySources = propertySources;
+    }
+
+    @Override
+    public String toString() {
+        return "EnvironmentManifest{" +
+                "name='" + name + '\'' +
+                ", label='" + label + '\'' +
+                ", version='" + version + '\'' +
+                ", propertySources=" + propertySources +
+                '}';
+    }
+}
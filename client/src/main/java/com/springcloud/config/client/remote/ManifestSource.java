@@ -0,0 +1,51 @@
+package com.springcloud.config.client.remote;
+
+import java.util.Map;
+
+/**
+ * 配置文件清单中的一项：文件名、内容摘要，客户端未持有该摘要时附带完整内容
+ */
+public class ManifestSource {
+
+    private String name;
+
+    private String digest;
+
+    /**
+     * 完整内容，请求时已上报持有同一摘要时为null
+     */
+    private Map<String, Object> source;
+
+    public String getName() {
+        return name;
+    }
+
+    public void setName(String name) {
+        this.name = name;
+    }
+
+    public String getDigest() {
+        return digest;
+    }
+
+    public void setDigest(String digest) {
+        this.digest = digest;
+    }
+
+    public Map<String, Object> getSource() {
+        return source;
+    }
+
+    public void setSource(Map<String, Object> source) {
+        this.source = source;
+    }
+
+    @Override
+    public String toString() {
+        return "ManifestSource{" +
+                "name='" + name + '\'' +
+                ", digest='" + digest + '\'' +
+                ", source=" + (source == null ? "omitted" : String.valueOf(source.size())) +
+                '}';
+    }
+}
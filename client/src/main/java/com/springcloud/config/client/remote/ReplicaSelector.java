@@ -0,0 +1,102 @@
+package com.springcloud.config.client.remote;
+
+import com.springcloud.config.client.configuration.DynamicConfigProperties;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * config server副本选择：按延迟EWMA优先选择最快的健康副本，连续失败的副本熔断后排到最后，
+ * 并根据最近的延迟分位数给出对冲请求的等待时间。EWMA随时间衰减，慢副本恢复后会被重新试探
+ */
+public class ReplicaSelector {
+
+    private static final int WINDOW_SIZE = 128;
+
+    private final List<ServerReplica> replicas;
+
+    private final DynamicConfigProperties.Replica properties;
+
+    /**
+     * 最近的请求延迟（毫秒）环形缓冲，用于计算对冲等待时间
+     */
+    private final AtomicLongArray latencyWindow = new AtomicLongArray(WINDOW_SIZE);
+
+    private final AtomicLong latencyCount = new AtomicLong();
+
+    public ReplicaSelector(String[] uris, DynamicConfigProperties.Replica properties) {
+        List<ServerReplica> list = new ArrayList<>(uris.length);
+        for (int i = 0; i < uris.length; i++) {
+            list.add(new ServerReplica(i, uris[i]));
+        }
+        this.replicas = Collections.unmodifiableList(list);
+        this.properties = properties;
+    }
+
+    /**
+     * 按优先级排序的副本列表：可用副本按EWMA升序，熔断中的副本排在最后作为兜底
+     */
+    public List<ServerReplica> select() {
+        return select(System.currentTimeMillis());
+    }
+
+    List<ServerReplica> select(long now) {
+        if (replicas.size() == 1) {
+            return replicas;
+        }
+        long halfLife = properties.getEwmaHalfLife();
+        List<ServerReplica> ordered = new ArrayList<>(replicas);
+        ordered.sort(Comparator.<ServerReplica, Boolean>comparing(it -> !it.isAvailable(now))
+                .thenComparingDouble(it -> it.getEwmaMillis(halfLife, now))
+                .thenComparingInt(ServerReplica::getIndex));
+        return ordered;
+    }
+
+    public void recordSuccess(ServerReplica replica, long latencyMillis) {
+        recordSuccess(replica, latencyMillis, System.currentTimeMillis());
+    }
+
+    void recordSuccess(ServerReplica replica, long latencyMillis, long now) {
+        replica.recordSuccess(latencyMillis, properties.getEwmaAlpha(), properties.getEwmaHalfLife(), now);
+        long slot = latencyCount.getAndIncrement();
+        latencyWindow.set((int) (slot % WINDOW_SIZE), latencyMillis);
+    }
+
+    /**
+     * 请求成功但耗时不具参考意义（如长轮询），只恢复健康状态
+     */
+    public void recordSuccess(ServerReplica replica) {
+        replica.markHealthy();
+    }
+
+    public void recordFailure(ServerReplica replica) {
+        replica.recordFailure(properties.getFailureThreshold(), properties.getOpenDuration(), System.currentTimeMillis());
+    }
+
+    /**
+     * 对冲等待时间：最近请求延迟的指定分位数，样本不足时返回下限
+     */
+    public long hedgeDelay() {
+        long count = Math.min(latencyCount.get(), WINDOW_SIZE);
+        if (count < properties.getHedgeMinSamples()) {
+            return properties.getHedgeMinDelay();
+        }
+        long[] samples = new long[(int) count];
+        for (int i = 0; i < samples.length; i++) {
+            samples[i] = latencyWindow.get(i);
+        }
+        Arrays.sort(samples);
+        int rank = (int) Math.ceil(properties.getHedgePercentile() / 100.0 * count) - 1;
+        long delay = samples[Math.max(0, Math.min(rank, samples.length - 1))];
+        return Math.max(delay, properties.getHedgeMinDelay());
+    }
+
+    public List<ServerReplica> getReplicas() {
+        return replicas;
+    }
+}
@@ -0,0 +1,97 @@
+package com.springcloud.config.client.remote;
+
+/**
+ * 单个config server副本的健康与延迟统计
+ */
+public class ServerReplica {
+
+    private final int index;
+
+    private final String uri;
+
+    /**
+     * 延迟的指数加权移动平均（毫秒），0表示尚无样本
+     */
+    private volatile double ewmaMillis;
+
+    /**
+     * 最近一次延迟样本的时间
+     */
+    private volatile long sampledAt;
+
+    private volatile int consecutiveFailures;
+
+    /**
+     * 熔断打开截止时间，之后允许一次试探请求（半开）
+     */
+    private volatile long openUntil;
+
+    public ServerReplica(int index, String uri) {
+        this.index = index;
+        this.uri = uri;
+    }
+
+    synchronized void recordSuccess(long latencyMillis, double alpha, long halfLife, long now) {
+        double current = getEwmaMillis(halfLife, now);
+        ewmaMillis = current == 0 ? latencyMillis : alpha * latencyMillis + (1 - alpha) * current;
+        sampledAt = now;
+        consecutiveFailures = 0;
+        openUntil = 0;
+    }
+
+    synchronized void markHealthy() {
+        consecutiveFailures = 0;
+        openUntil = 0;
+    }
+
+    synchronized void recordFailure(int failureThreshold, long openDuration, long now) {
+        consecutiveFailures++;
+        if (consecutiveFailures >= failureThreshold) {
+            openUntil = now + openDuration;
+        }
+    }
+
+    public boolean isAvailable(long now) {
+        return openUntil <= now;
+    }
+
+    public int getIndex() {
+        return index;
+    }
+
+    public String getUri() {
+        return uri;
+    }
+
+    public double getEwmaMillis() {
+        return ewmaMillis;
+    }
+
+    /**
+     * 按距最近一次样本的时间衰减后的EWMA：长时间未被选中的慢副本逐渐排到前面，被选中一次后按新样本重新评估
+     *
+     * @param halfLife 半衰期（毫秒），不大于0时不衰减
+     */
+    public double getEwmaMillis(long halfLife, long now) {
+        double ewma = ewmaMillis;
+        if (halfLife <= 0 || ewma == 0) {
+            return ewma;
+        }
+        long idle = Math.max(0L, now - sampledAt);
+        return ewma * Math.pow(0.5, (double) idle / halfLife);
+    }
+
+    public int getConsecutiveFailures() {
+        return consecutiveFailures;
+    }
+
+    @Override
+    public String toString() {
+        return "ServerReplica{" +
+                "uri='" + uri + '\'' +
+                ", ewmaMillis=" + ewmaMillis +
+                ", consecutiveFailures=" + consecutiveFailures +
+                ", openUntil=" + openUntil +
+                '}';
+    }
+}
@@ -0,0 +1,90 @@
+package com.springcloud.config.client.snapshot;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.channels.OverlappingFileLockException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * 同机leader选举：持有锁文件上排他文件锁的进程为leader。
+ * 进程退出（包括被kill）时操作系统释放文件锁，其余进程下次{@link #tryAcquire()}即可接替。
+ * 锁文件只允许当前用户访问，不属于当前用户的锁文件不使用
+ */
+public class HostLeaderLock implements Closeable {
+
+    private static final Logger logger = LoggerFactory.getLogger(HostLeaderLock.class);
+
+    private final Path file;
+
+    private FileChannel channel;
+
+    private FileLock lock;
+
+    public HostLeaderLock(Path file) {
+        this.file = file;
+    }
+
+    /**
+     * 锁文件路径：{dir}/{name}-{profile}[-{label}].lock
+     */
+    public static HostLeaderLock of(String dir, String name, String profile, String label) {
+        return new HostLeaderLock(Paths.get(dir, SnapshotStore.fileName(name, profile, label, ".lock")));
+    }
+
+    public Path getFile() {
+        return file;
+    }
+
+    /**
+     * 尝试成为leader，不阻塞
+     *
+     * @return 本进程是否持有锁
+     */
+    public synchronized boolean tryAcquire() {
+        if (lock != null && lock.isValid()) {
+            return true;
+        }
+        try {
+            if (channel == null) {
+                PrivateFiles.createDirectories(file.getParent());
+                channel = PrivateFiles.open(file, StandardOpenOption.WRITE);
+            }
+            lock = channel.tryLock();
+        } catch (OverlappingFileLockException e) {
+            // 同一JVM内的其他实例已持有
+            lock = null;
+        } catch (IOException e) {
+            logger.warn("acquire host leader lock error, file:{}", file, e);
+            lock = null;
+        }
+        return lock != null;
+    }
+
+    public synchronized boolean isHeld() {
+        return lock != null && lock.isValid();
+    }
+
+    @Override
+    public synchronized void close() {
+        try {
+            if (lock != null) {
+                lock.release();
+            }
+            if (channel != null) {
+                channel.close();
+            }
+        } catch (IOException e) {
+            logger.warn("release host leader lock error, file:{}", file, e);
+        } finally {
+            lock = null;
+            channel = null;
+        }
+    }
+}
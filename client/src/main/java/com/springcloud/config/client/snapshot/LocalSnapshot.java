@@ -0,0 +1,86 @@
+package com.springcloud.config.client.snapshot;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 落盘的配置快照：一个应用在某个profile/label下按优先级排列的全部配置文件
+ */
+public final class LocalSnapshot {
+
+    private final String name;
+
+    private final String profile;
+
+    private final String label;
+
+    private final String version;
+
+    private final long savedAt;
+
+    private final List<Source> sources;
+
+    public LocalSnapshot(String name, String profile, String label, String version, long savedAt, List<Source> sources) {
+        this.name = name;
+        this.profile = profile;
+        this.label = label;
+        this.version = version;
+        this.savedAt = savedAt;
+        this.sources = Collections.unmodifiableList(sources);
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public String getProfile() {
+        return profile;
+    }
+
+    public String getLabel() {
+        return label;
+    }
+
+    public String getVersion() {
+        return version;
+    }
+
+    public long getSavedAt() {
+        return savedAt;
+    }
+
+    public List<Source> getSources() {
+        return sources;
+    }
+
+    /**
+     * 单个配置文件
+     */
+    public static final class Source {
+
+        private final String name;
+
+        private final String version;
+
+        private final Map<String, Object> values;
+
+        public Source(String name, String version, Map<String, Object> values) {
+            this.name = name;
+            this.version = version;
+            this.values = Collections.unmodifiableMap(values);
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public String getVersion() {
+            return version;
+        }
+
+        public Map<String, Object> getValues() {
+            return values;
+        }
+    }
+}
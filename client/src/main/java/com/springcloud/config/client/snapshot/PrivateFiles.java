@@ -0,0 +1,121 @@
+package com.springcloud.config.client.snapshot;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.LinkOption;
+import java.nio.file.OpenOption;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.FileAttribute;
+import java.nio.file.attribute.PosixFilePermission;
+import java.nio.file.attribute.PosixFilePermissions;
+import java.nio.file.attribute.UserPrincipal;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * 快照与共享区文件的权限：内容含解密后的配置值，目录与文件只允许当前用户访问，
+ * 不属于当前用户的文件不读取（防止他人预先创建文件注入配置）。非POSIX文件系统上不做限制
+ */
+final class PrivateFiles {
+
+    private static final boolean POSIX = FileSystems.getDefault().supportedFileAttributeViews().contains("posix");
+
+    private static final Set<PosixFilePermission> DIRECTORY = PosixFilePermissions.fromString("rwx------");
+
+    private static final Set<PosixFilePermission> FILE = PosixFilePermissions.fromString("rw-------");
+
+    private static UserPrincipal currentUser;
+
+    private PrivateFiles() {
+    }
+
+    /**
+     * 创建只有当前用户可访问的目录；目录已存在时必须属于当前用户，并收紧为rwx------
+     */
+    static void createDirectories(Path dir) throws IOException {
+        if (!POSIX) {
+            Files.createDirectories(dir);
+            return;
+        }
+        if (!Files.isDirectory(dir)) {
+            Files.createDirectories(dir, PosixFilePermissions.asFileAttribute(DIRECTORY));
+        }
+        checkOwner(dir);
+        if (!Files.getPosixFilePermissions(dir).equals(DIRECTORY)) {
+            Files.setPosixFilePermissions(dir, DIRECTORY);
+        }
+    }
+
+    /**
+     * 新建文件时使用的属性：rw-------
+     */
+    static FileAttribute<?>[] fileAttributes() {
+        return POSIX ? new FileAttribute<?>[]{PosixFilePermissions.asFileAttribute(FILE)} : new FileAttribute<?>[0];
+    }
+
+    /**
+     * 打开文件，不存在时以rw-------新建；已存在的文件（不跟随符号链接）必须属于当前用户，并收紧为rw-------
+     */
+    static FileChannel open(Path file, OpenOption... options) throws IOException {
+        Set<OpenOption> create = new HashSet<>(Arrays.asList(options));
+        create.add(StandardOpenOption.CREATE_NEW);
+        try {
+            return FileChannel.open(file, create, fileAttributes());
+        } catch (FileAlreadyExistsException ignored) {
+            // 已存在，检查属主后打开
+        }
+        Set<OpenOption> existing = new HashSet<>(Arrays.asList(options));
+        existing.add(LinkOption.NOFOLLOW_LINKS);
+        FileChannel channel = FileChannel.open(file, existing);
+        try {
+            checkOwner(file);
+            restrict(file);
+        } catch (IOException e) {
+            channel.close();
+            throw e;
+        }
+        return channel;
+    }
+
+    /**
+     * 文件（不跟随符号链接）不属于当前用户时抛出IOException
+     */
+    static void checkOwner(Path path) throws IOException {
+        if (!POSIX) {
+            return;
+        }
+        UserPrincipal owner = Files.getOwner(path, LinkOption.NOFOLLOW_LINKS);
+        if (!owner.equals(currentUser())) {
+            throw new IOException("refuse to use " + path + " owned by " + owner.getName());
+        }
+    }
+
+    /**
+     * 当前进程的用户：取新建临时文件的属主，不依赖user.name与passwd中的用户名一致
+     */
+    private static synchronized UserPrincipal currentUser() throws IOException {
+        if (currentUser == null) {
+            Path probe = Files.createTempFile("dynamic-config-owner", ".tmp");
+            try {
+                currentUser = Files.getOwner(probe);
+            } finally {
+                Files.deleteIfExists(probe);
+            }
+        }
+        return currentUser;
+    }
+
+    /**
+     * 已存在的文件收紧为rw-------
+     */
+    static void restrict(Path file) throws IOException {
+        if (POSIX && !Files.getPosixFilePermissions(file, LinkOption.NOFOLLOW_LINKS).equals(FILE)) {
+            Files.setPosixFilePermissions(file, FILE);
+        }
+    }
+}
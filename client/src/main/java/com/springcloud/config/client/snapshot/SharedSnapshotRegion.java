@@ -0,0 +1,176 @@
+package com.springcloud.config.client.snapshot;
+
+import com.springcloud.config.client.exception.ConfigException;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * 同机进程共享的快照内存映射文件，一个进程写，多个进程读。
+ * 文件格式：magic(int) + 格式版本(int) + 序号(long) + 内容长度(int) + 保留(int) + 写入时间(long) + 保留至64字节 + 内容，
+ * 内容为{@link SnapshotStore#frame(LocalSnapshot)}。
+ * 写入前后序号各加一（写入期间为奇数），读取前后序号一致且为偶数、内容校验和通过才算读到完整快照；
+ * 文件只增不减，内容超出映射大小时写方扩容，读方发现文件变大后重新映射。
+ * <p>
+ * 目录与文件只允许当前用户访问，不属于当前用户的文件不映射。
+ * <p>
+ * Java 8没有对映射内存的读写屏障（VarHandle的fence自Java 9起），序号的读写是普通访问，
+ * 不保证其他进程按写入顺序看到序号与内容：x86等强内存序平台上序号检查可以发现并发写入，
+ * 弱内存序平台（如ARM）上可能读到序号完整但内容不完整的数据，最终以内容的CRC32校验和判定，校验失败时下次重读
+ */
+public class SharedSnapshotRegion implements Closeable {
+
+    private static final int MAGIC = 0x44435348;
+
+    private static final int FORMAT_VERSION = 1;
+
+    private static final int HEADER_LENGTH = 64;
+
+    private static final int SEQ_OFFSET = 8;
+
+    private static final int LENGTH_OFFSET = 16;
+
+    private static final int WRITTEN_AT_OFFSET = 24;
+
+    private static final int PAGE_SIZE = 4096;
+
+    private final Path file;
+
+    private FileChannel channel;
+
+    private MappedByteBuffer buffer;
+
+    /**
+     * 本进程最近一次读到或写入的序号
+     */
+    private long seenSeq = -1L;
+
+    public SharedSnapshotRegion(Path file) {
+        this.file = file;
+    }
+
+    /**
+     * 共享文件路径：{dir}/{name}-{profile}[-{label}].shm，dir应为当前用户私有的目录
+     */
+    public static SharedSnapshotRegion of(String dir, String name, String profile, String label) {
+        return new SharedSnapshotRegion(Paths.get(dir, SnapshotStore.fileName(name, profile, label, ".shm")));
+    }
+
+    public Path getFile() {
+        return file;
+    }
+
+    /**
+     * 写入最新快照，只能由持有{@link HostLeaderLock}的进程调用
+     */
+    public synchronized void write(LocalSnapshot snapshot) {
+        try {
+            byte[] content = SnapshotStore.frame(snapshot);
+            ensureCapacity(HEADER_LENGTH + content.length);
+            long seq = buffer.getLong(SEQ_OFFSET);
+            // 上一个leader写到一半退出时序号停在奇数
+            if ((seq & 1L) != 0) {
+                seq++;
+            }
+            buffer.putLong(SEQ_OFFSET, seq + 1);
+            ByteBuffer target = buffer.duplicate();
+            target.position(HEADER_LENGTH);
+            target.put(content);
+            buffer.putInt(0, MAGIC);
+            buffer.putInt(4, FORMAT_VERSION);
+            buffer.putInt(LENGTH_OFFSET, content.length);
+            buffer.putLong(WRITTEN_AT_OFFSET, System.currentTimeMillis());
+            buffer.putLong(SEQ_OFFSET, seq + 2);
+            seenSeq = seq + 2;
+        } catch (IOException e) {
+            throw new ConfigException(e, "write shared snapshot error, file:" + file);
+        }
+    }
+
+    /**
+     * 读取其他进程写入的快照
+     *
+     * @return 自上次读取后没有新快照、正在写入或内容不完整时返回null
+     */
+    public synchronized LocalSnapshot readIfChanged() {
+        try {
+            if (buffer == null || channel.size() > buffer.capacity()) {
+                map(HEADER_LENGTH);
+            }
+        } catch (IOException e) {
+            throw new ConfigException(e, "map shared snapshot error, file:" + file);
+        }
+        long seq = buffer.getLong(SEQ_OFFSET);
+        if (seq == seenSeq || (seq & 1L) != 0 || buffer.getInt(0) != MAGIC || buffer.getInt(4) != FORMAT_VERSION) {
+            return null;
+        }
+        int length = buffer.getInt(LENGTH_OFFSET);
+        if (length <= 0 || HEADER_LENGTH + length > buffer.capacity()) {
+            return null;
+        }
+        byte[] content = new byte[length];
+        ByteBuffer source = buffer.duplicate();
+        source.position(HEADER_LENGTH);
+        source.get(content);
+        if (buffer.getLong(SEQ_OFFSET) != seq) {
+            return null;
+        }
+        LocalSnapshot snapshot;
+        try {
+            snapshot = SnapshotStore.decode(ByteBuffer.wrap(content));
+        } catch (ConfigException e) {
+            // 读取期间被改写且序号检查未能发现，下次重读
+            return null;
+        }
+        seenSeq = seq;
+        return snapshot;
+    }
+
+    /**
+     * 最近一次写入时间，尚未写入时返回0
+     */
+    public synchronized long getWrittenAt() {
+        return buffer == null || buffer.getInt(0) != MAGIC ? 0L : buffer.getLong(WRITTEN_AT_OFFSET);
+    }
+
+    private void ensureCapacity(int required) throws IOException {
+        if (buffer != null && buffer.capacity() >= required) {
+            return;
+        }
+        long size = channel == null ? 0L : channel.size();
+        if (size < required) {
+            size = Math.max(required, size * 2);
+            size = (size + PAGE_SIZE - 1) / PAGE_SIZE * PAGE_SIZE;
+        }
+        map(size);
+    }
+
+    /**
+     * 以读写方式映射整个文件，size大于文件大小时扩展文件
+     */
+    private void map(long size) throws IOException {
+        if (channel == null) {
+            PrivateFiles.createDirectories(file.getParent());
+            channel = PrivateFiles.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        }
+        buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, Math.max(size, channel.size()));
+    }
+
+    @Override
+    public synchronized void close() {
+        buffer = null;
+        if (channel != null) {
+            try {
+                channel.close();
+            } catch (IOException ignored) {
+            }
+            channel = null;
+        }
+    }
+}
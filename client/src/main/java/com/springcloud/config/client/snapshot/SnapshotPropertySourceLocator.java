@@ -0,0 +1,94 @@
+package com.springcloud.config.client.snapshot;
+
+import com.springcloud.config.client.configuration.DynamicConfigProperties;
+import com.springcloud.config.client.constant.Constant;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.cloud.config.client.ConfigClientProperties;
+import org.springframework.cloud.config.client.ConfigServicePropertySourceLocator;
+import org.springframework.core.env.CompositePropertySource;
+import org.springframework.core.env.Environment;
+import org.springframework.core.env.MapPropertySource;
+import org.springframework.core.env.PropertySource;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * 支持本地快照的配置定位器：config server不可用时使用本地快照启动；
+ * preferLocal模式下直接使用本地快照启动，由后台拉取任务与远端对齐
+ */
+public class SnapshotPropertySourceLocator extends ConfigServicePropertySourceLocator {
+
+    private static final Logger logger = LoggerFactory.getLogger(SnapshotPropertySourceLocator.class);
+
+    private final ConfigClientProperties defaultProperties;
+
+    private final DynamicConfigProperties.Snapshot snapshotProperties;
+
+    public SnapshotPropertySourceLocator(ConfigClientProperties defaultProperties, DynamicConfigProperties.Snapshot snapshotProperties) {
+        super(defaultProperties);
+        this.defaultProperties = defaultProperties;
+        this.snapshotProperties = snapshotProperties;
+    }
+
+    @Override
+    public PropertySource<?> locate(Environment environment) {
+        ConfigClientProperties properties = defaultProperties.override(environment);
+        SnapshotStore store = SnapshotStore.of(snapshotProperties.getDir(), properties.getName(), properties.getProfile(), properties.getLabel());
+
+        if (snapshotProperties.isPreferLocal()) {
+            PropertySource<?> local = toPropertySource(store.load());
+            if (Objects.nonNull(local)) {
+                logger.info("start with local snapshot:{}, remote config will be reconciled by polling", store.getFile());
+                return local;
+            }
+        }
+
+        PropertySource<?> remote;
+        try {
+            remote = super.locate(environment);
+        } catch (RuntimeException e) {
+            PropertySource<?> local = toPropertySource(store.load());
+            if (Objects.isNull(local)) {
+                throw e;
+            }
+            logger.warn("config server unavailable, start with local snapshot:{}", store.getFile(), e);
+            return local;
+        }
+
+        if (Objects.isNull(remote) || isEmpty(remote)) {
+            PropertySource<?> local = toPropertySource(store.load());
+            if (Objects.nonNull(local)) {
+                logger.warn("config server unavailable, start with local snapshot:{}", store.getFile());
+                return local;
+            }
+        }
+        return remote;
+    }
+
+    private boolean isEmpty(PropertySource<?> propertySource) {
+        return propertySource instanceof CompositePropertySource
+                && ((CompositePropertySource) propertySource).getPropertySources().isEmpty();
+    }
+
+    /**
+     * 按ConfigServicePropertySourceLocator的结构还原：configClient版本信息在前，各配置文件按优先级在后
+     */
+    private PropertySource<?> toPropertySource(LocalSnapshot snapshot) {
+        if (Objects.isNull(snapshot)) {
+            return null;
+        }
+        CompositePropertySource composite = new CompositePropertySource(Constant.CONFIG_SERVICE);
+        for (LocalSnapshot.Source source : snapshot.getSources()) {
+            composite.addPropertySource(new MapPropertySource(source.getName(), new HashMap<>(source.getValues())));
+        }
+        if (Objects.nonNull(snapshot.getVersion())) {
+            Map<String, Object> map = new HashMap<>(2);
+            map.put(Constant.CONFIG_CLIENT_VERSION, snapshot.getVersion());
+            composite.addFirstPropertySource(new MapPropertySource(Constant.CONFIG_CLIENT, map));
+        }
+        return composite;
+    }
+}
@@ -0,0 +1,258 @@
+package com.springcloud.config.client.snapshot;
+
+import com.springcloud.config.client.exception.ConfigException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.CRC32;
+
+/**
+ * 本地快照文件读写。
+ * 文件格式：magic(int) + 格式版本(int) + 正文长度(int) + 正文 + 正文CRC32(long)，
+ * 写入临时文件并fsync后原子rename替换，读取时通过内存映射一次解析。
+ * 快照含解密后的配置值，目录与文件只允许当前用户读写，不属于当前用户的快照文件不读取
+ */
+public class SnapshotStore {
+
+    private static final Logger logger = LoggerFactory.getLogger(SnapshotStore.class);
+
+    private static final int MAGIC = 0x44434653;
+
+    private static final int FORMAT_VERSION = 1;
+
+    private static final int HEADER_LENGTH = 12;
+
+    private static final byte TYPE_NULL = 0;
+
+    private static final byte TYPE_STRING = 1;
+
+    private static final byte TYPE_INT = 2;
+
+    private static final byte TYPE_LONG = 3;
+
+    private static final byte TYPE_DOUBLE = 4;
+
+    private static final byte TYPE_BOOLEAN = 5;
+
+    private final Path file;
+
+    public SnapshotStore(Path file) {
+        this.file = file;
+    }
+
+    /**
+     * 快照文件路径：{dir}/{name}-{profile}[-{label}].snapshot
+     */
+    public static SnapshotStore of(String dir, String name, String profile, String label) {
+        return new SnapshotStore(Paths.get(dir, fileName(name, profile, label, ".snapshot")));
+    }
+
+    static String fileName(String name, String profile, String label, String suffix) {
+        StringBuilder fileName = new StringBuilder(sanitize(name)).append('-').append(sanitize(profile));
+        if (label != null && !label.isEmpty()) {
+            fileName.append('-').append(sanitize(label));
+        }
+        return fileName.append(suffix).toString();
+    }
+
+    private static String sanitize(String part) {
+        return String.valueOf(part).replaceAll("[^A-Za-z0-9._-]", "_");
+    }
+
+    public Path getFile() {
+        return file;
+    }
+
+    public void save(LocalSnapshot snapshot) {
+        try {
+            ByteBuffer buffer = ByteBuffer.wrap(frame(snapshot));
+            PrivateFiles.createDirectories(file.getParent());
+            // 每次写入使用不重名的临时文件（rw-------），同机共用快照目录的多个进程互不干扰
+            Path tmp = Files.createTempFile(file.getParent(), file.getFileName().toString(), ".tmp",
+                    PrivateFiles.fileAttributes());
+            try {
+                try (FileChannel channel = FileChannel.open(tmp, StandardOpenOption.WRITE)) {
+                    while (buffer.hasRemaining()) {
+                        channel.write(buffer);
+                    }
+                    channel.force(true);
+                }
+                Files.move(tmp, file, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            } finally {
+                Files.deleteIfExists(tmp);
+            }
+        } catch (IOException e) {
+            throw new ConfigException(e, "save snapshot error, file:" + file);
+        }
+    }
+
+    /**
+     * 读取快照，文件不存在或校验失败时返回null
+     */
+    public LocalSnapshot load() {
+        if (!Files.isRegularFile(file)) {
+            return null;
+        }
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            PrivateFiles.checkOwner(file);
+            PrivateFiles.restrict(file);
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            return decode(buffer);
+        } catch (IOException | RuntimeException e) {
+            logger.warn("load snapshot error, file:{}", file, e);
+            return null;
+        }
+    }
+
+    /**
+     * 完整的快照文件内容（含文件头与校验和），可由{@link #decode(ByteBuffer)}还原
+     */
+    public static byte[] frame(LocalSnapshot snapshot) throws IOException {
+        byte[] payload = encode(snapshot);
+        CRC32 crc = new CRC32();
+        crc.update(payload, 0, payload.length);
+
+        ByteBuffer buffer = ByteBuffer.allocate(HEADER_LENGTH + payload.length + 8);
+        buffer.putInt(MAGIC).putInt(FORMAT_VERSION).putInt(payload.length).put(payload).putLong(crc.getValue());
+        return buffer.array();
+    }
+
+    public static LocalSnapshot decode(ByteBuffer buffer) {
+        if (buffer.remaining() < HEADER_LENGTH + 8 || buffer.getInt() != MAGIC) {
+            throw new ConfigException("invalid snapshot header");
+        }
+        if (buffer.getInt() != FORMAT_VERSION) {
+            throw new ConfigException("unsupported snapshot format");
+        }
+        int length = buffer.getInt();
+        if (length < 0 || buffer.remaining() < length + 8) {
+            throw new ConfigException("truncated snapshot");
+        }
+        ByteBuffer payload = buffer.slice();
+        payload.limit(length);
+        CRC32 crc = new CRC32();
+        crc.update(payload.duplicate());
+        buffer.position(buffer.position() + length);
+        if (crc.getValue() != buffer.getLong()) {
+            throw new ConfigException("snapshot checksum mismatch");
+        }
+
+        String name = readString(payload);
+        String profile = readString(payload);
+        String label = readString(payload);
+        String version = readString(payload);
+        long savedAt = payload.getLong();
+        int sourceCount = payload.getInt();
+        List<LocalSnapshot.Source> sources = new ArrayList<>(sourceCount);
+        for (int i = 0; i < sourceCount; i++) {
+            String sourceName = readString(payload);
+            String sourceVersion = readString(payload);
+            int size = payload.getInt();
+            Map<String, Object> values = new LinkedHashMap<>(Math.max(16, size * 4 / 3 + 1));
+            for (int j = 0; j < size; j++) {
+                values.put(readString(payload), readValue(payload));
+            }
+            sources.add(new LocalSnapshot.Source(sourceName, sourceVersion, values));
+        }
+        return new LocalSnapshot(name, profile, label, version, savedAt, sources);
+    }
+
+    public static byte[] encode(LocalSnapshot snapshot) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(4096);
+        DataOutputStream out = new DataOutputStream(bytes);
+        writeString(out, snapshot.getName());
+        writeString(out, snapshot.getProfile());
+        writeString(out, snapshot.getLabel());
+        writeString(out, snapshot.getVersion());
+        out.writeLong(snapshot.getSavedAt());
+        out.writeInt(snapshot.getSources().size());
+        for (LocalSnapshot.Source source : snapshot.getSources()) {
+            writeString(out, source.getName());
+            writeString(out, source.getVersion());
+            out.writeInt(source.getValues().size());
+            for (Map.Entry<String, Object> entry : source.getValues().entrySet()) {
+                writeString(out, entry.getKey());
+                writeValue(out, entry.getValue());
+            }
+        }
+        out.flush();
+        return bytes.toByteArray();
+    }
+
+    private static void writeValue(DataOutputStream out, Object value) throws IOException {
+        if (value == null) {
+            out.writeByte(TYPE_NULL);
+        } else if (value instanceof Integer) {
+            out.writeByte(TYPE_INT);
+            out.writeInt((Integer) value);
+        } else if (value instanceof Long) {
+            out.writeByte(TYPE_LONG);
+            out.writeLong((Long) value);
+        } else if (value instanceof Double) {
+            out.writeByte(TYPE_DOUBLE);
+            out.writeDouble((Double) value);
+        } else if (value instanceof Boolean) {
+            out.writeByte(TYPE_BOOLEAN);
+            out.writeBoolean((Boolean) value);
+        } else {
+            out.writeByte(TYPE_STRING);
+            writeString(out, value.toString());
+        }
+    }
+
+    private static Object readValue(ByteBuffer buffer) {
+        byte type = buffer.get();
+        switch (type) {
+            case TYPE_NULL:
+                return null;
+            case TYPE_INT:
+                return buffer.getInt();
+            case TYPE_LONG:
+                return buffer.getLong();
+            case TYPE_DOUBLE:
+                return buffer.getDouble();
+            case TYPE_BOOLEAN:
+                return buffer.get() != 0;
+            case TYPE_STRING:
+                return readString(buffer);
+            default:
+                throw new ConfigException("unknown snapshot value type:" + type);
+        }
+    }
+
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        if (value == null) {
+            out.writeInt(-1);
+            return;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    private static String readString(ByteBuffer buffer) {
+        int length = buffer.getInt();
+        if (length < 0) {
+            return null;
+        }
+        byte[] bytes = new byte[length];
+        buffer.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,149 @@
+package com.springcloud.config.client.transport;
+
+import com.springcloud.config.client.configuration.DynamicConfigProperties;
+import com.springcloud.config.client.metrics.ConfigMetrics;
+import org.apache.http.HttpEntity;
+import org.apache.http.HttpHost;
+import org.apache.http.HttpResponseInterceptor;
+import org.apache.http.client.config.RequestConfig;
+import org.apache.http.config.Registry;
+import org.apache.http.config.RegistryBuilder;
+import org.apache.http.client.protocol.HttpClientContext;
+import org.apache.http.conn.socket.ConnectionSocketFactory;
+import org.apache.http.conn.socket.PlainConnectionSocketFactory;
+import org.apache.http.conn.ssl.SSLConnectionSocketFactory;
+import org.apache.http.impl.client.CloseableHttpClient;
+import org.apache.http.impl.client.DefaultConnectionKeepAliveStrategy;
+import org.apache.http.impl.client.HttpClientBuilder;
+import org.apache.http.impl.conn.PoolingHttpClientConnectionManager;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.cloud.config.client.ConfigClientProperties;
+import org.springframework.cloud.config.client.ConfigServicePropertySourceLocator;
+import org.springframework.http.client.ClientHttpRequestInterceptor;
+import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
+import org.springframework.web.client.RestTemplate;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import static org.springframework.cloud.config.client.ConfigClientProperties.AUTHORIZATION;
+
+/**
+ * 拉取配置专用的HTTP传输：有界连接池、keep-alive、连接/读超时、gzip压缩（流式解压）。
+ * 通过spring.cloud.config.dynamic.transport.enabled开启，开启后不再使用上下文中的RestTemplate
+ */
+public class ConfigHttpTransport implements Closeable {
+
+    private static final Logger logger = LoggerFactory.getLogger(ConfigHttpTransport.class);
+
+    private final PoolingHttpClientConnectionManager connectionManager;
+
+    private final CloseableHttpClient httpClient;
+
+    private final RestTemplate restTemplate;
+
+    public ConfigHttpTransport(ConfigClientProperties client, DynamicConfigProperties dynamicConfigProperties) {
+        this(client, dynamicConfigProperties, ConfigMetrics.NOOP);
+    }
+
+    public ConfigHttpTransport(ConfigClientProperties client, DynamicConfigProperties dynamicConfigProperties,
+                               ConfigMetrics metrics) {
+        DynamicConfigProperties.Transport properties = dynamicConfigProperties.getTransport();
+
+        // 自建连接池时HttpClientBuilder不再按系统属性创建TLS工厂，需在此显式使用
+        Registry<ConnectionSocketFactory> socketFactories = RegistryBuilder.<ConnectionSocketFactory>create()
+                .register("http", PlainConnectionSocketFactory.getSocketFactory())
+                .register("https", SSLConnectionSocketFactory.getSystemSocketFactory())
+                .build();
+        this.connectionManager = new PoolingHttpClientConnectionManager(socketFactories, null, null, null,
+                properties.getTimeToLive(), TimeUnit.MILLISECONDS);
+        this.connectionManager.setMaxTotal(properties.getMaxConnections());
+        this.connectionManager.setDefaultMaxPerRoute(properties.getMaxConnectionsPerRoute());
+        this.connectionManager.setValidateAfterInactivity((int) properties.getValidateAfterInactivity());
+
+        RequestConfig requestConfig = RequestConfig.custom()
+                .setConnectTimeout((int) properties.getConnectTimeout())
+                .setConnectionRequestTimeout((int) properties.getConnectionRequestTimeout())
+                .setSocketTimeout((int) readTimeout(client, dynamicConfigProperties))
+                .build();
+
+        // 沿用JVM的代理等系统属性（http.proxyHost、https.proxyHost、http.nonProxyHosts等）
+        HttpClientBuilder builder = HttpClientBuilder.create()
+                .useSystemProperties()
+                .setConnectionManager(connectionManager)
+                .setDefaultRequestConfig(requestConfig)
+                .setKeepAliveStrategy((response, context) -> {
+                    long keepAlive = DefaultConnectionKeepAliveStrategy.INSTANCE.getKeepAliveDuration(response, context);
+                    return keepAlive > 0 ? Math.min(keepAlive, properties.getKeepAlive()) : properties.getKeepAlive();
+                })
+                .evictExpiredConnections()
+                .evictIdleConnections(properties.getKeepAlive(), TimeUnit.MILLISECONDS)
+                .disableCookieManagement();
+        if (!properties.isCompression()) {
+            builder.disableContentCompression();
+        }
+        if (metrics != ConfigMetrics.NOOP) {
+            // 排在解压之前，统计的是网络上传输的字节数
+            builder.addInterceptorFirst((HttpResponseInterceptor) (response, context) -> {
+                HttpEntity entity = response.getEntity();
+                HttpHost target = HttpClientContext.adapt(context).getTargetHost();
+                if (entity != null && target != null) {
+                    String uri = target.toURI();
+                    response.setEntity(new CountingEntity(entity, bytes -> metrics.recordResponseBytes(uri, bytes)));
+                }
+            });
+        }
+        this.httpClient = builder.build();
+
+        this.restTemplate = new RestTemplate(new HttpComponentsClientHttpRequestFactory(httpClient));
+        Map<String, String> headers = new HashMap<>(client.getHeaders());
+        headers.remove(AUTHORIZATION);
+        if (!headers.isEmpty()) {
+            restTemplate.setInterceptors(Collections.<ClientHttpRequestInterceptor>singletonList(
+                    new ConfigServicePropertySourceLocator.GenericRequestHeaderInterceptor(headers)));
+        }
+    }
+
+    /**
+     * 读超时：未配置时沿用spring.cloud.config.request-read-timeout；长轮询时需大于服务端挂起时间
+     */
+    private long readTimeout(ConfigClientProperties client, DynamicConfigProperties dynamicConfigProperties) {
+        long readTimeout = dynamicConfigProperties.getTransport().getReadTimeout();
+        if (readTimeout <= 0) {
+            readTimeout = client.getRequestReadTimeout();
+        }
+        if (readTimeout < 0) {
+            throw new IllegalStateException("Invalid Value for Read Timeout set.");
+        }
+        DynamicConfigProperties.LongPoll longPoll = dynamicConfigProperties.getLongPoll();
+        if (longPoll.isEnabled() && readTimeout != 0 && readTimeout <= longPoll.getTimeout()) {
+            long adjusted = longPoll.getTimeout() + 5000L;
+            logger.warn("read timeout {}ms is not greater than long poll timeout {}ms, use {}ms",
+                    readTimeout, longPoll.getTimeout(), adjusted);
+            readTimeout = adjusted;
+        }
+        return readTimeout;
+    }
+
+    public RestTemplate getRestTemplate() {
+        return restTemplate;
+    }
+
+    public PoolingHttpClientConnectionManager getConnectionManager() {
+        return connectionManager;
+    }
+
+    @Override
+    public void close() {
+        try {
+            httpClient.close();
+        } catch (IOException e) {
+            logger.warn("close config http transport error", e);
+        }
+    }
+}
@@ -0,0 +1,83 @@
+package com.springcloud.config.client.transport;
+
+import org.apache.http.HttpEntity;
+import org.apache.http.entity.HttpEntityWrapper;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.function.LongConsumer;
+
+/**
+ * 统计响应体实际读取的字节数，读到末尾或关闭流时回调一次
+ */
+class CountingEntity extends HttpEntityWrapper {
+
+    private final LongConsumer callback;
+
+    CountingEntity(HttpEntity wrappedEntity, LongConsumer callback) {
+        super(wrappedEntity);
+        this.callback = callback;
+    }
+
+    @Override
+    public InputStream getContent() throws IOException {
+        return new CountingInputStream(super.getContent());
+    }
+
+    private final class CountingInputStream extends FilterInputStream {
+
+        private long count;
+
+        private boolean reported;
+
+        CountingInputStream(InputStream in) {
+            super(in);
+        }
+
+        @Override
+        public int read() throws IOException {
+            int b = super.read();
+            if (b < 0) {
+                report();
+            } else {
+                count++;
+            }
+            return b;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            int n = super.read(b, off, len);
+            if (n < 0) {
+                report();
+            } else {
+                count += n;
+            }
+            return n;
+        }
+
+        @Override
+        public long skip(long n) throws IOException {
+            long skipped = super.skip(n);
+            count += skipped;
+            return skipped;
+        }
+
+        @Override
+        public void close() throws IOException {
+            try {
+                super.close();
+            } finally {
+                report();
+            }
+        }
+
+        private void report() {
+            if (!reported) {
+                reported = true;
+                callback.accept(count);
+            }
+        }
+    }
+}
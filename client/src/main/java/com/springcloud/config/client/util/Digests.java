@@ -0,0 +1,52 @@
+package com.springcloud.config.client.util;
+
+import java.util.Map;
+
+/**
+ * 配置内容摘要：64位、与entry顺序无关，计算过程不产生对象分配
+ */
+public class Digests {
+
+    private static final long FNV_OFFSET = 0xcbf29ce484222325L;
+
+    private static final long FNV_PRIME = 0x100000001b3L;
+
+    public static long digest(Map<?, ?> source) {
+        long digest = source.size();
+        for (Map.Entry<?, ?> entry : source.entrySet()) {
+            digest += mix(hash(entry.getKey()) * 31 + hash(entry.getValue()));
+        }
+        return digest;
+    }
+
+    public static long hash(Object value) {
+        if (value == null) {
+            return 0L;
+        }
+        if (value instanceof String) {
+            return hash((String) value);
+        }
+        return mix(value.getClass().hashCode() * 31L + value.hashCode());
+    }
+
+    public static long hash(String value) {
+        long hash = FNV_OFFSET;
+        for (int i = 0; i < value.length(); i++) {
+            hash ^= value.charAt(i);
+            hash *= FNV_PRIME;
+        }
+        return hash;
+    }
+
+    /**
+     * murmur3 64位终结混淆
+     */
+    public static long mix(long h) {
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9fe1a85ec53L;
+        h ^= h >>> 33;
+        return h;
+    }
+}
@@ -0,0 +1,104 @@
+package com.springcloud.config.client.worker;
+
+import com.springcloud.config.client.config.ConfigCache;
+import com.springcloud.config.client.listener.ConfigChange;
+import com.springcloud.config.client.listener.ConfigChangeEvent;
+import com.springcloud.config.client.listener.KeyPrefixIndex;
+import com.springcloud.config.client.listener.Listener;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 变更合并：收集一次拉取周期内（以及随后防抖窗口内）的全部变更，每个监听器只回调一次；
+ * 同一配置文件的多次变更合并为一个事件
+ */
+public class ChangeCoalescer {
+
+    private final ListenerDispatcher dispatcher;
+
+    private final PollScheduler scheduler;
+
+    private final long debounceWindow;
+
+    /**
+     * 监听器 -> (配置文件 -> 合并后的变更)，由this保护
+     */
+    private Map<Listener, Map<String, ConfigChangeEvent>> pending = new LinkedHashMap<>();
+
+    private boolean flushScheduled;
+
+    public ChangeCoalescer(ListenerDispatcher dispatcher, PollScheduler scheduler, long debounceWindow) {
+        this.dispatcher = dispatcher;
+        this.scheduler = scheduler;
+        this.debounceWindow = debounceWindow;
+    }
+
+    public synchronized void add(ConfigCache configCache, ConfigChangeEvent changeEvent) {
+        for (Listener listener : configCache.getListeners()) {
+            addPending(listener, changeEvent);
+        }
+    }
+
+    /**
+     * 另外按变更的key查找前缀监听器，每个监听器只收到其前缀下的变更
+     */
+    public synchronized void add(ConfigCache configCache, ConfigChangeEvent changeEvent, KeyPrefixIndex<Listener> prefixListeners) {
+        add(configCache, changeEvent);
+        if (prefixListeners == null || prefixListeners.isEmpty()) {
+            return;
+        }
+        Map<Listener, Map<String, ConfigChange>> matched = new LinkedHashMap<>();
+        prefixListeners.match(changeEvent.getChangedKeys(), (listener, key) ->
+                matched.computeIfAbsent(listener, it -> new LinkedHashMap<>()).put(key, changeEvent.getChange(key)));
+        matched.forEach((listener, changes) -> addPending(listener, new ConfigChangeEvent(changeEvent.getAppName(),
+                changeEvent.getProfile(), changeEvent.getConfigFileName(), changeEvent.getCommitVersion(), changes,
+                changeEvent.getObservedAt())));
+    }
+
+    private void addPending(Listener listener, ConfigChangeEvent changeEvent) {
+        pending.computeIfAbsent(listener, it -> new LinkedHashMap<>())
+                .merge(changeEvent.getSourceKey(), changeEvent, ConfigChangeEvent::merge);
+    }
+
+    /**
+     * 拉取周期结束时调用：无防抖窗口时立即回调，否则窗口结束时统一回调
+     */
+    public void flush() {
+        synchronized (this) {
+            if (pending.isEmpty()) {
+                return;
+            }
+            if (debounceWindow > 0) {
+                if (!flushScheduled) {
+                    flushScheduled = true;
+                    scheduler.submit(this::drain, debounceWindow);
+                }
+                return;
+            }
+        }
+        drain();
+    }
+
+    private void drain() {
+        Map<Listener, Map<String, ConfigChangeEvent>> batch;
+        synchronized (this) {
+            batch = pending;
+            pending = new LinkedHashMap<>();
+            flushScheduled = false;
+        }
+        batch.forEach((listener, changeEvents) -> {
+            List<ConfigChangeEvent> events = new ArrayList<>(changeEvents.size());
+            for (ConfigChangeEvent changeEvent : changeEvents.values()) {
+                if (!changeEvent.isEmpty()) {
+                    events.add(changeEvent);
+                }
+            }
+            if (!events.isEmpty()) {
+                dispatcher.dispatch(listener, events);
+            }
+        });
+    }
+}
@@ -0,0 +1,387 @@
+package com.springcloud.config.client.worker;
+
+import com.springcloud.config.client.configuration.DynamicConfigProperties;
+import com.springcloud.config.client.constant.Constant;
+import com.springcloud.config.client.exception.ConfigException;
+import com.springcloud.config.client.metrics.ConfigMetrics;
+import com.springcloud.config.client.remote.EnvironmentDelta;
+import com.springcloud.config.client.remote.EnvironmentManifest;
+import com.springcloud.config.client.remote.ReplicaSelector;
+import com.springcloud.config.client.remote.ServerReplica;
+import com.springcloud.config.client.thread.NamedThreadFactory;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.cloud.config.client.ConfigClientProperties;
+import org.springframework.cloud.config.client.ConfigServicePropertySourceLocator;
+import org.springframework.cloud.config.environment.Environment;
+import org.springframework.http.*;
+import org.springframework.http.client.ClientHttpRequestInterceptor;
+import org.springframework.http.client.SimpleClientHttpRequestFactory;
+import org.springframework.util.Base64Utils;
+import org.springframework.util.StringUtils;
+import org.springframework.web.client.HttpClientErrorException;
+import org.springframework.web.client.ResourceAccessException;
+import org.springframework.web.client.RestTemplate;
+
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.BooleanSupplier;
+
+import static org.springframework.cloud.config.client.ConfigClientProperties.*;
+
+/**
+ * 向config server发起请求：组装路径与请求头，按副本优先级依次尝试或发起对冲请求；
+ * 记录各请求（application/profile/label）上次拉取到的ETag与版本号，用于条件拉取、增量拉取与长轮询
+ */
+class ConfigRemote {
+
+    private static final Logger logger = LoggerFactory.getLogger(ConfigRemote.class);
+
+    static final String LONG_POLL_ENDPOINT = "/poll";
+
+    private final RestTemplate restTemplate;
+
+    private final ConfigClientProperties properties;
+
+    private final DynamicConfigProperties dynamicConfigProperties;
+
+    private final ReplicaSelector replicaSelector;
+
+    private final ConfigMetrics metrics;
+
+    /**
+     * 当前是否在长轮询，长轮询时不对冲、不统计延迟
+     */
+    private final BooleanSupplier longPolling;
+
+    /**
+     * 对冲请求线程池，仅开启对冲时创建
+     */
+    private ExecutorService hedgeExecutor;
+
+    /**
+     * 各请求（application/profile/label）上次拉取到的ETag，用于条件拉取
+     */
+    private final Map<String, String> etagMap = new ConcurrentHashMap<>(4);
+
+    /**
+     * 各请求（application/profile/label）上次拉取到的git版本号，用于条件拉取与长轮询
+     */
+    private final Map<String, String> versionMap = new ConcurrentHashMap<>(4);
+
+    ConfigRemote(RestTemplate restTemplate, ConfigClientProperties properties, DynamicConfigProperties dynamicConfigProperties,
+                 ReplicaSelector replicaSelector, ConfigMetrics metrics, BooleanSupplier longPolling) {
+        this.restTemplate = restTemplate != null ? restTemplate : getSecureRestTemplate(properties);
+        this.properties = properties;
+        this.dynamicConfigProperties = dynamicConfigProperties;
+        this.replicaSelector = replicaSelector;
+        this.metrics = metrics;
+        this.longPolling = longPolling;
+        if (dynamicConfigProperties.getReplica().isHedgeEnabled()) {
+            this.hedgeExecutor = Executors.newCachedThreadPool(new NamedThreadFactory("cloud-config-defaulthandler-hedge", true));
+        }
+    }
+
+    /**
+     * 上次拉取到的版本号，尚未拉取过时为null
+     */
+    String version(String stateKey) {
+        return versionMap.get(stateKey);
+    }
+
+    /**
+     * 尚未拉取过时以给定版本号作为基准
+     *
+     * @return 是否设置成功
+     */
+    boolean initVersion(String stateKey, String version) {
+        return versionMap.putIfAbsent(stateKey, version) == null;
+    }
+
+    /**
+     * 配置处理完成后再记录ETag与版本号，避免处理失败后后续请求被304跳过
+     */
+    void remember(String stateKey, String etag, String version) {
+        if (StringUtils.hasText(etag)) {
+            etagMap.put(stateKey, etag);
+        } else {
+            etagMap.remove(stateKey);
+        }
+        if (StringUtils.hasText(version)) {
+            versionMap.put(stateKey, version);
+        }
+    }
+
+    /**
+     * 获取git config配置，条件拉取命中时返回304且body为空
+     */
+    ResponseEntity<Environment> getRemoteEnvironment(PollGroup group, String label, String state) {
+        return getRemote(group, label, state, "", Collections.emptyMap(), Environment.class);
+    }
+
+    /**
+     * 长轮询获取配置：持有的版本就是最新版本时服务端挂起请求，超时返回304；服务端未部署长轮询端点时返回null
+     */
+    ResponseEntity<Environment> getRemoteLongPoll(PollGroup group, String label, String state) {
+        return getRemote(group, label, state, LONG_POLL_ENDPOINT, Collections.emptyMap(), Environment.class);
+    }
+
+    /**
+     * 获取since版本到最新版本的增量配置，版本未变化时返回304，服务端不支持或不认识该版本时返回null
+     */
+    ResponseEntity<EnvironmentDelta> getRemoteDelta(PollGroup group, String label, String state, String since) {
+        return getRemote(group, label, state, "/delta", Collections.singletonMap("since", since), EnvironmentDelta.class);
+    }
+
+    /**
+     * 获取配置文件清单，known为已持有的各文件摘要，只有摘要不在其中的文件带内容；
+     * 版本与since一致时返回304，服务端未部署该端点时返回null
+     */
+    ResponseEntity<EnvironmentManifest> getRemoteManifest(PollGroup group, String label, String state, String since,
+                                                          Collection<String> known) {
+        Map<String, String> query = new LinkedHashMap<>(4);
+        if (StringUtils.hasText(since)) {
+            query.put("since", since);
+        }
+        if (!known.isEmpty()) {
+            query.put("known", String.join(",", known));
+        }
+        return getRemote(group, label, state, "/manifest", query, EnvironmentManifest.class);
+    }
+
+    /**
+     * @param endpoint 为空时请求完整配置，否则为扩展端点的路径前缀
+     */
+    private <T> ResponseEntity<T> getRemote(PollGroup group, String label, String state, String endpoint,
+                                            Map<String, String> query, Class<T> type) {
+        boolean full = endpoint.isEmpty();
+        boolean longPollRequest = LONG_POLL_ENDPOINT.equals(endpoint);
+        String path = endpoint + "/{name}/{profile}";
+        String name = group.getName();
+        String profile = group.getProfile();
+        String token = properties.getToken();
+
+        DynamicConfigProperties.LongPoll longPoll = dynamicConfigProperties.getLongPoll();
+        String etag = etagMap.get(group.stateKey(label));
+        String knownVersion = versionMap.get(group.stateKey(label));
+
+        Object[] args = new String[]{name, profile};
+        if (StringUtils.hasText(label)) {
+            if (label.contains("/")) {
+                label = label.replace("/", "(_)");
+            }
+            args = new String[]{name, profile, label};
+            path = path + "/{label}";
+        }
+        char separator = '?';
+        for (Map.Entry<String, String> param : query.entrySet()) {
+            args = Arrays.copyOf(args, args.length + 1);
+            args[args.length - 1] = param.getValue();
+            path = path + separator + param.getKey() + "={" + param.getKey() + "}";
+            separator = '&';
+        }
+
+        HttpHeaders headers = new HttpHeaders();
+        if (StringUtils.hasText(token)) {
+            headers.add(TOKEN_HEADER, token);
+        }
+        if (StringUtils.hasText(state) && properties.isSendState()) {
+            headers.add(STATE_HEADER, state);
+        }
+        headers.setAccept(Collections.singletonList(MediaType.APPLICATION_JSON));
+        if (full && dynamicConfigProperties.isConditionalFetch() && StringUtils.hasText(etag)) {
+            headers.setIfNoneMatch(etag);
+        }
+        if (((full && dynamicConfigProperties.isConditionalFetch()) || longPollRequest) && StringUtils.hasText(knownVersion)) {
+            headers.add(Constant.VERSION_HEADER, knownVersion);
+        }
+        if (longPollRequest) {
+            headers.add(Constant.LONG_POLL_TIMEOUT_HEADER, String.valueOf(longPoll.getTimeout()));
+        }
+
+        List<ServerReplica> replicas = replicaSelector.select();
+        if (dynamicConfigProperties.getReplica().isHedgeEnabled() && !longPolling.getAsBoolean() && replicas.size() > 1) {
+            return hedgedExchange(replicas, label, path, headers, args, type);
+        }
+
+        for (int i = 0; i < replicas.size(); i++) {
+            ServerReplica replica = replicas.get(i);
+            try {
+                return exchange(replica, label, path, headers, args, type);
+            } catch (ResourceAccessException e) {
+                logger.info("Connect Timeout exception on Url - " + replica.getUri()
+                        + ". Will be trying the next url if available");
+                if (i == replicas.size() - 1) {
+                    throw e;
+                }
+            }
+        }
+
+        return null;
+    }
+
+    /**
+     * 向首选副本发起请求，超过对冲等待时间仍未返回时再向下一个副本发起请求，取先成功者；
+     * 连接失败时继续尝试剩余副本
+     */
+    private <T> ResponseEntity<T> hedgedExchange(List<ServerReplica> replicas, String label, String path, HttpHeaders headers,
+                                                 Object[] args, Class<T> type) {
+        CompletionService<ResponseEntity<T>> completionService = new ExecutorCompletionService<>(hedgeExecutor);
+        List<Future<?>> futures = new ArrayList<>(2);
+        AtomicBoolean settled = new AtomicBoolean();
+        int next = 0;
+        try {
+            ServerReplica primary = replicas.get(next++);
+            futures.add(completionService.submit(() -> exchange(primary, label, path, headers, args, type, settled)));
+            Future<ResponseEntity<T>> done = completionService.poll(replicaSelector.hedgeDelay(), TimeUnit.MILLISECONDS);
+            if (done == null) {
+                ServerReplica hedge = replicas.get(next++);
+                futures.add(completionService.submit(() -> exchange(hedge, label, path, headers, args, type, settled)));
+            }
+
+            RuntimeException failure = null;
+            int outstanding = futures.size();
+            while (outstanding > 0) {
+                if (done == null) {
+                    done = completionService.take();
+                }
+                outstanding--;
+                try {
+                    return done.get();
+                } catch (ExecutionException e) {
+                    if (!(e.getCause() instanceof ResourceAccessException)) {
+                        throw e.getCause() instanceof RuntimeException ? (RuntimeException) e.getCause() : new ConfigException(e.getCause());
+                    }
+                    failure = (RuntimeException) e.getCause();
+                    if (next < replicas.size()) {
+                        ServerReplica fallback = replicas.get(next++);
+                        futures.add(completionService.submit(() -> exchange(fallback, label, path, headers, args, type, settled)));
+                        outstanding++;
+                    }
+                }
+                done = null;
+            }
+            throw failure;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ConfigException(e, "hedged fetch interrupted");
+        } finally {
+            // 取消不能中断进行中的HTTP请求，落选请求随后的超时不能当作副本故障
+            settled.set(true);
+            futures.forEach(it -> it.cancel(true));
+        }
+    }
+
+    private <T> ResponseEntity<T> exchange(ServerReplica replica, String label, String path, HttpHeaders baseHeaders,
+                                           Object[] args, Class<T> type) {
+        return exchange(replica, label, path, baseHeaders, args, type, null);
+    }
+
+    /**
+     * @param settled 对冲请求已有结果时为true，此后失败的落选请求（被取消或超时）不计入副本的失败次数
+     */
+    private <T> ResponseEntity<T> exchange(ServerReplica replica, String label, String path, HttpHeaders baseHeaders,
+                                           Object[] args, Class<T> type, AtomicBoolean settled) {
+        ConfigClientProperties.Credentials credentials = properties.getCredentials(replica.getIndex());
+        HttpHeaders headers = new HttpHeaders();
+        headers.putAll(baseHeaders);
+        addAuthorizationToken(properties, headers, credentials.getUsername(), credentials.getPassword());
+
+        final HttpEntity<Void> entity = new HttpEntity<>((Void) null, headers);
+        long start = System.currentTimeMillis();
+        long startNanos = System.nanoTime();
+        ResponseEntity<T> response;
+        try {
+            response = restTemplate.exchange(credentials.getUri() + path, HttpMethod.GET, entity, type, args);
+        } catch (HttpClientErrorException e) {
+            recordSuccess(replica, start);
+            metrics.recordRequest(replica.getUri(), label, String.valueOf(e.getRawStatusCode()), System.nanoTime() - startNanos);
+            if (e.getStatusCode() != HttpStatus.NOT_FOUND) {
+                throw e;
+            }
+            return null;
+        } catch (RuntimeException e) {
+            if (settled != null && settled.get()) {
+                metrics.recordRequest(replica.getUri(), label, "cancelled", System.nanoTime() - startNanos);
+                throw e;
+            }
+            replicaSelector.recordFailure(replica);
+            metrics.recordRequest(replica.getUri(), label, "error", System.nanoTime() - startNanos);
+            throw e;
+        }
+        recordSuccess(replica, start);
+        metrics.recordRequest(replica.getUri(), label, response == null ? "none" : String.valueOf(response.getStatusCodeValue()),
+                System.nanoTime() - startNanos);
+        if (response != null && !dynamicConfigProperties.getTransport().isEnabled()) {
+            // 独立连接池在解压前按实际字节计数；此处只能取Content-Length，分块传输的响应不计
+            long length = response.getHeaders().getContentLength();
+            if (length >= 0) {
+                metrics.recordResponseBytes(replica.getUri(), length);
+            }
+        }
+
+        if (response == null) {
+            return null;
+        }
+        if (response.getStatusCode() != HttpStatus.OK && response.getStatusCode() != HttpStatus.NOT_MODIFIED) {
+            return null;
+        }
+
+        return response;
+    }
+
+    /**
+     * 长轮询的耗时由服务端挂起时间决定，不计入延迟统计
+     */
+    private void recordSuccess(ServerReplica replica, long start) {
+        if (longPolling.getAsBoolean()) {
+            replicaSelector.recordSuccess(replica);
+        } else {
+            replicaSelector.recordSuccess(replica, System.currentTimeMillis() - start);
+        }
+    }
+
+    static void addAuthorizationToken(ConfigClientProperties configClientProperties,
+                                      HttpHeaders httpHeaders, String username, String password) {
+        String authorization = configClientProperties.getHeaders().get(AUTHORIZATION);
+
+        if (password != null && authorization != null) {
+            throw new IllegalStateException(
+                    "You must set either 'password' or 'authorization'");
+        }
+
+        if (password != null) {
+            byte[] token = Base64Utils.encode((username + ":" + password).getBytes());
+            httpHeaders.add("Authorization", "Basic " + new String(token));
+        } else if (authorization != null) {
+            httpHeaders.add("Authorization", authorization);
+        }
+    }
+
+
+    private RestTemplate getSecureRestTemplate(ConfigClientProperties client) {
+        SimpleClientHttpRequestFactory requestFactory = new SimpleClientHttpRequestFactory();
+        if (client.getRequestReadTimeout() < 0) {
+            throw new IllegalStateException("Invalid Value for Read Timeout set.");
+        }
+        requestFactory.setReadTimeout(client.getRequestReadTimeout());
+        RestTemplate template = new RestTemplate(requestFactory);
+        Map<String, String> headers = new HashMap<>(client.getHeaders());
+        if (headers.containsKey(AUTHORIZATION)) {
+            headers.remove(AUTHORIZATION); // To avoid redundant addition of header
+        }
+        if (!headers.isEmpty()) {
+            template.setInterceptors(Arrays.<ClientHttpRequestInterceptor>asList(
+                    new ConfigServicePropertySourceLocator.GenericRequestHeaderInterceptor(headers)));
+        }
+
+        return template;
+    }
+
+    void shutdown() {
+        if (hedgeExecutor != null) {
+            hedgeExecutor.shutdownNow();
+        }
+    }
+}
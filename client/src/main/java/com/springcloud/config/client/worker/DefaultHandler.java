@@ -1,359 +1,772 @@
 package com.springcloud.config.client.worker;
 
-import com.google.common.collect.Lists;
 import com.springcloud.config.client.config.ConfigCache;
+import com.springcloud.config.client.config.ConfigKey;
+import com.springcloud.config.client.config.ConfigSnapshot;
+import com.springcloud.config.client.config.ConfigTarget;
+import com.springcloud.config.client.configuration.DynamicConfigProperties;
+import com.springcloud.config.client.exception.ConfigException;
+import com.springcloud.config.client.listener.ChangeType;
+import com.springcloud.config.client.listener.ConfigChange;
+import com.springcloud.config.client.listener.ConfigChangeEvent;
+import com.springcloud.config.client.listener.ConfigChanges;
+import com.springcloud.config.client.listener.KeyPrefixIndex;
 import com.springcloud.config.client.listener.Listener;
+import com.springcloud.config.client.listener.SnapshotListener;
+import com.springcloud.config.client.metrics.ConfigMetrics;
+import com.springcloud.config.client.remote.PropertySourceDelta;
+import com.springcloud.config.client.remote.ReplicaSelector;
+import com.springcloud.config.client.snapshot.HostLeaderLock;
+import com.springcloud.config.client.snapshot.LocalSnapshot;
+import com.springcloud.config.client.snapshot.SharedSnapshotRegion;
+import com.springcloud.config.client.snapshot.SnapshotStore;
 import com.springcloud.config.client.thread.NamedThreadFactory;
+import com.springcloud.config.client.util.Digests;
 import com.springcloud.config.client.util.Safes;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-import org.springframework.beans.BeansException;
 import org.springframework.cloud.config.client.ConfigClientProperties;
 import org.springframework.cloud.config.client.ConfigClientStateHolder;
-import org.springframework.cloud.config.client.ConfigServicePropertySourceLocator;
 import org.springframework.cloud.config.environment.PropertySource;
-import org.springframework.cloud.endpoint.event.RefreshEvent;
-import org.springframework.context.ApplicationContext;
-import org.springframework.context.ApplicationContextAware;
 import org.springframework.core.annotation.Order;
-import org.springframework.http.*;
-import org.springframework.http.client.ClientHttpRequestInterceptor;
-import org.springframework.http.client.SimpleClientHttpRequestFactory;
-import org.springframework.lang.Nullable;
-import org.springframework.util.Base64Utils;
 import org.springframework.util.StringUtils;
-import org.springframework.web.client.HttpClientErrorException;
-import org.springframework.web.client.ResourceAccessException;
 import org.springframework.web.client.RestTemplate;
 
 import java.util.*;
 import java.util.concurrent.*;
-import java.util.concurrent.locks.Condition;
-import java.util.concurrent.locks.Lock;
-import java.util.concurrent.locks.ReentrantLock;
-
-import static org.springframework.cloud.config.client.ConfigClientProperties.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Supplier;
 
 @Order
-public class DefaultHandler implements Handler, ApplicationContextAware {
+public class DefaultHandler implements Handler {
 
     private static final Logger logger = LoggerFactory.getLogger(DefaultHandler.class);
 
-    private static final ConcurrentHashMap<String, ConfigCache> cacheMap = new ConcurrentHashMap<>(16);
+    /**
+     * 配置缓存，key为 target + 配置文件名
+     */
+    private final ConcurrentHashMap<ConfigKey, ConfigCache> cacheMap = new ConcurrentHashMap<>(16);
+
+    /**
+     * 需要拉取的配置，第一个为本应用（spring.application.name/profile/label）
+     */
+    private final Set<ConfigTarget> targets = new CopyOnWriteArraySet<>();
 
-    private RestTemplate restTemplate;
+    private final ConfigTarget primaryTarget;
 
     private ConfigClientProperties configClientProperties;
 
-    private ApplicationContext applicationContext;
+    private DynamicConfigProperties dynamicConfigProperties;
+
+    /**
+     * 新增配置文件时挂载的默认监听器，可为空
+     */
+    private final Listener refreshListener;
+
+    private final PollScheduler pollScheduler;
+
+    private final PollIntervalPolicy pollIntervalPolicy;
+
+    /**
+     * 推送订阅，仅开启推送时创建
+     */
+    private volatile PushSubscriber pushSubscriber;
+
+    private final ConfigMetrics metrics;
+
+    private final ListenerDispatcher listenerDispatcher;
+
+    private final ChangeCoalescer changeCoalescer;
+
+    private final ReplicaSelector replicaSelector;
+
+    private final ConfigRemote remote;
+
+    private final SourcesFetch sourcesFetch;
+
+    private final DeltaFetch deltaFetch;
+
+    private final FullFetch fullFetch;
+
+    /**
+     * 并发拉取多个请求的线程池，只在拉取线程内创建
+     */
+    private ExecutorService pollExecutor;
+
+    /**
+     * 本地快照，仅开启快照时创建
+     */
+    private SnapshotStore snapshotStore;
+
+    private volatile boolean snapshotSaved;
 
-    private ScheduledExecutorService workerExecutor;
+    /**
+     * 同机共享快照与leader锁，仅开启同机共享时创建
+     */
+    private SharedSnapshotRegion sharedRegion;
 
-    private ScheduledExecutorService taskExecutor;
+    private HostLeaderLock leaderLock;
 
-    private final Lock lock = new ReentrantLock();
+    /**
+     * 本进程是否为同机leader，是leader时拉取本应用配置并写入共享快照，否则从共享快照读取
+     */
+    private volatile boolean sharedLeader;
 
-    private final Condition done = lock.newCondition();
+    /**
+     * 成为leader后是否已写入过共享快照
+     */
+    private volatile boolean sharedWritten;
 
-    public DefaultHandler(RestTemplate restTemplate, ConfigClientProperties configClientProperties) {
-        this.restTemplate = restTemplate;
+    /**
+     * 服务端未部署长轮询端点，改为按poll-interval普通拉取
+     */
+    private volatile boolean longPollUnsupported;
+
+    /**
+     * 是否已开始定时拉取，快速启动时推迟到第一个target注册之后
+     */
+    private final AtomicBoolean pollStarted = new AtomicBoolean(false);
+
+    private final List<SnapshotListener> snapshotListeners = new CopyOnWriteArrayList<>();
+
+    /**
+     * 各配置按key前缀注册的监听器
+     */
+    private final Map<ConfigTarget, KeyPrefixIndex<Listener>> prefixListeners = new ConcurrentHashMap<>(4);
+
+    /**
+     * 本应用最近一次拉取到的配置文件名，按优先级从高到低排列
+     */
+    private volatile List<String> primarySourceNames = Collections.emptyList();
+
+    public DefaultHandler(RestTemplate restTemplate, ConfigClientProperties configClientProperties,
+                          DynamicConfigProperties dynamicConfigProperties, Listener refreshListener, ConfigMetrics metrics) {
         this.configClientProperties = configClientProperties;
-        this.taskExecutor = Executors.newScheduledThreadPool(1, new NamedThreadFactory("cloud-config-defaulthandler-schedule"));
+        this.dynamicConfigProperties = dynamicConfigProperties;
+        this.refreshListener = refreshListener;
+        this.metrics = metrics;
+        this.primaryTarget = new ConfigTarget(configClientProperties.getName(), configClientProperties.getProfile(),
+                configClientProperties.getLabel());
+        this.replicaSelector = new ReplicaSelector(configClientProperties.getUri(), dynamicConfigProperties.getReplica());
+        this.remote = new ConfigRemote(restTemplate, configClientProperties, dynamicConfigProperties, replicaSelector,
+                metrics, this::longPolling);
+        this.sourcesFetch = new SourcesFetch(this, remote, dynamicConfigProperties, metrics);
+        this.deltaFetch = new DeltaFetch(this, remote, sourcesFetch, dynamicConfigProperties, metrics);
+        this.fullFetch = new FullFetch(this, remote, deltaFetch, sourcesFetch, metrics);
+
+        DynamicConfigProperties.Snapshot snapshot = dynamicConfigProperties.getSnapshot();
+        if (snapshot.isEnabled()) {
+            this.snapshotStore = SnapshotStore.of(snapshot.getDir(), configClientProperties.getName(),
+                    configClientProperties.getProfile(), configClientProperties.getLabel());
+        }
 
-        this.workerExecutor = Executors.newScheduledThreadPool(1, new NamedThreadFactory("cloud-config-defaulthandler-pulltask"));
+        DynamicConfigProperties.Shared shared = dynamicConfigProperties.getShared();
+        if (shared.isEnabled()) {
+            this.sharedRegion = SharedSnapshotRegion.of(shared.getDir(), configClientProperties.getName(),
+                    configClientProperties.getProfile(), configClientProperties.getLabel());
+            this.leaderLock = HostLeaderLock.of(shared.getDir(), configClientProperties.getName(),
+                    configClientProperties.getProfile(), configClientProperties.getLabel());
+        }
 
-        this.taskExecutor.scheduleWithFixedDelay(() -> {
-            try {
-                checkConfigData();
-            } catch (Exception e) {
-                logger.error("pull task error", e);
-            }
-        }, 1000L, 5000L, TimeUnit.MILLISECONDS);
+        DynamicConfigProperties.LongPoll longPoll = dynamicConfigProperties.getLongPoll();
+        this.pollIntervalPolicy = new PollIntervalPolicy(dynamicConfigProperties.getPollInterval(), dynamicConfigProperties, true);
+        if (longPoll.isEnabled()) {
+            this.pollIntervalPolicy.setLongPollInterval(longPoll.getInterval());
+        }
+        this.pollScheduler = new PollScheduler("cloud-config-defaulthandler-pulltask", new PullTask(), pollIntervalPolicy);
+        this.listenerDispatcher = new ListenerDispatcher(dynamicConfigProperties.getDispatch(), metrics);
+        this.changeCoalescer = new ChangeCoalescer(listenerDispatcher, pollScheduler,
+                dynamicConfigProperties.getDebounceWindow());
+        if (!dynamicConfigProperties.isFastStart()) {
+            startPolling();
+        }
+        if (sharedRegion != null) {
+            this.pollScheduler.submit(this::watchShared, 0L);
+        }
+
+        if (!longPoll.isEnabled()) {
+            startPush();
+        }
     }
 
-    private void checkConfigData() {
+    private void startPush() {
+        DynamicConfigProperties.Push push = dynamicConfigProperties.getPush();
+        if (push.isEnabled() && pushSubscriber == null) {
+            this.pushSubscriber = new PushSubscriber(push, configClientProperties, replicaSelector, this::pushTargets,
+                    new PushCallback(this, pollScheduler, pollIntervalPolicy, push.getPollInterval()));
+            this.pushSubscriber.start();
+        }
+    }
 
-        if (cacheMap.size() > 0) {
-            try {
-                lock.lock();
-                workerExecutor.execute(new PullTaskRunnable());
-                done.await();
-            } catch (InterruptedException e) {
-                logger.error("execute schedule task error", e);
-            } finally {
-                lock.unlock();
+    /**
+     * 开启了长轮询且服务端部署了长轮询端点
+     */
+    boolean longPolling() {
+        return dynamicConfigProperties.getLongPoll().isEnabled() && !longPollUnsupported;
+    }
+
+    /**
+     * 服务端未部署长轮询端点：恢复按poll-interval拉取，对冲、增量等拉取方式与推送随之生效
+     */
+    void longPollUnsupported() {
+        if (longPollUnsupported) {
+            return;
+        }
+        longPollUnsupported = true;
+        logger.warn("long poll not supported by config server, fall back to polling every {}ms",
+                dynamicConfigProperties.getPollInterval());
+        pollIntervalPolicy.setLongPollInterval(0L);
+        startPush();
+    }
+
+    /**
+     * appName与本应用不同时按本应用的profile、label追踪该application
+     */
+    @Override
+    public void addListeners(String appName, String configFileName, String version, Map<String, Object> configValue, List<? extends Listener> listeners) {
+        ConfigTarget target = primaryTarget.getApplication().equals(appName) ? primaryTarget
+                : new ConfigTarget(appName, primaryTarget.getProfile(), primaryTarget.getLabel());
+        ConfigCache configCache = addCacheIfAbsent(target, configFileName, configValue, version);
+        Safes.of(listeners).forEach(configCache::addListener);
+        addTarget(target);
+    }
+
+    /**
+     * 快速启动：直接以bootstrap拉取到的配置值作为初始快照，不复制、不计算摘要；
+     * 以bootstrap的版本号作为首次拉取的基准，首次拉取只检查版本
+     */
+    @Override
+    public void addBootstrapListeners(String version, Map<String, Map<String, Object>> sources, List<? extends Listener> listeners) {
+        List<String> sourceNames = new ArrayList<>(sources.size());
+        sources.forEach((configFileName, configValue) -> {
+            ConfigCache configCache = addCacheIfAbsent(primaryTarget, configFileName, version,
+                    () -> ConfigSnapshot.wrap(version, configValue));
+            Safes.of(listeners).forEach(configCache::addListener);
+            sourceNames.add(configFileName);
+        });
+        if (StringUtils.hasText(version) && primarySourceNames.isEmpty()) {
+            primarySourceNames = Collections.unmodifiableList(sourceNames);
+            // bootstrap以第一个有响应的label为准，无法得知具体是哪个，只为第一个label设置基准
+            String stateKey = new PollGroup(primaryTarget).stateKey(primaryTarget.getLabels()[0]);
+            if (remote.initVersion(stateKey, version)) {
+                deltaFetch.checkVersion(stateKey);
             }
         }
+        addTarget(primaryTarget);
+    }
 
+    private void startPolling() {
+        if (pollStarted.compareAndSet(false, true)) {
+            pollScheduler.start(dynamicConfigProperties.getInitialDelay());
+        }
     }
 
     @Override
-    public void addListeners(String appName, String configFileName, String version, Map<String, Object> configValue, List<? extends Listener> listeners) {
-        ConfigCache configCache = addCacheIfAbsent(appName, configFileName, configValue, version);
+    public void addTarget(ConfigTarget target) {
+        if (targets.add(target)) {
+            logger.info("track config target:{}", target);
+            if (pushSubscriber != null) {
+                pushSubscriber.reconnect();
+            }
+        }
+        startPolling();
+    }
+
+    /**
+     * 尚未拉取到该配置文件时先建立空缓存，首次拉取到后以新增（ADDED）变更通知监听器
+     */
+    @Override
+    public void addListeners(ConfigTarget target, String configFileName, List<? extends Listener> listeners) {
+        ConfigCache configCache = addCacheIfAbsent(target, configFileName, Collections.emptyMap(), null);
         Safes.of(listeners).forEach(configCache::addListener);
+        addTarget(target);
+    }
+
+    @Override
+    public void addPrefixListeners(ConfigTarget target, String keyPrefix, List<? extends Listener> listeners) {
+        KeyPrefixIndex<Listener> index = prefixListeners.computeIfAbsent(target, it -> new KeyPrefixIndex<>());
+        Safes.of(listeners).forEach(it -> index.add(Safes.of(keyPrefix), it));
+        addTarget(target);
+    }
+
+    @Override
+    public void addPrefixListeners(String keyPrefix, List<? extends Listener> listeners) {
+        addPrefixListeners(primaryTarget, keyPrefix, listeners);
+    }
+
+    /**
+     * 本应用配置拉取到变化时在拉取线程上回调，先于{@link Listener}
+     */
+    @Override
+    public void addSnapshotListener(SnapshotListener listener) {
+        snapshotListeners.add(listener);
+    }
+
+    @Override
+    public ConfigSnapshot getSnapshot(ConfigTarget target, String configFileName) {
+        ConfigCache configCache = cacheMap.get(cacheKey(target, configFileName));
+        return Objects.isNull(configCache) ? null : configCache.getSnapshot();
     }
 
-    private ConfigCache addCacheIfAbsent(String appName, String configFileName, Map<String, Object> configValue, String version) {
-        String cacheMapKey = appName + configFileName;
+    /**
+     * 已存在尚未拉取到内容的占位缓存时（先于bootstrap注册了监听器），以传入的内容为准
+     */
+    private ConfigCache addCacheIfAbsent(ConfigTarget target, String configFileName, Map<String, Object> configValue, String version) {
+        return addCacheIfAbsent(target, configFileName, version, () -> ConfigSnapshot.of(version, configValue));
+    }
+
+    private ConfigCache addCacheIfAbsent(ConfigTarget target, String configFileName, String version, Supplier<ConfigSnapshot> snapshot) {
+        ConfigKey cacheMapKey = cacheKey(target, configFileName);
         ConfigCache configCache = cacheMap.get(cacheMapKey);
         if (Objects.nonNull(configCache)) {
+            if (configCache.getCommitVersion() == null && version != null) {
+                configCache.publish(snapshot.get());
+            }
             return configCache;
         }
-        configCache = new ConfigCache();
-        configCache.setAppName(appName);
-        configCache.setConfigFileName(configFileName);
-        configCache.setCommitVersion(version);
-        configCache.setConfigValue(configValue);
-        cacheMap.putIfAbsent(cacheMapKey, configCache);
-        return configCache;
+        configCache = new ConfigCache(target.getApplication(), configFileName, snapshot.get());
+        ConfigCache previous = cacheMap.putIfAbsent(cacheMapKey, configCache);
+        return Objects.nonNull(previous) ? previous : configCache;
+    }
+
+    private static ConfigKey cacheKey(ConfigTarget target, String configFileName) {
+        return new ConfigKey(target, configFileName);
     }
 
     /**
-     * 获取git config配置
+     * 在调用线程上执行一次拉取，不经过调度器
      */
-    private org.springframework.cloud.config.environment.Environment getRemoteEnvironment(RestTemplate restTemplate,
-                                                                                          ConfigClientProperties properties, String label, String state) {
-        if (restTemplate == null) {
-            restTemplate = getSecureRestTemplate(properties);
-        }
-        String path = "/{name}/{profile}";
-        String name = properties.getName();
-        String profile = properties.getProfile();
-        String token = properties.getToken();
-        int noOfUrls = properties.getUri().length;
-        if (noOfUrls > 1) {
-            logger.info("Multiple Config Server Urls found listed.");
-        }
+    boolean pollOnce() throws Exception {
+        return new PullTask().poll();
+    }
+
+    class PullTask implements PollScheduler.PollTask {
 
-        Object[] args = new String[]{name, profile};
-        if (StringUtils.hasText(label)) {
-            if (label.contains("/")) {
-                label = label.replace("/", "(_)");
+        @Override
+        public boolean poll() throws Exception {
+            List<PollGroup> groups = groups();
+            groups.removeIf(it -> !pollsRemote(it));
+            if (groups.isEmpty()) {
+                // 本应用配置由watchShared从共享快照读取，本次拉取没有需要向config server请求的配置
+                metrics.recordPollCompleted();
+                return false;
             }
-            args = new String[]{name, profile, label};
-            path = path + "/{label}";
+            String state = ConfigClientStateHolder.getState();
+            boolean changed = false;
+            if (groups.size() == 1) {
+                changed = pollGroup(groups.get(0), state);
+            } else {
+                // 无法合并的请求并发拉取，全部结束后再统一通知
+                if (pollExecutor == null) {
+                    int threads = Math.max(1, dynamicConfigProperties.getMaxConcurrentPolls());
+                    pollExecutor = new ThreadPoolExecutor(threads, threads, 60L, TimeUnit.SECONDS, new LinkedBlockingQueue<>(),
+                            new NamedThreadFactory("cloud-config-defaulthandler-poll", true));
+                    ((ThreadPoolExecutor) pollExecutor).allowCoreThreadTimeOut(true);
+                }
+                List<Future<Boolean>> futures = new ArrayList<>(groups.size());
+                for (PollGroup group : groups) {
+                    futures.add(pollExecutor.submit(() -> pollGroup(group, state)));
+                }
+                Exception failure = null;
+                for (Future<Boolean> future : futures) {
+                    try {
+                        changed |= future.get();
+                    } catch (ExecutionException e) {
+                        if (failure == null) {
+                            failure = e.getCause() instanceof Exception ? (Exception) e.getCause() : e;
+                        }
+                    }
+                }
+                if (failure != null) {
+                    changeCoalescer.flush();
+                    throw failure;
+                }
+            }
+            // 所有请求处理完后统一通知，每个监听器一次
+            changeCoalescer.flush();
+            metrics.recordPollCompleted();
+            return changed;
         }
-        ResponseEntity<org.springframework.cloud.config.environment.Environment> response = null;
-
-        for (int i = 0; i < noOfUrls; i++) {
-            ConfigClientProperties.Credentials credentials = properties.getCredentials(i);
-            String uri = credentials.getUri();
-            String username = credentials.getUsername();
-            String password = credentials.getPassword();
+    }
 
-//            logger.info("Fetching config from server at : " + uri);
+    /**
+     * 推送订阅的target：{application}/{profile}/{label}，每个label一项，label中的"/"以"(_)"代替
+     */
+    private List<String> pushTargets() {
+        List<String> result = new ArrayList<>(targets.size());
+        for (ConfigTarget target : targets) {
+            for (String label : target.getLabels()) {
+                result.add(target.getApplication() + "/" + target.getProfile() + "/" + label.replace("/", "(_)"));
+            }
+        }
+        return result;
+    }
 
-            try {
-                HttpHeaders headers = new HttpHeaders();
-                addAuthorizationToken(properties, headers, username, password);
-                if (StringUtils.hasText(token)) {
-                    headers.add(TOKEN_HEADER, token);
-                }
-                if (StringUtils.hasText(state) && properties.isSendState()) {
-                    headers.add(STATE_HEADER, state);
-                }
-                headers.setAccept(Collections.singletonList(MediaType.APPLICATION_JSON));
-
-                final HttpEntity<Void> entity = new HttpEntity<>((Void) null, headers);
-                response = restTemplate.exchange(uri + path, HttpMethod.GET, entity,
-                        org.springframework.cloud.config.environment.Environment.class, args);
-            } catch (HttpClientErrorException e) {
-                if (e.getStatusCode() != HttpStatus.NOT_FOUND) {
-                    throw e;
+    /**
+     * 收到推送后只拉取包含该target的请求，已持有该版本时跳过；失败时退回一次完整拉取
+     */
+    void pollPushed(String application, String profile, String label, String version) {
+        try {
+            String state = ConfigClientStateHolder.getState();
+            boolean polled = false;
+            for (PollGroup group : groups()) {
+                if (!group.contains(application, profile, label) || !pollsRemote(group)) {
+                    continue;
                 }
-            } catch (ResourceAccessException e) {
-                logger.info("Connect Timeout exception on Url - " + uri
-                        + ". Will be trying the next url if available");
-                if (i == noOfUrls - 1) {
-                    throw e;
-                } else {
+                if (version != null && version.equals(remote.version(group.stateKey(label)))) {
                     continue;
                 }
+                pollGroup(group, state);
+                polled = true;
             }
-
-            if (response == null || response.getStatusCode() != HttpStatus.OK) {
-                return null;
+            if (polled) {
+                changeCoalescer.flush();
+                metrics.recordPollCompleted();
             }
+        } catch (Exception e) {
+            logger.warn("pull pushed config error, fall back to full pull:{}/{}/{}", application, profile, label, e);
+            changeCoalescer.flush();
+            pollScheduler.trigger();
+        }
+    }
 
-            return response.getBody();
+    /**
+     * 本应用单独一组；开启合并请求时profile、label相同的其他application合并为一组
+     */
+    private List<PollGroup> groups() {
+        List<PollGroup> groups = new ArrayList<>(targets.size());
+        for (ConfigTarget target : targets) {
+            PollGroup group = null;
+            if (dynamicConfigProperties.isBatchRequests() && !target.equals(primaryTarget)) {
+                for (PollGroup candidate : groups) {
+                    if (!candidate.getTargets().contains(primaryTarget) && candidate.accepts(target)) {
+                        group = candidate;
+                        break;
+                    }
+                }
+            }
+            if (group == null) {
+                groups.add(new PollGroup(target));
+            } else {
+                group.add(target);
+            }
         }
+        // 本应用排在最前
+        groups.sort(Comparator.comparing((PollGroup it) -> !it.getTargets().contains(primaryTarget)));
+        return groups;
+    }
 
-        return null;
+    /**
+     * 开启同机共享且本进程不是leader时，本应用配置从共享快照读取，不向config server拉取
+     */
+    private boolean pollsRemote(PollGroup group) {
+        return sharedRegion == null || sharedLeader || !group.getTargets().contains(primaryTarget);
     }
 
-    private void addAuthorizationToken(ConfigClientProperties configClientProperties,
-                                       HttpHeaders httpHeaders, String username, String password) {
-        String authorization = configClientProperties.getHeaders().get(AUTHORIZATION);
+    /**
+     * 同机共享的非leader进程：每隔read-interval竞选一次leader，未当选时检查共享快照是否有新内容。
+     * 在拉取线程上执行，与拉取串行；当选后立即拉取一次并写入共享快照，之后不再检查
+     */
+    private void watchShared() {
+        try {
+            if (leaderLock.tryAcquire()) {
+                sharedWritten = false;
+                sharedLeader = true;
+                logger.info("become host leader of shared config, file:{}", sharedRegion.getFile());
+                pollScheduler.trigger();
+                return;
+            }
+            LocalSnapshot snapshot = sharedRegion.readIfChanged();
+            if (snapshot != null) {
+                applyShared(snapshot);
+            }
+            // 非leader进程的配置来自共享快照，检查成功即视为一次拉取周期正常结束
+            metrics.recordPollCompleted();
+        } catch (RuntimeException e) {
+            logger.warn("read shared config error, file:{}", sharedRegion.getFile(), e);
+        }
+        pollScheduler.submit(this::watchShared, dynamicConfigProperties.getShared().getReadInterval());
+    }
 
-        if (password != null && authorization != null) {
-            throw new IllegalStateException(
-                    "You must set either 'password' or 'authorization'");
+    /**
+     * 以leader写入的快照更新本应用配置，与拉取到同样内容时的处理一致
+     */
+    private void applyShared(LocalSnapshot snapshot) {
+        long observedAt = System.currentTimeMillis();
+        PollGroup group = new PollGroup(primaryTarget);
+        List<String> sourceNames = new ArrayList<>(snapshot.getSources().size());
+        boolean changed = false;
+        for (LocalSnapshot.Source source : snapshot.getSources()) {
+            sourceNames.add(source.getName());
+            String version = source.getVersion() != null ? source.getVersion() : snapshot.getVersion();
+            changed |= applySource(primaryTarget, new PropertySource(source.getName(), source.getValues()), version, observedAt);
         }
+        publishSnapshot(group, sourceNames, changed);
+        metrics.recordPollResult(snapshot.getLabel(), changed ? "changed" : "unchanged");
+        // 接替leader后以该版本做条件拉取
+        sourcesFetch.forget(group.stateKey(snapshot.getLabel()));
+        remote.remember(group.stateKey(snapshot.getLabel()), null, snapshot.getVersion());
+        changeCoalescer.flush();
+    }
 
-        if (password != null) {
-            byte[] token = Base64Utils.encode((username + ":" + password).getBytes());
-            httpHeaders.add("Authorization", "Basic " + new String(token));
-        } else if (authorization != null) {
-            httpHeaders.add("Authorization", authorization);
+    /**
+     * 依次拉取一组配置的所有label
+     *
+     * @return 是否有配置文件变化
+     */
+    private boolean pollGroup(PollGroup group, String state) {
+        boolean primary = group.getTargets().contains(primaryTarget);
+        boolean changed = false;
+        // 与bootstrap保持一致，以第一个有响应的label作为快照内容
+        boolean snapshotLabelSeen = false;
+        // Try all the labels until one works
+        for (String label : group.getLabels()) {
+            String stateKey = group.stateKey(label);
+            boolean snapshotLabel = primary && !snapshotLabelSeen;
+            String since = deltaFetch.base(stateKey, snapshotLabel);
+            Boolean labelChanged = null;
+            if (since != null) {
+                labelChanged = deltaFetch.poll(group, label, state, since, snapshotLabel);
+            }
+            if (labelChanged == null && sourcesFetch.enabled(stateKey)) {
+                labelChanged = sourcesFetch.poll(group, label, state, snapshotLabel);
+            }
+            if (labelChanged == null) {
+                labelChanged = fullFetch.poll(group, label, state, since, snapshotLabel);
+            }
+            if (labelChanged != null) {
+                snapshotLabelSeen = true;
+                changed |= labelChanged;
+            }
         }
+        return changed;
     }
 
-    @Override
-    public void setApplicationContext(@Nullable ApplicationContext applicationContext) throws BeansException {
-        this.applicationContext = applicationContext;
+    /**
+     * 取得缓存的配置文件，尚未拉取到时返回null
+     */
+    ConfigCache cache(ConfigTarget target, String configFileName) {
+        return cacheMap.get(cacheKey(target, configFileName));
     }
 
-    class PullTaskRunnable implements Runnable {
+    /**
+     * 配置文件内容未变化，只前进版本号
+     */
+    void advanceVersion(ConfigTarget target, String configFileName, String version) {
+        ConfigCache configCache = cache(target, configFileName);
+        if (Objects.nonNull(configCache) && !version.equals(configCache.getCommitVersion())) {
+            configCache.publish(configCache.getSnapshot().withVersion(version));
+        }
+    }
 
-        @Override
-        public void run() {
-            try {
-                lock.lock();
-                String[] labels = new String[]{""};
-                if (StringUtils.hasText(configClientProperties.getLabel())) {
-                    labels = StringUtils.commaDelimitedListToStringArray(configClientProperties.getLabel());
+    /**
+     * 在缓存的快照上应用一个配置文件的增量，变更明细直接由增量得出，不再全量比较
+     *
+     * @return 是否有变更需要通知
+     */
+    boolean applySourceDelta(ConfigTarget target, PropertySourceDelta source, String version, long observedAt) {
+        ConfigCache configCache = cacheMap.get(cacheKey(target, source.getName()));
+        if (Objects.isNull(configCache)) {
+            newCacheIfNull(target, source.getName(), source.getChanged(), version);
+            return false;
+        }
+
+        Map<String, Object> before = configCache.getConfigValue();
+        Map<String, ConfigChange> changeConfig;
+        ConfigSnapshot snapshot;
+        if (source.isCreated()) {
+            // 文件被删除后重新添加，增量即完整内容
+            snapshot = ConfigSnapshot.of(version, source.getChanged());
+            changeConfig = ConfigChanges.diff(before, snapshot.getValues());
+        } else {
+            Map<String, Object> after = new HashMap<>(before);
+            changeConfig = new HashMap<>();
+            for (Map.Entry<String, Object> entry : Safes.of(source.getChanged()).entrySet()) {
+                String key = entry.getKey();
+                Object oldValue = after.put(key, entry.getValue());
+                if (oldValue == null && !before.containsKey(key)) {
+                    changeConfig.put(key, new ConfigChange(key, null, entry.getValue(), ChangeType.ADDED));
+                } else if (!Objects.equals(oldValue, entry.getValue())) {
+                    changeConfig.put(key, new ConfigChange(key, oldValue, entry.getValue(), ChangeType.MODIFIED));
                 }
-                String state = ConfigClientStateHolder.getState();
-                // Try all the labels until one works
-                for (String label : labels) {
-                    org.springframework.cloud.config.environment.Environment result = getRemoteEnvironment(restTemplate, configClientProperties,
-                            label.trim(), state);
-                    if (result != null) {
-//                        log(result);
-                        String appName = result.getName();
-                        String version = result.getVersion();
-                        if (result.getPropertySources() != null) { // result.getPropertySources()
-
-                            for (PropertySource source : result.getPropertySources()) {
-                                Map<String, Object> configValue = new HashMap<>();
-                                String cacheMapKey = appName + source.getName();
-
-                                ConfigCache configCache = cacheMap.get(cacheMapKey);
-
-                                for (Map.Entry<?, ?> curSource : source.getSource().entrySet()) {
-                                    configValue.put(curSource.getKey().toString(), curSource.getValue());
-                                }
-
-                                if (Objects.isNull(configCache)) {
-                                    newCacheIfNull(appName, source.getName(), configValue, version);
-                                    continue;
-                                }
-
-                                if (version.equals(configCache.getCommitVersion())) {
-                                    continue;
-                                }
-
-                                //遍历所有配置信息
-                                Set<String> changeConfig = changes(configCache.getConfigValue(), configValue).keySet();
-                                if (changeConfig.size() == 0) {
-                                    continue;
-                                }
-
-                                configCache.setCommitVersion(version);
-                                configCache.setConfigValue(configValue);
-                                cacheMap.put(cacheMapKey, configCache);
-                                configCache.notifyListener();
-                            }
-                        }
-                    }
+            }
+            for (String key : Safes.of(source.getRemoved())) {
+                if (after.containsKey(key)) {
+                    changeConfig.put(key, new ConfigChange(key, after.remove(key), null, ChangeType.REMOVED));
                 }
-                done.signal();
-            } catch (Exception e) {
-                logger.warn("pull task error", e);
-                workerExecutor.schedule(this, 3000, TimeUnit.MILLISECONDS);
-            } finally {
-                lock.unlock();
             }
+            snapshot = ConfigSnapshot.of(version, after);
         }
+        if (changeConfig.isEmpty()) {
+            configCache.publish(configCache.getSnapshot().withVersion(version));
+            return false;
+        }
+
+        configCache.publish(snapshot);
+        changeCoalescer.add(configCache, new ConfigChangeEvent(target.getApplication(), target.getProfile(), source.getName(),
+                version, changeConfig, observedAt), prefixListeners.get(target));
+        return true;
     }
 
     /**
-     * 如果cache为空，说明git新增了新的配置文件，需要重新添加监听器
+     * 应用一个配置文件的最新内容
+     *
+     * @return 是否有变更需要通知
      */
-    private void newCacheIfNull(String appName, String configFileName, Map<String, Object> configValue, String version) {
-        this.addListeners(appName, configFileName, version, configValue, Lists.newArrayList(new Listener() {
-            @Override
-            public void executeEvent() {
-                applicationContext.publishEvent(new RefreshEvent(this, null, "Refresh git config"));
-            }
+    boolean applySource(ConfigTarget target, PropertySource source, String version, long observedAt) {
+        String appName = target.getApplication();
+        ConfigCache configCache = cacheMap.get(cacheKey(target, source.getName()));
 
-            @Override
-            public Executor getExecutor() {
-                return null;
-            }
-        }));
+        if (Objects.nonNull(configCache) && version.equals(configCache.getCommitVersion())) {
+            return false;
+        }
+
+        // 内容摘要一致说明本次提交未改动该文件，只更新版本号
+        long digest = Digests.digest(source.getSource());
+        if (Objects.nonNull(configCache) && digest == configCache.getDigest()) {
+            configCache.publish(configCache.getSnapshot().withVersion(version));
+            return false;
+        }
+
+        ConfigSnapshot snapshot = ConfigSnapshot.of(version, source.getSource());
+
+        if (Objects.isNull(configCache)) {
+            newCacheIfNull(target, source.getName(), snapshot.getValues(), version);
+            return false;
+        }
+
+        //遍历所有配置信息
+        long diffStart = System.nanoTime();
+        Map<String, ConfigChange> changeConfig = ConfigChanges.diff(configCache.getConfigValue(), snapshot.getValues());
+        metrics.recordDiff(System.nanoTime() - diffStart, changeConfig.size());
+        if (changeConfig.size() == 0) {
+            configCache.publish(configCache.getSnapshot().withVersion(version));
+            return false;
+        }
+
+        configCache.publish(snapshot);
+        ConfigChangeEvent changeEvent = new ConfigChangeEvent(appName, target.getProfile(), source.getName(), version,
+                changeConfig, observedAt);
+        changeCoalescer.add(configCache, changeEvent, prefixListeners.get(target));
+        return true;
+    }
+
+    /**
+     * 刚成为同机leader，尚未写入共享快照，需要一次完整拉取
+     */
+    private boolean sharedPending() {
+        return sharedLeader && !sharedWritten;
     }
 
-    private Map<String, Object> changes(Map<String, Object> before,
-                                        Map<String, Object> after) {
-        Map<String, Object> result = new HashMap<String, Object>();
-        for (String key : before.keySet()) {
-            if (!after.containsKey(key)) {
-                result.put(key, null);
-            } else if (!equal(before.get(key), after.get(key))) {
-                result.put(key, after.get(key));
+    /**
+     * 本地快照或共享快照尚未写入，需要一次完整拉取
+     */
+    boolean snapshotPending() {
+        return (snapshotStore != null && !snapshotSaved) || sharedPending();
+    }
+
+    /**
+     * 本地快照落盘，同机leader同时写入共享快照
+     */
+    void saveSnapshot(String label, String version, PollGroup group, List<String> sourceNames) {
+        boolean shared = sharedLeader;
+        if (snapshotStore == null && !shared) {
+            return;
+        }
+        List<LocalSnapshot.Source> sources = new ArrayList<>(sourceNames.size());
+        for (String sourceName : sourceNames) {
+            if (!group.owners(sourceName).contains(primaryTarget)) {
+                continue;
+            }
+            ConfigCache configCache = cacheMap.get(cacheKey(primaryTarget, sourceName));
+            if (Objects.nonNull(configCache)) {
+                sources.add(new LocalSnapshot.Source(sourceName, configCache.getCommitVersion(), configCache.getConfigValue()));
             }
         }
-        for (String key : after.keySet()) {
-            if (!before.containsKey(key)) {
-                result.put(key, after.get(key));
+        LocalSnapshot snapshot = new LocalSnapshot(configClientProperties.getName(), configClientProperties.getProfile(),
+                label, version, System.currentTimeMillis(), sources);
+        if (snapshotStore != null) {
+            try {
+                snapshotStore.save(snapshot);
+                snapshotSaved = true;
+            } catch (ConfigException e) {
+                logger.warn("save snapshot error", e);
+            }
+        }
+        if (shared) {
+            try {
+                sharedRegion.write(snapshot);
+                sharedWritten = true;
+            } catch (ConfigException e) {
+                logger.warn("write shared snapshot error", e);
             }
         }
-        return result;
     }
 
-    private boolean equal(Object one, Object two) {
-        if (one == null && two == null) {
-            return true;
+    /**
+     * 本应用配置有变化或配置文件增减时，以全部配置文件的最新内容回调{@link SnapshotListener}，
+     * 在{@link ChangeCoalescer#flush()}之前执行，监听器与refresh看到的是同一份配置
+     */
+    void publishSnapshot(PollGroup group, List<String> sourceNames, boolean changed) {
+        List<String> names = new ArrayList<>(sourceNames.size());
+        for (String sourceName : sourceNames) {
+            if (group.owners(sourceName).contains(primaryTarget)) {
+                names.add(sourceName);
+            }
         }
-        if (one == null || two == null) {
-            return false;
+        if (!changed && names.equals(primarySourceNames)) {
+            return;
+        }
+        primarySourceNames = Collections.unmodifiableList(names);
+        if (snapshotListeners.isEmpty()) {
+            return;
+        }
+        List<Map<String, Object>> sources = primarySources();
+        for (SnapshotListener listener : snapshotListeners) {
+            try {
+                listener.onSnapshot(sources);
+            } catch (Throwable t) {
+                logger.error("snapshot listener error:{}", listener, t);
+            }
         }
-        return one.equals(two);
     }
 
-    private void log(org.springframework.cloud.config.environment.Environment result) {
-        if (logger.isDebugEnabled()) {
-            List<PropertySource> propertySourceList = result.getPropertySources();
-            if (propertySourceList != null) {
-                int propertyCount = 0;
-                for (PropertySource propertySource : propertySourceList) {
-                    propertyCount += propertySource.getSource().size();
-                }
-                logger.debug(String.format(
-                        "Environment %s has %d property sources with %d properties.",
-                        result.getName(), result.getPropertySources().size(),
-                        propertyCount));
+    private List<Map<String, Object>> primarySources() {
+        List<Map<String, Object>> sources = new ArrayList<>(primarySourceNames.size());
+        for (String sourceName : primarySourceNames) {
+            ConfigCache configCache = cacheMap.get(cacheKey(primaryTarget, sourceName));
+            if (Objects.nonNull(configCache)) {
+                sources.add(configCache.getConfigValue());
             }
         }
+        return sources;
     }
 
-    private RestTemplate getSecureRestTemplate(ConfigClientProperties client) {
-        SimpleClientHttpRequestFactory requestFactory = new SimpleClientHttpRequestFactory();
-        if (client.getRequestReadTimeout() < 0) {
-            throw new IllegalStateException("Invalid Value for Read Timeout set.");
-        }
-        requestFactory.setReadTimeout(client.getRequestReadTimeout());
-        RestTemplate template = new RestTemplate(requestFactory);
-        Map<String, String> headers = new HashMap<>(client.getHeaders());
-        if (headers.containsKey(AUTHORIZATION)) {
-            headers.remove(AUTHORIZATION); // To avoid redundant addition of header
-        }
-        if (!headers.isEmpty()) {
-            template.setInterceptors(Arrays.<ClientHttpRequestInterceptor>asList(
-                    new ConfigServicePropertySourceLocator.GenericRequestHeaderInterceptor(headers)));
+    /**
+     * 如果cache为空，说明git新增了新的配置文件，需要重新添加监听器；
+     * 其他application的配置不在本应用的Environment中，不挂载刷新监听器
+     */
+    private void newCacheIfNull(ConfigTarget target, String configFileName, Map<String, Object> configValue, String version) {
+        ConfigCache configCache = addCacheIfAbsent(target, configFileName, configValue, version);
+        if (refreshListener != null && target.equals(primaryTarget)) {
+            configCache.addListener(refreshListener);
         }
-
-        return template;
     }
 
     public void destroy() {
-        if (taskExecutor != null) {
-            taskExecutor.shutdown();
+        if (pushSubscriber != null) {
+            pushSubscriber.stop();
+        }
+        pollScheduler.stop();
+        if (pollExecutor != null) {
+            pollExecutor.shutdownNow();
         }
+        listenerDispatcher.shutdown();
 
-        if (workerExecutor != null) {
-            workerExecutor.shutdown();
+        remote.shutdown();
+        if (leaderLock != null) {
+            leaderLock.close();
+            sharedRegion.close();
         }
     }
 }
@@ -0,0 +1,153 @@
+package com.springcloud.config.client.worker;
+
+import com.springcloud.config.client.config.ConfigCache;
+import com.springcloud.config.client.config.ConfigTarget;
+import com.springcloud.config.client.configuration.DynamicConfigProperties;
+import com.springcloud.config.client.metrics.ConfigMetrics;
+import com.springcloud.config.client.remote.EnvironmentDelta;
+import com.springcloud.config.client.remote.PropertySourceDelta;
+import com.springcloud.config.client.util.Safes;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 增量拉取：以上次拉取到的版本为基准，只取得变化的key；无法按增量应用时由调用方全量拉取
+ */
+class DeltaFetch {
+
+    private static final Logger logger = LoggerFactory.getLogger(DeltaFetch.class);
+
+    private final DefaultHandler handler;
+
+    private final ConfigRemote remote;
+
+    private final SourcesFetch sourcesFetch;
+
+    private final DynamicConfigProperties dynamicConfigProperties;
+
+    private final ConfigMetrics metrics;
+
+    /**
+     * 服务端未部署增量端点的请求，只做全量拉取
+     */
+    private final Set<String> unsupported = ConcurrentHashMap.newKeySet();
+
+    /**
+     * 快速启动时以bootstrap版本号为基准、只需检查一次版本的请求
+     */
+    private final Set<String> versionChecks = ConcurrentHashMap.newKeySet();
+
+    DeltaFetch(DefaultHandler handler, ConfigRemote remote, SourcesFetch sourcesFetch,
+               DynamicConfigProperties dynamicConfigProperties, ConfigMetrics metrics) {
+        this.handler = handler;
+        this.remote = remote;
+        this.sourcesFetch = sourcesFetch;
+        this.dynamicConfigProperties = dynamicConfigProperties;
+        this.metrics = metrics;
+    }
+
+    /**
+     * 下一次拉取该请求时以已持有的版本请求一次增量端点
+     */
+    void checkVersion(String stateKey) {
+        versionChecks.add(stateKey);
+    }
+
+    /**
+     * 增量拉取的基准版本：首次拉取、快照尚未落盘或服务端不支持时返回null，走全量拉取。
+     * 快速启动后的首次拉取不论拉取方式都以bootstrap版本号请求一次增量端点，版本未变化时只得到304
+     */
+    String base(String stateKey, boolean snapshotLabel) {
+        boolean versionCheck = versionChecks.remove(stateKey);
+        if ((dynamicConfigProperties.getFetchMode() != DynamicConfigProperties.FetchMode.DELTA && !versionCheck)
+                || handler.longPolling()
+                || (snapshotLabel && handler.snapshotPending())
+                || unsupported.contains(stateKey)) {
+            return null;
+        }
+        return remote.version(stateKey);
+    }
+
+    /**
+     * 基准版本就是最新版本，增量端点却没有返回304，说明服务端未部署增量端点，之后该请求只做全量拉取
+     */
+    void unsupported(String stateKey) {
+        if (unsupported.add(stateKey)) {
+            logger.info("delta fetch not supported by config server, fall back to full fetch:{}", stateKey);
+        }
+    }
+
+    /**
+     * 增量拉取一个label
+     *
+     * @return 是否有配置文件变化，无法按增量应用时返回null，由调用方全量拉取
+     */
+    Boolean poll(PollGroup group, String label, String state, String since, boolean snapshotLabel) {
+        ResponseEntity<EnvironmentDelta> response = remote.getRemoteDelta(group, label, state, since);
+        if (response == null) {
+            return null;
+        }
+        if (response.getStatusCode() == HttpStatus.NOT_MODIFIED) {
+            metrics.recordPollResult(label, "not_modified");
+            return false;
+        }
+        EnvironmentDelta delta = response.getBody();
+        if (delta == null || !since.equals(delta.getBaseVersion()) || delta.getVersion() == null || !canApply(group, delta)) {
+            return null;
+        }
+        long observedAt = System.currentTimeMillis();
+        String version = delta.getVersion();
+        sourcesFetch.forget(group.stateKey(label));
+        Map<String, PropertySourceDelta> changes = new HashMap<>();
+        for (PropertySourceDelta source : Safes.of(delta.getChanges())) {
+            changes.put(source.getName(), source);
+        }
+        boolean labelChanged = false;
+        for (String sourceName : Safes.of(delta.getPropertySources())) {
+            PropertySourceDelta source = changes.get(sourceName);
+            for (ConfigTarget target : group.owners(sourceName)) {
+                if (source == null) {
+                    // 未变化的文件只前进版本号
+                    handler.advanceVersion(target, sourceName, version);
+                } else {
+                    labelChanged |= handler.applySourceDelta(target, source, version, observedAt);
+                }
+            }
+        }
+        if (snapshotLabel && labelChanged) {
+            handler.saveSnapshot(label, version, group, Safes.of(delta.getPropertySources()));
+        }
+        if (snapshotLabel) {
+            handler.publishSnapshot(group, Safes.of(delta.getPropertySources()), labelChanged);
+        }
+        metrics.recordPollResult(label, labelChanged ? "changed" : "unchanged");
+        remote.remember(group.stateKey(label), null, version);
+        return labelChanged;
+    }
+
+    /**
+     * 增量中修改的文件需要本地持有基准版本的完整内容，否则无法还原
+     */
+    private boolean canApply(PollGroup group, EnvironmentDelta delta) {
+        for (PropertySourceDelta source : Safes.of(delta.getChanges())) {
+            if (source.isCreated()) {
+                continue;
+            }
+            for (ConfigTarget target : group.owners(source.getName())) {
+                ConfigCache configCache = handler.cache(target, source.getName());
+                if (Objects.isNull(configCache) || !delta.getBaseVersion().equals(configCache.getCommitVersion())) {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+}
@@ -0,0 +1,98 @@
+package com.springcloud.config.client.worker;
+
+import com.springcloud.config.client.config.ConfigTarget;
+import com.springcloud.config.client.metrics.ConfigMetrics;
+import com.springcloud.config.client.util.Safes;
+import org.springframework.cloud.config.environment.Environment;
+import org.springframework.cloud.config.environment.PropertySource;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 全量拉取：请求一个label的完整配置（开启长轮询时先请求长轮询端点），版本未变化时跳过，否则逐文件应用
+ */
+class FullFetch {
+
+    private final DefaultHandler handler;
+
+    private final ConfigRemote remote;
+
+    private final DeltaFetch deltaFetch;
+
+    private final SourcesFetch sourcesFetch;
+
+    private final ConfigMetrics metrics;
+
+    FullFetch(DefaultHandler handler, ConfigRemote remote, DeltaFetch deltaFetch, SourcesFetch sourcesFetch,
+              ConfigMetrics metrics) {
+        this.handler = handler;
+        this.remote = remote;
+        this.deltaFetch = deltaFetch;
+        this.sourcesFetch = sourcesFetch;
+        this.metrics = metrics;
+    }
+
+    /**
+     * @param since 本次先尝试过的增量基准版本，未尝试增量拉取时为null
+     * @return 是否有配置文件变化，服务端没有该配置时返回null
+     */
+    Boolean poll(PollGroup group, String label, String state, String since, boolean snapshotLabel) {
+        String stateKey = group.stateKey(label);
+        ResponseEntity<Environment> response = null;
+        if (handler.longPolling()) {
+            response = remote.getRemoteLongPoll(group, label, state);
+            if (response == null) {
+                handler.longPollUnsupported();
+            }
+        }
+        if (response == null) {
+            response = remote.getRemoteEnvironment(group, label, state);
+        }
+        if (response == null) {
+            return null;
+        }
+        long observedAt = System.currentTimeMillis();
+        if (response.getStatusCode() == HttpStatus.NOT_MODIFIED) {
+            if (since != null) {
+                deltaFetch.unsupported(stateKey);
+            }
+            metrics.recordPollResult(label, "not_modified");
+            return false;
+        }
+        Environment result = response.getBody();
+        if (result == null) {
+            return false;
+        }
+        String version = result.getVersion();
+        if (since != null && since.equals(version)) {
+            deltaFetch.unsupported(stateKey);
+        }
+        // 版本未变化时该请求下所有配置文件均已处理过，不做任何逐文件、逐key的工作
+        if (version != null && version.equals(remote.version(stateKey)) && !(snapshotLabel && handler.snapshotPending())) {
+            metrics.recordPollResult(label, "unchanged");
+            return false;
+        }
+        sourcesFetch.forget(stateKey);
+        boolean labelChanged = false;
+        for (PropertySource source : Safes.of(result.getPropertySources())) {
+            for (ConfigTarget target : group.owners(source.getName())) {
+                labelChanged |= handler.applySource(target, source, version, observedAt);
+            }
+        }
+        // 先落盘再通知，监听器触发的refresh重新bootstrap时读到的是最新快照
+        if (snapshotLabel) {
+            List<String> sourceNames = new ArrayList<>(Safes.of(result.getPropertySources()).size());
+            Safes.of(result.getPropertySources()).forEach(it -> sourceNames.add(it.getName()));
+            if (labelChanged || handler.snapshotPending()) {
+                handler.saveSnapshot(label, version, group, sourceNames);
+            }
+            handler.publishSnapshot(group, sourceNames, labelChanged);
+        }
+        metrics.recordPollResult(label, labelChanged ? "changed" : "unchanged");
+        remote.remember(stateKey, response.getHeaders().getETag(), version);
+        return labelChanged;
+    }
+}
@@ -1,6 +1,9 @@
 package com.springcloud.config.client.worker;
 
+import com.springcloud.config.client.config.ConfigSnapshot;
+import com.springcloud.config.client.config.ConfigTarget;
 import com.springcloud.config.client.listener.Listener;
+import com.springcloud.config.client.listener.SnapshotListener;
 
 import java.util.List;
 import java.util.Map;
@@ -12,4 +15,39 @@ public interface Handler {
      */
     void addListeners(String appName, String configFileName, String version, Map<String, Object> configValue, List<? extends Listener> listeners);
 
+    /**
+     * 以bootstrap拉取到的本应用配置注册全部配置文件，配置值直接引用不复制
+     */
+    void addBootstrapListeners(String version, Map<String, Map<String, Object>> sources, List<? extends Listener> listeners);
+
+    /**
+     * 追踪一组(application, profile, label)的配置
+     */
+    void addTarget(ConfigTarget target);
+
+    /**
+     * 为指定配置的某个配置文件添加监听器，配置尚未拉取到时首次拉取后以新增变更通知
+     */
+    void addListeners(ConfigTarget target, String configFileName, List<? extends Listener> listeners);
+
+    /**
+     * 按key前缀添加监听器，不限配置文件，只回调该前缀下的变更
+     */
+    void addPrefixListeners(ConfigTarget target, String keyPrefix, List<? extends Listener> listeners);
+
+    /**
+     * 为本应用按key前缀添加监听器
+     */
+    void addPrefixListeners(String keyPrefix, List<? extends Listener> listeners);
+
+    /**
+     * 添加本应用整体配置的监听器，配置有变化时以全部配置文件的最新内容回调
+     */
+    void addSnapshotListener(SnapshotListener listener);
+
+    /**
+     * 配置文件的当前快照，尚未注册时为null
+     */
+    ConfigSnapshot getSnapshot(ConfigTarget target, String configFileName);
+
 }
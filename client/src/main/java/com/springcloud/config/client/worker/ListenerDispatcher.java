@@ -0,0 +1,279 @@
+package com.springcloud.config.client.worker;
+
+import com.springcloud.config.client.configuration.DynamicConfigProperties;
+import com.springcloud.config.client.exception.ConfigException;
+import com.springcloud.config.client.listener.ConfigChangeEvent;
+import com.springcloud.config.client.listener.Listener;
+import com.springcloud.config.client.metrics.ConfigMetrics;
+import com.springcloud.config.client.thread.NamedThreadFactory;
+import com.springcloud.config.client.thread.VirtualThreads;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * 监听器回调执行：回调在独立的有界线程池中执行，拉取线程只负责投递，不受监听器耗时影响。
+ * 同一监听器的回调串行执行，排队期间新到的变更与未执行的变更合并，变更不会被丢弃：
+ * 每个监听器最多一个任务在排队，队列长度不超过监听器数量。排队数超过queue-capacity时告警，超时的回调会被中断
+ */
+public class ListenerDispatcher {
+
+    private static final Logger logger = LoggerFactory.getLogger(ListenerDispatcher.class);
+
+    private static final String THREAD_NAME = "cloud-config-listener-dispatch";
+
+    private final ThreadPoolExecutor executor;
+
+    /**
+     * 回调超时看门狗，仅配置了超时时创建
+     */
+    private final ScheduledExecutorService watchdog;
+
+    private final long timeout;
+
+    /**
+     * 排队告警阈值
+     */
+    private final int queueWarning;
+
+    private final AtomicBoolean queueWarned = new AtomicBoolean();
+
+    private final ConfigMetrics metrics;
+
+    private final Map<Listener, Slot> slots = new ConcurrentHashMap<>(16);
+
+    public ListenerDispatcher(DynamicConfigProperties.Dispatch dispatch, ConfigMetrics metrics) {
+        this.metrics = metrics;
+        ThreadFactory threadFactory = null;
+        if (dispatch.isVirtualThreads()) {
+            threadFactory = VirtualThreads.newFactory(THREAD_NAME);
+            if (threadFactory == null) {
+                logger.warn("virtual threads are not supported by this jvm, fall back to platform threads");
+            }
+        }
+        if (threadFactory == null) {
+            threadFactory = new NamedThreadFactory(THREAD_NAME, true);
+        }
+        int threads = Math.max(1, dispatch.getThreads());
+        // 不设上限：Slot保证每个监听器最多排队一个任务，队列长度受监听器数量限制
+        this.executor = new ThreadPoolExecutor(threads, threads, 60L, TimeUnit.SECONDS,
+                new LinkedBlockingQueue<>(), threadFactory);
+        this.queueWarning = Math.max(1, dispatch.getQueueCapacity());
+        this.executor.allowCoreThreadTimeOut(true);
+        this.timeout = dispatch.getTimeout();
+        this.watchdog = timeout > 0
+                ? Executors.newSingleThreadScheduledExecutor(new NamedThreadFactory(THREAD_NAME + "-watchdog", true))
+                : null;
+    }
+
+    public void dispatch(Listener listener, List<ConfigChangeEvent> changeEvents) {
+        // 监听器自带线程池时由其自行隔离
+        if (null != listener.getExecutor()) {
+            try {
+                listener.getExecutor().execute(() -> invoke(listener, changeEvents));
+            } catch (Throwable t) {
+                logger.error("changes:{} notify fail,throwable:{}", describe(changeEvents), t.getCause());
+            }
+            return;
+        }
+        Slot slot = slots.computeIfAbsent(listener, Slot::new);
+        if (slot.offer(changeEvents)) {
+            submit(slot);
+        }
+    }
+
+    public void shutdown() {
+        executor.shutdownNow();
+        if (watchdog != null) {
+            watchdog.shutdownNow();
+        }
+    }
+
+    public int getQueueSize() {
+        return executor.getQueue().size();
+    }
+
+    private void submit(Slot slot) {
+        try {
+            executor.execute(slot);
+        } catch (RejectedExecutionException e) {
+            // 已关闭
+            slot.discard();
+            return;
+        }
+        int queued = executor.getQueue().size();
+        if (queued > queueWarning) {
+            if (queueWarned.compareAndSet(false, true)) {
+                logger.warn("{} listeners are waiting for dispatch threads, exceeds queue-capacity {}, "
+                        + "consider more dispatch threads or giving slow listeners their own executor", queued, queueWarning);
+            }
+        } else if (queued < queueWarning / 2) {
+            queueWarned.set(false);
+        }
+    }
+
+    private void runWithTimeout(Listener listener, List<ConfigChangeEvent> changeEvents) {
+        ScheduledFuture<?> timer = null;
+        if (watchdog != null) {
+            Thread worker = Thread.currentThread();
+            timer = watchdog.schedule(() -> {
+                metrics.recordListenerTimeout(listener.getClass().getName());
+                logger.warn("changes:{} notify timeout after {}ms, interrupt listener:{}",
+                        describe(changeEvents), timeout, listener);
+                worker.interrupt();
+            }, timeout, TimeUnit.MILLISECONDS);
+        }
+        try {
+            invoke(listener, changeEvents);
+        } finally {
+            if (timer != null) {
+                timer.cancel(false);
+                // 清除回调结束与取消之间可能到达的中断
+                Thread.interrupted();
+            }
+        }
+    }
+
+    private void invoke(Listener listener, List<ConfigChangeEvent> changeEvents) {
+        ClassLoader myClassLoader = Thread.currentThread().getContextClassLoader();
+        ClassLoader appClassLoader = listener.getClass().getClassLoader();
+        long start = System.nanoTime();
+        boolean success = false;
+        try {
+
+            // 执行回调之前先将线程classloader设置为具体webapp的classloader，以免回调方法中调用spi接口是出现异常或错用（多应用部署才会有该问题）。
+            Thread.currentThread().setContextClassLoader(appClassLoader);
+            listener.executeEvents(changeEvents);
+            success = true;
+
+            logger.info("changes:{} notify success", describe(changeEvents));
+        } catch (ConfigException ex) {
+            logger.error("changes:{} notify fail,errCode:{},errMsg:{}",
+                    describe(changeEvents), ex.getErrorCode(), ex.getErrMsg());
+        } catch (Throwable t) {
+            logger.error("changes:{} notify fail,throwable:{}", describe(changeEvents), t.getCause());
+        } finally {
+            Thread.currentThread().setContextClassLoader(myClassLoader);
+            record(listener, changeEvents, success, System.nanoTime() - start);
+        }
+    }
+
+    private void record(Listener listener, List<ConfigChangeEvent> changeEvents, boolean success, long nanos) {
+        if (metrics == ConfigMetrics.NOOP) {
+            return;
+        }
+        metrics.recordListener(listener.getClass().getName(), success, nanos);
+        long now = System.currentTimeMillis();
+        for (ConfigChangeEvent changeEvent : changeEvents) {
+            metrics.recordPropagation(now - changeEvent.getObservedAt());
+        }
+    }
+
+    /**
+     * 日志描述：appName/configFileName@commitVersion
+     */
+    static String describe(List<ConfigChangeEvent> changeEvents) {
+        StringBuilder builder = new StringBuilder("[");
+        for (ConfigChangeEvent changeEvent : changeEvents) {
+            if (builder.length() > 1) {
+                builder.append(", ");
+            }
+            builder.append(changeEvent.getAppName()).append('/').append(changeEvent.getConfigFileName())
+                    .append('@').append(changeEvent.getCommitVersion());
+        }
+        return builder.append(']').toString();
+    }
+
+    /**
+     * 单个监听器的待执行变更，任意时刻最多一个任务在队列中或执行中
+     */
+    private final class Slot implements Runnable {
+
+        private final Listener listener;
+
+        /**
+         * 配置文件 -> 合并后的变更，由this保护
+         */
+        private Map<String, ConfigChangeEvent> pending = new LinkedHashMap<>();
+
+        private boolean queued;
+
+        private long enqueuedAt;
+
+        Slot(Listener listener) {
+            this.listener = listener;
+        }
+
+        /**
+         * @return 是否需要投递新任务
+         */
+        synchronized boolean offer(List<ConfigChangeEvent> changeEvents) {
+            for (ConfigChangeEvent changeEvent : changeEvents) {
+                pending.merge(changeEvent.getSourceKey(), changeEvent, ConfigChangeEvent::merge);
+            }
+            if (queued) {
+                return false;
+            }
+            queued = true;
+            enqueuedAt = System.currentTimeMillis();
+            return true;
+        }
+
+        /**
+         * 线程池已关闭，不再回调
+         */
+        synchronized void discard() {
+            if (!pending.isEmpty()) {
+                logger.info("listener dispatcher is shut down, skip changes:{} of listener:{}",
+                        describe(new ArrayList<>(pending.values())), listener);
+            }
+            pending = new LinkedHashMap<>();
+            queued = false;
+        }
+
+        @Override
+        public void run() {
+            List<ConfigChangeEvent> changeEvents = new ArrayList<>();
+            long queueDelay;
+            synchronized (this) {
+                for (ConfigChangeEvent changeEvent : pending.values()) {
+                    if (!changeEvent.isEmpty()) {
+                        changeEvents.add(changeEvent);
+                    }
+                }
+                pending = new LinkedHashMap<>();
+                queueDelay = System.currentTimeMillis() - enqueuedAt;
+            }
+            if (!changeEvents.isEmpty()) {
+                metrics.recordListenerQueueDelay(queueDelay);
+                runWithTimeout(listener, changeEvents);
+            }
+            boolean more;
+            synchronized (this) {
+                more = !pending.isEmpty();
+                if (more) {
+                    enqueuedAt = System.currentTimeMillis();
+                } else {
+                    queued = false;
+                }
+            }
+            if (more) {
+                submit(this);
+            }
+        }
+    }
+}
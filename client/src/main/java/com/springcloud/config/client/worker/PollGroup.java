@@ -0,0 +1,129 @@
+package com.springcloud.config.client.worker;
+
+import com.springcloud.config.client.config.ConfigTarget;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * 一次拉取请求覆盖的配置：profile与label相同的多个application可以合并为一个请求
+ * （/{app1,app2}/{profile}/{label}），服务端返回所有application的配置文件
+ */
+class PollGroup {
+
+    private final String profile;
+
+    private final String label;
+
+    private final List<ConfigTarget> targets = new ArrayList<>(2);
+
+    /**
+     * 按名称长度倒序，归属判断时优先匹配更长的名称（user-service优先于user）
+     */
+    private List<ConfigTarget> byNameLength;
+
+    PollGroup(ConfigTarget target) {
+        this.profile = target.getProfile();
+        this.label = target.getLabel();
+        this.targets.add(target);
+    }
+
+    boolean accepts(ConfigTarget target) {
+        return profile.equals(target.getProfile()) && label.equals(target.getLabel());
+    }
+
+    void add(ConfigTarget target) {
+        targets.add(target);
+        byNameLength = null;
+    }
+
+    List<ConfigTarget> getTargets() {
+        return targets;
+    }
+
+    String getProfile() {
+        return profile;
+    }
+
+    String[] getLabels() {
+        return targets.get(0).getLabels();
+    }
+
+    /**
+     * 是否包含该application/profile/label
+     */
+    boolean contains(String application, String profile, String label) {
+        if (!this.profile.equals(profile) || !Arrays.asList(getLabels()).contains(label)) {
+            return false;
+        }
+        for (ConfigTarget target : targets) {
+            if (target.getApplication().equals(application)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * 请求路径中的application，多个时逗号分隔
+     */
+    String getName() {
+        StringBuilder name = new StringBuilder();
+        for (ConfigTarget target : targets) {
+            if (name.length() > 0) {
+                name.append(',');
+            }
+            name.append(target.getApplication());
+        }
+        return name.toString();
+    }
+
+    /**
+     * 条件拉取状态（ETag、版本号）的key
+     */
+    String stateKey(String label) {
+        return getName() + "/" + profile + "/" + label;
+    }
+
+    /**
+     * 配置文件属于哪些application：文件名为{application}或{application}-{profile}的归该application，
+     * 其余（如application.yml等共享文件）归请求中的全部application
+     */
+    List<ConfigTarget> owners(String sourceName) {
+        if (targets.size() == 1) {
+            return targets;
+        }
+        if (byNameLength == null) {
+            List<ConfigTarget> sorted = new ArrayList<>(targets);
+            sorted.sort(Comparator.comparingInt((ConfigTarget it) -> it.getApplication().length()).reversed());
+            byNameLength = sorted;
+        }
+        String baseName = baseName(sourceName);
+        for (ConfigTarget target : byNameLength) {
+            String application = target.getApplication();
+            if (baseName.equals(application) || baseName.startsWith(application + "-")) {
+                return Collections.singletonList(target);
+            }
+        }
+        return targets;
+    }
+
+    /**
+     * 去掉路径与扩展名：https://git/repo/foo-dev.yml -> foo-dev
+     */
+    static String baseName(String sourceName) {
+        String name = sourceName;
+        int slash = Math.max(name.lastIndexOf('/'), name.lastIndexOf('\\'));
+        if (slash >= 0) {
+            name = name.substring(slash + 1);
+        }
+        int dot = name.lastIndexOf('.');
+        if (dot > 0) {
+            name = name.substring(0, dot);
+        }
+        return name;
+    }
+}
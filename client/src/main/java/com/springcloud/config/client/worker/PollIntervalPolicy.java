@@ -0,0 +1,144 @@
+package com.springcloud.config.client.worker;
+
+import com.springcloud.config.client.configuration.DynamicConfigProperties;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.DoubleSupplier;
+
+/**
+ * 自适应拉取间隔：
+ * <ul>
+ * <li>每次间隔按比例随机抖动，首次拉取在一个拉取间隔内随机分散，避免整批实例同时请求config server</li>
+ * <li>拉取失败时按指数退避</li>
+ * <li>发现变更后的一段时间内加快拉取，以便及时拿到紧随其后的修正提交</li>
+ * <li>长时间无变更后放慢拉取</li>
+ * </ul>
+ * 推送连接正常时改为低频兜底拉取，长轮询时按长轮询间隔拉取。除{@link #setPushInterval}、{@link #setLongPollInterval}外
+ * 非线程安全，只在拉取线程内使用
+ */
+public class PollIntervalPolicy {
+
+    private final long interval;
+
+    private final double jitter;
+
+    private final long failureBackoff;
+
+    private final long maxFailureBackoff;
+
+    private final long fastInterval;
+
+    private final long fastWindow;
+
+    private final long stableAfter;
+
+    private final long stableInterval;
+
+    private final DoubleSupplier random;
+
+    /**
+     * 加快拉取的截止时间
+     */
+    private long fastUntil;
+
+    /**
+     * 开始放慢拉取的时间，未发现过变更时从创建时间算起
+     */
+    private long stableFrom;
+
+    /**
+     * 推送连接正常时的兜底拉取间隔，0表示未连接
+     */
+    private volatile long pushInterval;
+
+    /**
+     * 长轮询时两次请求之间的间隔，由服务端挂起控制节奏，不加快、不放慢；0表示未在长轮询
+     */
+    private volatile long longPollInterval;
+
+    /**
+     * @param adaptive 是否按变更情况加快/放慢拉取，长轮询时由服务端挂起控制节奏，不需要
+     */
+    public PollIntervalPolicy(long interval, DynamicConfigProperties properties, boolean adaptive) {
+        this(interval, properties, adaptive, System.currentTimeMillis(), () -> ThreadLocalRandom.current().nextDouble());
+    }
+
+    public PollIntervalPolicy(long interval, DynamicConfigProperties properties, boolean adaptive, long now,
+                              DoubleSupplier random) {
+        DynamicConfigProperties.Adaptive config = properties.getAdaptive();
+        this.interval = interval;
+        this.jitter = Math.max(0D, Math.min(1D, properties.getJitter()));
+        this.failureBackoff = properties.getFailureBackoff();
+        this.maxFailureBackoff = Math.max(properties.getFailureBackoff(), properties.getMaxFailureBackoff());
+        this.fastInterval = adaptive && config.getFastInterval() > 0 ? Math.min(config.getFastInterval(), interval) : interval;
+        this.fastWindow = adaptive ? config.getFastWindow() : 0L;
+        this.stableAfter = adaptive ? config.getStableAfter() : 0L;
+        this.stableInterval = Math.max(config.getStableInterval(), interval);
+        this.random = random;
+        this.stableFrom = now + stableAfter;
+    }
+
+    /**
+     * 首次拉取延迟：在initialDelay之后的一个拉取间隔内随机分散
+     */
+    public long initialDelay(long initialDelay) {
+        if (jitter <= 0) {
+            return initialDelay;
+        }
+        return initialDelay + (long) (random.getAsDouble() * interval);
+    }
+
+    /**
+     * 拉取成功后的下次拉取延迟
+     *
+     * @param changed 本次拉取是否发现变更
+     */
+    public long nextDelay(boolean changed, long now) {
+        if (changed) {
+            fastUntil = now + fastWindow;
+            stableFrom = now + stableAfter;
+        }
+        long delay = interval;
+        if (longPollInterval > 0) {
+            delay = longPollInterval;
+        } else if (pushInterval > 0) {
+            // 变更由推送触发拉取，无需加快
+            delay = Math.max(pushInterval, interval);
+        } else if (now < fastUntil) {
+            delay = fastInterval;
+        } else if (stableAfter > 0 && now >= stableFrom) {
+            delay = stableInterval;
+        }
+        return jitter(delay);
+    }
+
+    /**
+     * 推送连接建立时设置兜底拉取间隔，断开时置0恢复正常拉取
+     */
+    public void setPushInterval(long pushInterval) {
+        this.pushInterval = pushInterval;
+    }
+
+    /**
+     * 开启长轮询时设置两次请求的间隔，服务端不支持长轮询时置0恢复正常拉取
+     */
+    public void setLongPollInterval(long longPollInterval) {
+        this.longPollInterval = longPollInterval;
+    }
+
+    /**
+     * 连续失败failures次后的重试延迟
+     */
+    public long failureDelay(int failures) {
+        int shift = Math.min(failures - 1, 20);
+        return jitter(Math.min(maxFailureBackoff, failureBackoff << shift));
+    }
+
+    private long jitter(long delay) {
+        if (jitter <= 0) {
+            return delay;
+        }
+        double factor = 1D + jitter * (2D * random.getAsDouble() - 1D);
+        return Math.max(0L, (long) (delay * factor));
+    }
+}
@@ -0,0 +1,165 @@
+package com.springcloud.config.client.worker;
+
+import com.springcloud.config.client.thread.NamedThreadFactory;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * 单飞拉取调度器：同一时刻最多只有一个拉取任务在执行，任务结束后按{@link PollIntervalPolicy}调度下一次，
+ * 不会有线程阻塞等待。拉取状态与下一次调度的替换都在this上完成，触发与拉取结束交错时不会丢失触发
+ */
+public class PollScheduler {
+
+    private static final Logger logger = LoggerFactory.getLogger(PollScheduler.class);
+
+    private final ScheduledExecutorService executor;
+
+    private final PollTask task;
+
+    private final PollIntervalPolicy policy;
+
+    /**
+     * 是否正在拉取，由this保护
+     */
+    private boolean running;
+
+    /**
+     * 拉取执行期间收到的触发请求，当前拉取结束后立即补一次，由this保护
+     */
+    private boolean pending;
+
+    private final AtomicBoolean stopped = new AtomicBoolean(false);
+
+    /**
+     * 下一次拉取，由this保护
+     */
+    private ScheduledFuture<?> next;
+
+    /**
+     * 连续失败次数，只在拉取线程内读写
+     */
+    private int failures;
+
+    public PollScheduler(String name, PollTask task, PollIntervalPolicy policy) {
+        this.executor = Executors.newSingleThreadScheduledExecutor(new NamedThreadFactory(name, true));
+        this.task = task;
+        this.policy = policy;
+    }
+
+    public synchronized void start(long initialDelay) {
+        schedule(policy.initialDelay(initialDelay));
+    }
+
+    /**
+     * 立即触发一次拉取，若正在拉取则在本次结束后补一次
+     */
+    public synchronized void trigger() {
+        if (running) {
+            pending = true;
+            return;
+        }
+        schedule(0L);
+    }
+
+    /**
+     * 在拉取线程上延迟执行任务，与拉取任务串行
+     */
+    public void submit(Runnable task, long delay) {
+        if (stopped.get()) {
+            return;
+        }
+        try {
+            executor.schedule(() -> {
+                try {
+                    task.run();
+                } catch (Throwable t) {
+                    logger.error("scheduled task error", t);
+                }
+            }, delay, TimeUnit.MILLISECONDS);
+        } catch (RejectedExecutionException e) {
+            if (!stopped.get()) {
+                logger.error("schedule task error", e);
+            }
+        }
+    }
+
+    public void stop() {
+        if (!stopped.compareAndSet(false, true)) {
+            return;
+        }
+        synchronized (this) {
+            if (next != null) {
+                next.cancel(false);
+                next = null;
+            }
+        }
+        executor.shutdownNow();
+    }
+
+    public boolean isStopped() {
+        return stopped.get();
+    }
+
+    /**
+     * 以新的调度替换尚未执行的下一次拉取，调用方持有this
+     */
+    private void schedule(long delay) {
+        if (stopped.get()) {
+            return;
+        }
+        try {
+            ScheduledFuture<?> previous = next;
+            next = executor.schedule(this::runOnce, delay, TimeUnit.MILLISECONDS);
+            if (previous != null) {
+                previous.cancel(false);
+            }
+        } catch (RejectedExecutionException e) {
+            if (!stopped.get()) {
+                logger.error("schedule pull task error", e);
+            }
+        }
+    }
+
+    private void runOnce() {
+        synchronized (this) {
+            if (stopped.get() || running) {
+                return;
+            }
+            running = true;
+            pending = false;
+        }
+        long delay;
+        try {
+            boolean changed = task.poll();
+            failures = 0;
+            delay = policy.nextDelay(changed, System.currentTimeMillis());
+        } catch (Throwable t) {
+            failures++;
+            delay = policy.failureDelay(failures);
+            logger.warn("pull task error, failures:{}, retry after {}ms", failures, delay, t);
+        }
+        synchronized (this) {
+            running = false;
+            schedule(pending ? 0L : delay);
+            pending = false;
+        }
+    }
+
+    /**
+     * 一次拉取任务
+     */
+    public interface PollTask {
+
+        /**
+         * @return 本次拉取是否发现配置变更
+         */
+        boolean poll() throws Exception;
+    }
+}
@@ -0,0 +1,45 @@
+package com.springcloud.config.client.worker;
+
+/**
+ * 推送订阅的回调：收到变更时在拉取线程上只拉取包含该target的请求，连接状态变化时调整兜底拉取间隔
+ */
+class PushCallback implements PushSubscriber.Callback {
+
+    private final DefaultHandler handler;
+
+    private final PollScheduler pollScheduler;
+
+    private final PollIntervalPolicy pollIntervalPolicy;
+
+    /**
+     * 推送连接正常时的兜底拉取间隔
+     */
+    private final long pollInterval;
+
+    PushCallback(DefaultHandler handler, PollScheduler pollScheduler, PollIntervalPolicy pollIntervalPolicy, long pollInterval) {
+        this.handler = handler;
+        this.pollScheduler = pollScheduler;
+        this.pollIntervalPolicy = pollIntervalPolicy;
+        this.pollInterval = pollInterval;
+    }
+
+    @Override
+    public void onChange(String application, String profile, String label, String version) {
+        pollScheduler.submit(() -> handler.pollPushed(application, profile, label, version), 0L);
+    }
+
+    @Override
+    public void onResync() {
+        pollScheduler.trigger();
+    }
+
+    @Override
+    public void onConnected() {
+        pollIntervalPolicy.setPushInterval(pollInterval);
+    }
+
+    @Override
+    public void onDisconnected() {
+        pollIntervalPolicy.setPushInterval(0L);
+    }
+}
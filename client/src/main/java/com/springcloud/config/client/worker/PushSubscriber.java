@@ -0,0 +1,254 @@
+package com.springcloud.config.client.worker;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.springcloud.config.client.configuration.DynamicConfigProperties;
+import com.springcloud.config.client.remote.ReplicaSelector;
+import com.springcloud.config.client.remote.ServerReplica;
+import com.springcloud.config.client.thread.NamedThreadFactory;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.cloud.config.client.ConfigClientProperties;
+import org.springframework.http.HttpHeaders;
+import org.springframework.util.StringUtils;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Supplier;
+
+import static org.springframework.cloud.config.client.ConfigClientProperties.AUTHORIZATION;
+import static org.springframework.cloud.config.client.ConfigClientProperties.TOKEN_HEADER;
+
+/**
+ * 以SSE订阅config server的配置变更通知（GET {uri}{path}?target={application}/{profile}/{label}），
+ * 断线后携带Last-Event-ID重连，服务端据此补发错过的通知。独占一个守护线程
+ */
+public class PushSubscriber {
+
+    private static final Logger logger = LoggerFactory.getLogger(PushSubscriber.class);
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    private final DynamicConfigProperties.Push push;
+
+    private final ConfigClientProperties configClientProperties;
+
+    private final ReplicaSelector replicaSelector;
+
+    private final Supplier<List<String>> targets;
+
+    private final Callback callback;
+
+    private final Thread thread;
+
+    private volatile boolean stopped;
+
+    private volatile HttpURLConnection connection;
+
+    private volatile String lastEventId;
+
+    public PushSubscriber(DynamicConfigProperties.Push push, ConfigClientProperties configClientProperties,
+                          ReplicaSelector replicaSelector, Supplier<List<String>> targets, Callback callback) {
+        this.push = push;
+        this.configClientProperties = configClientProperties;
+        this.replicaSelector = replicaSelector;
+        this.targets = targets;
+        this.callback = callback;
+        this.thread = new NamedThreadFactory("cloud-config-defaulthandler-push", true).newThread(this::run);
+    }
+
+    public void start() {
+        thread.start();
+    }
+
+    /**
+     * 订阅的target变化时断开当前连接，以新的target重连
+     */
+    public void reconnect() {
+        HttpURLConnection current = connection;
+        if (current != null) {
+            current.disconnect();
+        }
+    }
+
+    public void stop() {
+        stopped = true;
+        reconnect();
+        thread.interrupt();
+    }
+
+    private void run() {
+        int failures = 0;
+        boolean connectedBefore = false;
+        while (!stopped) {
+            List<String> subscribed = targets.get();
+            if (subscribed.isEmpty()) {
+                sleep(push.getReconnectDelay());
+                continue;
+            }
+            // 连续失败时轮换副本
+            List<ServerReplica> replicas = replicaSelector.select();
+            ServerReplica replica = replicas.get(failures % replicas.size());
+            boolean connected = false;
+            try {
+                HttpURLConnection current = open(replica, subscribed);
+                connection = current;
+                int status = current.getResponseCode();
+                if (status != HttpURLConnection.HTTP_OK) {
+                    throw new IOException("push subscribe status " + status);
+                }
+                connected = true;
+                failures = 0;
+                // 从未收到过事件id时无法续传，断线期间的变更需要全量拉取一次
+                if (connectedBefore && lastEventId == null) {
+                    callback.onResync();
+                }
+                connectedBefore = true;
+                callback.onConnected();
+                read(current);
+            } catch (IOException | RuntimeException e) {
+                if (!stopped) {
+                    logger.info("push channel disconnected from {}: {}", replica.getUri(), e.toString());
+                }
+            } finally {
+                connection = null;
+                if (connected) {
+                    callback.onDisconnected();
+                }
+            }
+            if (!connected) {
+                failures++;
+                int shift = Math.min(failures - 1, 20);
+                sleep(Math.min(push.getMaxReconnectDelay(), push.getReconnectDelay() << shift));
+            }
+        }
+    }
+
+    private HttpURLConnection open(ServerReplica replica, List<String> subscribed) throws IOException {
+        ConfigClientProperties.Credentials credentials = configClientProperties.getCredentials(replica.getIndex());
+        StringBuilder url = new StringBuilder(credentials.getUri()).append(push.getPath());
+        char separator = push.getPath().indexOf('?') >= 0 ? '&' : '?';
+        for (String target : subscribed) {
+            url.append(separator).append("target=").append(URLEncoder.encode(target, "UTF-8"));
+            separator = '&';
+        }
+        HttpURLConnection current = (HttpURLConnection) new URL(url.toString()).openConnection();
+        current.setConnectTimeout(configClientProperties.getRequestConnectTimeout() > 0
+                ? configClientProperties.getRequestConnectTimeout() : 10000);
+        current.setReadTimeout(push.getReadTimeout());
+        current.setRequestProperty(HttpHeaders.ACCEPT, "text/event-stream");
+
+        HttpHeaders headers = new HttpHeaders();
+        configClientProperties.getHeaders().forEach((name, value) -> {
+            if (!AUTHORIZATION.equals(name)) {
+                headers.add(name, value);
+            }
+        });
+        if (StringUtils.hasText(configClientProperties.getToken())) {
+            headers.add(TOKEN_HEADER, configClientProperties.getToken());
+        }
+        ConfigRemote.addAuthorizationToken(configClientProperties, headers, credentials.getUsername(), credentials.getPassword());
+        headers.forEach((name, values) -> values.forEach(value -> current.addRequestProperty(name, value)));
+        String eventId = lastEventId;
+        if (eventId != null) {
+            current.setRequestProperty("Last-Event-ID", eventId);
+        }
+        return current;
+    }
+
+    /**
+     * 按SSE格式逐行解析，空行结束一个事件
+     */
+    private void read(HttpURLConnection current) throws IOException {
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(current.getInputStream(), StandardCharsets.UTF_8))) {
+            String event = null;
+            StringBuilder data = new StringBuilder();
+            String line;
+            while (!stopped && (line = reader.readLine()) != null) {
+                if (line.isEmpty()) {
+                    dispatch(event, data.toString());
+                    event = null;
+                    data.setLength(0);
+                    continue;
+                }
+                if (line.startsWith(":")) {
+                    continue;
+                }
+                int colon = line.indexOf(':');
+                String field = colon < 0 ? line : line.substring(0, colon);
+                String value = colon < 0 ? "" : line.substring(colon + 1);
+                if (value.startsWith(" ")) {
+                    value = value.substring(1);
+                }
+                switch (field) {
+                    case "id":
+                        lastEventId = value;
+                        break;
+                    case "event":
+                        event = value;
+                        break;
+                    case "data":
+                        if (data.length() > 0) {
+                            data.append('\n');
+                        }
+                        data.append(value);
+                        break;
+                    default:
+                        break;
+                }
+            }
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private void dispatch(String event, String data) {
+        if ("resync".equals(event)) {
+            callback.onResync();
+            return;
+        }
+        if (!"change".equals(event) || data.isEmpty()) {
+            return;
+        }
+        try {
+            Map<String, String> change = MAPPER.readValue(data, Map.class);
+            callback.onChange(change.get("application"), change.get("profile"), Objects.toString(change.get("label"), ""),
+                    change.get("version"));
+        } catch (IOException e) {
+            logger.warn("illegal push event:{}", data, e);
+        } catch (RuntimeException e) {
+            logger.error("handle push event error:{}", data, e);
+        }
+    }
+
+    private void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * 推送事件回调，在推送线程上执行，不能阻塞
+     */
+    public interface Callback {
+
+        void onChange(String application, String profile, String label, String version);
+
+        /**
+         * 无法续传，需要全量拉取一次
+         */
+        void onResync();
+
+        void onConnected();
+
+        void onDisconnected();
+    }
+}
@@ -0,0 +1,161 @@
+package com.springcloud.config.client.worker;
+
+import com.springcloud.config.client.config.ConfigCache;
+import com.springcloud.config.client.config.ConfigTarget;
+import com.springcloud.config.client.configuration.DynamicConfigProperties;
+import com.springcloud.config.client.metrics.ConfigMetrics;
+import com.springcloud.config.client.remote.EnvironmentManifest;
+import com.springcloud.config.client.remote.ManifestSource;
+import com.springcloud.config.client.util.Safes;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.cloud.config.environment.PropertySource;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 按配置文件拉取：上报已持有的各文件摘要，服务端只返回摘要变化的文件内容
+ */
+class SourcesFetch {
+
+    private static final Logger logger = LoggerFactory.getLogger(SourcesFetch.class);
+
+    private final DefaultHandler handler;
+
+    private final ConfigRemote remote;
+
+    private final DynamicConfigProperties dynamicConfigProperties;
+
+    private final ConfigMetrics metrics;
+
+    /**
+     * 各请求（application/profile/label）上次按配置文件拉取后持有的各文件摘要，文件名 -> 摘要；
+     * 配置经其他方式更新后移除，下次按配置文件拉取时全部重新下载
+     */
+    private final Map<String, Map<String, String>> sourceDigests = new ConcurrentHashMap<>(4);
+
+    /**
+     * 服务端未部署配置文件清单端点的请求，只做全量拉取
+     */
+    private final Set<String> unsupported = ConcurrentHashMap.newKeySet();
+
+    SourcesFetch(DefaultHandler handler, ConfigRemote remote, DynamicConfigProperties dynamicConfigProperties,
+                 ConfigMetrics metrics) {
+        this.handler = handler;
+        this.remote = remote;
+        this.dynamicConfigProperties = dynamicConfigProperties;
+        this.metrics = metrics;
+    }
+
+    boolean enabled(String stateKey) {
+        return dynamicConfigProperties.getFetchMode() == DynamicConfigProperties.FetchMode.SOURCES
+                && !handler.longPolling()
+                && !unsupported.contains(stateKey);
+    }
+
+    /**
+     * 该请求的配置已通过其他方式更新，上次上报的摘要不再可信
+     */
+    void forget(String stateKey) {
+        sourceDigests.remove(stateKey);
+    }
+
+    /**
+     * 按配置文件拉取一个label：摘要未变化的文件只前进版本号，其余文件按全量内容比较
+     *
+     * @return 是否有配置文件变化，无法按清单应用时返回null，由调用方全量拉取
+     */
+    Boolean poll(PollGroup group, String label, String state, boolean snapshotLabel) {
+        String stateKey = group.stateKey(label);
+        Map<String, String> known = sourceDigests.getOrDefault(stateKey, Collections.emptyMap());
+        ResponseEntity<EnvironmentManifest> response = remote.getRemoteManifest(group, label, state,
+                known.isEmpty() ? null : remote.version(stateKey), new LinkedHashSet<>(known.values()));
+        if (response == null) {
+            if (unsupported.add(stateKey)) {
+                logger.info("source fetch not supported by config server, fall back to full fetch:{}", stateKey);
+            }
+            return null;
+        }
+        if (response.getStatusCode() == HttpStatus.NOT_MODIFIED) {
+            metrics.recordPollResult(label, "not_modified");
+            return false;
+        }
+        EnvironmentManifest manifest = response.getBody();
+        if (manifest == null || manifest.getVersion() == null) {
+            return null;
+        }
+        if (Safes.of(manifest.getPropertySources()).stream().anyMatch(it -> it.getName() == null || it.getDigest() == null)) {
+            // 响应不是配置文件清单（如网关把未知路径转给了其他服务）
+            if (unsupported.add(stateKey)) {
+                logger.info("illegal source manifest from config server, fall back to full fetch:{}", stateKey);
+            }
+            return null;
+        }
+        long observedAt = System.currentTimeMillis();
+        String version = manifest.getVersion();
+        // 上报过的摘要 -> 持有该内容的文件，服务端按摘要省略内容，文件改名后也能从原文件取得
+        Map<String, String> owners = new HashMap<>();
+        known.forEach((sourceName, digest) -> owners.putIfAbsent(digest, sourceName));
+        // 应用任何文件之前先取出被省略的内容：文件互换内容时，原文件可能在本次循环中先被覆盖
+        Map<String, Map<ConfigTarget, Map<String, Object>>> omitted = new HashMap<>();
+        for (ManifestSource source : Safes.of(manifest.getPropertySources())) {
+            if (source.getSource() != null) {
+                continue;
+            }
+            for (ConfigTarget target : group.owners(source.getName())) {
+                if (source.getDigest().equals(known.get(source.getName()))
+                        && Objects.nonNull(handler.cache(target, source.getName()))) {
+                    continue;
+                }
+                String holderName = owners.get(source.getDigest());
+                ConfigCache holder = holderName == null ? null : handler.cache(target, holderName);
+                if (Objects.isNull(holder)) {
+                    // 本地已找不到该内容，本次改为全量拉取
+                    sourceDigests.remove(stateKey);
+                    return null;
+                }
+                omitted.computeIfAbsent(source.getDigest(), it -> new HashMap<>()).put(target, holder.getConfigValue());
+            }
+        }
+        Map<String, String> digests = new HashMap<>();
+        List<String> sourceNames = new ArrayList<>(Safes.of(manifest.getPropertySources()).size());
+        boolean labelChanged = false;
+        for (ManifestSource source : Safes.of(manifest.getPropertySources())) {
+            String sourceName = source.getName();
+            sourceNames.add(sourceName);
+            digests.put(sourceName, source.getDigest());
+            for (ConfigTarget target : group.owners(sourceName)) {
+                ConfigCache configCache = handler.cache(target, sourceName);
+                if (source.getSource() == null && source.getDigest().equals(known.get(sourceName)) && Objects.nonNull(configCache)) {
+                    handler.advanceVersion(target, sourceName, version);
+                    continue;
+                }
+                Map<String, Object> values = source.getSource();
+                if (values == null) {
+                    values = omitted.get(source.getDigest()).get(target);
+                }
+                labelChanged |= handler.applySource(target, new PropertySource(sourceName, values), version, observedAt);
+            }
+        }
+        if (snapshotLabel) {
+            if (labelChanged || handler.snapshotPending()) {
+                handler.saveSnapshot(label, version, group, sourceNames);
+            }
+            handler.publishSnapshot(group, sourceNames, labelChanged);
+        }
+        metrics.recordPollResult(label, labelChanged ? "changed" : "unchanged");
+        sourceDigests.put(stateKey, digests);
+        remote.remember(stateKey, null, version);
+        return labelChanged;
+    }
+}
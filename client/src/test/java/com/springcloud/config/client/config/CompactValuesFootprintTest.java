@@ -0,0 +1,107 @@
+package com.springcloud.config.client.config;
+
+import org.junit.Test;
+import org.openjdk.jol.info.GraphLayout;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.Assert.*;
+
+/**
+ * 以JOL统计对象图大小，防止{@link CompactValues}的内存占用退化
+ */
+public class CompactValuesFootprintTest {
+
+    private static final int KEYS = 5000;
+
+    @Test
+    public void smallerThanHashMapCopy() {
+        Map<String, Object> config = strings(0);
+        long hashMap = overhead(hashMapCopy(strings(0)), config);
+        long compact = overhead(CompactValues.of(config), config);
+
+        assertTrue("compact " + compact + " bytes, hashmap " + hashMap + " bytes", compact < hashMap * 7 / 10);
+    }
+
+    @Test
+    public void primitivesAreNotBoxed() {
+        Map<String, Object> config = numbers();
+        GraphLayout layout = GraphLayout.parseInstance(CompactValues.of(config));
+
+        assertFalse(layout.getClasses().contains(Integer.class));
+        assertFalse(layout.getClasses().contains(Long.class));
+        assertFalse(layout.getClasses().contains(Double.class));
+        assertFalse(layout.getClasses().contains(Boolean.class));
+        long hashMap = overhead(hashMapCopy(numbers()), config);
+        long compact = overhead(CompactValues.of(config), config);
+        assertTrue("compact " + compact + " bytes, hashmap " + hashMap + " bytes", compact < hashMap * 7 / 10);
+    }
+
+    @Test
+    public void adjacentVersionsShareStrings() {
+        // 两次反序列化得到的内容相同的字符串是不同的对象
+        CompactValues v0 = CompactValues.of(strings(0));
+        CompactValues v1 = CompactValues.of(strings(1));
+        long one = GraphLayout.parseInstance(v0).totalSize();
+        long both = GraphLayout.parseInstance(v0, v1).totalSize();
+
+        // 只有一个值不同，第二个版本只多出数组与下标表
+        assertTrue("one version " + one + " bytes, two versions " + both + " bytes", both < one * 3 / 2);
+    }
+
+    /**
+     * @param version 第一个key的值随版本变化，其余不变
+     */
+    private static Map<String, Object> strings(int version) {
+        Map<String, Object> config = new LinkedHashMap<>();
+        for (int i = 0; i < KEYS; i++) {
+            String value = i == 0 ? "changed-" + version : "http://service-" + i + ".internal:8080/api";
+            config.put(new String("app.module" + i % 50 + ".property" + i), new String(value));
+        }
+        return config;
+    }
+
+    private static Map<String, Object> numbers() {
+        Map<String, Object> config = new LinkedHashMap<>();
+        for (int i = 0; i < KEYS; i++) {
+            String key = "app.flag" + i;
+            switch (i % 4) {
+                case 0:
+                    config.put(key, i);
+                    break;
+                case 1:
+                    config.put(key, (long) i << 32);
+                    break;
+                case 2:
+                    config.put(key, i / 3D);
+                    break;
+                default:
+                    config.put(key, i % 2 == 0);
+            }
+        }
+        return config;
+    }
+
+    /**
+     * 除去key与字符串值本身之外的占用：两种方式存放的字符串内容相同，大小一致
+     */
+    private static long overhead(Map<String, Object> values, Map<String, Object> config) {
+        List<Object> strings = new ArrayList<>(config.keySet());
+        config.values().stream().filter(it -> it instanceof String).forEach(strings::add);
+        return GraphLayout.parseInstance(values).totalSize() - GraphLayout.parseInstance(strings.toArray()).totalSize();
+    }
+
+    /**
+     * 原先ConfigSnapshot.of的存放方式
+     */
+    private static Map<String, Object> hashMapCopy(Map<String, Object> values) {
+        Map<String, Object> copy = new HashMap<>(Math.max(16, values.size() * 4 / 3 + 1));
+        copy.putAll(values);
+        return Collections.unmodifiableMap(copy);
+    }
+}
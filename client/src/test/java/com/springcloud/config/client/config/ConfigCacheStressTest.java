@@ -0,0 +1,122 @@
+package com.springcloud.config.client.config;
+
+import com.springcloud.config.client.util.Digests;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.Assert.*;
+
+/**
+ * 一个线程持续发布新快照，多个线程并发读取：读到的版本号与配置值必须属于同一次发布，且版本不回退
+ */
+public class ConfigCacheStressTest {
+
+    private static final int KEYS = 64;
+
+    private static final int READERS = 4;
+
+    @Test
+    public void readersNeverSeeTornSnapshots() throws Exception {
+        ConfigCache cache = new ConfigCache("app", "app.yml", ConfigSnapshot.of("0", values(0)));
+        AtomicBoolean running = new AtomicBoolean(true);
+        ExecutorService executor = Executors.newFixedThreadPool(READERS + 1);
+        CyclicBarrier barrier = new CyclicBarrier(READERS + 1);
+        try {
+            List<Future<Long>> readers = new ArrayList<>();
+            for (int r = 0; r < READERS; r++) {
+                readers.add(executor.submit(() -> {
+                    barrier.await();
+                    long reads = 0;
+                    int last = -1;
+                    while (running.get()) {
+                        ConfigSnapshot snapshot = cache.getSnapshot();
+                        int version = Integer.parseInt(snapshot.getVersion());
+                        assertTrue("version went back from " + last + " to " + version, version >= last);
+                        int revision = (Integer) snapshot.getValues().get("revision");
+                        // 仅版本号前进的发布复用上一次的配置值
+                        assertTrue(revision == version || revision == version - 1);
+                        for (int i = 0; i < KEYS; i++) {
+                            assertEquals(revision, snapshot.getValues().get("key" + i));
+                        }
+                        assertEquals(Digests.digest(snapshot.getValues()), snapshot.getDigest());
+                        last = version;
+                        reads++;
+                    }
+                    return reads;
+                }));
+            }
+            Future<Integer> writer = executor.submit(() -> {
+                barrier.await();
+                int version = 0;
+                long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(1500);
+                while (System.nanoTime() < deadline) {
+                    version++;
+                    if (version % 2 == 0) {
+                        cache.publish(cache.getSnapshot().withVersion(String.valueOf(version)));
+                    } else if (version % 3 == 0) {
+                        cache.publish(ConfigSnapshot.wrap(String.valueOf(version), values(version)));
+                    } else {
+                        cache.publish(ConfigSnapshot.of(String.valueOf(version), values(version)));
+                    }
+                }
+                return version;
+            });
+            int published = writer.get(10, TimeUnit.SECONDS);
+            running.set(false);
+            for (Future<Long> reader : readers) {
+                assertTrue(reader.get(10, TimeUnit.SECONDS) > 0);
+            }
+            assertEquals(String.valueOf(published), cache.getCommitVersion());
+        } finally {
+            running.set(false);
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * wrap的快照摘要延迟计算，并发首次读取得到同一结果
+     */
+    @Test
+    public void lazyDigestIsConsistentUnderContention() throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(READERS);
+        try {
+            for (int round = 0; round < 200; round++) {
+                Map<String, Object> values = values(round);
+                ConfigSnapshot snapshot = ConfigSnapshot.wrap(String.valueOf(round), values);
+                long expected = Digests.digest(values);
+                CyclicBarrier barrier = new CyclicBarrier(READERS);
+                List<Future<Long>> digests = new ArrayList<>();
+                for (int r = 0; r < READERS; r++) {
+                    digests.add(executor.submit(() -> {
+                        barrier.await();
+                        return snapshot.withVersion("next").getDigest() ^ snapshot.getDigest() ^ snapshot.getDigest();
+                    }));
+                }
+                for (Future<Long> digest : digests) {
+                    assertEquals(expected, (long) digest.get(10, TimeUnit.SECONDS));
+                }
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private static Map<String, Object> values(int revision) {
+        Map<String, Object> values = new LinkedHashMap<>();
+        values.put("revision", revision);
+        for (int i = 0; i < KEYS; i++) {
+            values.put("key" + i, revision);
+        }
+        return values;
+    }
+}
@@ -0,0 +1,54 @@
+package com.springcloud.config.client.listener;
+
+import com.springcloud.config.client.constant.Constant;
+import org.junit.After;
+import org.junit.Test;
+import org.springframework.cloud.context.environment.EnvironmentChangeEvent;
+import org.springframework.context.ApplicationListener;
+import org.springframework.context.support.GenericApplicationContext;
+import org.springframework.core.env.CompositePropertySource;
+import org.springframework.core.env.MapPropertySource;
+
+import java.util.*;
+
+import static org.junit.Assert.*;
+
+public class TargetedRefreshListenerTest {
+
+    private final GenericApplicationContext context = new GenericApplicationContext();
+
+    private final List<EnvironmentChangeEvent> events = new ArrayList<>();
+
+    @After
+    public void tearDown() {
+        context.close();
+    }
+
+    @Test
+    public void publishesChangedKeys() {
+        Map<String, Object> values = new HashMap<>();
+        values.put("app.timeout", "1000");
+        values.put("app.removed", "x");
+        CompositePropertySource configService = new CompositePropertySource(Constant.CONFIG_SERVICE);
+        configService.addPropertySource(new MapPropertySource("app.yml", values));
+        CompositePropertySource bootstrap = new CompositePropertySource(Constant.BOOTSTRAP_PROPERTIES);
+        bootstrap.addPropertySource(configService);
+        context.getEnvironment().getPropertySources().addFirst(bootstrap);
+        context.addApplicationListener((ApplicationListener<EnvironmentChangeEvent>) events::add);
+        context.refresh();
+
+        TargetedRefreshListener listener = new TargetedRefreshListener(context);
+        listener.setApplicationContext(context);
+        Map<String, ConfigChange> changes = new LinkedHashMap<>();
+        changes.put("app.timeout", new ConfigChange("app.timeout", "1000", "2000", ChangeType.MODIFIED));
+        changes.put("app.removed", new ConfigChange("app.removed", "x", null, ChangeType.REMOVED));
+        listener.executeEvents(Collections.singletonList(new ConfigChangeEvent("app", "app.yml", "v2", changes)));
+
+        assertEquals("2000", context.getEnvironment().getProperty("app.timeout"));
+        assertFalse(context.getEnvironment().containsProperty("app.removed"));
+        assertEquals(1, events.size());
+        assertEquals(new HashSet<>(Arrays.asList("app.timeout", "app.removed")), events.get(0).getKeys());
+        // 不是以上下文为源，ConfigurationPropertiesRebinder不会全部重新绑定
+        assertNotSame(context, events.get(0).getSource());
+    }
+}
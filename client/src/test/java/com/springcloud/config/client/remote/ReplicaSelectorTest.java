@@ -0,0 +1,89 @@
+package com.springcloud.config.client.remote;
+
+import com.springcloud.config.client.configuration.DynamicConfigProperties;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+
+import static org.junit.Assert.*;
+
+public class ReplicaSelectorTest {
+
+    @Test
+    public void slowReplicaIsProbedAgainAfterDecay() {
+        DynamicConfigProperties.Replica properties = new DynamicConfigProperties.Replica();
+        properties.setEwmaHalfLife(60000L);
+        ReplicaSelector selector = new ReplicaSelector(new String[]{"http://a", "http://b"}, properties);
+        ServerReplica a = selector.getReplicas().get(0);
+        ServerReplica b = selector.getReplicas().get(1);
+
+        long now = 0L;
+        selector.recordSuccess(a, 2000L, now);
+        selector.recordSuccess(b, 20L, now);
+        assertSame(b, selector.select(now).get(0));
+
+        // b持续被选中、a没有新样本：a的EWMA衰减到低于b后被重新试探
+        while (selector.select(now).get(0) == b) {
+            now += 30000L;
+            selector.recordSuccess(b, 20L, now);
+            assertTrue("slow replica is never probed again", now < 3600000L);
+        }
+        assertSame(a, selector.select(now).get(0));
+
+        // 试探发现a已恢复，之后按新样本参与选择
+        selector.recordSuccess(a, 5L, now);
+        assertTrue(a.getEwmaMillis(properties.getEwmaHalfLife(), now) < 20);
+    }
+
+    @Test
+    public void noDecayWhenHalfLifeIsZero() {
+        DynamicConfigProperties.Replica properties = new DynamicConfigProperties.Replica();
+        properties.setEwmaHalfLife(0L);
+        ReplicaSelector selector = new ReplicaSelector(new String[]{"http://a", "http://b"}, properties);
+        selector.recordSuccess(selector.getReplicas().get(0), 2000L, 0L);
+        selector.recordSuccess(selector.getReplicas().get(1), 20L, 0L);
+        assertSame(selector.getReplicas().get(1), selector.select(Long.MAX_VALUE / 2).get(0));
+    }
+
+    @Test
+    public void concurrentSamplesKeepHedgeDelayWithinRange() throws Exception {
+        DynamicConfigProperties.Replica properties = new DynamicConfigProperties.Replica();
+        properties.setHedgeMinSamples(1);
+        properties.setHedgeMinDelay(1L);
+        ReplicaSelector selector = new ReplicaSelector(new String[]{"http://a", "http://b"}, properties);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Thread> threads = new ArrayList<>();
+        for (int t = 0; t < 4; t++) {
+            ServerReplica replica = selector.getReplicas().get(t % 2);
+            Thread thread = new Thread(() -> {
+                try {
+                    start.await();
+                } catch (InterruptedException e) {
+                    return;
+                }
+                for (int i = 0; i < 10000; i++) {
+                    selector.recordSuccess(replica, 10 + i % 90);
+                    long delay = selector.hedgeDelay();
+                    if (delay < 1 || delay >= 100) {
+                        throw new AssertionError("hedge delay out of range: " + delay);
+                    }
+                }
+            });
+            threads.add(thread);
+            thread.start();
+        }
+        List<Throwable> errors = new ArrayList<>();
+        threads.forEach(it -> it.setUncaughtExceptionHandler((th, e) -> {
+            synchronized (errors) {
+                errors.add(e);
+            }
+        }));
+        start.countDown();
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        assertTrue(errors.toString(), errors.isEmpty());
+    }
+}
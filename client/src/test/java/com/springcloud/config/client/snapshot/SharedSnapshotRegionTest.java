@@ -0,0 +1,137 @@
+package com.springcloud.config.client.snapshot;
+
+import com.springcloud.config.client.exception.ConfigException;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.PosixFilePermissions;
+import java.nio.file.attribute.UserPrincipal;
+import java.util.Collections;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.*;
+import static org.junit.Assume.assumeTrue;
+
+public class SharedSnapshotRegionTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    /**
+     * 另一个JVM进程持有leader锁并写入共享快照，本进程读到该快照；写方退出后本进程接替leader
+     */
+    @Test
+    public void anotherProcessWritesAndHandsOver() throws Exception {
+        String dir = folder.getRoot().toPath().resolve("shared").toString();
+        String java = System.getProperty("java.home") + File.separator + "bin" + File.separator + "java";
+        Process writer = new ProcessBuilder(java, "-cp", System.getProperty("java.class.path"), Writer.class.getName(), dir)
+                .redirectErrorStream(true).start();
+        try (HostLeaderLock lock = HostLeaderLock.of(dir, "app", "prod", null);
+             SharedSnapshotRegion region = SharedSnapshotRegion.of(dir, "app", "prod", null)) {
+            BufferedReader output = new BufferedReader(new InputStreamReader(writer.getInputStream(), StandardCharsets.UTF_8));
+            String line;
+            while ((line = output.readLine()) != null && !line.equals("written")) {
+                // 跳过写方进程的日志
+            }
+            assertEquals("written", line);
+
+            assertFalse(lock.tryAcquire());
+            LocalSnapshot snapshot = region.readIfChanged();
+            assertNotNull(snapshot);
+            assertEquals("v1", snapshot.getVersion());
+            assertEquals("secret", snapshot.getSources().get(0).getValues().get("password"));
+            assertNull(region.readIfChanged());
+
+            writer.getOutputStream().close();
+            assertTrue(writer.waitFor(30, TimeUnit.SECONDS));
+            assertTrue(lock.tryAcquire());
+            region.write(snapshot("v2"));
+            assertEquals("v2", SharedSnapshotRegion.of(dir, "app", "prod", null).readIfChanged().getVersion());
+        } finally {
+            writer.destroyForcibly();
+        }
+    }
+
+    @Test
+    public void filesAreOwnerOnly() throws Exception {
+        assumeTrue(FileSystems.getDefault().supportedFileAttributeViews().contains("posix"));
+        Path dir = folder.newFolder("shared").toPath();
+        Files.setPosixFilePermissions(dir, PosixFilePermissions.fromString("rwxrwxrwx"));
+        try (HostLeaderLock lock = HostLeaderLock.of(dir.toString(), "app", "prod", null);
+             SharedSnapshotRegion region = SharedSnapshotRegion.of(dir.toString(), "app", "prod", null)) {
+            assertTrue(lock.tryAcquire());
+            region.write(snapshot("v1"));
+
+            assertEquals("rwx------", PosixFilePermissions.toString(Files.getPosixFilePermissions(dir)));
+            assertEquals("rw-------", PosixFilePermissions.toString(Files.getPosixFilePermissions(lock.getFile())));
+            assertEquals("rw-------", PosixFilePermissions.toString(Files.getPosixFilePermissions(region.getFile())));
+        }
+    }
+
+    /**
+     * 他人预先放置的共享文件与锁文件不被使用；需要root才能把文件改为其他用户所有
+     */
+    @Test
+    public void filesOwnedByAnotherUserAreRefused() throws Exception {
+        assumeTrue(FileSystems.getDefault().supportedFileAttributeViews().contains("posix"));
+        assumeTrue("root".equals(System.getProperty("user.name")));
+        String dir = folder.getRoot().toString();
+        try (HostLeaderLock lock = HostLeaderLock.of(dir, "app", "prod", null);
+             SharedSnapshotRegion region = SharedSnapshotRegion.of(dir, "app", "prod", null)) {
+            region.write(snapshot("injected"));
+            region.close();
+            Files.createFile(lock.getFile());
+            UserPrincipal nobody;
+            try {
+                nobody = FileSystems.getDefault().getUserPrincipalLookupService().lookupPrincipalByName("nobody");
+            } catch (Exception e) {
+                assumeTrue(false);
+                return;
+            }
+            Files.setOwner(region.getFile(), nobody);
+            Files.setOwner(lock.getFile(), nobody);
+
+            assertFalse(lock.tryAcquire());
+            try {
+                SharedSnapshotRegion.of(dir, "app", "prod", null).readIfChanged();
+                fail();
+            } catch (ConfigException expected) {
+            }
+        }
+    }
+
+    private static LocalSnapshot snapshot(String version) {
+        return new LocalSnapshot("app", "prod", null, version, 0L, Collections.singletonList(
+                new LocalSnapshot.Source("app.yml", version, Collections.singletonMap("password", "secret"))));
+    }
+
+    /**
+     * 写方进程：成为leader并写入一次快照后输出written，标准输入关闭时退出
+     */
+    public static class Writer {
+
+        public static void main(String[] args) throws Exception {
+            HostLeaderLock lock = HostLeaderLock.of(args[0], "app", "prod", null);
+            SharedSnapshotRegion region = SharedSnapshotRegion.of(args[0], "app", "prod", null);
+            if (!lock.tryAcquire()) {
+                System.exit(1);
+            }
+            region.write(snapshot("v1"));
+            System.out.println("written");
+            System.out.flush();
+            while (System.in.read() >= 0) {
+                // 等待父进程关闭标准输入
+            }
+            region.close();
+            lock.close();
+        }
+    }
+}
@@ -0,0 +1,107 @@
+package com.springcloud.config.client.snapshot;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.PosixFilePermissions;
+import java.nio.file.attribute.UserPrincipal;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.junit.Assert.*;
+import static org.junit.Assume.assumeTrue;
+
+public class SnapshotStoreTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void savedSnapshotIsOwnerOnly() throws Exception {
+        assumeTrue(FileSystems.getDefault().supportedFileAttributeViews().contains("posix"));
+        Path dir = folder.getRoot().toPath().resolve("snapshot");
+        SnapshotStore store = SnapshotStore.of(dir.toString(), "app", "prod", null);
+        store.save(snapshot("secret"));
+
+        assertEquals("rwx------", PosixFilePermissions.toString(Files.getPosixFilePermissions(dir)));
+        assertEquals("rw-------", PosixFilePermissions.toString(Files.getPosixFilePermissions(store.getFile())));
+        assertEquals("secret", store.load().getSources().get(0).getValues().get("password"));
+    }
+
+    @Test
+    public void existingDirectoryIsRestricted() throws Exception {
+        assumeTrue(FileSystems.getDefault().supportedFileAttributeViews().contains("posix"));
+        Path dir = folder.newFolder("shared").toPath();
+        Files.setPosixFilePermissions(dir, PosixFilePermissions.fromString("rwxrwxrwx"));
+        SnapshotStore store = SnapshotStore.of(dir.toString(), "app", "prod", null);
+        store.save(snapshot("secret"));
+        assertEquals("rwx------", PosixFilePermissions.toString(Files.getPosixFilePermissions(dir)));
+    }
+
+    /**
+     * 他人预先放置的快照文件不被读取；需要root才能把文件改为其他用户所有
+     */
+    @Test
+    public void snapshotOwnedByAnotherUserIsNotLoaded() throws Exception {
+        assumeTrue(FileSystems.getDefault().supportedFileAttributeViews().contains("posix"));
+        assumeTrue("root".equals(System.getProperty("user.name")));
+        SnapshotStore store = SnapshotStore.of(folder.getRoot().toString(), "app", "prod", null);
+        store.save(snapshot("injected"));
+        UserPrincipal nobody;
+        try {
+            nobody = FileSystems.getDefault().getUserPrincipalLookupService().lookupPrincipalByName("nobody");
+        } catch (Exception e) {
+            assumeTrue(false);
+            return;
+        }
+        Files.setOwner(store.getFile(), nobody);
+        assertNull(store.load());
+    }
+
+    /**
+     * 同机多个进程共用快照目录：各自的临时文件不重名，并发写入不失败、不残留临时文件
+     */
+    @Test
+    public void concurrentWritersDoNotInterfere() throws Exception {
+        Path dir = folder.getRoot().toPath().resolve("snapshot");
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int writer = 0; writer < 4; writer++) {
+                String password = "writer" + writer;
+                futures.add(executor.submit(() -> {
+                    SnapshotStore store = SnapshotStore.of(dir.toString(), "app", "prod", null);
+                    for (int i = 0; i < 50; i++) {
+                        store.save(snapshot(password));
+                    }
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get(30, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        SnapshotStore store = SnapshotStore.of(dir.toString(), "app", "prod", null);
+        assertTrue(String.valueOf(store.load().getSources().get(0).getValues().get("password")).startsWith("writer"));
+        try (Stream<Path> files = Files.list(dir)) {
+            assertEquals(Collections.singletonList(store.getFile()), files.collect(Collectors.toList()));
+        }
+    }
+
+    private static LocalSnapshot snapshot(String password) {
+        return new LocalSnapshot("app", "prod", null, "v1", 0L, Collections.singletonList(
+                new LocalSnapshot.Source("app.yml", "v1", Collections.singletonMap("password", password))));
+    }
+}
@@ -0,0 +1,61 @@
+package com.springcloud.config.client.transport;
+
+import com.springcloud.config.client.configuration.DynamicConfigProperties;
+import com.sun.net.httpserver.HttpServer;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.cloud.config.client.ConfigClientProperties;
+import org.springframework.core.env.StandardEnvironment;
+
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.Properties;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.Assert.*;
+
+public class ConfigHttpTransportTest {
+
+    private HttpServer proxy;
+
+    private Properties systemProperties;
+
+    private final AtomicReference<String> proxiedUri = new AtomicReference<>();
+
+    @Before
+    public void setUp() throws Exception {
+        systemProperties = (Properties) System.getProperties().clone();
+        proxy = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        proxy.createContext("/", exchange -> {
+            proxiedUri.set(exchange.getRequestURI().toString());
+            byte[] body = "ok".getBytes(StandardCharsets.UTF_8);
+            exchange.sendResponseHeaders(200, body.length);
+            exchange.getResponseBody().write(body);
+            exchange.close();
+        });
+        proxy.start();
+    }
+
+    @After
+    public void tearDown() {
+        proxy.stop(0);
+        System.setProperties(systemProperties);
+    }
+
+    /**
+     * 连接池沿用JVM的代理系统属性
+     */
+    @Test
+    public void honoursSystemProxy() {
+        System.setProperty("http.proxyHost", "127.0.0.1");
+        System.setProperty("http.proxyPort", String.valueOf(proxy.getAddress().getPort()));
+        System.setProperty("http.nonProxyHosts", "");
+        try (ConfigHttpTransport transport = new ConfigHttpTransport(
+                new ConfigClientProperties(new StandardEnvironment()), new DynamicConfigProperties())) {
+            String body = transport.getRestTemplate().getForObject("http://config.invalid/app/default", String.class);
+            assertEquals("ok", body);
+        }
+        assertEquals("http://config.invalid/app/default", proxiedUri.get());
+    }
+}
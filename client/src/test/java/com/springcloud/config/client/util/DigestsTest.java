@@ -0,0 +1,77 @@
+package com.springcloud.config.client.util;
+
+import org.junit.Test;
+
+import java.lang.management.ManagementFactory;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import static org.junit.Assert.*;
+import static org.junit.Assume.assumeTrue;
+
+public class DigestsTest {
+
+    @Test
+    public void digestIgnoresEntryOrder() {
+        Map<String, Object> forward = new LinkedHashMap<>();
+        Map<String, Object> backward = new LinkedHashMap<>();
+        for (int i = 0; i < 100; i++) {
+            forward.put("key" + i, i % 2 == 0 ? "value" + i : i);
+            backward.put("key" + (99 - i), (99 - i) % 2 == 0 ? "value" + (99 - i) : 99 - i);
+        }
+        assertEquals(Digests.digest(forward), Digests.digest(backward));
+    }
+
+    @Test
+    public void digestDetectsChanges() {
+        Map<String, Object> source = new HashMap<>();
+        source.put("a", "1");
+        source.put("b", 2);
+        long digest = Digests.digest(source);
+
+        Map<String, Object> changedValue = new HashMap<>(source);
+        changedValue.put("a", "2");
+        Map<String, Object> changedType = new HashMap<>(source);
+        changedType.put("b", 2L);
+        Map<String, Object> swapped = new HashMap<>();
+        swapped.put("a", 2);
+        swapped.put("b", "1");
+        Map<String, Object> added = new HashMap<>(source);
+        added.put("c", null);
+
+        assertNotEquals(digest, Digests.digest(changedValue));
+        assertNotEquals(digest, Digests.digest(changedType));
+        assertNotEquals(digest, Digests.digest(swapped));
+        assertNotEquals(digest, Digests.digest(added));
+    }
+
+    /**
+     * 摘要计算的分配量与配置项数量无关
+     */
+    @Test
+    public void digestDoesNotAllocatePerEntry() {
+        java.lang.management.ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+        assumeTrue(bean instanceof com.sun.management.ThreadMXBean);
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) bean;
+        assumeTrue(threads.isThreadAllocatedMemorySupported());
+        threads.setThreadAllocatedMemoryEnabled(true);
+
+        Map<String, Object> source = new LinkedHashMap<>();
+        for (int i = 0; i < 10000; i++) {
+            source.put("module" + i % 97 + ".setting" + i, i % 3 == 0 ? i : "value-" + i);
+        }
+        long sink = 0;
+        for (int i = 0; i < 200; i++) {
+            sink += Digests.digest(source);
+        }
+        long threadId = Thread.currentThread().getId();
+        long before = threads.getThreadAllocatedBytes(threadId);
+        int rounds = 100;
+        for (int i = 0; i < rounds; i++) {
+            sink += Digests.digest(source);
+        }
+        long perCall = (threads.getThreadAllocatedBytes(threadId) - before) / rounds;
+        assertTrue("digest of 10000 entries allocates " + perCall + " bytes (" + sink + ")", perCall < 1024);
+    }
+}
@@ -0,0 +1,150 @@
+package com.springcloud.config.client.worker;
+
+import com.springcloud.config.client.config.ConfigTarget;
+import com.springcloud.config.client.configuration.DynamicConfigProperties;
+import com.springcloud.config.client.metrics.ConfigMetrics;
+import com.springcloud.config.client.remote.EnvironmentDelta;
+import com.springcloud.config.client.remote.PropertySourceDelta;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.cloud.config.client.ConfigClientProperties;
+import org.springframework.cloud.config.environment.Environment;
+import org.springframework.core.env.StandardEnvironment;
+import org.springframework.web.client.RestTemplate;
+
+import java.util.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.*;
+
+public class DeltaFetchTest {
+
+    private static final ConfigTarget TARGET = new ConfigTarget("app", "default", null);
+
+    private StubServer server;
+
+    private DefaultHandler handler;
+
+    private volatile Environment environment;
+
+    /**
+     * 为null时增量端点返回404
+     */
+    private volatile EnvironmentDelta delta;
+
+    private final AtomicInteger fullRequests = new AtomicInteger();
+
+    private final List<String> sinces = Collections.synchronizedList(new ArrayList<>());
+
+    @Before
+    public void setUp() throws Exception {
+        server = new StubServer().route("/app/default", exchange -> {
+            fullRequests.incrementAndGet();
+            StubServer.json(exchange, environment);
+        }).route("/delta/app/default", exchange -> {
+            String since = StubServer.query(exchange).get("since");
+            sinces.add(since);
+            EnvironmentDelta current = delta;
+            if (current == null) {
+                StubServer.status(exchange, 404);
+            } else if (since.equals(current.getVersion())) {
+                StubServer.status(exchange, 304);
+            } else {
+                StubServer.json(exchange, current);
+            }
+        });
+        ConfigClientProperties clientProperties = new ConfigClientProperties(new StandardEnvironment());
+        clientProperties.setName("app");
+        clientProperties.setProfile("default");
+        clientProperties.setLabel(null);
+        clientProperties.setUri(new String[]{server.uri()});
+        DynamicConfigProperties properties = new DynamicConfigProperties();
+        properties.setFetchMode(DynamicConfigProperties.FetchMode.DELTA);
+        properties.setInitialDelay(600000L);
+        handler = new DefaultHandler(new RestTemplate(), clientProperties, properties, null, ConfigMetrics.NOOP);
+        handler.addListeners(TARGET, "a.yml", Collections.singletonList(new RecordingListener()));
+        handler.addListeners(TARGET, "b.yml", Collections.singletonList(new RecordingListener()));
+
+        Map<String, Object> a = new HashMap<>();
+        a.put("kept", "1");
+        a.put("changed", "1");
+        a.put("removed", "1");
+        environment = StubServer.environment("app", "v1", "a.yml", a);
+        handler.pollOnce();
+        assertEquals(1, fullRequests.get());
+    }
+
+    @After
+    public void tearDown() {
+        handler.destroy();
+        server.close();
+    }
+
+    /**
+     * 以上次的版本为基准只取变化的key：修改、新增、删除的key与新建的文件都按增量应用，不再全量拉取
+     */
+    @Test
+    public void deltaIsApplied() throws Exception {
+        PropertySourceDelta a = new PropertySourceDelta("a.yml", false);
+        a.getChanged().put("changed", "2");
+        a.getChanged().put("added", "2");
+        a.getRemoved().add("removed");
+        PropertySourceDelta b = new PropertySourceDelta("b.yml", true);
+        b.getChanged().put("owner", "b");
+        delta = delta("v1", "v2", a, b);
+
+        assertTrue(handler.pollOnce());
+
+        assertEquals(Collections.singletonList("v1"), sinces);
+        assertEquals(1, fullRequests.get());
+        Map<String, Object> values = handler.getSnapshot(TARGET, "a.yml").getValues();
+        assertEquals("1", values.get("kept"));
+        assertEquals("2", values.get("changed"));
+        assertEquals("2", values.get("added"));
+        assertFalse(values.containsKey("removed"));
+        assertEquals("v2", handler.getSnapshot(TARGET, "a.yml").getVersion());
+        assertEquals("b", handler.getSnapshot(TARGET, "b.yml").getValues().get("owner"));
+    }
+
+    /**
+     * 版本未变化时增量端点返回304，不全量拉取
+     */
+    @Test
+    public void unchangedVersionIsNotModified() throws Exception {
+        delta = delta("v0", "v1");
+
+        assertFalse(handler.pollOnce());
+
+        assertEquals(Collections.singletonList("v1"), sinces);
+        assertEquals(1, fullRequests.get());
+        assertEquals("v1", handler.getSnapshot(TARGET, "a.yml").getVersion());
+    }
+
+    /**
+     * 服务端不认识基准版本（404）时改为全量拉取
+     */
+    @Test
+    public void unknownBaseFallsBackToFullFetch() throws Exception {
+        delta = null;
+        environment = StubServer.environment("app", "v2", "a.yml", Collections.singletonMap("kept", "2"));
+
+        assertTrue(handler.pollOnce());
+
+        assertEquals(Collections.singletonList("v1"), sinces);
+        assertEquals(2, fullRequests.get());
+        assertEquals("v2", handler.getSnapshot(TARGET, "a.yml").getVersion());
+        assertEquals("2", handler.getSnapshot(TARGET, "a.yml").getValues().get("kept"));
+    }
+
+    private static EnvironmentDelta delta(String baseVersion, String version, PropertySourceDelta... changes) {
+        EnvironmentDelta delta = new EnvironmentDelta();
+        delta.setName("app");
+        delta.setProfiles(new String[]{"default"});
+        delta.setBaseVersion(baseVersion);
+        delta.setVersion(version);
+        delta.setPropertySources(Arrays.asList("b.yml", "a.yml"));
+        delta.setChanges(Arrays.asList(changes));
+        return delta;
+    }
+}
@@ -0,0 +1,109 @@
+package com.springcloud.config.client.worker;
+
+import com.springcloud.config.client.config.ConfigTarget;
+import com.springcloud.config.client.configuration.DynamicConfigProperties;
+import com.springcloud.config.client.metrics.ConfigMetrics;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.cloud.config.client.ConfigClientProperties;
+import org.springframework.cloud.config.environment.Environment;
+import org.springframework.core.env.StandardEnvironment;
+import org.springframework.web.client.RestTemplate;
+
+import java.lang.management.ManagementFactory;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.*;
+import static org.junit.Assume.assumeTrue;
+
+/**
+ * 提交版本变化但文件内容未变时按摘要跳过：不复制配置、不逐key对比
+ */
+public class DigestSkipAllocationTest {
+
+    private static final int KEYS = 5000;
+
+    private final AtomicInteger version = new AtomicInteger();
+
+    private final Map<String, Object> values = new LinkedHashMap<>();
+
+    private StubServer server;
+
+    private DefaultHandler handler;
+
+    private com.sun.management.ThreadMXBean threads;
+
+    @Before
+    public void setUp() throws Exception {
+        java.lang.management.ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+        assumeTrue(bean instanceof com.sun.management.ThreadMXBean);
+        threads = (com.sun.management.ThreadMXBean) bean;
+        assumeTrue(threads.isThreadAllocatedMemorySupported());
+        threads.setThreadAllocatedMemoryEnabled(true);
+        for (int i = 0; i < KEYS; i++) {
+            values.put("module" + i % 97 + ".setting" + i, "value-" + i);
+        }
+        server = new StubServer().route("/app/default", exchange -> StubServer.json(exchange,
+                StubServer.environment("app", "v" + version.incrementAndGet(), "app.yml", values)));
+    }
+
+    @After
+    public void tearDown() {
+        if (handler != null) {
+            handler.destroy();
+        }
+        if (server != null) {
+            server.close();
+        }
+    }
+
+    @Test
+    public void unchangedFileIsSkippedWithoutPerKeyAllocation() throws Exception {
+        ConfigClientProperties clientProperties = new ConfigClientProperties(new StandardEnvironment());
+        clientProperties.setName("app");
+        clientProperties.setProfile("default");
+        clientProperties.setLabel(null);
+        clientProperties.setUri(new String[]{server.uri()});
+        DynamicConfigProperties properties = new DynamicConfigProperties();
+        properties.setInitialDelay(3600000L);
+        properties.setPollInterval(3600000L);
+        RestTemplate restTemplate = new RestTemplate();
+        handler = new DefaultHandler(restTemplate, clientProperties, properties, null, ConfigMetrics.NOOP);
+        RecordingListener listener = new RecordingListener();
+        handler.addListeners(new ConfigTarget("app", "default", null), "app.yml", Collections.singletonList(listener));
+        handler.pollOnce();
+        assertNotNull(listener.next(5000));
+
+        String uri = server.uri() + "/app/default";
+        for (int i = 0; i < 20; i++) {
+            handler.pollOnce();
+            restTemplate.getForObject(uri, Environment.class);
+        }
+        int rounds = 20;
+        long poll = 0;
+        long fetch = 0;
+        for (int i = 0; i < rounds; i++) {
+            long start = allocated();
+            handler.pollOnce();
+            poll += allocated() - start;
+            start = allocated();
+            restTemplate.getForObject(uri, Environment.class);
+            fetch += allocated() - start;
+        }
+        // 除去请求与反序列化本身的分配，拉取处理的分配量远小于复制一份配置（每个key至少数十字节）
+        long perKey = (poll - fetch) / rounds / KEYS;
+        assertTrue("digest-skip poll allocates " + perKey + " bytes per key beyond the fetch", perKey < 16);
+        // 最后一次请求来自对照组，拉取到的版本是倒数第二个
+        assertEquals("v" + (version.get() - 1),
+                handler.getSnapshot(new ConfigTarget("app", "default", null), "app.yml").getVersion());
+        assertNull(listener.next(100));
+    }
+
+    private long allocated() {
+        return threads.getThreadAllocatedBytes(Thread.currentThread().getId());
+    }
+}
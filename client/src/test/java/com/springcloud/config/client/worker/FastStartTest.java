@@ -0,0 +1,77 @@
+package com.springcloud.config.client.worker;
+
+import com.springcloud.config.client.config.ConfigTarget;
+import com.springcloud.config.client.configuration.DynamicConfigProperties;
+import com.springcloud.config.client.listener.ConfigChangeEvent;
+import com.springcloud.config.client.metrics.ConfigMetrics;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.cloud.config.client.ConfigClientProperties;
+import org.springframework.core.env.StandardEnvironment;
+import org.springframework.web.client.RestTemplate;
+
+import java.util.Collections;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.*;
+
+public class FastStartTest {
+
+    private StubServer server;
+
+    private DefaultHandler handler;
+
+    private final AtomicInteger fetches = new AtomicInteger();
+
+    @Before
+    public void setUp() throws Exception {
+        server = new StubServer()
+                .route("/app/default", exchange -> {
+                    fetches.incrementAndGet();
+                    StubServer.json(exchange, StubServer.environment("app", "v1", "app.yml",
+                            Collections.singletonMap("timeout", 1000)));
+                })
+                .route("/other/default", exchange -> {
+                    fetches.incrementAndGet();
+                    StubServer.json(exchange, StubServer.environment("other", "v1", "other.yml",
+                            Collections.singletonMap("timeout", 2000)));
+                });
+        ConfigClientProperties clientProperties = new ConfigClientProperties(new StandardEnvironment());
+        clientProperties.setName("app");
+        clientProperties.setProfile("default");
+        clientProperties.setLabel(null);
+        clientProperties.setUri(new String[]{server.uri()});
+        DynamicConfigProperties properties = new DynamicConfigProperties();
+        properties.setFastStart(true);
+        properties.setInitialDelay(0L);
+        properties.setJitter(0D);
+        properties.setPollInterval(60000L);
+        handler = new DefaultHandler(new RestTemplate(), clientProperties, properties, null, ConfigMetrics.NOOP);
+    }
+
+    @After
+    public void tearDown() {
+        handler.destroy();
+        server.close();
+    }
+
+    @Test
+    public void notPolledBeforeAnyListener() throws Exception {
+        Thread.sleep(300);
+        assertEquals(0, fetches.get());
+    }
+
+    /**
+     * 没有bootstrap配置注册（如bootstrap阶段未拉取config server）时，其他监听器注册后也开始拉取
+     */
+    @Test
+    public void pollingStartsWithFirstListener() throws Exception {
+        RecordingListener listener = new RecordingListener();
+        handler.addListeners(new ConfigTarget("other", "default", null), "other.yml", Collections.singletonList(listener));
+
+        ConfigChangeEvent changeEvent = listener.next(5000);
+        assertNotNull("polling is not started", changeEvent);
+        assertEquals(2000, changeEvent.getChange("timeout").getNewValue());
+    }
+}
@@ -0,0 +1,112 @@
+package com.springcloud.config.client.worker;
+
+import com.springcloud.config.client.config.ConfigTarget;
+import com.springcloud.config.client.configuration.DynamicConfigProperties;
+import com.springcloud.config.client.metrics.ConfigMetrics;
+import com.springcloud.config.client.remote.ServerReplica;
+import org.junit.After;
+import org.junit.Test;
+import org.springframework.cloud.config.client.ConfigClientProperties;
+import org.springframework.core.env.StandardEnvironment;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.client.RestTemplate;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class HedgedFetchTest {
+
+    private static final long SLOW_MILLIS = 400L;
+
+    private final StubServer slow;
+
+    private final StubServer fast;
+
+    private DefaultHandler handler;
+
+    public HedgedFetchTest() throws Exception {
+        slow = new StubServer();
+        fast = new StubServer().route("/app/default", exchange -> StubServer.json(exchange, environment()));
+    }
+
+    @After
+    public void tearDown() {
+        if (handler != null) {
+            handler.destroy();
+        }
+        slow.close();
+        fast.close();
+    }
+
+    /**
+     * 首选副本变慢时，对冲请求把拉取延迟的p99限制在对冲等待时间附近
+     */
+    @Test
+    public void slowReplicaDoesNotDominateP99() throws Exception {
+        slow.route("/app/default", exchange -> {
+            Thread.sleep(SLOW_MILLIS);
+            StubServer.json(exchange, environment());
+        });
+        start();
+        long[] latencies = new long[50];
+        for (int i = 0; i < latencies.length; i++) {
+            long begin = System.nanoTime();
+            handler.pollOnce();
+            latencies[i] = (System.nanoTime() - begin) / 1000000L;
+        }
+        Arrays.sort(latencies);
+        long p99 = latencies[(int) Math.ceil(0.99 * latencies.length) - 1];
+        assertTrue("p99 " + p99 + "ms", p99 < SLOW_MILLIS / 2);
+    }
+
+    /**
+     * 落选的对冲请求之后失败不计入副本失败次数，不会因此熔断
+     */
+    @Test
+    public void hedgeLoserFailureIsNotCounted() throws Exception {
+        slow.route("/app/default", exchange -> {
+            Thread.sleep(SLOW_MILLIS);
+            StubServer.status(exchange, 500);
+        });
+        start();
+        for (int i = 0; i < 5; i++) {
+            handler.pollOnce();
+        }
+        // 等待落选请求结束
+        Thread.sleep(SLOW_MILLIS * 2);
+        ServerReplica replica = replicas().get(0);
+        assertEquals(slow.uri(), replica.getUri());
+        assertEquals(0, replica.getConsecutiveFailures());
+        assertTrue(replica.isAvailable(System.currentTimeMillis()));
+    }
+
+    private void start() {
+        ConfigClientProperties clientProperties = new ConfigClientProperties(new StandardEnvironment());
+        clientProperties.setName("app");
+        clientProperties.setProfile("default");
+        clientProperties.setLabel(null);
+        clientProperties.setUri(new String[]{slow.uri(), fast.uri()});
+        DynamicConfigProperties properties = new DynamicConfigProperties();
+        properties.setInitialDelay(3600000L);
+        properties.setPollInterval(3600000L);
+        properties.getReplica().setHedgeEnabled(true);
+        properties.getReplica().setHedgeMinDelay(20L);
+        properties.getReplica().setFailureThreshold(1);
+        handler = new DefaultHandler(new RestTemplate(), clientProperties, properties, null, ConfigMetrics.NOOP);
+        handler.addListeners(new ConfigTarget("app", "default", null), "app.yml",
+                Collections.singletonList(new RecordingListener()));
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<ServerReplica> replicas() {
+        Object selector = ReflectionTestUtils.getField(handler, "replicaSelector");
+        return (List<ServerReplica>) ReflectionTestUtils.invokeMethod(selector, "getReplicas");
+    }
+
+    private static Object environment() {
+        return StubServer.environment("app", "v1", "app.yml", Collections.singletonMap("key", "value"));
+    }
+}
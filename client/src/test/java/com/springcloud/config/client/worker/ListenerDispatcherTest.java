@@ -0,0 +1,148 @@
+package com.springcloud.config.client.worker;
+
+import com.springcloud.config.client.configuration.DynamicConfigProperties;
+import com.springcloud.config.client.listener.ChangeType;
+import com.springcloud.config.client.listener.ConfigChange;
+import com.springcloud.config.client.listener.ConfigChangeEvent;
+import com.springcloud.config.client.listener.Listener;
+import com.springcloud.config.client.metrics.ConfigMetrics;
+import org.junit.After;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.*;
+
+public class ListenerDispatcherTest {
+
+    private ListenerDispatcher dispatcher;
+
+    @After
+    public void tearDown() {
+        if (dispatcher != null) {
+            dispatcher.shutdown();
+        }
+    }
+
+    /**
+     * 排队的监听器远多于queue-capacity时，每个监听器的变更都被合并送达，不被丢弃
+     */
+    @Test
+    public void backlogIsCoalescedNotDropped() throws Exception {
+        DynamicConfigProperties.Dispatch dispatch = new DynamicConfigProperties.Dispatch();
+        dispatch.setThreads(1);
+        dispatch.setQueueCapacity(2);
+        dispatcher = new ListenerDispatcher(dispatch, ConfigMetrics.NOOP);
+
+        CountDownLatch blocked = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        dispatcher.dispatch(new BatchListener() {
+            @Override
+            public void executeEvents(List<ConfigChangeEvent> changeEvents) {
+                blocked.countDown();
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        }, Collections.singletonList(event("v0", "blocker")));
+        assertTrue(blocked.await(5, TimeUnit.SECONDS));
+
+        List<BatchListener> listeners = new ArrayList<>();
+        for (int i = 0; i < 50; i++) {
+            BatchListener listener = new BatchListener();
+            listeners.add(listener);
+            dispatcher.dispatch(listener, Collections.singletonList(event("v1", "a")));
+            dispatcher.dispatch(listener, Collections.singletonList(event("v2", "b")));
+        }
+        assertTrue(dispatcher.getQueueSize() <= listeners.size());
+        release.countDown();
+
+        for (BatchListener listener : listeners) {
+            assertTrue(listener.done.await(5, TimeUnit.SECONDS));
+            assertEquals(new HashSet<>(Arrays.asList("a", "b")), listener.keys);
+            assertEquals(1, listener.calls);
+        }
+    }
+
+    /**
+     * 排队时间与回调超时输出到指标
+     */
+    @Test
+    public void queueDelayAndTimeoutAreRecorded() throws Exception {
+        DynamicConfigProperties.Dispatch dispatch = new DynamicConfigProperties.Dispatch();
+        dispatch.setThreads(1);
+        dispatch.setTimeout(50L);
+        List<Long> queueDelays = new CopyOnWriteArrayList<>();
+        List<String> timeouts = new CopyOnWriteArrayList<>();
+        dispatcher = new ListenerDispatcher(dispatch, new ConfigMetrics() {
+            @Override
+            public void recordListenerQueueDelay(long millis) {
+                queueDelays.add(millis);
+            }
+
+            @Override
+            public void recordListenerTimeout(String listener) {
+                timeouts.add(listener);
+            }
+        });
+
+        CountDownLatch interrupted = new CountDownLatch(1);
+        BatchListener slow = new BatchListener() {
+            @Override
+            public void executeEvents(List<ConfigChangeEvent> changeEvents) {
+                try {
+                    Thread.sleep(5000L);
+                } catch (InterruptedException e) {
+                    interrupted.countDown();
+                }
+            }
+        };
+        dispatcher.dispatch(slow, Collections.singletonList(event("v1", "a")));
+        assertTrue(interrupted.await(5, TimeUnit.SECONDS));
+
+        assertEquals(1, queueDelays.size());
+        assertTrue(queueDelays.get(0) >= 0);
+        assertEquals(Collections.singletonList(slow.getClass().getName()), timeouts);
+    }
+
+    private static ConfigChangeEvent event(String version, String key) {
+        return new ConfigChangeEvent("app", "app.yml", version,
+                Collections.singletonMap(key, new ConfigChange(key, null, version, ChangeType.ADDED)));
+    }
+
+    private static class BatchListener implements Listener {
+
+        private final CountDownLatch done = new CountDownLatch(1);
+
+        private final Set<String> keys = new HashSet<>();
+
+        private volatile int calls;
+
+        @Override
+        public void executeEvent() {
+        }
+
+        @Override
+        public void executeEvents(List<ConfigChangeEvent> changeEvents) {
+            calls++;
+            changeEvents.forEach(it -> keys.addAll(it.getChangedKeys()));
+            done.countDown();
+        }
+
+        @Override
+        public Executor getExecutor() {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,117 @@
+package com.springcloud.config.client.worker;
+
+import com.springcloud.config.client.config.ConfigTarget;
+import com.springcloud.config.client.configuration.DynamicConfigProperties;
+import com.springcloud.config.client.constant.Constant;
+import com.springcloud.config.client.listener.ConfigChangeEvent;
+import com.springcloud.config.client.metrics.ConfigMetrics;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.cloud.config.client.ConfigClientProperties;
+import org.springframework.core.env.StandardEnvironment;
+import org.springframework.web.client.RestTemplate;
+
+import java.util.Collections;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.*;
+
+public class LongPollTest {
+
+    private StubServer server;
+
+    private DefaultHandler handler;
+
+    private volatile int revision;
+
+    private final AtomicInteger longPolls = new AtomicInteger();
+
+    private final AtomicInteger fullFetches = new AtomicInteger();
+
+    @Before
+    public void setUp() throws Exception {
+        server = new StubServer().route("/app/default", exchange -> {
+            fullFetches.incrementAndGet();
+            StubServer.json(exchange, environment());
+        });
+    }
+
+    @After
+    public void tearDown() {
+        if (handler != null) {
+            handler.destroy();
+        }
+        server.close();
+    }
+
+    @Test
+    public void changeIsDeliveredByHeldRequest() throws Exception {
+        server.route("/poll/app/default", exchange -> {
+            longPolls.incrementAndGet();
+            String version = exchange.getRequestHeaders().getFirst(Constant.VERSION_HEADER);
+            long deadline = System.currentTimeMillis()
+                    + Long.parseLong(exchange.getRequestHeaders().getFirst(Constant.LONG_POLL_TIMEOUT_HEADER));
+            synchronized (this) {
+                while (version().equals(version) && System.currentTimeMillis() < deadline) {
+                    wait(Math.max(1L, deadline - System.currentTimeMillis()));
+                }
+            }
+            if (version().equals(version)) {
+                StubServer.status(exchange, 304);
+            } else {
+                StubServer.json(exchange, environment());
+            }
+        });
+        RecordingListener listener = start();
+        assertNotNull(listener.next(5000));
+
+        synchronized (this) {
+            revision++;
+            notifyAll();
+        }
+        ConfigChangeEvent changeEvent = listener.next(5000);
+        assertNotNull("change is not delivered", changeEvent);
+        assertEquals(1, changeEvent.getChange("revision").getNewValue());
+        assertEquals(0, fullFetches.get());
+        assertTrue(longPolls.get() >= 2);
+    }
+
+    @Test
+    public void fallsBackToPollingWithoutServerSupport() throws Exception {
+        RecordingListener listener = start();
+        assertNotNull(listener.next(5000));
+        int fetches = fullFetches.get();
+        // 不再以长轮询间隔频繁请求
+        Thread.sleep(500);
+        assertEquals(fetches, fullFetches.get());
+    }
+
+    private RecordingListener start() {
+        ConfigClientProperties clientProperties = new ConfigClientProperties(new StandardEnvironment());
+        clientProperties.setName("app");
+        clientProperties.setProfile("default");
+        clientProperties.setLabel(null);
+        clientProperties.setUri(new String[]{server.uri()});
+        DynamicConfigProperties properties = new DynamicConfigProperties();
+        properties.setInitialDelay(0L);
+        properties.setJitter(0D);
+        properties.setPollInterval(60000L);
+        properties.getLongPoll().setEnabled(true);
+        properties.getLongPoll().setTimeout(10000L);
+        properties.getLongPoll().setInterval(10L);
+        RecordingListener listener = new RecordingListener();
+        handler = new DefaultHandler(new RestTemplate(), clientProperties, properties, null, ConfigMetrics.NOOP);
+        handler.addListeners(new ConfigTarget("app", "default", null), "app.yml", Collections.singletonList(listener));
+        return listener;
+    }
+
+    private Object environment() {
+        return StubServer.environment("app", version(), "app.yml",
+                Collections.singletonMap("revision", revision));
+    }
+
+    private String version() {
+        return "v" + revision;
+    }
+}
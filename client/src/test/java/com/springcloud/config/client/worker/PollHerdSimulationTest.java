@@ -0,0 +1,87 @@
+package com.springcloud.config.client.worker;
+
+import com.springcloud.config.client.configuration.DynamicConfigProperties;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.PriorityQueue;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+/**
+ * 虚拟时间仿真：一批实例按拉取间隔策略请求config server，中途有一次提交，统计服务端每秒请求数
+ */
+public class PollHerdSimulationTest {
+
+    private static final int INSTANCES = 2000;
+
+    private static final long DURATION = 5 * 60 * 1000L;
+
+    private static final long COMMIT_AT = 2 * 60 * 1000L;
+
+    private static final long LATENCY = 20L;
+
+    /**
+     * 默认配置下提交不会引起请求量放大
+     */
+    @Test
+    public void commitDoesNotAmplifyLoadByDefault() {
+        DynamicConfigProperties properties = new DynamicConfigProperties();
+        int[] perSecond = simulate(properties);
+        double steady = mean(perSecond, 60, (int) (COMMIT_AT / 1000));
+        int peak = max(perSecond, (int) (COMMIT_AT / 1000), (int) (DURATION / 1000));
+        assertTrue("peak " + peak + " req/s vs steady " + steady, peak < steady * 1.5);
+    }
+
+    /**
+     * 显式开启加快拉取时请求量按poll-interval/fast-interval放大，但每秒请求数仍被抖动打散，没有同步的尖峰
+     */
+    @Test
+    public void fastWindowIsOptInAndSpread() {
+        DynamicConfigProperties properties = new DynamicConfigProperties();
+        assertEquals(0L, properties.getAdaptive().getFastWindow());
+        properties.getAdaptive().setFastInterval(1000L);
+        properties.getAdaptive().setFastWindow(30000L);
+        int[] perSecond = simulate(properties);
+        double fast = mean(perSecond, (int) (COMMIT_AT / 1000) + 10, (int) (COMMIT_AT / 1000) + 30);
+        int peak = max(perSecond, (int) (COMMIT_AT / 1000), (int) (DURATION / 1000));
+        assertTrue("peak " + peak + " req/s vs fast phase " + fast, peak < fast * 1.5);
+    }
+
+    private static int[] simulate(DynamicConfigProperties properties) {
+        Random seeds = new Random(42);
+        PollIntervalPolicy[] policies = new PollIntervalPolicy[INSTANCES];
+        boolean[] seen = new boolean[INSTANCES];
+        // [下次请求时间, 实例编号]
+        PriorityQueue<long[]> queue = new PriorityQueue<>((a, b) -> Long.compare(a[0], b[0]));
+        for (int i = 0; i < INSTANCES; i++) {
+            long startAt = (long) (seeds.nextDouble() * 2000L);
+            Random random = new Random(seeds.nextLong());
+            policies[i] = new PollIntervalPolicy(properties.getPollInterval(), properties, true, startAt, random::nextDouble);
+            queue.add(new long[]{startAt + policies[i].initialDelay(properties.getInitialDelay()), i});
+        }
+        int[] perSecond = new int[(int) (DURATION / 1000)];
+        while (!queue.isEmpty()) {
+            long[] next = queue.poll();
+            long now = next[0];
+            if (now >= DURATION) {
+                continue;
+            }
+            int i = (int) next[1];
+            perSecond[(int) (now / 1000)]++;
+            boolean changed = now >= COMMIT_AT && !seen[i];
+            seen[i] |= changed;
+            queue.add(new long[]{now + LATENCY + policies[i].nextDelay(changed, now + LATENCY), i});
+        }
+        return perSecond;
+    }
+
+    private static double mean(int[] values, int from, int to) {
+        return Arrays.stream(values, from, to).average().orElse(0D);
+    }
+
+    private static int max(int[] values, int from, int to) {
+        return Arrays.stream(values, from, to).max().orElse(0);
+    }
+}
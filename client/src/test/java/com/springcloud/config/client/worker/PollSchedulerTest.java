@@ -0,0 +1,104 @@
+package com.springcloud.config.client.worker;
+
+import com.springcloud.config.client.configuration.DynamicConfigProperties;
+import org.junit.After;
+import org.junit.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.*;
+
+public class PollSchedulerTest {
+
+    private PollScheduler scheduler;
+
+    @After
+    public void tearDown() {
+        if (scheduler != null) {
+            scheduler.stop();
+        }
+    }
+
+    @Test
+    public void pollingSurvivesConsecutiveFailures() throws Exception {
+        AtomicInteger polls = new AtomicInteger();
+        CountDownLatch recovered = new CountDownLatch(3);
+        scheduler = new PollScheduler("test-poll", () -> {
+            if (polls.incrementAndGet() <= 5) {
+                throw new IllegalStateException("config server down");
+            }
+            recovered.countDown();
+            return false;
+        }, policy(10L));
+        scheduler.start(0L);
+        // 失败5次后恢复，之后按拉取间隔继续拉取
+        assertTrue("polling stopped after failures", recovered.await(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    public void errorsAreNotSwallowedAsStop() throws Exception {
+        AtomicInteger polls = new AtomicInteger();
+        CountDownLatch recovered = new CountDownLatch(1);
+        scheduler = new PollScheduler("test-poll", () -> {
+            if (polls.incrementAndGet() == 1) {
+                throw new OutOfMemoryError("simulated");
+            }
+            recovered.countDown();
+            return false;
+        }, policy(60000L));
+        scheduler.start(0L);
+        assertTrue(recovered.await(5, TimeUnit.SECONDS));
+    }
+
+    /**
+     * 拉取即将结束时收到的触发不能等到下一个拉取间隔
+     */
+    @Test
+    public void triggerRacingWithPollEndIsNotLost() throws Exception {
+        Semaphore polled = new Semaphore(0);
+        scheduler = new PollScheduler("test-poll", () -> {
+            polled.release();
+            return false;
+        }, policy(60000L));
+        scheduler.start(0L);
+        assertTrue(polled.tryAcquire(5, TimeUnit.SECONDS));
+        for (int i = 0; i < 200; i++) {
+            scheduler.trigger();
+            assertTrue("trigger " + i + " is lost", polled.tryAcquire(5, TimeUnit.SECONDS));
+        }
+    }
+
+    @Test
+    public void triggerDuringPollRunsAgainAfterIt() throws Exception {
+        CountDownLatch entered = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicInteger polls = new AtomicInteger();
+        scheduler = new PollScheduler("test-poll", () -> {
+            if (polls.incrementAndGet() == 1) {
+                entered.countDown();
+                release.await();
+            }
+            return false;
+        }, policy(60000L));
+        scheduler.start(0L);
+        assertTrue(entered.await(5, TimeUnit.SECONDS));
+        scheduler.trigger();
+        release.countDown();
+        long deadline = System.currentTimeMillis() + 5000L;
+        while (polls.get() < 2 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(5L);
+        }
+        assertEquals(2, polls.get());
+    }
+
+    private static PollIntervalPolicy policy(long interval) {
+        DynamicConfigProperties properties = new DynamicConfigProperties();
+        properties.setJitter(0D);
+        properties.setFailureBackoff(10L);
+        properties.setMaxFailureBackoff(20L);
+        return new PollIntervalPolicy(interval, properties, false);
+    }
+}
@@ -0,0 +1,35 @@
+package com.springcloud.config.client.worker;
+
+import com.springcloud.config.client.listener.ConfigChangeEvent;
+import com.springcloud.config.client.listener.Listener;
+
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 记录收到的变更事件
+ */
+class RecordingListener implements Listener {
+
+    private final BlockingQueue<ConfigChangeEvent> events = new LinkedBlockingQueue<>();
+
+    @Override
+    public void executeEvent() {
+    }
+
+    @Override
+    public void executeEvent(ConfigChangeEvent changeEvent) {
+        events.add(changeEvent);
+    }
+
+    @Override
+    public Executor getExecutor() {
+        return null;
+    }
+
+    ConfigChangeEvent next(long timeoutMillis) throws InterruptedException {
+        return events.poll(timeoutMillis, TimeUnit.MILLISECONDS);
+    }
+}
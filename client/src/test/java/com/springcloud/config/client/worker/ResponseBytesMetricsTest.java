@@ -0,0 +1,75 @@
+package com.springcloud.config.client.worker;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.springcloud.config.client.config.ConfigTarget;
+import com.springcloud.config.client.configuration.DynamicConfigProperties;
+import com.springcloud.config.client.metrics.MicrometerConfigMetrics;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.cloud.config.client.ConfigClientProperties;
+import org.springframework.cloud.config.environment.Environment;
+import org.springframework.core.env.StandardEnvironment;
+import org.springframework.web.client.RestTemplate;
+
+import java.util.Collections;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.Assert.*;
+
+public class ResponseBytesMetricsTest {
+
+    private static final ConfigTarget TARGET = new ConfigTarget("app", "default", null);
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+
+    private final AtomicLong bodyBytes = new AtomicLong();
+
+    private StubServer server;
+
+    private DefaultHandler handler;
+
+    @Before
+    public void setUp() throws Exception {
+        server = new StubServer().route("/app/default", exchange -> {
+            Environment environment = StubServer.environment("app", "v1", "a.yml", Collections.singletonMap("k", "v"));
+            bodyBytes.set(new ObjectMapper().writeValueAsBytes(environment).length);
+            StubServer.json(exchange, environment);
+        });
+        ConfigClientProperties clientProperties = new ConfigClientProperties(new StandardEnvironment());
+        clientProperties.setName("app");
+        clientProperties.setProfile("default");
+        clientProperties.setLabel(null);
+        clientProperties.setUri(new String[]{server.uri()});
+        DynamicConfigProperties properties = new DynamicConfigProperties();
+        properties.setInitialDelay(600000L);
+        handler = new DefaultHandler(new RestTemplate(), clientProperties, properties, null,
+                new MicrometerConfigMetrics(registry));
+        handler.addListeners(TARGET, "a.yml", Collections.singletonList(new RecordingListener()));
+    }
+
+    @After
+    public void tearDown() {
+        handler.destroy();
+        server.close();
+    }
+
+    /**
+     * 未开启独立连接池时按Content-Length记录响应字节数，同tag的指标复用同一个meter
+     */
+    @Test
+    public void responseBytesAreRecordedWithoutTransport() throws Exception {
+        handler.pollOnce();
+        handler.pollOnce();
+
+        DistributionSummary bytes = registry.get("config.client.poll.response.bytes").summary();
+        assertEquals(2, bytes.count());
+        assertEquals(2D * bodyBytes.get(), bytes.totalAmount(), 0D);
+        Timer requests = registry.get("config.client.poll.requests").tag("status", "200").timer();
+        assertEquals(2, requests.count());
+        assertEquals(1, registry.find("config.client.poll.requests").timers().size());
+    }
+}
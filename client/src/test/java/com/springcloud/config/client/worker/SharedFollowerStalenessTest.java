@@ -0,0 +1,107 @@
+package com.springcloud.config.client.worker;
+
+import com.springcloud.config.client.config.ConfigTarget;
+import com.springcloud.config.client.configuration.DynamicConfigProperties;
+import com.springcloud.config.client.metrics.MicrometerConfigMetrics;
+import com.springcloud.config.client.snapshot.HostLeaderLock;
+import com.springcloud.config.client.snapshot.LocalSnapshot;
+import com.springcloud.config.client.snapshot.SharedSnapshotRegion;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.springframework.cloud.config.client.ConfigClientProperties;
+import org.springframework.core.env.StandardEnvironment;
+import org.springframework.web.client.RestTemplate;
+
+import java.util.Collections;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.*;
+
+/**
+ * 同机共享的非leader进程不向config server拉取本应用配置，陈旧时间由共享快照的检查维持
+ */
+public class SharedFollowerStalenessTest {
+
+    private static final ConfigTarget TARGET = new ConfigTarget("app", "prod", null);
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+
+    private HostLeaderLock leaderLock;
+
+    private SharedSnapshotRegion leaderRegion;
+
+    private DefaultHandler handler;
+
+    @Before
+    public void setUp() throws Exception {
+        String dir = folder.getRoot().toPath().resolve("shared").toString();
+        // 本测试持有leader锁，handler只能作为非leader读取共享快照
+        leaderLock = HostLeaderLock.of(dir, "app", "prod", null);
+        assertTrue(leaderLock.tryAcquire());
+        leaderRegion = SharedSnapshotRegion.of(dir, "app", "prod", null);
+        // 与leader写入的一致：未配置label时为""
+        leaderRegion.write(new LocalSnapshot("app", "prod", "", "v1", 0L, Collections.singletonList(
+                new LocalSnapshot.Source("app.yml", "v1", Collections.singletonMap("k", "v")))));
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        if (handler != null) {
+            handler.destroy();
+        }
+        leaderRegion.close();
+        leaderLock.close();
+    }
+
+    @Test
+    public void sharedChecksKeepStalenessBounded() throws Exception {
+        handler = follower(50L);
+
+        Thread.sleep(600L);
+
+        assertTrue(staleness() < 300D);
+        assertEquals("v1", handler.getSnapshot(TARGET, "app.yml").getVersion());
+    }
+
+    /**
+     * 拉取时本应用的请求全部交由共享快照，同样视为拉取周期正常结束
+     */
+    @Test
+    public void pollWithoutRemoteGroupsCompletes() throws Exception {
+        handler = follower(600000L);
+        Thread.sleep(600L);
+        assertTrue(staleness() >= 300D);
+
+        assertFalse(handler.pollOnce());
+
+        assertTrue(staleness() < 300D);
+    }
+
+    private DefaultHandler follower(long readInterval) {
+        ConfigClientProperties clientProperties = new ConfigClientProperties(new StandardEnvironment());
+        clientProperties.setName("app");
+        clientProperties.setProfile("prod");
+        clientProperties.setLabel(null);
+        clientProperties.setUri(new String[]{"http://127.0.0.1:1"});
+        DynamicConfigProperties properties = new DynamicConfigProperties();
+        properties.setInitialDelay(600000L);
+        properties.getShared().setEnabled(true);
+        properties.getShared().setDir(leaderLock.getFile().getParent().toString());
+        properties.getShared().setReadInterval(readInterval);
+        DefaultHandler follower = new DefaultHandler(new RestTemplate(), clientProperties, properties, null,
+                new MicrometerConfigMetrics(registry));
+        follower.addListeners(TARGET, "app.yml", Collections.singletonList(new RecordingListener()));
+        return follower;
+    }
+
+    private double staleness() {
+        return registry.get("config.client.staleness").timeGauge().value(TimeUnit.MILLISECONDS);
+    }
+}
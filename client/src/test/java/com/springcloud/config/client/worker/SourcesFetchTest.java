@@ -0,0 +1,111 @@
+package com.springcloud.config.client.worker;
+
+import com.springcloud.config.client.config.ConfigTarget;
+import com.springcloud.config.client.configuration.DynamicConfigProperties;
+import com.springcloud.config.client.metrics.ConfigMetrics;
+import com.springcloud.config.client.remote.EnvironmentManifest;
+import com.springcloud.config.client.remote.ManifestSource;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.cloud.config.client.ConfigClientProperties;
+import org.springframework.core.env.StandardEnvironment;
+import org.springframework.web.client.RestTemplate;
+
+import java.util.*;
+
+import static org.junit.Assert.*;
+
+public class SourcesFetchTest {
+
+    private static final ConfigTarget TARGET = new ConfigTarget("app", "default", null);
+
+    private StubServer server;
+
+    private DefaultHandler handler;
+
+    private volatile EnvironmentManifest manifest;
+
+    private final List<String> knownDigests = Collections.synchronizedList(new ArrayList<>());
+
+    @Before
+    public void setUp() throws Exception {
+        server = new StubServer().route("/manifest/app/default", exchange -> {
+            String known = StubServer.query(exchange).get("known");
+            knownDigests.add(known == null ? "" : known);
+            StubServer.json(exchange, manifest);
+        });
+        ConfigClientProperties clientProperties = new ConfigClientProperties(new StandardEnvironment());
+        clientProperties.setName("app");
+        clientProperties.setProfile("default");
+        clientProperties.setLabel(null);
+        clientProperties.setUri(new String[]{server.uri()});
+        DynamicConfigProperties properties = new DynamicConfigProperties();
+        properties.setFetchMode(DynamicConfigProperties.FetchMode.SOURCES);
+        properties.setInitialDelay(600000L);
+        handler = new DefaultHandler(new RestTemplate(), clientProperties, properties, null, ConfigMetrics.NOOP);
+        handler.addListeners(TARGET, "a.yml", Collections.singletonList(new RecordingListener()));
+    }
+
+    @After
+    public void tearDown() {
+        handler.destroy();
+        server.close();
+    }
+
+    /**
+     * 两个文件互换内容，服务端按已上报的摘要省略两者的内容，各自从对方原先的内容取得
+     */
+    @Test
+    public void swappedSourcesKeepTheirOwnContent() throws Exception {
+        manifest = manifest("v1", source("a.yml", "da", values("a")), source("b.yml", "db", values("b")));
+        handler.pollOnce();
+        assertEquals("a", handler.getSnapshot(TARGET, "a.yml").getValues().get("owner"));
+
+        manifest = manifest("v2", source("a.yml", "db", null), source("b.yml", "da", null));
+        handler.pollOnce();
+
+        assertTrue(knownDigests.get(1).contains("da") && knownDigests.get(1).contains("db"));
+        assertEquals("b", handler.getSnapshot(TARGET, "a.yml").getValues().get("owner"));
+        assertEquals("a", handler.getSnapshot(TARGET, "b.yml").getValues().get("owner"));
+        assertEquals("v2", handler.getSnapshot(TARGET, "b.yml").getVersion());
+    }
+
+    /**
+     * 改名：新文件的内容从原文件取得
+     */
+    @Test
+    public void renamedSourceIsTakenFromFormerFile() throws Exception {
+        manifest = manifest("v1", source("a.yml", "da", values("a")));
+        handler.pollOnce();
+
+        manifest = manifest("v2", source("c.yml", "da", null));
+        handler.pollOnce();
+
+        assertEquals("a", handler.getSnapshot(TARGET, "c.yml").getValues().get("owner"));
+    }
+
+    private static Map<String, Object> values(String owner) {
+        Map<String, Object> values = new HashMap<>();
+        values.put("owner", owner);
+        values.put(owner + ".only", true);
+        return values;
+    }
+
+    private static ManifestSource source(String name, String digest, Map<String, Object> values) {
+        ManifestSource source = new ManifestSource();
+        source.setName(name);
+        source.setDigest(digest);
+        source.setSource(values);
+        return source;
+    }
+
+    private static EnvironmentManifest manifest(String version, ManifestSource... sources) {
+        EnvironmentManifest manifest = new EnvironmentManifest();
+        manifest.setName("app");
+        manifest.setProfiles(new String[]{"default"});
+        manifest.setVersion(version);
+        manifest.setPropertySources(Arrays.asList(sources));
+        return manifest;
+    }
+}
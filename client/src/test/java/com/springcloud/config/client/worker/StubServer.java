@@ -0,0 +1,104 @@
+package com.springcloud.config.client.worker;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import org.springframework.cloud.config.environment.Environment;
+import org.springframework.cloud.config.environment.PropertySource;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UnsupportedEncodingException;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * 测试用的进程内HTTP服务，按路径前缀注册处理逻辑，未注册的路径返回404
+ */
+class StubServer implements Closeable {
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    private final HttpServer server;
+
+    private final ExecutorService executor = Executors.newCachedThreadPool();
+
+    StubServer() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.setExecutor(executor);
+        server.start();
+    }
+
+    StubServer route(String prefix, Route route) {
+        server.createContext(prefix, exchange -> {
+            try {
+                route.handle(exchange);
+            } catch (Exception e) {
+                exchange.sendResponseHeaders(500, -1);
+            } finally {
+                exchange.close();
+            }
+        });
+        return this;
+    }
+
+    String uri() {
+        return "http://127.0.0.1:" + server.getAddress().getPort();
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+        executor.shutdownNow();
+    }
+
+    static void json(HttpExchange exchange, Object body) throws IOException {
+        byte[] bytes = MAPPER.writeValueAsBytes(body);
+        exchange.getResponseHeaders().set("Content-Type", "application/json");
+        exchange.sendResponseHeaders(200, bytes.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+
+    static void status(HttpExchange exchange, int status) throws IOException {
+        exchange.sendResponseHeaders(status, -1);
+    }
+
+    static Map<String, String> query(HttpExchange exchange) throws UnsupportedEncodingException {
+        Map<String, String> query = new HashMap<>();
+        String rawQuery = exchange.getRequestURI().getRawQuery();
+        if (rawQuery == null) {
+            return query;
+        }
+        for (String param : rawQuery.split("&")) {
+            int index = param.indexOf('=');
+            if (index > 0) {
+                query.put(param.substring(0, index), URLDecoder.decode(param.substring(index + 1), "UTF-8"));
+            }
+        }
+        return query;
+    }
+
+    /**
+     * @param sources 配置文件名与内容交替排列
+     */
+    static Environment environment(String name, String version, Object... sources) {
+        Environment environment = new Environment(name, "default");
+        environment.setVersion(version);
+        for (int i = 0; i < sources.length; i += 2) {
+            environment.add(new PropertySource((String) sources[i], (Map<?, ?>) sources[i + 1]));
+        }
+        return environment;
+    }
+
+    interface Route {
+
+        void handle(HttpExchange exchange) throws Exception;
+    }
+}
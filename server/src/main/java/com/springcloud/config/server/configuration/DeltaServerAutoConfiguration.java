@@ -0,0 +1,72 @@
+package com.springcloud.config.server.configuration;
+
+import com.springcloud.config.server.delta.EnvironmentDeltaController;
+import com.springcloud.config.server.delta.EnvironmentDeltaService;
+import com.springcloud.config.server.delta.EnvironmentLongPollController;
+import com.springcloud.config.server.delta.EnvironmentLongPollService;
+import com.springcloud.config.server.delta.EnvironmentManifestController;
+import com.springcloud.config.server.delta.EnvironmentManifestService;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.AutoConfigureAfter;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnBean;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.cloud.config.server.config.ConfigServerAutoConfiguration;
+import org.springframework.cloud.config.server.config.ConfigServerProperties;
+import org.springframework.cloud.config.server.encryption.EnvironmentEncryptor;
+import org.springframework.cloud.config.server.environment.EnvironmentEncryptorEnvironmentRepository;
+import org.springframework.cloud.config.server.environment.EnvironmentRepository;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * 在config server中注册增量拉取、按配置文件拉取与长轮询端点
+ */
+@Configuration
+@AutoConfigureAfter(ConfigServerAutoConfiguration.class)
+@ConditionalOnBean(EnvironmentRepository.class)
+@ConditionalOnProperty(prefix = DeltaServerProperties.PREFIX, name = "enabled", matchIfMissing = true)
+@EnableConfigurationProperties(DeltaServerProperties.class)
+public class DeltaServerAutoConfiguration {
+
+    /**
+     * 与EnvironmentController一致：开启服务端解密时返回解密后的值，并应用overrides
+     */
+    @Bean
+    public EnvironmentDeltaService environmentDeltaService(EnvironmentRepository repository, ConfigServerProperties server,
+                                                           ObjectProvider<EnvironmentEncryptor> environmentEncryptor,
+                                                           DeltaServerProperties properties) {
+        EnvironmentEncryptor encryptor = server.getEncrypt().isEnabled() ? environmentEncryptor.getIfAvailable() : null;
+        EnvironmentEncryptorEnvironmentRepository encrypted = new EnvironmentEncryptorEnvironmentRepository(repository, encryptor);
+        encrypted.setOverrides(server.getOverrides());
+        return new EnvironmentDeltaService(encrypted, properties.getCacheSize());
+    }
+
+    @Bean
+    public EnvironmentDeltaController environmentDeltaController(EnvironmentDeltaService environmentDeltaService) {
+        return new EnvironmentDeltaController(environmentDeltaService);
+    }
+
+    @Bean
+    public EnvironmentManifestService environmentManifestService(EnvironmentDeltaService environmentDeltaService,
+                                                                 DeltaServerProperties properties) {
+        return new EnvironmentManifestService(environmentDeltaService, properties.getCacheSize());
+    }
+
+    @Bean
+    public EnvironmentManifestController environmentManifestController(EnvironmentManifestService environmentManifestService) {
+        return new EnvironmentManifestController(environmentManifestService);
+    }
+
+    @Bean(destroyMethod = "destroy")
+    public EnvironmentLongPollService environmentLongPollService(EnvironmentDeltaService environmentDeltaService,
+                                                                 DeltaServerProperties properties) {
+        return new EnvironmentLongPollService(environmentDeltaService, properties.getLongPollWatchInterval(),
+                properties.getLongPollMaxTimeout());
+    }
+
+    @Bean
+    public EnvironmentLongPollController environmentLongPollController(EnvironmentLongPollService environmentLongPollService) {
+        return new EnvironmentLongPollController(environmentLongPollService);
+    }
+}
@@ -0,0 +1,61 @@
+package com.springcloud.config.server.configuration;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * 增量拉取端点参数
+ */
+@ConfigurationProperties(prefix = DeltaServerProperties.PREFIX)
+public class DeltaServerProperties {
+
+    public static final String PREFIX = "spring.cloud.config.server.delta";
+
+    private boolean enabled = true;
+
+    /**
+     * 按版本缓存的Environment个数
+     */
+    private int cacheSize = 64;
+
+    /**
+     * 长轮询检查仓库版本的间隔（毫秒）
+     */
+    private long longPollWatchInterval = 1000L;
+
+    /**
+     * 长轮询最长挂起时间（毫秒），客户端要求的更长时按此截断
+     */
+    private long longPollMaxTimeout = 60000L;
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public int getCacheSize() {
+        return cacheSize;
+    }
+
+    public void setCacheSize(int cacheSize) {
+        this.cacheSize = cacheSize;
+    }
+
+    public long getLongPollWatchInterval() {
+        return longPollWatchInterval;
+    }
+
+    public void setLongPollWatchInterval(long longPollWatchInterval) {
+        this.longPollWatchInterval = longPollWatchInterval;
+    }
+
+    public long getLongPollMaxTimeout() {
+        return longPollMaxTimeout;
+    }
+
+    public void setLongPollMaxTimeout(long longPollMaxTimeout) {
+        this.longPollMaxTimeout = longPollMaxTimeout;
+    }
+}
@@ -0,0 +1,43 @@
+package com.springcloud.config.server.configuration;
+
+import com.springcloud.config.server.delta.EnvironmentDeltaService;
+import com.springcloud.config.server.push.ChangeNotifier;
+import com.springcloud.config.server.push.ChangePushController;
+import com.springcloud.config.server.push.RepositoryWatcher;
+import org.springframework.boot.autoconfigure.AutoConfigureAfter;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnBean;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * 在config server中注册SSE变更推送端点
+ */
+@Configuration
+@AutoConfigureAfter(DeltaServerAutoConfiguration.class)
+@ConditionalOnBean(EnvironmentDeltaService.class)
+@ConditionalOnProperty(prefix = PushServerProperties.PREFIX, name = "enabled", matchIfMissing = true)
+@EnableConfigurationProperties(PushServerProperties.class)
+public class PushServerAutoConfiguration {
+
+    @Bean
+    @ConditionalOnMissingBean
+    public ChangeNotifier changeNotifier(PushServerProperties properties) {
+        return new ChangeNotifier(properties.getHistorySize(), properties.getEmitterTimeout());
+    }
+
+    @Bean(destroyMethod = "destroy")
+    public RepositoryWatcher repositoryWatcher(EnvironmentDeltaService environmentDeltaService, ChangeNotifier changeNotifier,
+                                               PushServerProperties properties) {
+        return new RepositoryWatcher(environmentDeltaService, changeNotifier, properties.getWatchInterval(),
+                properties.getHeartbeatInterval());
+    }
+
+    @Bean
+    public ChangePushController changePushController(ChangeNotifier changeNotifier, RepositoryWatcher repositoryWatcher,
+                                                     PushServerProperties properties) {
+        return new ChangePushController(changeNotifier, repositoryWatcher, properties.getRefreshToken());
+    }
+}
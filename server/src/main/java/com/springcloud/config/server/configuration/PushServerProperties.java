@@ -0,0 +1,87 @@
+package com.springcloud.config.server.configuration;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * 配置变更推送参数
+ */
+@ConfigurationProperties(prefix = PushServerProperties.PREFIX)
+public class PushServerProperties {
+
+    public static final String PREFIX = "spring.cloud.config.server.push";
+
+    private boolean enabled = true;
+
+    /**
+     * 检查仓库版本的间隔（毫秒），小于等于0时只在webhook调用/push/refresh时检查
+     */
+    private long watchInterval = 2000L;
+
+    /**
+     * 心跳间隔（毫秒），需小于客户端读超时
+     */
+    private long heartbeatInterval = 20000L;
+
+    /**
+     * 保留最近多少条通知用于断线续传
+     */
+    private int historySize = 256;
+
+    /**
+     * 单个SSE连接的最长时间（毫秒），到期后客户端携带Last-Event-ID重连
+     */
+    private long emitterTimeout = 300000L;
+
+    /**
+     * 调用/push/refresh需在请求头X-Push-Token中携带的令牌，未配置时拒绝所有调用
+     */
+    private String refreshToken;
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public long getWatchInterval() {
+        return watchInterval;
+    }
+
+    public void setWatchInterval(long watchInterval) {
+        this.watchInterval = watchInterval;
+    }
+
+    public long getHeartbeatInterval() {
+        return heartbeatInterval;
+    }
+
+    public void setHeartbeatInterval(long heartbeatInterval) {
+        this.heartbeatInterval = heartbeatInterval;
+    }
+
+    public int getHistorySize() {
+        return historySize;
+    }
+
+    public void setHistorySize(int historySize) {
+        this.historySize = historySize;
+    }
+
+    public long getEmitterTimeout() {
+        return emitterTimeout;
+    }
+
+    public void setEmitterTimeout(long emitterTimeout) {
+        this.emitterTimeout = emitterTimeout;
+    }
+
+    public String getRefreshToken() {
+        return refreshToken;
+    }
+
+    public void setRefreshToken(String refreshToken) {
+        this.refreshToken = refreshToken;
+    }
+}
@@ -0,0 +1,127 @@
+package com.springcloud.config.server.delta;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 基准版本到最新版本的配置差异，只包含有变化的配置文件
+ */
+public class EnvironmentDelta {
+
+    private String name;
+
+    private String[] profiles = new String[0];
+
+    private String label;
+
+    /**
+     * 客户端持有的基准版本
+     */
+    private String baseVersion;
+
+    /**
+     * 最新版本
+     */
+    private String version;
+
+    private String state;
+
+    /**
+     * 最新版本的全部配置文件名，按优先级排列
+     */
+    private List<String> propertySources = new ArrayList<>();
+
+    /**
+     * 有变化的配置文件
+     */
+    private List<PropertySourceDelta> changes = new ArrayList<>();
+
+    /**
+     * 基准版本中存在、最新版本中已删除的配置文件
+     */
+    private List<String> removedSources = new ArrayList<>();
+
+    public String getName() {
+        return name;
+    }
+
+    public void setName(String name) {
+        this.name = name;
+    }
+
+    public String[] getProfiles() {
+        return profiles;
+    }
+
+    public void setProfiles(String[] profiles) {
+        this.profiles = profiles;
+    }
+
+    public String getLabel() {
+        return label;
+    }
+
+    public void setLabel(String label) {
+        this.label = label;
+    }
+
+    public String getBaseVersion() {
+        return baseVersion;
+    }
+
+    public void setBaseVersion(String baseVersion) {
+        this.baseVersion = baseVersion;
+    }
+
+    public String getVersion() {
+        return version;
+    }
+
+    public void setVersion(String version) {
+        this.version = version;
+    }
+
+    public String getState() {
+        return state;
+    }
+
+    public void setState(String state) {
+        this.state = state;
+    }
+
+    public List<String> getPropertySources() {
+        return propertySources;
+    }
+
+    public void setPropertySources(List<String> propertySources) {
+        this.propertySources = propertySources;
+    }
+
+    public List<PropertySourceDelta> getChanges() {
+        return changes;
+    }
+
+    public void setChanges(List<PropertySourceDelta> changes) {
+        this.changes = changes;
+    }
+
+    public List<String> getRemovedSources() {
+        return removedSources;
+    }
+
+    public void setRemovedSources(List<String> removedSources) {
+        this.removedSources = removedSources;
+    }
+
+    @Override
+    public String toString() {
+        return "EnvironmentDelta{" +
+                "name='" + name + '\'' +
+                ", label='" + label + '\'' +
+                ", baseVersion='" + baseVersion + '\'' +
+                ", version='" + version + '\'' +
+                ", changes=" + changes +
+                ", removedSources=" + removedSources +
+                '}';
+    }
+}
@@ -0,0 +1,46 @@
+package com.springcloud.config.server.delta;
+
+import org.springframework.cloud.config.environment.Environment;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+/**
+ * 增量拉取：返回客户端持有版本（since）到label最新版本之间变化的key。
+ * 版本未变化返回304，仓库不认识该版本时返回404，客户端改为全量拉取
+ */
+@RestController
+@RequestMapping(method = RequestMethod.GET, path = "${spring.cloud.config.server.prefix:}/delta")
+public class EnvironmentDeltaController {
+
+    private final EnvironmentDeltaService deltaService;
+
+    public EnvironmentDeltaController(EnvironmentDeltaService deltaService) {
+        this.deltaService = deltaService;
+    }
+
+    @RequestMapping(path = "/{name}/{profiles}", produces = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<EnvironmentDelta> delta(@PathVariable String name, @PathVariable String profiles,
+                                                  @RequestParam String since) {
+        return delta(name, profiles, null, since);
+    }
+
+    @RequestMapping(path = "/{name}/{profiles}/{label}", produces = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<EnvironmentDelta> delta(@PathVariable String name, @PathVariable String profiles,
+                                                  @PathVariable String label, @RequestParam String since) {
+        if (label != null && label.contains("(_)")) {
+            // 与EnvironmentController一致，路径中的"/"以"(_)"代替
+            label = label.replace("(_)", "/");
+        }
+        Environment current = deltaService.current(name, profiles, label);
+        if (since.equals(current.getVersion())) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).build();
+        }
+        Environment base = deltaService.find(name, profiles, since);
+        if (base == null) {
+            return ResponseEntity.notFound().build();
+        }
+        return ResponseEntity.ok(EnvironmentDeltaService.diff(base, current));
+    }
+}
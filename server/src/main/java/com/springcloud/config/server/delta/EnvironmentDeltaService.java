@@ -0,0 +1,122 @@
+package com.springcloud.config.server.delta;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.cloud.config.environment.Environment;
+import org.springframework.cloud.config.environment.PropertySource;
+import org.springframework.cloud.config.server.environment.EnvironmentRepository;
+import org.springframework.cloud.config.server.environment.NoSuchLabelException;
+
+import java.util.*;
+
+/**
+ * 计算客户端持有版本到最新版本的配置差异。按版本缓存最近用到的Environment，
+ * 客户端大多以上一次的最新版本为基准，命中缓存时无需再检出历史提交
+ */
+public class EnvironmentDeltaService {
+
+    private static final Logger logger = LoggerFactory.getLogger(EnvironmentDeltaService.class);
+
+    private final EnvironmentRepository repository;
+
+    private final Map<String, Environment> cache;
+
+    public EnvironmentDeltaService(EnvironmentRepository repository, int cacheSize) {
+        this.repository = repository;
+        int capacity = Math.max(1, cacheSize);
+        this.cache = Collections.synchronizedMap(new LinkedHashMap<String, Environment>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Environment> eldest) {
+                return size() > capacity;
+            }
+        });
+    }
+
+    /**
+     * 拉取label当前的配置并按版本缓存
+     */
+    public Environment current(String name, String profile, String label) {
+        Environment environment = repository.findOne(name, profile, label);
+        if (environment.getVersion() != null) {
+            cache.put(cacheKey(name, profile, environment.getVersion()), environment);
+        }
+        return environment;
+    }
+
+    /**
+     * 按版本号（git commit id）查找历史配置，仓库不认识该版本时返回null
+     */
+    public Environment find(String name, String profile, String version) {
+        String key = cacheKey(name, profile, version);
+        Environment environment = cache.get(key);
+        if (environment != null) {
+            return environment;
+        }
+        try {
+            environment = repository.findOne(name, profile, version);
+        } catch (NoSuchLabelException e) {
+            logger.debug("unknown base version {} for {}/{}", version, name, profile);
+            return null;
+        } catch (IllegalStateException e) {
+            // JGit仓库中不存在形如commit id的label时抛出IllegalStateException而非NoSuchLabelException
+            logger.debug("cannot load base version {} for {}/{}: {}", version, name, profile, e.getMessage());
+            return null;
+        }
+        // 不支持按版本检出的仓库会忽略label，返回的版本与请求的不一致
+        if (environment == null || !version.equals(environment.getVersion())) {
+            return null;
+        }
+        cache.put(key, environment);
+        return environment;
+    }
+
+    /**
+     * 逐文件、逐key比较两个版本
+     */
+    public static EnvironmentDelta diff(Environment base, Environment current) {
+        EnvironmentDelta delta = new EnvironmentDelta();
+        delta.setName(current.getName());
+        delta.setProfiles(current.getProfiles());
+        delta.setLabel(current.getLabel());
+        delta.setBaseVersion(base.getVersion());
+        delta.setVersion(current.getVersion());
+        delta.setState(current.getState());
+
+        Map<String, Map<?, ?>> baseSources = new HashMap<>();
+        for (PropertySource source : base.getPropertySources()) {
+            baseSources.put(source.getName(), source.getSource());
+        }
+        for (PropertySource source : current.getPropertySources()) {
+            delta.getPropertySources().add(source.getName());
+            Map<?, ?> before = baseSources.remove(source.getName());
+            PropertySourceDelta sourceDelta = diff(source.getName(), before, source.getSource());
+            if (sourceDelta.hasChanges()) {
+                delta.getChanges().add(sourceDelta);
+            }
+        }
+        delta.getRemovedSources().addAll(baseSources.keySet());
+        return delta;
+    }
+
+    private static PropertySourceDelta diff(String name, Map<?, ?> before, Map<?, ?> after) {
+        PropertySourceDelta delta = new PropertySourceDelta(name, before == null);
+        for (Map.Entry<?, ?> entry : after.entrySet()) {
+            Object key = entry.getKey();
+            if (before == null || !Objects.equals(before.get(key), entry.getValue()) || !before.containsKey(key)) {
+                delta.getChanged().put(key.toString(), entry.getValue());
+            }
+        }
+        if (before != null) {
+            for (Object key : before.keySet()) {
+                if (!after.containsKey(key)) {
+                    delta.getRemoved().add(key.toString());
+                }
+            }
+        }
+        return delta;
+    }
+
+    private static String cacheKey(String name, String profile, String version) {
+        return name + "/" + profile + "/" + version;
+    }
+}
@@ -0,0 +1,45 @@
+package com.springcloud.config.server.delta;
+
+import org.springframework.cloud.config.environment.Environment;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.async.DeferredResult;
+
+/**
+ * 长轮询拉取：请求头X-Config-Version为客户端持有的版本，与最新版本一致时挂起到版本变化或
+ * X-Config-Long-Poll-Timeout毫秒后返回304，否则立即返回完整配置
+ */
+@RestController
+@RequestMapping(method = RequestMethod.GET, path = "${spring.cloud.config.server.prefix:}/poll")
+public class EnvironmentLongPollController {
+
+    static final String VERSION_HEADER = "X-Config-Version";
+
+    static final String TIMEOUT_HEADER = "X-Config-Long-Poll-Timeout";
+
+    private final EnvironmentLongPollService longPollService;
+
+    public EnvironmentLongPollController(EnvironmentLongPollService longPollService) {
+        this.longPollService = longPollService;
+    }
+
+    @RequestMapping(path = "/{name}/{profiles}", produces = MediaType.APPLICATION_JSON_VALUE)
+    public DeferredResult<ResponseEntity<Environment>> poll(@PathVariable String name, @PathVariable String profiles,
+                                                            @RequestHeader(name = VERSION_HEADER, required = false) String version,
+                                                            @RequestHeader(name = TIMEOUT_HEADER, defaultValue = "0") long timeout) {
+        return poll(name, profiles, null, version, timeout);
+    }
+
+    @RequestMapping(path = "/{name}/{profiles}/{label}", produces = MediaType.APPLICATION_JSON_VALUE)
+    public DeferredResult<ResponseEntity<Environment>> poll(@PathVariable String name, @PathVariable String profiles,
+                                                            @PathVariable String label,
+                                                            @RequestHeader(name = VERSION_HEADER, required = false) String version,
+                                                            @RequestHeader(name = TIMEOUT_HEADER, defaultValue = "0") long timeout) {
+        if (label != null && label.contains("(_)")) {
+            // 与EnvironmentController一致，路径中的"/"以"(_)"代替
+            label = label.replace("(_)", "/");
+        }
+        return longPollService.poll(name, profiles, label, version, timeout);
+    }
+}
@@ -0,0 +1,173 @@
+package com.springcloud.config.server.delta;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.cloud.config.environment.Environment;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.context.request.async.DeferredResult;
+
+import java.util.Map;
+import java.util.Objects;
+import java.util.Queue;
+import java.util.concurrent.*;
+
+/**
+ * 长轮询：客户端持有的版本就是最新版本时挂起请求，定期检查仓库版本，版本变化时返回最新配置，超时返回304。
+ * 每个(name, profile, label)每个周期只检查一次，与挂起的请求数无关
+ */
+public class EnvironmentLongPollService {
+
+    private static final Logger logger = LoggerFactory.getLogger(EnvironmentLongPollService.class);
+
+    private final EnvironmentDeltaService deltaService;
+
+    private final long maxTimeout;
+
+    private final ScheduledExecutorService executor;
+
+    /**
+     * name/profile/label -> 挂起的请求
+     */
+    private final Map<Target, Queue<Waiter>> waiters = new ConcurrentHashMap<>();
+
+    public EnvironmentLongPollService(EnvironmentDeltaService deltaService, long watchInterval, long maxTimeout) {
+        this.deltaService = deltaService;
+        this.maxTimeout = maxTimeout;
+        this.executor = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "config-server-long-poll");
+            thread.setDaemon(true);
+            return thread;
+        });
+        executor.scheduleWithFixedDelay(this::safeCheck, watchInterval, Math.max(1L, watchInterval), TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * @param version 客户端持有的版本，为空或与最新版本不同时立即返回
+     * @param timeout 客户端要求的最长挂起时间（毫秒），不超过max-timeout
+     */
+    public DeferredResult<ResponseEntity<Environment>> poll(String name, String profile, String label, String version,
+                                                            long timeout) {
+        long hold = Math.max(0L, Math.min(timeout, maxTimeout));
+        DeferredResult<ResponseEntity<Environment>> result = new DeferredResult<>(hold,
+                ResponseEntity.status(HttpStatus.NOT_MODIFIED).build());
+        Environment current = deltaService.current(name, profile, label);
+        if (version == null || !version.equals(current.getVersion())) {
+            result.setResult(ResponseEntity.ok(current));
+            return result;
+        }
+        if (hold == 0) {
+            result.setResult(ResponseEntity.status(HttpStatus.NOT_MODIFIED).build());
+            return result;
+        }
+        Target target = new Target(name, profile, label);
+        Waiter waiter = new Waiter(version, result);
+        waiters.computeIfAbsent(target, it -> new ConcurrentLinkedQueue<>()).add(waiter);
+        result.onCompletion(() -> remove(target, waiter));
+        return result;
+    }
+
+    /**
+     * 当前挂起的请求数
+     */
+    public int getWaiterCount() {
+        int count = 0;
+        for (Queue<Waiter> queue : waiters.values()) {
+            count += queue.size();
+        }
+        return count;
+    }
+
+    private void remove(Target target, Waiter waiter) {
+        Queue<Waiter> queue = waiters.get(target);
+        if (queue != null) {
+            queue.remove(waiter);
+            if (queue.isEmpty()) {
+                waiters.remove(target, queue);
+            }
+        }
+    }
+
+    private void safeCheck() {
+        try {
+            check();
+        } catch (Throwable t) {
+            logger.warn("check long poll targets error", t);
+        }
+    }
+
+    void check() {
+        for (Map.Entry<Target, Queue<Waiter>> entry : waiters.entrySet()) {
+            Target target = entry.getKey();
+            Environment current;
+            try {
+                current = deltaService.current(target.name, target.profile, target.label);
+            } catch (RuntimeException e) {
+                logger.warn("check long poll target error:{}/{}/{}", target.name, target.profile, target.label, e);
+                continue;
+            }
+            if (current.getVersion() == null) {
+                continue;
+            }
+            for (Waiter waiter : entry.getValue()) {
+                if (!current.getVersion().equals(waiter.version)) {
+                    waiter.result.setResult(ResponseEntity.ok(current));
+                }
+            }
+        }
+    }
+
+    public void destroy() {
+        executor.shutdownNow();
+        for (Queue<Waiter> queue : waiters.values()) {
+            for (Waiter waiter : queue) {
+                waiter.result.setResult(ResponseEntity.status(HttpStatus.NOT_MODIFIED).build());
+            }
+        }
+        waiters.clear();
+    }
+
+    private static final class Waiter {
+
+        private final String version;
+
+        private final DeferredResult<ResponseEntity<Environment>> result;
+
+        Waiter(String version, DeferredResult<ResponseEntity<Environment>> result) {
+            this.version = version;
+            this.result = result;
+        }
+    }
+
+    private static final class Target {
+
+        private final String name;
+
+        private final String profile;
+
+        private final String label;
+
+        Target(String name, String profile, String label) {
+            this.name = name;
+            this.profile = profile;
+            this.label = label;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof Target)) {
+                return false;
+            }
+            Target that = (Target) o;
+            return name.equals(that.name) && profile.equals(that.profile) && Objects.equals(label, that.label);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(name, profile, label);
+        }
+    }
+}
@@ -0,0 +1,50 @@
+package com.springcloud.config.server.delta;
+
+import org.springframework.cloud.config.environment.Environment;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+
+/**
+ * 按配置文件拉取：返回label最新版本的配置文件清单与各文件的内容摘要，
+ * 客户端通过known上报已持有的摘要，只下发摘要变化的文件内容。版本与since一致时返回304
+ */
+@RestController
+@RequestMapping(method = RequestMethod.GET, path = "${spring.cloud.config.server.prefix:}/manifest")
+public class EnvironmentManifestController {
+
+    private final EnvironmentManifestService manifestService;
+
+    public EnvironmentManifestController(EnvironmentManifestService manifestService) {
+        this.manifestService = manifestService;
+    }
+
+    @RequestMapping(path = "/{name}/{profiles}", produces = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<EnvironmentManifest> manifest(@PathVariable String name, @PathVariable String profiles,
+                                                        @RequestParam(required = false) String since,
+                                                        @RequestParam(required = false) List<String> known) {
+        return manifest(name, profiles, null, since, known);
+    }
+
+    @RequestMapping(path = "/{name}/{profiles}/{label}", produces = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<EnvironmentManifest> manifest(@PathVariable String name, @PathVariable String profiles,
+                                                        @PathVariable String label,
+                                                        @RequestParam(required = false) String since,
+                                                        @RequestParam(required = false) List<String> known) {
+        if (label != null && label.contains("(_)")) {
+            // 与EnvironmentController一致，路径中的"/"以"(_)"代替
+            label = label.replace("(_)", "/");
+        }
+        Environment current = manifestService.current(name, profiles, label);
+        if (since != null && since.equals(current.getVersion())) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).build();
+        }
+        return ResponseEntity.ok(manifestService.manifest(current,
+                known == null ? Collections.emptySet() : new HashSet<>(known)));
+    }
+}
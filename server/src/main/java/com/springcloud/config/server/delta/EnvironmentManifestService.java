@@ -0,0 +1,90 @@
+package com.springcloud.config.server.delta;
+
+import org.springframework.cloud.config.environment.Environment;
+import org.springframework.cloud.config.environment.PropertySource;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 生成配置文件清单：逐文件计算内容摘要，客户端已持有的摘要不再下发内容。
+ * 摘要按版本缓存，同一版本的大文件只计算一次
+ */
+public class EnvironmentManifestService {
+
+    private static final char[] HEX = "0123456789abcdef".toCharArray();
+
+    private final EnvironmentDeltaService deltaService;
+
+    private final Map<String, Map<String, String>> cache;
+
+    public EnvironmentManifestService(EnvironmentDeltaService deltaService, int cacheSize) {
+        this.deltaService = deltaService;
+        int capacity = Math.max(1, cacheSize);
+        this.cache = Collections.synchronizedMap(new LinkedHashMap<String, Map<String, String>>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Map<String, String>> eldest) {
+                return size() > capacity;
+            }
+        });
+    }
+
+    public Environment current(String name, String profile, String label) {
+        return deltaService.current(name, profile, label);
+    }
+
+    /**
+     * @param known 客户端已持有的摘要
+     */
+    public EnvironmentManifest manifest(Environment current, Collection<String> known) {
+        EnvironmentManifest manifest = new EnvironmentManifest();
+        manifest.setName(current.getName());
+        manifest.setProfiles(current.getProfiles());
+        manifest.setLabel(current.getLabel());
+        manifest.setVersion(current.getVersion());
+        manifest.setState(current.getState());
+
+        Map<String, String> digests = current.getVersion() == null ? new HashMap<>()
+                : cache.computeIfAbsent(current.getName() + "/" + Arrays.toString(current.getProfiles()) + "/" + current.getVersion(),
+                it -> new ConcurrentHashMap<>());
+        for (PropertySource source : current.getPropertySources()) {
+            String digest = digests.computeIfAbsent(source.getName(), it -> digest(source.getSource()));
+            manifest.getPropertySources().add(new ManifestSource(source.getName(), digest,
+                    known.contains(digest) ? null : source.getSource()));
+        }
+        return manifest;
+    }
+
+    /**
+     * 按key的顺序计算MD5，顺序不同视为内容不同，只会多下载一次
+     */
+    static String digest(Map<?, ?> source) {
+        MessageDigest md5;
+        try {
+            md5 = MessageDigest.getInstance("MD5");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+        for (Map.Entry<?, ?> entry : source.entrySet()) {
+            update(md5, String.valueOf(entry.getKey()));
+            Object value = entry.getValue();
+            // 文本相同而类型不同的值（1与"1"）视为不同内容
+            update(md5, value == null ? "" : value.getClass().getName() + ':' + value);
+        }
+        byte[] bytes = md5.digest();
+        char[] chars = new char[bytes.length * 2];
+        for (int i = 0; i < bytes.length; i++) {
+            chars[i * 2] = HEX[(bytes[i] >> 4) & 0xf];
+            chars[i * 2 + 1] = HEX[bytes[i] & 0xf];
+        }
+        return new String(chars);
+    }
+
+    private static void update(MessageDigest md5, String value) {
+        md5.update(value.getBytes(StandardCharsets.UTF_8));
+        md5.update((byte) 0);
+    }
+}
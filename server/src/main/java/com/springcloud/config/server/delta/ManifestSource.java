@@ -0,0 +1,60 @@
+package com.springcloud.config.server.delta;
+
+import java.util.Map;
+
+/**
+ * 配置文件清单中的一项：文件名、内容摘要，客户端未持有该摘要时附带完整内容
+ */
+public class ManifestSource {
+
+    private String name;
+
+    private String digest;
+
+    /**
+     * 完整内容，客户端已持有同一摘要的内容时为null
+     */
+    private Map<?, ?> source;
+
+    public ManifestSource() {
+    }
+
+    public ManifestSource(String name, String digest, Map<?, ?> source) {
+        this.name = name;
+        this.digest = digest;
+        this.source = source;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public void setName(String name) {
+        this.name = name;
+    }
+
+    public String getDigest() {
+        return digest;
+    }
+
+    public void setDigest(String digest) {
+        this.digest = digest;
+    }
+
+    public Map<?, ?> getSource() {
+        return source;
+    }
+
+    public void setSource(Map<?, ?> source) {
+        this.source = source;
+    }
+
+    @Override
+    public String toString() {
+        return "ManifestSource{" +
+                "name='" + name + '\'' +
+                ", digest='" + digest + '\'' +
+                ", source=" + (source == null ? "omitted" : String.valueOf(source.size())) +
+                '}';
+    }
+}
@@ -0,0 +1,83 @@
+package com.springcloud.config.server.delta;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 单个配置文件在两个版本间的差异
+ */
+public class PropertySourceDelta {
+
+    private String name;
+
+    /**
+     * 基准版本中不存在该文件，changed即完整内容
+     */
+    private boolean created;
+
+    /**
+     * 新增或修改的key
+     */
+    private Map<String, Object> changed = new LinkedHashMap<>();
+
+    /**
+     * 删除的key
+     */
+    private List<String> removed = new ArrayList<>();
+
+    public PropertySourceDelta() {
+    }
+
+    public PropertySourceDelta(String name, boolean created) {
+        this.name = name;
+        this.created = created;
+    }
+
+    public boolean hasChanges() {
+        return created || !changed.isEmpty() || !removed.isEmpty();
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public void setName(String name) {
+        this.name = name;
+    }
+
+    public boolean isCreated() {
+        return created;
+    }
+
+    public void setCreated(boolean created) {
+        this.created = created;
+    }
+
+    public Map<String, Object> getChanged() {
+        return changed;
+    }
+
+    public void setChanged(Map<String, Object> changed) {
+        this.changed = changed;
+    }
+
+    public List<String> getRemoved() {
+        return removed;
+    }
+
+    public void setRemoved(List<String> removed) {
+        this.removed = removed;
+    }
+
+    @Override
+    public String toString() {
+        return "PropertySourceDelta{" +
+                "name='" + name + '\'' +
+                ", created=" + created +
+                ", changed=" + changed.size() +
+                ", removed=" + removed.size() +
+                '}';
+    }
+}
@@ -0,0 +1,80 @@
+package com.springcloud.config.server.push;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * 一次配置版本变化通知
+ */
+public final class ChangeNotification {
+
+    private final String id;
+
+    private final String application;
+
+    private final String profile;
+
+    private final String label;
+
+    private final String version;
+
+    ChangeNotification(String id, String application, String profile, String label, String version) {
+        this.id = id;
+        this.application = application;
+        this.profile = profile;
+        this.label = label;
+        this.version = version;
+    }
+
+    /**
+     * 订阅的key：{application}/{profile}/{label}，label中的"/"以"(_)"代替，与客户端订阅参数一致
+     */
+    public static String target(String application, String profile, String label) {
+        return application + "/" + profile + "/" + (label == null ? "" : label.replace("/", "(_)"));
+    }
+
+    public String getTarget() {
+        return target(application, profile, label);
+    }
+
+    /**
+     * 推送给客户端的事件内容
+     */
+    Map<String, String> toData() {
+        Map<String, String> data = new LinkedHashMap<>(8);
+        data.put("application", application);
+        data.put("profile", profile);
+        data.put("label", label);
+        data.put("version", version);
+        return data;
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public String getApplication() {
+        return application;
+    }
+
+    public String getProfile() {
+        return profile;
+    }
+
+    public String getLabel() {
+        return label;
+    }
+
+    public String getVersion() {
+        return version;
+    }
+
+    @Override
+    public String toString() {
+        return "ChangeNotification{" +
+                "id='" + id + '\'' +
+                ", target='" + getTarget() + '\'' +
+                ", version='" + version + '\'' +
+                '}';
+    }
+}
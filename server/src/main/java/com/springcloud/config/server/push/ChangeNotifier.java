@@ -0,0 +1,205 @@
+package com.springcloud.config.server.push;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.MediaType;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.*;
+import java.util.concurrent.CopyOnWriteArraySet;
+
+/**
+ * SSE推送：维护订阅者与最近的通知，断线重连时按Last-Event-ID补发错过的通知。
+ * 不依赖配置仓库，可直接调用{@link #publish}在进程内模拟推送
+ */
+public class ChangeNotifier {
+
+    private static final Logger logger = LoggerFactory.getLogger(ChangeNotifier.class);
+
+    static final String CHANGE_EVENT = "change";
+
+    /**
+     * 无法补发（通知已淘汰或服务端已重启）时通知客户端全量拉取一次
+     */
+    static final String RESYNC_EVENT = "resync";
+
+    /**
+     * 订阅建立后发送，携带当前事件id，客户端断线重连时以此续传
+     */
+    static final String CONNECTED_EVENT = "connected";
+
+    /**
+     * 事件id为{epoch}-{seq}，服务端重启后epoch变化，旧id一律视为无法补发
+     */
+    private final String epoch = Long.toString(System.currentTimeMillis(), 36);
+
+    private final int historySize;
+
+    private final long emitterTimeout;
+
+    private final Deque<ChangeNotification> history = new ArrayDeque<>();
+
+    private final Set<Subscription> subscriptions = new CopyOnWriteArraySet<>();
+
+    private long sequence;
+
+    public ChangeNotifier(int historySize, long emitterTimeout) {
+        this.historySize = Math.max(1, historySize);
+        this.emitterTimeout = emitterTimeout;
+    }
+
+    /**
+     * 订阅一组target，lastEventId不为空时先补发之后的通知
+     */
+    public synchronized SseEmitter subscribe(Collection<String> targets, String lastEventId) {
+        SseEmitter emitter = newEmitter(emitterTimeout);
+        Subscription subscription = new Subscription(new HashSet<>(targets), emitter);
+        emitter.onCompletion(() -> subscriptions.remove(subscription));
+        emitter.onTimeout(() -> {
+            // 正常结束，客户端携带Last-Event-ID重连
+            subscriptions.remove(subscription);
+            emitter.complete();
+        });
+        emitter.onError(e -> subscriptions.remove(subscription));
+
+        if (lastEventId != null && !lastEventId.isEmpty()) {
+            long lastSequence = sequenceOf(lastEventId);
+            ChangeNotification oldest = history.peekFirst();
+            if (lastSequence < 0 || (oldest != null && sequenceOf(oldest.getId()) > lastSequence + 1)) {
+                subscription.sendResync();
+            } else {
+                for (ChangeNotification notification : history) {
+                    if (sequenceOf(notification.getId()) > lastSequence) {
+                        subscription.send(notification);
+                    }
+                }
+            }
+        }
+        subscription.sendConnected(epoch + "-" + sequence);
+        if (!subscription.closed) {
+            subscriptions.add(subscription);
+        }
+        return emitter;
+    }
+
+    /**
+     * 发布一次版本变化：加锁内只记录通知并取出订阅者，发送在锁外进行，单个慢连接不阻塞其他发布与订阅
+     */
+    public ChangeNotification publish(String application, String profile, String label, String version) {
+        ChangeNotification notification;
+        List<Subscription> receivers = new ArrayList<>();
+        synchronized (this) {
+            notification = new ChangeNotification(epoch + "-" + (++sequence), application, profile, label, version);
+            history.addLast(notification);
+            if (history.size() > historySize) {
+                history.removeFirst();
+            }
+            String target = notification.getTarget();
+            for (Subscription subscription : subscriptions) {
+                if (subscription.targets.contains(target)) {
+                    receivers.add(subscription);
+                }
+            }
+        }
+        for (Subscription subscription : receivers) {
+            subscription.send(notification);
+        }
+        logger.info("publish config change:{}, subscribers:{}", notification, receivers.size());
+        return notification;
+    }
+
+    /**
+     * 发送注释行保持连接，及时清理已断开的订阅
+     */
+    public void heartbeat() {
+        for (Subscription subscription : subscriptions) {
+            subscription.heartbeat();
+        }
+    }
+
+    /**
+     * 当前所有订阅者关注的target
+     */
+    public Set<String> getTargets() {
+        Set<String> targets = new HashSet<>();
+        for (Subscription subscription : subscriptions) {
+            targets.addAll(subscription.targets);
+        }
+        return targets;
+    }
+
+    public int getSubscriberCount() {
+        return subscriptions.size();
+    }
+
+    public void close() {
+        for (Subscription subscription : subscriptions) {
+            subscription.emitter.complete();
+        }
+        subscriptions.clear();
+    }
+
+    SseEmitter newEmitter(long timeout) {
+        return new SseEmitter(timeout);
+    }
+
+    /**
+     * @return 序号，非本次启动产生的id返回-1
+     */
+    private long sequenceOf(String eventId) {
+        int dash = eventId.lastIndexOf('-');
+        if (dash <= 0 || !epoch.equals(eventId.substring(0, dash))) {
+            return -1;
+        }
+        try {
+            return Long.parseLong(eventId.substring(dash + 1));
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+
+    private final class Subscription {
+
+        private final Set<String> targets;
+
+        private final SseEmitter emitter;
+
+        private volatile boolean closed;
+
+        Subscription(Set<String> targets, SseEmitter emitter) {
+            this.targets = targets;
+            this.emitter = emitter;
+        }
+
+        void send(ChangeNotification notification) {
+            send(SseEmitter.event().id(notification.getId()).name(CHANGE_EVENT)
+                    .data(notification.toData(), MediaType.APPLICATION_JSON));
+        }
+
+        void sendResync() {
+            send(SseEmitter.event().name(RESYNC_EVENT).data(""));
+        }
+
+        void sendConnected(String eventId) {
+            send(SseEmitter.event().id(eventId).name(CONNECTED_EVENT).data(""));
+        }
+
+        void heartbeat() {
+            send(SseEmitter.event().comment(""));
+        }
+
+        private void send(SseEmitter.SseEventBuilder event) {
+            if (closed) {
+                return;
+            }
+            try {
+                emitter.send(event);
+            } catch (IOException | IllegalStateException e) {
+                closed = true;
+                subscriptions.remove(this);
+                emitter.completeWithError(e);
+            }
+        }
+    }
+}
@@ -0,0 +1,72 @@
+package com.springcloud.config.server.push;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.util.Arrays;
+
+/**
+ * 配置变更推送：客户端以SSE订阅一组target（{application}/{profile}/{label}，label中的"/"以"(_)"代替），
+ * 重连时携带Last-Event-ID续传
+ */
+@RestController
+@RequestMapping(path = "${spring.cloud.config.server.prefix:}/push")
+public class ChangePushController {
+
+    /**
+     * 调用/push/refresh时携带的令牌
+     */
+    static final String TOKEN_HEADER = "X-Push-Token";
+
+    private final ChangeNotifier notifier;
+
+    private final RepositoryWatcher watcher;
+
+    /**
+     * 为空时拒绝所有/push/refresh调用
+     */
+    private final String refreshToken;
+
+    public ChangePushController(ChangeNotifier notifier, RepositoryWatcher watcher, String refreshToken) {
+        this.notifier = notifier;
+        this.watcher = watcher;
+        this.refreshToken = refreshToken;
+    }
+
+    @GetMapping(path = "/subscribe", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public ResponseEntity<SseEmitter> subscribe(WebRequest request,
+                                                @RequestHeader(name = "Last-Event-ID", required = false) String lastEventId) {
+        // 按参数逐个取值，不按逗号拆分，label中可以包含逗号
+        String[] targets = request.getParameterValues("target");
+        if (targets == null || targets.length == 0) {
+            return ResponseEntity.badRequest().build();
+        }
+        return ResponseEntity.ok(notifier.subscribe(Arrays.asList(targets), lastEventId));
+    }
+
+    /**
+     * 供git webhook调用，立即检查仓库版本；需在请求头X-Push-Token中携带refresh-token
+     */
+    @PostMapping(path = "/refresh")
+    public ResponseEntity<Void> refresh(@RequestHeader(name = TOKEN_HEADER, required = false) String token) {
+        if (!authorized(token)) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
+        }
+        watcher.checkNow();
+        return ResponseEntity.status(HttpStatus.ACCEPTED).build();
+    }
+
+    private boolean authorized(String token) {
+        if (refreshToken == null || refreshToken.isEmpty() || token == null) {
+            return false;
+        }
+        // 定长比较，不从耗时泄露令牌
+        return MessageDigest.isEqual(refreshToken.getBytes(StandardCharsets.UTF_8), token.getBytes(StandardCharsets.UTF_8));
+    }
+}
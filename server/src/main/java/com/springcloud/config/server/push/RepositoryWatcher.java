@@ -0,0 +1,94 @@
+package com.springcloud.config.server.push;
+
+import com.springcloud.config.server.delta.EnvironmentDeltaService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.cloud.config.environment.Environment;
+
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.*;
+
+/**
+ * 按订阅的target定期检查配置仓库版本，版本变化时发布通知。
+ * 每个target每个周期只检查一次，与订阅的客户端数量无关
+ */
+public class RepositoryWatcher {
+
+    private static final Logger logger = LoggerFactory.getLogger(RepositoryWatcher.class);
+
+    private final EnvironmentDeltaService deltaService;
+
+    private final ChangeNotifier notifier;
+
+    private final ScheduledExecutorService executor;
+
+    /**
+     * 各target上次检查到的版本
+     */
+    private final Map<String, String> versions = new ConcurrentHashMap<>();
+
+    public RepositoryWatcher(EnvironmentDeltaService deltaService, ChangeNotifier notifier, long watchInterval,
+                             long heartbeatInterval) {
+        this.deltaService = deltaService;
+        this.notifier = notifier;
+        this.executor = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "config-server-push-watcher");
+            thread.setDaemon(true);
+            return thread;
+        });
+        if (watchInterval > 0) {
+            executor.scheduleWithFixedDelay(this::safeCheck, watchInterval, watchInterval, TimeUnit.MILLISECONDS);
+        }
+        if (heartbeatInterval > 0) {
+            executor.scheduleWithFixedDelay(notifier::heartbeat, heartbeatInterval, heartbeatInterval, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    /**
+     * 立即检查一次，供git webhook调用
+     */
+    public void checkNow() {
+        executor.execute(this::safeCheck);
+    }
+
+    private void safeCheck() {
+        try {
+            check();
+        } catch (Throwable t) {
+            logger.warn("check config repository error", t);
+        }
+    }
+
+    void check() {
+        Set<String> targets = notifier.getTargets();
+        versions.keySet().retainAll(targets);
+        for (String target : targets) {
+            String[] parts = target.split("/", 3);
+            if (parts.length < 3) {
+                continue;
+            }
+            String label = parts[2].isEmpty() ? null : parts[2].replace("(_)", "/");
+            Environment environment;
+            try {
+                environment = deltaService.current(parts[0], parts[1], label);
+            } catch (RuntimeException e) {
+                logger.warn("check config target error:{}", target, e);
+                continue;
+            }
+            String version = environment.getVersion();
+            if (version == null) {
+                continue;
+            }
+            String previous = versions.put(target, version);
+            if (previous != null && !previous.equals(version)) {
+                notifier.publish(parts[0], parts[1], label == null ? "" : label, version);
+            }
+        }
+    }
+
+    public void destroy() {
+        executor.shutdownNow();
+        notifier.close();
+    }
+}
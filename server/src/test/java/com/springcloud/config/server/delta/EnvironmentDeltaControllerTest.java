@@ -0,0 +1,128 @@
+package com.springcloud.config.server.delta;
+
+import org.eclipse.jgit.api.Git;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.springframework.cloud.config.server.environment.JGitEnvironmentProperties;
+import org.springframework.cloud.config.server.environment.JGitEnvironmentRepository;
+import org.springframework.core.env.StandardEnvironment;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.Assert.*;
+
+/**
+ * 以本地git仓库为后端，按真实的commit id计算增量
+ */
+public class EnvironmentDeltaControllerTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private Git git;
+
+    private File repository;
+
+    private EnvironmentDeltaController controller;
+
+    @Before
+    public void setUp() throws Exception {
+        repository = folder.newFolder("repo");
+        git = Git.init().setDirectory(repository).call();
+        JGitEnvironmentProperties properties = new JGitEnvironmentProperties();
+        // 以本地路径作为uri时clone到basedir，不在原目录上checkout
+        properties.setUri(repository.getAbsolutePath());
+        properties.setBasedir(folder.newFolder("clone"));
+        JGitEnvironmentRepository jgit = new JGitEnvironmentRepository(new StandardEnvironment(), properties);
+        jgit.afterPropertiesSet();
+        controller = new EnvironmentDeltaController(new EnvironmentDeltaService(jgit, 16));
+    }
+
+    @After
+    public void tearDown() {
+        git.close();
+    }
+
+    @Test
+    public void changedAddedAndRemovedKeys() throws Exception {
+        String base = commit("app.yml", "a: 1\nb: 2\n");
+        String head = commit("app.yml", "a: 10\nc: 3\n");
+
+        ResponseEntity<EnvironmentDelta> response = controller.delta("app", "default", "master", base);
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        EnvironmentDelta delta = response.getBody();
+        assertEquals(base, delta.getBaseVersion());
+        assertEquals(head, delta.getVersion());
+        assertEquals(1, delta.getChanges().size());
+        PropertySourceDelta source = delta.getChanges().get(0);
+        assertTrue(source.getName().endsWith("app.yml"));
+        assertFalse(source.isCreated());
+        Map<String, Object> changed = new HashMap<>();
+        changed.put("a", 10);
+        changed.put("c", 3);
+        assertEquals(changed, source.getChanged());
+        assertEquals(Collections.singletonList("b"), source.getRemoved());
+        assertTrue(delta.getRemovedSources().isEmpty());
+    }
+
+    @Test
+    public void createdAndRemovedSources() throws Exception {
+        commit("app.yml", "a: 1\n");
+        String withoutShared = commit("app.yml", "a: 1\n");
+        String withShared = commit("application.yml", "shared: true\n");
+
+        EnvironmentDelta created = controller.delta("app", "default", "master", withoutShared).getBody();
+        assertEquals(1, created.getChanges().size());
+        PropertySourceDelta source = created.getChanges().get(0);
+        assertTrue(source.getName().endsWith("application.yml"));
+        assertTrue(source.isCreated());
+        assertEquals(Collections.singletonMap("shared", true), source.getChanged());
+        assertEquals(2, created.getPropertySources().size());
+
+        git.rm().addFilepattern("application.yml").call();
+        git.commit().setMessage("remove application.yml").call();
+
+        EnvironmentDelta removed = controller.delta("app", "default", "master", withShared).getBody();
+        assertTrue(removed.getChanges().isEmpty());
+        assertEquals(1, removed.getRemovedSources().size());
+        assertTrue(removed.getRemovedSources().get(0).endsWith("application.yml"));
+    }
+
+    @Test
+    public void unknownBaseVersionIsNotFound() throws Exception {
+        commit("app.yml", "a: 1\n");
+
+        ResponseEntity<EnvironmentDelta> response = controller.delta("app", "default", "master",
+                "0123456789abcdef0123456789abcdef01234567");
+
+        assertEquals(HttpStatus.NOT_FOUND, response.getStatusCode());
+    }
+
+    @Test
+    public void unchangedVersionIsNotModified() throws Exception {
+        String head = commit("app.yml", "a: 1\n");
+
+        ResponseEntity<EnvironmentDelta> response = controller.delta("app", "default", "master", head);
+
+        assertEquals(HttpStatus.NOT_MODIFIED, response.getStatusCode());
+        assertNull(response.getBody());
+    }
+
+    private String commit(String file, String content) throws Exception {
+        Files.write(new File(repository, file).toPath(), content.getBytes(StandardCharsets.UTF_8));
+        git.add().addFilepattern(file).call();
+        return git.commit().setMessage("update " + file).setAllowEmpty(true).call().getName();
+    }
+}
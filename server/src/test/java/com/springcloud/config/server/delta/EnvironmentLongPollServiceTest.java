@@ -0,0 +1,65 @@
+package com.springcloud.config.server.delta;
+
+import org.junit.After;
+import org.junit.Test;
+import org.springframework.cloud.config.environment.Environment;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.context.request.async.DeferredResult;
+
+import static org.junit.Assert.*;
+
+public class EnvironmentLongPollServiceTest {
+
+    private volatile String version = "v1";
+
+    private final EnvironmentLongPollService service = new EnvironmentLongPollService(
+            new EnvironmentDeltaService((name, profile, label) -> {
+                Environment environment = new Environment(name, profile);
+                environment.setVersion(version);
+                return environment;
+            }, 16), 60000L, 30000L);
+
+    @After
+    public void tearDown() {
+        service.destroy();
+    }
+
+    @Test
+    public void staleVersionIsAnsweredImmediately() {
+        DeferredResult<ResponseEntity<Environment>> result = service.poll("app", "default", null, "v0", 10000L);
+        assertEquals(HttpStatus.OK, status(result));
+        assertEquals(0, service.getWaiterCount());
+    }
+
+    @Test
+    public void currentVersionIsHeldUntilChange() {
+        DeferredResult<ResponseEntity<Environment>> result = service.poll("app", "default", null, "v1", 10000L);
+        assertFalse(result.hasResult());
+        assertEquals(1, service.getWaiterCount());
+
+        service.check();
+        assertFalse(result.hasResult());
+
+        version = "v2";
+        service.check();
+        assertEquals(HttpStatus.OK, status(result));
+        assertEquals("v2", ((Environment) ((ResponseEntity<?>) result.getResult()).getBody()).getVersion());
+    }
+
+    @Test
+    public void zeroTimeoutIsNotModified() {
+        assertEquals(HttpStatus.NOT_MODIFIED, status(service.poll("app", "default", null, "v1", 0L)));
+    }
+
+    @Test
+    public void destroyReleasesWaiters() {
+        DeferredResult<ResponseEntity<Environment>> result = service.poll("app", "default", null, "v1", 10000L);
+        service.destroy();
+        assertEquals(HttpStatus.NOT_MODIFIED, status(result));
+    }
+
+    private static HttpStatus status(DeferredResult<ResponseEntity<Environment>> result) {
+        return ((ResponseEntity<?>) result.getResult()).getStatusCode();
+    }
+}
@@ -0,0 +1,122 @@
+package com.springcloud.config.server.push;
+
+import org.junit.After;
+import org.junit.Test;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.*;
+
+import static org.junit.Assert.*;
+
+public class ChangeNotifierTest {
+
+    private final List<StubEmitter> emitters = new CopyOnWriteArrayList<>();
+
+    private final ChangeNotifier notifier = new ChangeNotifier(16, 60000L) {
+        @Override
+        SseEmitter newEmitter(long timeout) {
+            StubEmitter emitter = new StubEmitter();
+            emitters.add(emitter);
+            return emitter;
+        }
+    };
+
+    private final ExecutorService executor = Executors.newCachedThreadPool();
+
+    @After
+    public void tearDown() {
+        executor.shutdownNow();
+        notifier.close();
+    }
+
+    @Test
+    public void publishReachesOnlyMatchingSubscribers() {
+        notifier.subscribe(Arrays.asList("app/default/master", "other/default/master"), null);
+        notifier.subscribe(Collections.singletonList("third/default/master"), null);
+
+        notifier.publish("app", "default", "master", "v1");
+
+        assertEquals(Arrays.asList("connected", "change"), emitters.get(0).events());
+        assertEquals(Collections.singletonList("connected"), emitters.get(1).events());
+    }
+
+    @Test
+    public void reconnectReplaysMissedNotifications() {
+        List<String> targets = Collections.singletonList("app/default/master");
+        ChangeNotification first = notifier.publish("app", "default", "master", "v1");
+        notifier.publish("app", "default", "master", "v2");
+
+        notifier.subscribe(targets, first.getId());
+
+        assertEquals(Arrays.asList("change", "connected"), emitters.get(0).events());
+        assertTrue(emitters.get(0).sent.get(0).contains("v2"));
+    }
+
+    @Test
+    public void slowSubscriberDoesNotBlockOtherPublishers() throws Exception {
+        notifier.subscribe(Collections.singletonList("slow/default/master"), null);
+        notifier.subscribe(Collections.singletonList("app/default/master"), null);
+        StubEmitter slow = emitters.get(0);
+        slow.block = new CountDownLatch(1);
+
+        Future<?> blocked = executor.submit(() -> notifier.publish("slow", "default", "master", "v1"));
+        assertTrue(slow.entered.await(5, TimeUnit.SECONDS));
+
+        // 慢连接阻塞在发送中，其他发布与订阅不等待它
+        executor.submit(() -> notifier.publish("app", "default", "master", "v1")).get(5, TimeUnit.SECONDS);
+        executor.submit(() -> notifier.subscribe(Collections.singletonList("app/default/master"), null))
+                .get(5, TimeUnit.SECONDS);
+        assertEquals(Arrays.asList("connected", "change"), emitters.get(1).events());
+        assertFalse(blocked.isDone());
+
+        slow.block.countDown();
+        blocked.get(5, TimeUnit.SECONDS);
+        assertEquals(Arrays.asList("connected", "change"), slow.events());
+    }
+
+    /**
+     * 不经过servlet容器，记录发送的事件；设置block后发送change事件时阻塞
+     */
+    private static class StubEmitter extends SseEmitter {
+
+        private final List<String> sent = new CopyOnWriteArrayList<>();
+
+        private final CountDownLatch entered = new CountDownLatch(1);
+
+        private volatile CountDownLatch block;
+
+        @Override
+        public void send(SseEventBuilder builder) throws IOException {
+            StringBuilder text = new StringBuilder();
+            for (ResponseBodyEmitter.DataWithMediaType data : builder.build()) {
+                text.append(data.getData());
+            }
+            if (block != null && text.indexOf("event:change") >= 0) {
+                entered.countDown();
+                try {
+                    block.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+            sent.add(text.toString());
+        }
+
+        List<String> events() {
+            List<String> names = new ArrayList<>();
+            for (String text : sent) {
+                int start = text.indexOf("event:");
+                if (start >= 0) {
+                    names.add(text.substring(start + 6, text.indexOf('\n', start)));
+                }
+            }
+            return names;
+        }
+    }
+}
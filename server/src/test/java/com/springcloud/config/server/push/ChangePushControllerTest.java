@@ -0,0 +1,55 @@
+package com.springcloud.config.server.push;
+
+import org.junit.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.web.context.request.ServletWebRequest;
+
+import static org.junit.Assert.*;
+import static org.mockito.Mockito.*;
+
+public class ChangePushControllerTest {
+
+    private final ChangeNotifier notifier = new ChangeNotifier(16, 60000L);
+
+    private final RepositoryWatcher watcher = mock(RepositoryWatcher.class);
+
+    @Test
+    public void eachTargetParameterIsOneTarget() {
+        ChangePushController controller = new ChangePushController(notifier, watcher, null);
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        request.addParameter("target", "app/default/a,b");
+        request.addParameter("target", "other/default/master");
+
+        assertEquals(HttpStatus.OK, controller.subscribe(new ServletWebRequest(request), null).getStatusCode());
+        assertEquals(2, notifier.getTargets().size());
+        assertTrue(notifier.getTargets().contains("app/default/a,b"));
+    }
+
+    @Test
+    public void subscribeWithoutTargetIsRejected() {
+        ChangePushController controller = new ChangePushController(notifier, watcher, null);
+
+        assertEquals(HttpStatus.BAD_REQUEST, controller.subscribe(new ServletWebRequest(new MockHttpServletRequest()), null).getStatusCode());
+    }
+
+    @Test
+    public void refreshRequiresToken() {
+        ChangePushController controller = new ChangePushController(notifier, watcher, "secret");
+
+        assertEquals(HttpStatus.FORBIDDEN, controller.refresh(null).getStatusCode());
+        assertEquals(HttpStatus.FORBIDDEN, controller.refresh("wrong").getStatusCode());
+        verify(watcher, never()).checkNow();
+
+        assertEquals(HttpStatus.ACCEPTED, controller.refresh("secret").getStatusCode());
+        verify(watcher).checkNow();
+    }
+
+    @Test
+    public void refreshIsDisabledWithoutConfiguredToken() {
+        ChangePushController controller = new ChangePushController(notifier, watcher, null);
+
+        assertEquals(HttpStatus.FORBIDDEN, controller.refresh("").getStatusCode());
+        verify(watcher, never()).checkNow();
+    }
+}